@@ -0,0 +1,191 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.dailycodebuffer.codebufferspringbootmongodb.myjwt.JwtFilter;
+import org.dailycodebuffer.codebufferspringbootmongodb.myjwt.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of the JWT filter on an authenticated request, one doFilter() per call:
+ *
+ * legacyJwtFilter      -> JwtFilter / JwtUtil as they were: key rebuilt on every call, the token parsed and its
+ *                         signature checked three times (extractUsername, validateToken, isTokenExpired), the user
+ *                         loaded through the UserDetailsService
+ * jwtFilterNoCache     -> JwtFilter now with codebuffer.jwt.verified-cache.max-size=0: one parse, roles from claims
+ * jwtFilter            -> JwtFilter now, the same token again (the usual case): SHA-256 of the token + cache lookup
+ *
+ * Left out on purpose, so the numbers are a lower bound of the saving:
+ * - the UserDetailsService is an in-memory stub, in the application every legacy request also paid a Mongo round trip
+ *   for the user and its @DBRef roles
+ * - the ~20 INFO log lines per request of the old JwtUtil / JwtFilter (key, claims, username) are not reproduced
+ *
+ *   java -jar target/benchmarks.jar JwtFilterBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class JwtFilterBenchmark {
+
+    private static final String SECRET_KEY = "TaK+HaV^uvCHEFsEVfypW#7g9^k*Z8$V/bd500164a7a15cb764660bb3780824b49343690aa9d0790e67c1e862396c1be1";
+
+    private final UserDetailsService inMemoryUsers =
+            username -> User.withUsername(username).password("$2a$10$7EqJtq98hPqEX7fNZaFWoO").roles("USER").build();
+
+    private JwtFilter jwtFilter;
+    private JwtFilter jwtFilterNoCache;
+    private LegacyJwtFilter legacyJwtFilter;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(10_000);
+        jwtFilter = new JwtFilter(inMemoryUsers, jwtUtil);
+        jwtFilterNoCache = new JwtFilter(inMemoryUsers, new JwtUtil(0));
+        legacyJwtFilter = new LegacyJwtFilter(inMemoryUsers);
+
+        // a token as /login issues it today; the legacy filter ignores the roles claim
+        String token = jwtUtil.generateToken("raj", List.of("USER"));
+        request = new MockHttpServletRequest("GET", "/api/person/raj/30");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        // all three must authenticate the same user with the same authorities
+        String expected = authenticate(legacyJwtFilter);
+        for (OncePerRequestFilter filter : List.of(jwtFilter, jwtFilterNoCache)) {
+            String actual = authenticate(filter);
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException(expected + " <> " + actual);
+            }
+        }
+    }
+
+    @Benchmark
+    public Authentication legacyJwtFilter() throws Exception {
+        return doFilter(legacyJwtFilter);
+    }
+
+    @Benchmark
+    public Authentication jwtFilterNoCache() throws Exception {
+        return doFilter(jwtFilterNoCache);
+    }
+
+    @Benchmark
+    public Authentication jwtFilter() throws Exception {
+        return doFilter(jwtFilter);
+    }
+
+    private Authentication doFilter(OncePerRequestFilter filter) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private String authenticate(OncePerRequestFilter filter) throws ServletException, IOException {
+        Authentication authentication = doFilter(filter);
+        if (authentication == null) {
+            throw new IllegalStateException(filter.getClass().getSimpleName() + " did not authenticate");
+        }
+        return authentication.getName() + " " + authentication.getAuthorities();
+    }
+
+    /**
+     * JwtFilter.doFilterInternal() and the JwtUtil methods it called before the single-parse rewrite, without the logging.
+     */
+    static final class LegacyJwtFilter extends OncePerRequestFilter {
+
+        private final UserDetailsService userDetailsService;
+
+        LegacyJwtFilter(UserDetailsService userDetailsService) {
+            this.userDetailsService = userDetailsService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+            String authorizationHeader = request.getHeader("Authorization");
+            String username = null;
+            String jwt = null;
+            if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+                jwt = authorizationHeader.substring(7);
+                username = extractAllClaims(jwt).getSubject();
+            }
+            if (username != null) {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (validateToken(jwt)) {
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
+            }
+            chain.doFilter(request, response);
+        }
+
+        private static SecretKey getSigningKey() {
+            return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        }
+
+        private static Claims extractAllClaims(String token) {
+            return Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+
+        private static boolean validateToken(String token) {
+            Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parse(token);
+            return !extractAllClaims(token).getExpiration().before(new Date());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
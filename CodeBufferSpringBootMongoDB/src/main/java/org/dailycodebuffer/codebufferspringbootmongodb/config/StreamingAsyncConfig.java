@@ -0,0 +1,37 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * GET /api/person/all-person with Accept: application/x-ndjson returns a StreamingResponseBody, which runs as an async
+ * request. Without an explicit value the servlet container's default applies (30s on Tomcat) and a full export of a
+ * large collection is cut off in the middle of a line.
+ *
+ * codebuffer.person.stream-timeout -> how long a streamed response may take, default 10m. When it is hit the client
+ * gets 503 if nothing was written yet, otherwise the connection is closed and the Mongo cursor is closed with it.
+ */
+@Configuration
+@Profile("codebuffer")
+public class StreamingAsyncConfig implements WebMvcConfigurer {
+
+    private final Duration streamTimeout;
+
+    public StreamingAsyncConfig(@Value("${codebuffer.person.stream-timeout:10m}") Duration streamTimeout) {
+        this.streamTimeout = streamTimeout;
+    }
+
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(streamTimeout.toMillis());
+    }
+}
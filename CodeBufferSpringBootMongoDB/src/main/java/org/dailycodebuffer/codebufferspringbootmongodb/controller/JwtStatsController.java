@@ -0,0 +1,28 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.controller;
+
+import org.dailycodebuffer.codebufferspringbootmongodb.myjwt.JwtUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/internal/jwt")
+public class JwtStatsController {
+
+    private final JwtUtil jwtUtil;
+
+    public JwtStatsController(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    //http://localhost:8080/internal/jwt
+    //cacheSize -> verified tokens currently cached (by SHA-256 of the token, until the token expires)
+    //cacheHits -> requests answered without parsing, parses -> signature checks, rejected -> invalid / expired tokens
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(jwtUtil.stats());
+    }
+}
@@ -0,0 +1,30 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.controller;
+
+import org.dailycodebuffer.codebufferspringbootmongodb.mongoprofiler.MongoCommandProfiler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/internal/mongo/profile")
+public class MongoProfileController {
+
+    private final MongoCommandProfiler mongoCommandProfiler;
+
+    public MongoProfileController(MongoCommandProfiler mongoCommandProfiler) {
+        this.mongoCommandProfiler = mongoCommandProfiler;
+    }
+
+    //http://localhost:8080/internal/mongo/profile
+    //collections -> per collection, "command status": count, totalMillis, meanMillis, maxMillis, p50 / p90 / p99
+    //shapes      -> per command shape (values replaced by ?), most total time first, with the caller of its last slow
+    //               execution and the last explain (plan, collectionScan, keys / docs examined, returned)
+    //recentSlow  -> the last commands over codebuffer.mongo.profiler.slow-threshold, newest first
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getProfile() {
+        return ResponseEntity.ok(mongoCommandProfiler.snapshot());
+    }
+}
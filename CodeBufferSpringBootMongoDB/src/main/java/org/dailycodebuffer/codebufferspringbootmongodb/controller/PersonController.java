@@ -1,5 +1,9 @@
 package org.dailycodebuffer.codebufferspringbootmongodb.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -15,6 +19,7 @@ import org.bson.types.ObjectId;
 import org.dailycodebuffer.codebufferspringbootmongodb.collection.Person;
 import org.dailycodebuffer.codebufferspringbootmongodb.config.PersonResource;
 import org.dailycodebuffer.codebufferspringbootmongodb.config.PersonResourceAssembler;
+import org.dailycodebuffer.codebufferspringbootmongodb.dto.PersonBatchResponse;
 import org.dailycodebuffer.codebufferspringbootmongodb.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
@@ -25,10 +30,14 @@ import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * In your PersonController, you can use PagedResourcesAssembler to return the paginated results
@@ -42,13 +51,18 @@ public class PersonController {
     private final PersonService personService;
     private final PagedResourcesAssembler<Person> pagedResourcesAssembler;
     private final PersonResourceAssembler personResourceAssembler;
+    private final ObjectMapper objectMapper;
+
+    // NDJSON output is flushed every this many persons, not per person
+    private static final int STREAM_FLUSH_EVERY = 100;
 
 
     @Autowired
-    public PersonController(PersonService personService, PagedResourcesAssembler<Person> pagedResourcesAssembler, PersonResourceAssembler personResourceAssembler) {
+    public PersonController(PersonService personService, PagedResourcesAssembler<Person> pagedResourcesAssembler, PersonResourceAssembler personResourceAssembler, ObjectMapper objectMapper) {
         this.personService = personService;
         this.pagedResourcesAssembler = pagedResourcesAssembler;
         this.personResourceAssembler = personResourceAssembler;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(
@@ -66,6 +80,25 @@ public class PersonController {
         return personService.save(person);
     }
 
+    @Operation(
+            summary = "Create many Persons in one call",
+            description = "Unordered bulk insert of a list of Persons. Every item gets its own outcome (personId or error), one failing Person does not stop the others",
+            tags = {"Save Person"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "All Persons Created", content = {@Content(schema = @Schema(implementation = PersonBatchResponse.class),mediaType = "application/json")}),
+            @ApiResponse(responseCode = "207", description = "Some Persons Created, see the error of each item", content = {@Content(schema = @Schema(implementation = PersonBatchResponse.class),mediaType = "application/json")}),
+            @ApiResponse(responseCode = "413", description = "Too many Persons in one batch", content = {@Content(schema=@Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {@Content(schema=@Schema())})
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<PersonBatchResponse> saveAll(@RequestBody @Parameter(description = "Create Persons") List<Person> persons) {
+        log.info("PersonController saveAll() called with {} persons", persons.size());
+        PersonBatchResponse batchResponse = personService.saveAll(persons);
+        HttpStatus status = batchResponse.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(batchResponse);
+    }
+
     /**
      * @param name Filter for the first Name if required
      * @return List of filtered person based on firstName
@@ -272,6 +305,38 @@ public class PersonController {
         }else throw new IllegalArgumentException(" getPersonById() Invalid ObjectId");
     }
 
+    @Operation(
+            summary = "Get many Persons from the database using their Person Ids",
+            description = "One query for all the ids, unknown ids are left out of the response. Example: /api/person/by-ids?ids=66e8d7943d5cf20c5e811501,66e8d7943d5cf20c5e811502",
+            tags = {"Get person By PersonId"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",description = "Persons found for the ids",content={@Content(schema=@Schema(implementation = Person.class),mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Bad Request - an id is not a valid ObjectId", content = {@Content(schema=@Schema())}),
+            @ApiResponse(responseCode = "413", description = "Too many ids in one call", content = {@Content(schema=@Schema())})
+    })
+    @GetMapping("/by-ids")
+    public List<Person> getPersonsByIds(@RequestParam("ids") @Parameter(name = "ids", description = "Comma separated Person Ids", example = "66e8d7943d5cf20c5e811501,66e8d7943d5cf20c5e811502") List<String> personIds) {
+        log.info("PersonController getPersonsByIds() called with {} ids", personIds.size());
+        return personService.getPersonsByIds(toObjectIds(personIds));
+    }
+
+    // POST variant for id lists too long for a query string
+    @PostMapping("/by-ids")
+    public List<Person> getPersonsByIdsPost(@RequestBody @Parameter(description = "Person Ids") List<String> personIds) {
+        log.info("PersonController getPersonsByIdsPost() called with {} ids", personIds.size());
+        return personService.getPersonsByIds(toObjectIds(personIds));
+    }
+
+    private static List<ObjectId> toObjectIds(List<String> personIds) {
+        LinkedHashSet<ObjectId> objectIds = new LinkedHashSet<>();
+        for (String personId : personIds) {
+            if (!ObjectId.isValid(personId)) throw new IllegalArgumentException(" getPersonsByIds() Invalid ObjectId " + personId);
+            objectIds.add(new ObjectId(personId));
+        }
+        return List.copyOf(objectIds);
+    }
+
     @Operation(
             summary = "Get All Person from the database",
             description = "Get All Person",
@@ -324,6 +389,37 @@ public class PersonController {
 
     }
 
+    @Operation(
+            summary = "Stream All Person from the database as NDJSON",
+            description = "Same url as /all-person, selected with Accept: application/x-ndjson. One Person JSON per line, written while the Mongo cursor is read, so memory stays flat whatever the collection size. No HATEOAS links",
+            tags = {"Get All person from DB "}
+    )
+    @GetMapping(value = "/all-person", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPersons() {
+        log.info("PersonController streamAllPersons() called");
+        // flushing is done here every STREAM_FLUSH_EVERY persons, not by Jackson after every value
+        ObjectWriter personWriter = objectMapper.writerFor(Person.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            long count = 0;
+            try (Stream<Person> persons = personService.streamAllPersons();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // the servlet container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // lines are separated by the '\n' written below, not by Jackson's default root separator (a space)
+                generator.setRootValueSeparator(null);
+                for (Person person : (Iterable<Person>) persons::iterator) {
+                    personWriter.writeValue(generator, person);
+                    generator.writeRaw('\n');
+                    if (++count % STREAM_FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+            log.info("PersonController streamAllPersons() streamed {} persons", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping("/create-person-on-status")
     public ResponseEntity<Person> createPersonOnStatus(@RequestBody Person person){
         log.info("PersonController createPersonOnStatus called");
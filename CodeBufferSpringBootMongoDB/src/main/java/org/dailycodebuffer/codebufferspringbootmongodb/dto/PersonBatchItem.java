@@ -0,0 +1,23 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+/**
+ * Outcome of one person of a POST /api/person/batch request, index is the position in the request body.
+ * personId is set when the insert succeeded, error when it failed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PersonBatchItem {
+    private int index;
+    private ObjectId personId;
+    private String error;
+}
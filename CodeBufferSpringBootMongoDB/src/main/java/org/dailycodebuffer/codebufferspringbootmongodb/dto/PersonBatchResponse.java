@@ -0,0 +1,22 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/person/batch, one item per person in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonBatchResponse {
+    private int requested;
+    private int inserted;
+    private int failed;
+    private List<PersonBatchItem> items;
+}
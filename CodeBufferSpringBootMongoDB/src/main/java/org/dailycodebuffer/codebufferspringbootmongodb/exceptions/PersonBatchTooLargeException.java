@@ -0,0 +1,9 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class PersonBatchTooLargeException extends RuntimeException{
+    public PersonBatchTooLargeException(String message){ super(message); }
+}
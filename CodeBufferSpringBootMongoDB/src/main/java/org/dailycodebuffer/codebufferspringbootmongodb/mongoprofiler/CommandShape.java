@@ -0,0 +1,133 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.mongoprofiler;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The shape of a Mongo command: command, collection and the field / operator structure of its filter, sort and
+ * pipeline with every value replaced by "?".
+ *
+ *   {find: "students", filter: {firstName: {$regex: "^Raj"}, age: {$gt: 20}}, sort: {totalSpendInBooks: -1}}
+ *   -> find students filter{firstName:{$regex:?},age:{$gt:?}} sort{totalSpendInBooks:?}
+ *
+ * Calls of one repository method with different arguments share a shape, so it is a bounded key for the histograms
+ * and for the explain cooldown, and no value (name, email ...) ever reaches a metric or a log line.
+ */
+final class CommandShape {
+
+    private CommandShape() {
+    }
+
+    /**
+     * The collection a command works on, "-" for the database level commands.
+     */
+    static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : "-";
+    }
+
+    static String of(String commandName, String collection, BsonDocument command, int maxLength) {
+        StringBuilder shape = new StringBuilder(64).append(commandName).append(' ').append(collection);
+        switch (commandName) {
+            case "find" -> {
+                part(shape, "filter", command.get("filter"));
+                part(shape, "sort", command.get("sort"));
+                part(shape, "projection", command.get("projection"));
+            }
+            case "count" -> part(shape, "query", command.get("query"));
+            case "distinct" -> {
+                BsonValue key = command.get("key");
+                if (key != null && key.isString()) {
+                    shape.append(" key ").append(key.asString().getValue());
+                }
+                part(shape, "query", command.get("query"));
+            }
+            case "aggregate" -> pipeline(shape, command.get("pipeline"));
+            case "update" -> part(shape, "q", firstStatement(command.get("updates"), "q"));
+            case "delete" -> part(shape, "q", firstStatement(command.get("deletes"), "q"));
+            case "findAndModify" -> {
+                part(shape, "query", command.get("query"));
+                part(shape, "sort", command.get("sort"));
+            }
+            default -> {
+                // insert, getMore, createIndexes ...: command and collection are the shape
+            }
+        }
+        if (shape.length() > maxLength) {
+            shape.setLength(maxLength);
+            shape.append("...");
+        }
+        return shape.toString();
+    }
+
+    private static void part(StringBuilder shape, String name, BsonValue value) {
+        if (value != null && value.isDocument() && !value.asDocument().isEmpty()) {
+            shape.append(' ').append(name);
+            normalize(shape, value);
+        }
+    }
+
+    private static void pipeline(StringBuilder shape, BsonValue pipeline) {
+        if (pipeline == null || !pipeline.isArray()) {
+            return;
+        }
+        shape.append(" pipeline[");
+        boolean first = true;
+        for (BsonValue stage : pipeline.asArray()) {
+            if (!stage.isDocument() || stage.asDocument().isEmpty()) {
+                continue;
+            }
+            Map.Entry<String, BsonValue> operator = stage.asDocument().entrySet().iterator().next();
+            shape.append(first ? "" : ",").append(operator.getKey());
+            first = false;
+            // the stages an index can serve keep their structure, the others only their name
+            if ("$match".equals(operator.getKey()) || "$sort".equals(operator.getKey())) {
+                normalize(shape, operator.getValue());
+            }
+        }
+        shape.append(']');
+    }
+
+    private static BsonValue firstStatement(BsonValue statements, String field) {
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+            return null;
+        }
+        BsonValue first = statements.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get(field) : null;
+    }
+
+    private static void normalize(StringBuilder shape, BsonValue value) {
+        if (value.isDocument()) {
+            shape.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                shape.append(first ? "" : ",").append(entry.getKey()).append(':');
+                normalize(shape, entry.getValue());
+                first = false;
+            }
+            shape.append('}');
+        } else if (value.isArray()) {
+            normalizeArray(shape, value.asArray());
+        } else {
+            shape.append('?');
+        }
+    }
+
+    /**
+     * $in: [1, 2, 3] -> [?], $or: [{a: 1}, {b: 2}, {a: 3}] -> [{a:?},{b:?}]
+     */
+    private static void normalizeArray(StringBuilder shape, BsonArray array) {
+        Set<String> elements = new LinkedHashSet<>();
+        for (BsonValue element : array) {
+            StringBuilder normalized = new StringBuilder();
+            normalize(normalized, element);
+            elements.add(normalized.toString());
+        }
+        shape.append('[').append(String.join(",", elements)).append(']');
+    }
+}
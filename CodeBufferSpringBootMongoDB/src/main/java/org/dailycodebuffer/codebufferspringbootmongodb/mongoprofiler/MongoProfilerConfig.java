@@ -0,0 +1,85 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.mongoprofiler;
+
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Registers the MongoCommandProfiler on the auto-configured MongoClient.
+ *
+ * codebuffer.mongo.profiler.enabled=true
+ * # a command at least this slow is logged, counted in mongo.command.slow and kept in the recent slow commands
+ * codebuffer.mongo.profiler.slow-threshold=100ms
+ * # explain("executionStats") of slow reads on a background thread, at most once per shape per explain-cooldown
+ * codebuffer.mongo.profiler.explain-enabled=true
+ * codebuffer.mongo.profiler.explain-cooldown=10m
+ * codebuffer.mongo.profiler.explain-queue-size=16
+ * # distinct shapes tracked, the shapes past it are counted under "<command> <collection> (other)"
+ * codebuffer.mongo.profiler.max-shapes=500
+ * codebuffer.mongo.profiler.recent-slow-commands=50
+ * codebuffer.mongo.profiler.percentiles=0.5,0.9,0.99
+ */
+@Configuration
+@Slf4j
+public class MongoProfilerConfig {
+
+    @Bean
+    public MongoProfilerProperties mongoProfilerProperties(
+            @Value("${codebuffer.mongo.profiler.enabled:true}") boolean enabled,
+            @Value("${codebuffer.mongo.profiler.slow-threshold:100ms}") Duration slowThreshold,
+            @Value("${codebuffer.mongo.profiler.explain-enabled:true}") boolean explainEnabled,
+            @Value("${codebuffer.mongo.profiler.explain-cooldown:10m}") Duration explainCooldown,
+            @Value("${codebuffer.mongo.profiler.explain-queue-size:16}") int explainQueueSize,
+            @Value("${codebuffer.mongo.profiler.max-shapes:500}") int maxShapes,
+            @Value("${codebuffer.mongo.profiler.recent-slow-commands:50}") int recentSlowCommands,
+            @Value("${codebuffer.mongo.profiler.percentiles:0.5,0.9,0.99}") List<Double> percentiles) {
+        MongoProfilerProperties properties = new MongoProfilerProperties();
+        properties.setEnabled(enabled);
+        properties.setSlowThreshold(slowThreshold);
+        properties.setExplainEnabled(explainEnabled);
+        properties.setExplainCooldown(explainCooldown);
+        properties.setExplainQueueSize(explainQueueSize);
+        properties.setMaxShapes(maxShapes);
+        properties.setRecentSlowCommands(recentSlowCommands);
+        properties.setPercentiles(percentiles);
+        return properties;
+    }
+
+    /**
+     * No actuator in this app, the timers and counters live in a SimpleMeterRegistry unless a registry is provided.
+     */
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public SimpleMeterRegistry mongoProfilerMeterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    /**
+     * The explains go through the very client the profiler listens to, looked up lazily because that client is built
+     * with the profiler; the profiler ignores the "explain" commands.
+     */
+    @Bean
+    public MongoCommandProfiler mongoCommandProfiler(MeterRegistry meterRegistry, MongoProfilerProperties properties,
+                                                     ObjectProvider<MongoClient> mongoClient) {
+        log.info("Mongo command profiler enabled={} slowThreshold={} explainEnabled={}", properties.isEnabled(),
+                properties.getSlowThreshold(), properties.isExplainEnabled());
+        return new MongoCommandProfiler(meterRegistry, properties, (database, explainCommand) ->
+                mongoClient.getObject().getDatabase(database).runCommand(explainCommand, BsonDocument.class));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandProfilerCustomizer(MongoCommandProfiler mongoCommandProfiler) {
+        return builder -> builder.addCommandListener(mongoCommandProfiler);
+    }
+}
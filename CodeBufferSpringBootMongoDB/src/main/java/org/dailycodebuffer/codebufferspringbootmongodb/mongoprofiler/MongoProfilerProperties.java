@@ -0,0 +1,26 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.mongoprofiler;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the MongoCommandProfiler, filled from the codebuffer.mongo.profiler.* properties by MongoProfilerConfig.
+ */
+@Getter
+@Setter
+public class MongoProfilerProperties {
+    private boolean enabled = true;
+    private Duration slowThreshold = Duration.ofMillis(100);
+    private boolean explainEnabled = true;
+    private Duration explainCooldown = Duration.ofMinutes(10);
+    private int explainQueueSize = 16;
+    private int maxShapes = 500;
+    private int maxShapeLength = 256;
+    private int recentSlowCommands = 50;
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.9, 0.99));
+    private String callerPackage = "org.dailycodebuffer.codebufferspringbootmongodb";
+}
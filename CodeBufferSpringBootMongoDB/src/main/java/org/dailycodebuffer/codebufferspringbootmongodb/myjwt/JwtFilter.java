@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -48,7 +49,12 @@ public class JwtFilter extends OncePerRequestFilter{
      * The class extends the Spring framework's OncePerRequestFilter, which ensures that the filter is only applied once per request.
      *
      * The doFilterInternal method is the main logic of the filter. It extracts the JWT token from the Authorization header
-     *  and validates the token using the JwtUtil class, and sets the authentication information in the SecurityContextHolder.
+     *  and verifies it ONCE with jwtUtil.verify() (signature and expiry in one parse, or the cached result of an earlier
+     *  request with the same token), and sets the authentication information in the SecurityContextHolder.
+     *
+     *  The authorities come from the token's "roles" claim, so an authenticated request does not touch Mongo.
+     *  Only a token issued before the claim existed (no "roles") still loads the user through the UserDetailsService.
+     *  An invalid or expired token leaves the request unauthenticated, the protected paths then answer 401/403.
      *
      *  The SecurityContextHolder is used to store the authentication information for the current request. In this case,
      *  the filter sets a UsernamePasswordAuthenticationToken with the UserDetails and authorities associated with the token.
@@ -60,20 +66,13 @@ public class JwtFilter extends OncePerRequestFilter{
      */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
-        log.info("JwtFilter doFilterInternal() Called");
-        String authorizationHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            log.info("JwtFilter doFilterInternal() if Block (authorizationHeader != null && authorizationHeader.startsWith(\"Bearer \")) Called");
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-        }
-        if (username != null) {
-            log.info("JwtFilter doFilterInternal() if Block (username != null) Called");
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt)) {
-                log.info("JwtFilter doFilterInternal() if Block (jwtUtil.validateToken(jwt)) Called");
+        String jwt = getTokenFromRequest(request);
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedJwt verified = jwtUtil.verify(jwt);
+            if (verified != null) {
+                UserDetails userDetails = verified.hasRoles()
+                        ? new User(verified.username(), "", verified.authorities())
+                        : userDetailsService.loadUserByUsername(verified.username());
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(auth);
@@ -83,7 +82,6 @@ public class JwtFilter extends OncePerRequestFilter{
     }
 
     private String getTokenFromRequest(HttpServletRequest request){
-        log.info("JwtFilter getTokenFromRequest() Called");
         String bearerToken = request.getHeader("Authorization");
 
         if(StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")){
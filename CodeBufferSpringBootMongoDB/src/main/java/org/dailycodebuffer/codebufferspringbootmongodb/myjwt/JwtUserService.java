@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,6 +22,8 @@ import java.util.Optional;
 @Slf4j
 public class JwtUserService {
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
@@ -79,6 +82,7 @@ public class JwtUserService {
      * In the login() method, the authenticationManager attempts to authenticate the user by passing
      * their loginDto credentials to the UsernamePasswordAuthenticationToken.
      * If the authentication is successful, a token is generated using the jwtUtil object and returned to the caller.
+     * The token carries the user's role names ("roles" claim), read from the authenticated principal.
      * @param loginDto
      * @return
      */
@@ -87,9 +91,13 @@ public class JwtUserService {
         try{
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginDto.getUsernameOrEmail(), loginDto.getPassword()));
-            UserDetails userDetails = userDetailsService.loadUserByUsername(loginDto.getUsernameOrEmail());
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            return jwtUtil.generateToken(userDetails.getUsername());
+            // the authenticated principal already carries the roles, they go into the token for JwtFilter
+            List<String> roles = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+                    .toList();
+            return jwtUtil.generateToken(authentication.getName(), roles);
         }catch (Exception e){
             log.error("Exception occurred while createAuthenticationToken ", e);
             return String.format(" Authentication Failed. Incorrect Credentials : %s",loginDto.getUsernameOrEmail());
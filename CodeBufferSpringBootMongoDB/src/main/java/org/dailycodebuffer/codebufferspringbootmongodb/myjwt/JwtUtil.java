@@ -1,137 +1,220 @@
 package org.dailycodebuffer.codebufferspringbootmongodb.myjwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * a Utility class named JwtUtil which provides methods for generating, validating, and extracting information
  * from JSON Web Tokens (JWTs) used for authentication in a Spring Boot application.
  *
+ * Per request cost: the HMAC key and the JwtParser are built once (both immutable and thread safe) and a token is
+ * parsed and its signature checked once, by verify(). The result (subject, roles, expiry) is kept in a bounded cache
+ * keyed by the SHA-256 of the token until the token expires, so the next requests with the same token cost a hash and
+ * a map lookup. The cache holds hashes, never the bearer tokens themselves.
+ *
+ * codebuffer.jwt.verified-cache.max-size=10000   (0 disables the cache, every request then parses once)
  */
 @Component
 @Slf4j
 public class JwtUtil {
+    public static final String ROLES_CLAIM = "roles";
+    private static final Duration TOKEN_VALIDITY = Duration.ofHours(1);
+
     private final String SECRET_KEY = "TaK+HaV^uvCHEFsEVfypW#7g9^k*Z8$V/bd500164a7a15cb764660bb3780824b49343690aa9d0790e67c1e862396c1be1";
 
-    private SecretKey getSigningKey() {
-        log.info("JwtUtil getSigningKey() called");
-        SecretKey secretKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-        log.info("JwtUtil getSigningKey() secretKey : {}",secretKey);
-        return secretKey;
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final Clock clock;
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedJwt> verifiedTokens;
+    private final boolean cacheEnabled;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public JwtUtil(@Value("${codebuffer.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        this(verifiedCacheMaxSize, Clock.systemUTC());
     }
 
-    // get username from JWT token
-    public String extractUsername(String token) {
-        log.info("JwtUtil extractUsername() called");
-        Claims claims = extractAllClaims(token);
-        log.info("JwtUtil extractUsername() claims : {}",claims);
-        String claimsSubject = claims.getSubject();
-        log.info("JwtUtil extractUsername() claimsSubject OR USERNAME : {}",claimsSubject);
-        return claimsSubject;
+    JwtUtil(long verifiedCacheMaxSize, Clock clock) {
+        log.info("JwtUtil constructor called, verified token cache max size : {}", verifiedCacheMaxSize);
+        this.clock = clock;
+        this.cacheEnabled = verifiedCacheMaxSize > 0;
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        // each entry lives until its own token expires
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedJwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+                        return Math.max(0, Duration.between(clock.instant(), value.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
-    public Date extractExpiration(String token) {
-        log.info("JwtUtil extractExpiration() called");
-        Date expirationDate = extractAllClaims(token).getExpiration();
-        log.info("JwtUtil extractExpiration() expirationDate : {}",expirationDate);
-        return expirationDate;
+    /**
+     * The one call JwtFilter makes per request: signature and expiry are checked by a single parse, or the earlier
+     * result is taken from the cache (and its expiry checked again, the cache may evict a little late).
+     * @param token the compact JWT of the Authorization header
+     * @return the verified subject / roles / expiry, null if the token is malformed, tampered with or expired
+     */
+    public VerifiedJwt verify(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        if (!cacheEnabled) {
+            return parse(token);
+        }
+        String key = hash(token);
+        VerifiedJwt cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && clock.instant().isBefore(cached.expiresAt())) {
+            cacheHits.increment();
+            return cached;
+        }
+        VerifiedJwt verified = parse(token);
+        if (verified != null) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
     }
 
-    private Claims extractAllClaims(String token) {
-        log.info("JwtUtil extractAllClaims() called");
-        Claims allExtractedClaims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        log.info("JwtUtil extractAllClaims() allExtractedClaims : {}",allExtractedClaims);
-        return allExtractedClaims;
+    // get username from JWT token
+    public String extractUsername(String token) {
+        VerifiedJwt verified = verify(token);
+        return verified == null ? null : verified.username();
     }
 
-    private Boolean isTokenExpired(String token) {
-        log.info("JwtUtil isTokenExpired() called");
-        boolean isTokenExpired = extractExpiration(token).before(new Date());
-        log.info("JwtUtil isTokenExpired() isTokenExpired : {}",isTokenExpired);
-        return isTokenExpired;
+    public Date extractExpiration(String token) {
+        VerifiedJwt verified = verify(token);
+        return verified == null ? null : Date.from(verified.expiresAt());
     }
 
-    // generate JWT token
-    public String generateToken(String username) {
-        log.info("JwtUtil generateToken() called");
+    // generate JWT token, the role names go into the "roles" claim so JwtFilter never has to load the user
+    public String generateToken(String username, Collection<String> roles) {
+        log.info("JwtUtil generateToken() called for username : {}, roles : {}", username, roles);
         Map<String, Object> claims = new HashMap<>();
-        String tokenGenerated = createToken(claims, username);
-        log.info("JwtUtil generateToken() tokenGenerated : {}",tokenGenerated);
-        log.info("JwtUtil generateToken() claims : {}",claims);
-        return tokenGenerated;
+        claims.put(ROLES_CLAIM, List.copyOf(roles));
+        return createToken(claims, username);
     }
 
     /**
      * The createToken(Authentication authentication) method generates a new JWT based on the provided Authentication object or here we supplied Subject i.e. Username and HashMap,
      * which contains information about the user being authenticated. It uses the Jwts.builder() method to create a new JwtBuilder object,
-     * sets the subject (i.e., username) of the JWT, the issue date, and expiration date, and signs the JWT using the getSigningKey() method.
+     * sets the subject (i.e., username) of the JWT, the issue date, and expiration date, and signs the JWT using the signing key.
      * Finally, it returns the JWT as a string.
      * @param claims
      * @param subject
      * @return
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        log.info("JwtUtil createToken() called");
-        String tokenCreated = Jwts.builder()
+        Instant now = clock.instant();
+        return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .header().empty().add("typ", "JWT")
                 .and()
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // 5 minutes expiration time or 1hr expiration time
-                .signWith(getSigningKey())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(TOKEN_VALIDITY))) // 1hr expiration time
+                .signWith(signingKey)
                 .compact();
-        log.info("JwtUtil createToken() tokenCreated : {}",tokenCreated);
-        return tokenCreated;
     }
 
     /**
-     * validateToken(String token) method validates the provided JWT. It uses the Jwts.parser() method to create a new JwtParserBuilder object,
-     * verify the signing key using the getSigningKey() method and parses the JWT using the parse() method.
-     * If the JWT is valid, the method returns true. If the JWT is invalid or has expired, the method logs an error message using the logger object and returns false.
+     * validateToken(String token) validates the provided JWT: signature and expiry, through verify().
+     * If the JWT is valid, the method returns true. If the JWT is invalid or has expired it returns false.
      * @param token
      * @return
      */
     // validate JWT token
     public Boolean validateToken(String token) {
-        log.info("JwtUtil validateToken() called");
-        /*boolean validToken = !isTokenExpired(token);
-        log.info("JwtUtil validateToken() validToken : {}",validToken);
-        return validToken;*/
-
-        try{
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    //.setSigningKey(getSigningKey())
-                    .build()
-                    .parse(token);
-
-            boolean validToken = !isTokenExpired(token);
-            log.info("JwtUtil validateToken() validToken : {}",validToken);
-            return validToken;
-
-            //return true;
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
+        return verify(token) != null;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheSize", verifiedTokens.estimatedSize());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("parses", parses.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    /**
+     * parseSignedClaims checks the signature and, with the parser's clock, exp / nbf in the same pass.
+     */
+    private VerifiedJwt parse(String token) {
+        parses.increment();
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (claims.getSubject() == null || expiration == null) {
+                rejected.increment();
+                log.warn("JWT token without subject or expiration");
+                return null;
+            }
+            return new VerifiedJwt(claims.getSubject(), roles(claims), expiration.toInstant());
         } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+            rejected.increment();
+            log.warn("JWT token is expired: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.increment();
+            log.warn("Invalid JWT token: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
+    private static List<String> roles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> names)) {
+            return null;
+        }
+        return names.stream().map(String::valueOf).toList();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
 }
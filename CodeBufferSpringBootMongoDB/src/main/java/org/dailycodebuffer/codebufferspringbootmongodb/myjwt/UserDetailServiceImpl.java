@@ -98,16 +98,16 @@ public class UserDetailServiceImpl implements UserDetailsService{
                 .map(userFrmDB -> {
                     // Check if roles are null or empty and handle accordingly
                     List<Role> rolesList = userFrmDB.getRoles();
-                    Role[] rolesArray = (rolesList != null && !rolesList.isEmpty())  // checks if the roles list is not null and not empty
-                            ? rolesList.toArray(new Role[0])
-                            : new Role[] {}; // Default to an empty array if roles are null or empty. If the roles list is null or empty, the rolesArray is set to an empty array (new String[] {}).
+                    String[] rolesArray = (rolesList != null && !rolesList.isEmpty())  // checks if the roles list is not null and not empty
+                            ? rolesList.stream().map(Role::getName).toArray(String[]::new)   // role names (USER, ADMIN), User.builder() adds the ROLE_ prefix
+                            : new String[] {}; // Default to an empty array if roles are null or empty. If the roles list is null or empty, the rolesArray is set to an empty array (new String[] {}).
 
-                    log.info("UserDetailServiceImpl roles for username {}: {}", username, rolesArray);
+                    log.info("UserDetailServiceImpl roles for username {}: {}", username, Arrays.toString(rolesArray));
 
                     return User.builder()
                             .username(userFrmDB.getUserName())
                             .password(userFrmDB.getPassword())
-                            .roles(Arrays.toString(rolesArray))
+                            .roles(rolesArray)
                             .build();
                 })
                 .orElseThrow(() -> new UsernameNotFoundException(String.format("User Not Found with Username: %s", username)));
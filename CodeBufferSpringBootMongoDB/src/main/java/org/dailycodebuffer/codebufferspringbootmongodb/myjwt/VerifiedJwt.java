@@ -0,0 +1,26 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.myjwt;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What JwtFilter needs from a token whose signature and expiry were checked: the subject, the role names of the
+ * "roles" claim and the expiry. roles is null for a token issued before the claim existed, the filter then loads the
+ * user's roles from Mongo like it used to.
+ */
+public record VerifiedJwt(String username, List<String> roles, Instant expiresAt) {
+
+    public boolean hasRoles() {
+        return roles != null;
+    }
+
+    // same "ROLE_" prefix as User.builder().roles(...)
+    public List<GrantedAuthority> authorities() {
+        return roles == null ? List.of() : roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+}
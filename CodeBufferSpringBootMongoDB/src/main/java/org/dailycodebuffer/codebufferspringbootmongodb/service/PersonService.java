@@ -3,11 +3,13 @@ package org.dailycodebuffer.codebufferspringbootmongodb.service;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.dailycodebuffer.codebufferspringbootmongodb.collection.Person;
+import org.dailycodebuffer.codebufferspringbootmongodb.dto.PersonBatchResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PersonService {
     ObjectId save(Person person);
@@ -30,8 +32,14 @@ public interface PersonService {
 
     Person getPersonById(ObjectId objectIdPersonId);
 
+    List<Person> getPersonsByIds(List<ObjectId> personIds);
+
     List<Person> getAllPersons();
 
+    Stream<Person> streamAllPersons();
+
     Person createPersonOnStatus(Person person);
 
+    PersonBatchResponse saveAll(List<Person> persons);
+
 }
@@ -1,16 +1,23 @@
 package org.dailycodebuffer.codebufferspringbootmongodb.service;
 
+import com.mongodb.bulk.BulkWriteError;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.dailycodebuffer.codebufferspringbootmongodb.collection.Person;
+import org.dailycodebuffer.codebufferspringbootmongodb.dto.PersonBatchItem;
+import org.dailycodebuffer.codebufferspringbootmongodb.dto.PersonBatchResponse;
+import org.dailycodebuffer.codebufferspringbootmongodb.exceptions.PersonBatchTooLargeException;
 import org.dailycodebuffer.codebufferspringbootmongodb.exceptions.PersonNotFoundException;
 import org.dailycodebuffer.codebufferspringbootmongodb.repository.PersonRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.*;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -20,8 +27,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 @Service
 @Profile("codebuffer")
@@ -34,10 +44,18 @@ public class PersonServiceImpl implements PersonService{
 
     private final MongoTemplate mongoTemplate;
 
+    private final int maxBatchSize;
+
+    private final int streamCursorBatchSize;
+
     @Autowired
-    public PersonServiceImpl(PersonRepository personRepository, MongoTemplate mongoTemplate) {
+    public PersonServiceImpl(PersonRepository personRepository, MongoTemplate mongoTemplate,
+                             @Value("${person.batch.max-size:1000}") int maxBatchSize,
+                             @Value("${person.stream.cursor-batch-size:500}") int streamCursorBatchSize) {
         this.personRepository = personRepository;
         this.mongoTemplate = mongoTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.streamCursorBatchSize = streamCursorBatchSize;
     }
 
     @Override
@@ -195,13 +213,90 @@ public class PersonServiceImpl implements PersonService{
         return personRepository.findById(String.valueOf(objectIdPersonId)).orElseThrow(()-> new PersonNotFoundException("Person Not Found"));
     }
 
+    /**
+     * One find with _id $in [...] instead of one findById per id. Served by the _id index.
+     * Ids that do not exist are simply absent from the result, the order of the result is not the order of the ids.
+     */
+    @Override
+    public List<Person> getPersonsByIds(List<ObjectId> personIds) {
+        if (personIds.size() > maxBatchSize) {
+            throw new PersonBatchTooLargeException(String.format("Lookup of %d ids exceeds the limit of %d", personIds.size(), maxBatchSize));
+        }
+        if (personIds.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(personIds));
+        return mongoTemplate.find(query, Person.class);
+    }
+
     @Override
     public List<Person> getAllPersons() {
         return personRepository.findAll();
     }
 
+    /**
+     * Cursor over the whole collection, documents are fetched streamCursorBatchSize at a time as the Stream is consumed,
+     * so memory holds one cursor batch, not the collection. The caller MUST close the Stream (try-with-resources),
+     * closing it kills the server side cursor.
+     */
+    @Override
+    public Stream<Person> streamAllPersons() {
+        Query query = new Query().cursorBatchSize(streamCursorBatchSize);
+        return mongoTemplate.stream(query, Person.class);
+    }
+
     @Override
     public Person createPersonOnStatus(Person person) {
         return personRepository.save(person);
     }
+
+    /**
+     * One unordered insertMany for the whole batch instead of one save() round trip per person.
+     *
+     * The ids are generated here before the insert, so every item knows its id whether or not a sibling fails.
+     * Unordered means Mongo keeps inserting after a failing document (e.g. duplicate key), the failures come back
+     * in a BulkOperationException with the index of each failed document.
+     */
+    @Override
+    public PersonBatchResponse saveAll(List<Person> persons) {
+        if (persons.size() > maxBatchSize) {
+            throw new PersonBatchTooLargeException(String.format("Batch of %d persons exceeds the limit of %d", persons.size(), maxBatchSize));
+        }
+        log.info("PersonServiceImpl saveAll called with {} persons", persons.size());
+        for (Person person : persons) {
+            if (person.getPersonId() == null) {
+                person.setPersonId(new ObjectId());
+            }
+        }
+
+        Map<Integer, String> errorsByIndex = new HashMap<>();
+        if (!persons.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)
+                        .insert(persons)
+                        .execute();
+            } catch (BulkOperationException ex) {
+                for (BulkWriteError error : ex.getErrors()) {
+                    errorsByIndex.put(error.getIndex(), error.getMessage());
+                }
+                log.warn("PersonServiceImpl saveAll {} of {} persons failed", errorsByIndex.size(), persons.size());
+            }
+        }
+
+        List<PersonBatchItem> items = new ArrayList<>(persons.size());
+        for (int index = 0; index < persons.size(); index++) {
+            String error = errorsByIndex.get(index);
+            items.add(PersonBatchItem.builder()
+                    .index(index)
+                    .personId(error == null ? persons.get(index).getPersonId() : null)
+                    .error(error)
+                    .build());
+        }
+        return PersonBatchResponse.builder()
+                .requested(persons.size())
+                .inserted(persons.size() - errorsByIndex.size())
+                .failed(errorsByIndex.size())
+                .items(items)
+                .build();
+    }
 }
@@ -0,0 +1,122 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.dailycodebuffer.codebufferspringbootmongodb.collection.Person;
+import org.dailycodebuffer.codebufferspringbootmongodb.config.StreamingAsyncConfig;
+import org.dailycodebuffer.codebufferspringbootmongodb.service.PersonService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+public class PersonControllerStreamTest {
+
+    @Mock
+    private PersonService personService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void streamAllPersonsWritesOnePersonPerLineAndClosesTheCursor() throws Exception {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        Stream<Person> persons = IntStream.range(0, 250)
+                .mapToObj(i -> Person.builder().firstName("Rajat" + i).lastName("Sharma").age(30).build())
+                .onClose(() -> cursorClosed.set(true));
+        when(personService.streamAllPersons()).thenReturn(persons);
+        PersonController personController = new PersonController(personService, null, null, objectMapper);
+
+        ResponseEntity<StreamingResponseBody> response = personController.streamAllPersons();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(250, lines.length);
+        assertEquals("Rajat0", objectMapper.readValue(lines[0], Person.class).getFirstName());
+        assertEquals("Rajat249", objectMapper.readValue(lines[249], Person.class).getFirstName());
+        assertTrue(cursorClosed.get());
+    }
+
+    @Test
+    void streamAllPersonsAnswers503WhenTheAsyncTimeoutIsHit() throws Exception {
+        CountDownLatch slowCursor = new CountDownLatch(1);
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        Stream<Person> persons = Stream.generate(() -> {
+                    awaitQuietly(slowCursor);
+                    return Person.builder().firstName("Rajat").lastName("Sharma").age(30).build();
+                })
+                .limit(1)
+                .onClose(() -> cursorClosed.set(true));
+        when(personService.streamAllPersons()).thenReturn(persons);
+        StreamingAsyncConfig streamingAsyncConfig = new StreamingAsyncConfig(Duration.ofMinutes(10));
+        TimeoutRecordingConfigurer configurer = new TimeoutRecordingConfigurer();
+        streamingAsyncConfig.configureAsyncSupport(configurer);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PersonController(personService, null, null, objectMapper))
+                .setAsyncRequestTimeout(configurer.timeout())
+                .build();
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/person/all-person").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) mvcResult.getRequest().getAsyncContext();
+        assertEquals(Duration.ofMinutes(10).toMillis(), asyncContext.getTimeout());
+        // the container fires the timeout while the cursor is still busy
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        // dispatched back with AsyncRequestTimeoutException, which DefaultHandlerExceptionResolver answers with 503
+        Object concurrentResult = WebAsyncUtils.getAsyncManager(mvcResult.getRequest()).getConcurrentResult();
+        assertInstanceOf(AsyncRequestTimeoutException.class, concurrentResult);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((AsyncRequestTimeoutException) concurrentResult).getStatusCode());
+        assertNotNull(asyncContext.getDispatchedPath());
+
+        slowCursor.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cursorClosed.get() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(cursorClosed.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TimeoutRecordingConfigurer extends AsyncSupportConfigurer {
+        long timeout() {
+            return getTimeout();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.mongoprofiler;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class MongoCommandProfilerTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+    private static final String COLLSCAN_EXPLAIN = """
+            {"queryPlanner": {"winningPlan": {"stage": "SORT", "inputStage": {"stage": "COLLSCAN"}}},
+             "executionStats": {"nReturned": 3, "executionTimeMillis": 140, "totalKeysExamined": 0,
+                                "totalDocsExamined": 50000}}
+            """;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MongoProfilerProperties properties = new MongoProfilerProperties();
+    private final List<BsonDocument> explained = new ArrayList<>();
+    private final MongoCommandProfiler profiler = new MongoCommandProfiler(registry, properties,
+            (database, explainCommand) -> {
+                explained.add(explainCommand);
+                return BsonDocument.parse(COLLSCAN_EXPLAIN);
+            }, Runnable::run);
+    private int requestId;
+
+    @Test
+    void shapeKeepsTheStructureAndDropsTheValues() {
+        BsonDocument find = BsonDocument.parse("""
+                {"find": "students", "filter": {"firstName": {"$regex": "^Raj"}, "age": {"$in": [20, 21, 22]},
+                 "$or": [{"email": "raj1@gmail.com"}, {"email": "raj2@gmail.com"}, {"gender": "MALE"}]},
+                 "sort": {"totalSpendInBooks": -1}, "$db": "codebuffer"}
+                """);
+
+        String shape = CommandShape.of("find", "students", find, 256);
+
+        Assertions.assertEquals("find students filter{firstName:{$regex:?},age:{$in:[?]},$or:[{email:?},{gender:?}]}"
+                + " sort{totalSpendInBooks:?}", shape);
+        Assertions.assertEquals("aggregate students pipeline[$match{age:{$gt:?}},$group,$sort{total:?}]",
+                CommandShape.of("aggregate", "students", BsonDocument.parse("""
+                        {"aggregate": "students", "pipeline": [{"$match": {"age": {"$gt": 20}}},
+                         {"$group": {"_id": "$gender", "total": {"$sum": 1}}}, {"$sort": {"total": -1}}]}
+                        """), 256));
+    }
+
+    @Test
+    void slowReadIsExplainedWithoutSessionFieldsAndReportedWithItsCaller() {
+        properties.setSlowThreshold(Duration.ofMillis(100));
+
+        execute("find", """
+                {"find": "students", "filter": {"age": {"$gt": 20}}, "$db": "codebuffer",
+                 "lsid": {"id": "x"}, "txnNumber": 1, "$clusterTime": {"clusterTime": 1}}
+                """, 150);
+
+        Assertions.assertEquals(1, explained.size());
+        BsonDocument explainCommand = explained.get(0);
+        Assertions.assertEquals("executionStats", explainCommand.getString("verbosity").getValue());
+        Assertions.assertEquals(BsonDocument.parse("{\"find\": \"students\", \"filter\": {\"age\": {\"$gt\": 20}}}"),
+                explainCommand.getDocument("explain"));
+
+        Map<String, Object> shape = shapes().get(0);
+        Assertions.assertEquals("find students filter{age:{$gt:?}}", shape.get("shape"));
+        ExplainSummary explain = (ExplainSummary) shape.get("explain");
+        Assertions.assertEquals("SORT <- COLLSCAN", explain.plan());
+        Assertions.assertTrue(explain.collectionScan());
+        Assertions.assertEquals(50000, explain.docsExamined());
+        Assertions.assertTrue(((String) shape.get("caller")).startsWith("MongoCommandProfilerTest.execute:"),
+                (String) shape.get("caller"));
+        Assertions.assertEquals(1, registry.get(MongoCommandProfiler.SLOW).tags("collection", "students").counter().count());
+    }
+
+    @Test
+    void shapeSlowOnALaterExecutionIsExplainedOnTheNextOneOnlyOncePerCooldown() {
+        String find = "{\"find\": \"students\", \"filter\": {\"firstName\": \"%s\"}}";
+
+        execute("find", find.formatted("a"), 5);   // first execution, fast: copied but not explained
+        execute("find", find.formatted("b"), 300); // slow, no copy of the command: explain wanted
+        Assertions.assertTrue(explained.isEmpty());
+        execute("find", find.formatted("c"), 5);   // explained, fast or not
+        execute("find", find.formatted("d"), 300); // within the cooldown
+        execute("find", find.formatted("e"), 5);
+
+        Assertions.assertEquals(1, explained.size());
+        Assertions.assertEquals("c", explained.get(0).getDocument("explain").getDocument("filter")
+                .getString("firstName").getValue());
+        Assertions.assertEquals(5L, shapes().get(0).get("count"));
+    }
+
+    @Test
+    void writesAndOwnCommandsAreNotExplained() {
+        execute("insert", "{\"insert\": \"students\", \"ordered\": true}", 500);
+        execute("explain", "{\"explain\": {\"find\": \"students\"}, \"verbosity\": \"executionStats\"}", 500);
+        execute("hello", "{\"hello\": 1}", 500);
+
+        Assertions.assertTrue(explained.isEmpty());
+        Assertions.assertEquals(1, shapes().size());
+        Assertions.assertEquals(1, registry.get(MongoCommandProfiler.COMMANDS)
+                .tags("collection", "students", "command", "insert", "status", "ok").timer().count());
+    }
+
+    @Test
+    void shapesPastTheLimitShareOneEntry() {
+        properties.setMaxShapes(2);
+
+        execute("find", "{\"find\": \"students\", \"filter\": {\"a\": 1}}", 1);
+        execute("find", "{\"find\": \"students\", \"filter\": {\"b\": 1}}", 1);
+        execute("find", "{\"find\": \"students\", \"filter\": {\"c\": 1}}", 1);
+        execute("find", "{\"find\": \"students\", \"filter\": {\"d\": 1}}", 1);
+
+        Assertions.assertEquals(3, shapes().size());
+        Assertions.assertTrue(shapes().stream().anyMatch(shape -> "find students (other)".equals(shape.get("shape"))
+                && Long.valueOf(2).equals(shape.get("count"))));
+    }
+
+    private void execute(String commandName, String command, long millis) {
+        int id = ++requestId;
+        profiler.commandStarted(new CommandStartedEvent(null, id, id, CONNECTION, "codebuffer", commandName,
+                BsonDocument.parse(command)));
+        profiler.commandSucceeded(new CommandSucceededEvent(null, id, id, CONNECTION, "codebuffer", commandName,
+                BsonDocument.parse("{\"ok\": 1}"), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> shapes() {
+        return (List<Map<String, Object>>) profiler.snapshot().get("shapes");
+    }
+}
@@ -0,0 +1,88 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.myjwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.dailycodebuffer.codebufferspringbootmongodb.MutableClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+public class JwtFilterTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-10-01T10:00:00Z"));
+    private final JwtUtil jwtUtil = new JwtUtil(100, clock);
+    private final UserDetailsService userDetailsService = Mockito.mock(UserDetailsService.class);
+    private final JwtFilter jwtFilter = new JwtFilter(userDetailsService, jwtUtil);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rolesComeFromTheTokenAndItIsParsedOnce() throws Exception {
+        String token = jwtUtil.generateToken("raj", List.of("USER", "ADMIN"));
+
+        Authentication first = filter(token);
+        Authentication second = filter(token);
+
+        Assertions.assertEquals("raj", second.getName());
+        Assertions.assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), AuthorityUtils.authorityListToSet(first.getAuthorities()));
+        Assertions.assertEquals(1L, jwtUtil.stats().get("parses"));
+        Assertions.assertEquals(1L, jwtUtil.stats().get("cacheHits"));
+        Mockito.verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void tamperedOrExpiredTokenLeavesTheRequestUnauthenticated() throws Exception {
+        String token = jwtUtil.generateToken("raj", List.of("USER"));
+        Assertions.assertNotNull(filter(token));
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "." + (parts[2].startsWith("A") ? "B" : "A") + parts[2].substring(1);
+
+        Assertions.assertNull(filter(tampered));
+        clock.advance(Duration.ofHours(1).plusSeconds(1));
+        Assertions.assertNull(filter(token), "a cached token must not outlive its exp");
+        Assertions.assertEquals(2L, jwtUtil.stats().get("rejected"));
+    }
+
+    @Test
+    void tokenWithoutRolesClaimStillLoadsTheUser() throws Exception {
+        String legacy = Jwts.builder()
+                .subject("raj")
+                .expiration(Date.from(clock.instant().plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(
+                        "TaK+HaV^uvCHEFsEVfypW#7g9^k*Z8$V/bd500164a7a15cb764660bb3780824b49343690aa9d0790e67c1e862396c1be1".getBytes()))
+                .compact();
+        Mockito.when(userDetailsService.loadUserByUsername("raj"))
+                .thenReturn(User.withUsername("raj").password("x").roles("USER").build());
+
+        Authentication authentication = filter(legacy);
+
+        Assertions.assertEquals(Set.of("ROLE_USER"), AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
+        Mockito.verify(userDetailsService).loadUserByUsername("raj");
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/person/raj/30");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,105 @@
+package org.dailycodebuffer.codebufferspringbootmongodb.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.dailycodebuffer.codebufferspringbootmongodb.collection.Person;
+import org.dailycodebuffer.codebufferspringbootmongodb.dto.PersonBatchResponse;
+import org.dailycodebuffer.codebufferspringbootmongodb.exceptions.PersonBatchTooLargeException;
+import org.dailycodebuffer.codebufferspringbootmongodb.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PersonServiceImplTest {
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private PersonServiceImpl personService;
+
+    @BeforeEach
+    void setUp() {
+        personService = new PersonServiceImpl(personRepository, mongoTemplate, 3, 500);
+    }
+
+    @Test
+    void saveAllInsertsTheWholeBatchInOneUnorderedBulk() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+        PersonBatchResponse response = personService.saveAll(persons(2));
+
+        assertEquals(2, response.getInserted());
+        assertEquals(0, response.getFailed());
+        assertNotNull(response.getItems().get(0).getPersonId());
+        assertNotEquals(response.getItems().get(0).getPersonId(), response.getItems().get(1).getPersonId());
+        Mockito.verify(bulkOperations).execute();
+        Mockito.verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void saveAllReportsEachFailedItemByIndex() {
+        BulkOperationException bulkFailure = Mockito.mock(BulkOperationException.class);
+        when(bulkFailure.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkFailure);
+
+        PersonBatchResponse response = personService.saveAll(persons(3));
+
+        assertEquals(2, response.getInserted());
+        assertEquals(1, response.getFailed());
+        assertNull(response.getItems().get(1).getPersonId());
+        assertEquals("E11000 duplicate key", response.getItems().get(1).getError());
+        assertNotNull(response.getItems().get(2).getPersonId());
+    }
+
+    @Test
+    void saveAllRejectsBatchOverTheLimit() {
+        assertThrows(PersonBatchTooLargeException.class, () -> personService.saveAll(persons(4)));
+        Mockito.verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void getPersonsByIdsUsesOneInQuery() {
+        List<ObjectId> ids = List.of(new ObjectId(), new ObjectId());
+        when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Person.class))).thenReturn(persons(1));
+
+        assertEquals(1, personService.getPersonsByIds(ids).size());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(mongoTemplate).find(query.capture(), Mockito.eq(Person.class));
+        assertEquals(new Document("_id", new Document("$in", ids)), query.getValue().getQueryObject());
+        Mockito.verifyNoInteractions(personRepository);
+    }
+
+    private static List<Person> persons(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Person.builder().firstName("Rajat" + i).lastName("Sharma").age(30).build())
+                .toList();
+    }
+}
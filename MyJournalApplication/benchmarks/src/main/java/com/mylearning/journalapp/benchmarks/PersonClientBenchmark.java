@@ -0,0 +1,135 @@
+package com.mylearning.journalapp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.hateoas.PagedModel;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RestTemplate vs RestClient vs WebClient vs OpenFeign for the same two person calls against PersonStubServer:
+ *
+ * personByNameAndAge -> GET /api/person/{name}/{age}, one small Person
+ * search             -> GET /api/person/search, a HAL page of searchPageSize persons
+ *
+ * Throughput (ops/ms), average time (ms/op) and sampled latency percentiles (p50 ... p99.99) per operation,
+ * add -prof gc for the allocation rate (gc.alloc.rate.norm = bytes allocated per call, client and stub together).
+ *
+ *   java -jar target/benchmarks.jar -prof gc
+ *   java -jar target/benchmarks.jar "PersonClientBenchmark.*search" -p searchPageSize=50 -t 16 -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+// without nodelay the stub's header and body writes meet delayed ACKs and every call costs ~40ms on loopback
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-Dsun.net.httpserver.nodelay=true"})
+@Threads(4)
+public class PersonClientBenchmark {
+
+    @Param({"5", "20"})
+    private int searchPageSize;
+
+    private PersonStubServer server;
+    private PersonClientStacks stacks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper halObjectMapper = PersonClientStacks.halObjectMapper();
+        server = new PersonStubServer(halObjectMapper, searchPageSize, 16);
+        stacks = new PersonClientStacks(server.getBaseUrl(), halObjectMapper);
+        // every stack must decode what it is measured on, a silently empty result would flatter it
+        verify(stacks.restTemplatePersonByNameAndAge("john", 30), stacks.restTemplateSearch(0, searchPageSize), "RestTemplate");
+        verify(stacks.restClientPersonByNameAndAge("john", 30), stacks.restClientSearch(0, searchPageSize), "RestClient");
+        verify(stacks.webClientPersonByNameAndAge("john", 30), stacks.webClientSearch(0, searchPageSize), "WebClient");
+        verify(stacks.feignPersonByNameAndAge("john", 30), stacks.feignSearch(0, searchPageSize), "OpenFeign");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stacks.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Person restTemplatePersonByNameAndAge() {
+        return stacks.restTemplatePersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public Person restClientPersonByNameAndAge() {
+        return stacks.restClientPersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public Person webClientPersonByNameAndAge() {
+        return stacks.webClientPersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public Person feignPersonByNameAndAge() {
+        return stacks.feignPersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public PagedModel<PersonResource> restTemplateSearch() {
+        return stacks.restTemplateSearch(0, searchPageSize);
+    }
+
+    @Benchmark
+    public PagedModel<PersonResource> restClientSearch() {
+        return stacks.restClientSearch(0, searchPageSize);
+    }
+
+    @Benchmark
+    public PagedModel<PersonResource> webClientSearch() {
+        return stacks.webClientSearch(0, searchPageSize);
+    }
+
+    @Benchmark
+    public PagedModel<PersonResource> feignSearch() {
+        return stacks.feignSearch(0, searchPageSize);
+    }
+
+    private void verify(Person person, PagedModel<PersonResource> page, String stack) {
+        if (person == null || person.getPersonId() == null || person.getAddresses() == null) {
+            throw new IllegalStateException(stack + " did not decode the person: " + person);
+        }
+        if (page == null || page.getContent().size() != searchPageSize || page.getMetadata() == null) {
+            throw new IllegalStateException(stack + " did not decode the search page: " + page);
+        }
+    }
+
+    /**
+     * Runs every benchmark of this class with the GC profiler, for running from the IDE.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PersonClientBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
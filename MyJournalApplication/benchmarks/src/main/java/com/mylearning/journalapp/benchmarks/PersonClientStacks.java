@@ -0,0 +1,204 @@
+package com.mylearning.journalapp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientconfig.MyHttpClientPoolConfig;
+import com.mylearning.journalapp.clientconfig.PersonClientHttpRequestFactories;
+import com.mylearning.journalapp.clientconfig.PersonFeignProperties;
+import com.mylearning.journalapp.clientconfig.PersonHttpPoolProperties;
+import com.mylearning.journalapp.clientconfig.PersonWebClientPoolProperties;
+import com.mylearning.journalapp.clientopenfeign.FeignProductionConfig;
+import com.mylearning.journalapp.clientopenfeign.PersonFeignClient;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonResource;
+import feign.Feign;
+import feign.optionals.OptionalDecoder;
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The four person client stacks, wired the way the journal app wires them, pointed at one base URL:
+ *
+ * RestTemplate / RestClient -> the shared pooled Apache HttpClient 5 (MyHttpClientPoolConfig, PersonHttpPoolProperties
+ *                              defaults) through PersonClientHttpRequestFactories, 3s timeouts like MyRestTemplateConfig
+ * WebClient                 -> Reactor Netty on a named ConnectionProvider sized like PersonWebClientPoolProperties,
+ *                              10s response timeout like MyWebClientConfig, the result is blocked on
+ * OpenFeign                 -> Spring MVC contract, Spring encoder / decoder and ApacheHttp5Client on the same
+ *                              shared pool (FeignProductionConfig), what Spring Cloud OpenFeign builds for PersonFeignClient
+ *
+ * Only the transport and the decoding are compared. JWT, resilience, concurrency limit, coalescing and hedging are
+ * the same code on every stack and are left out, so is logging.
+ * Every stack decodes with the same HAL aware ObjectMapper: name and age into Person, search into
+ * PagedModel<PersonResource>.
+ */
+public final class PersonClientStacks implements AutoCloseable {
+
+    private static final ParameterizedTypeReference<PagedModel<PersonResource>> PAGED_PERSONS =
+            new ParameterizedTypeReference<>() {};
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ConnectionProvider connectionProvider;
+
+    private final RestTemplate restTemplate;
+    private final RestClient restClient;
+    private final WebClient webClient;
+    private final PersonFeignClient personFeignClient;
+    private final PersonSearchFeignClient personSearchFeignClient;
+
+    public PersonClientStacks(String baseUrl, ObjectMapper halObjectMapper) {
+        MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter(halObjectMapper);
+        jsonConverter.setSupportedMediaTypes(List.of(MediaType.APPLICATION_JSON, MediaTypes.HAL_JSON));
+
+        PersonHttpPoolProperties poolProperties = new PersonHttpPoolProperties();
+        MyHttpClientPoolConfig poolConfig = new MyHttpClientPoolConfig();
+        this.connectionManager = poolConfig.personConnectionManager(poolProperties);
+        this.httpClient = poolConfig.personHttpClient(connectionManager, poolProperties);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("personHttpClient", httpClient);
+        PersonClientHttpRequestFactories requestFactories =
+                new PersonClientHttpRequestFactories(beanFactory.getBeanProvider(CloseableHttpClient.class), poolProperties);
+
+        this.restTemplate = new RestTemplateBuilder()
+                .rootUri(baseUrl)
+                .requestFactory(() -> requestFactories.get(Duration.ofMillis(3000), Duration.ofMillis(3000)))
+                .messageConverters(jsonConverter)
+                .build();
+
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactories.get(Duration.ofMillis(3000), Duration.ofMillis(3000)))
+                .messageConverters(converters -> {
+                    converters.clear();
+                    converters.add(jsonConverter);
+                })
+                .build();
+
+        PersonWebClientPoolProperties webClientPoolProperties = new PersonWebClientPoolProperties();
+        this.connectionProvider = ConnectionProvider.builder("person-webclient-benchmark")
+                .maxConnections(webClientPoolProperties.getMaxConnections())
+                .pendingAcquireMaxCount(webClientPoolProperties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(webClientPoolProperties.getPendingAcquireTimeoutMillis()))
+                .maxIdleTime(Duration.ofSeconds(webClientPoolProperties.getMaxIdleTimeSeconds()))
+                .build();
+        HttpClient nettyClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
+                .responseTimeout(Duration.ofSeconds(10));
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(nettyClient))
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonDecoder(
+                            new Jackson2JsonDecoder(halObjectMapper, MediaType.APPLICATION_JSON, MediaTypes.HAL_JSON));
+                    codecs.defaultCodecs().jackson2JsonEncoder(
+                            new Jackson2JsonEncoder(halObjectMapper, MediaType.APPLICATION_JSON));
+                })
+                .build();
+
+        HttpMessageConverters messageConverters = new HttpMessageConverters(false, List.of(jsonConverter));
+        Feign.Builder feignBuilder = Feign.builder()
+                .client(new FeignProductionConfig().feignClient(beanFactory.getBeanProvider(CloseableHttpClient.class),
+                        new PersonFeignProperties()))
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(() -> messageConverters))
+                .decoder(new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(() -> messageConverters))));
+        this.personFeignClient = feignBuilder.target(PersonFeignClient.class, baseUrl);
+        this.personSearchFeignClient = feignBuilder.target(PersonSearchFeignClient.class, baseUrl);
+    }
+
+    /**
+     * The ObjectMapper of the stub payloads and of every stack: Spring Boot's defaults (unknown properties ignored)
+     * plus HAL, the way CodeBuffer renders PagedModel.
+     */
+    public static ObjectMapper halObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new Jackson2HalModule())
+                .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                        new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY))
+                .build();
+    }
+
+    public Person restTemplatePersonByNameAndAge(String name, int age) {
+        return restTemplate.getForObject("/{name}/{age}", Person.class, name, age);
+    }
+
+    public PagedModel<PersonResource> restTemplateSearch(int page, int size) {
+        return restTemplate.exchange("/search?page={page}&size={size}", HttpMethod.GET, null, PAGED_PERSONS, page, size)
+                .getBody();
+    }
+
+    public Person restClientPersonByNameAndAge(String name, int age) {
+        return restClient.get()
+                .uri("/{name}/{age}", name, age)
+                .retrieve()
+                .body(Person.class);
+    }
+
+    public PagedModel<PersonResource> restClientSearch(int page, int size) {
+        return restClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/search").queryParam("page", page).queryParam("size", size).build())
+                .retrieve()
+                .body(PAGED_PERSONS);
+    }
+
+    public Person webClientPersonByNameAndAge(String name, int age) {
+        return webClient.get()
+                .uri("/{name}/{age}", name, age)
+                .retrieve()
+                .bodyToMono(Person.class)
+                .block();
+    }
+
+    public PagedModel<PersonResource> webClientSearch(int page, int size) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/search").queryParam("page", page).queryParam("size", size).build())
+                .retrieve()
+                .bodyToMono(PAGED_PERSONS)
+                .block();
+    }
+
+    public Person feignPersonByNameAndAge(String name, int age) {
+        return personFeignClient.getPersonByNameAndAgePathVariableExchange(name, age).getBody();
+    }
+
+    public PagedModel<PersonResource> feignSearch(int page, int size) {
+        return personSearchFeignClient.searchPerson(page, size);
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionProvider.dispose();
+        httpClient.close();
+        connectionManager.close();
+    }
+}
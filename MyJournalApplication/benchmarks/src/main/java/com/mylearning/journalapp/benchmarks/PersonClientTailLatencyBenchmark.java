@@ -0,0 +1,104 @@
+package com.mylearning.journalapp.benchmarks;
+
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.simulator.LatencyDistribution;
+import com.mylearning.journalapp.simulator.PersonApiSimulator;
+import com.mylearning.journalapp.simulator.SimulatedBehaviour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The four stacks against PersonApiSimulator (from the journal app's test-jar) with server side latency, to see
+ * how each one carries a slow service's tail to the caller under 16 concurrent callers:
+ *
+ * logNormal -> median 5ms, sigma 0.5
+ * bimodal   -> 98% ~5ms, 2% stuck for 200ms
+ * slowBody  -> ~5ms to the headers, then the body in 256 byte chunks 2ms apart
+ *
+ *   java -jar target/benchmarks.jar PersonClientTailLatencyBenchmark -p profile=bimodal
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(16)
+public class PersonClientTailLatencyBenchmark {
+
+    @Param({"logNormal", "bimodal", "slowBody"})
+    private String profile;
+
+    private PersonApiSimulator simulator;
+    private PersonClientStacks stacks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulator = PersonApiSimulator.builder()
+                .requireBearerToken(false)
+                .maxRecordedRequests(1_000)
+                .start()
+                .behaviour(behaviour(profile));
+        stacks = new PersonClientStacks(simulator.getPersonUrl(), PersonClientStacks.halObjectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stacks.close();
+        simulator.close();
+    }
+
+    @Benchmark
+    public Person restTemplatePersonByNameAndAge() {
+        return stacks.restTemplatePersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public Person restClientPersonByNameAndAge() {
+        return stacks.restClientPersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public Person webClientPersonByNameAndAge() {
+        return stacks.webClientPersonByNameAndAge("john", 30);
+    }
+
+    @Benchmark
+    public Person feignPersonByNameAndAge() {
+        return stacks.feignPersonByNameAndAge("john", 30);
+    }
+
+    private static SimulatedBehaviour behaviour(String profile) {
+        LatencyDistribution fast = LatencyDistribution.logNormal(Duration.ofMillis(5), 0.3);
+        return switch (profile) {
+            case "logNormal" -> SimulatedBehaviour.builder()
+                    .latency(LatencyDistribution.logNormal(Duration.ofMillis(5), 0.5))
+                    .build();
+            case "bimodal" -> SimulatedBehaviour.builder()
+                    .latency(LatencyDistribution.bimodal(fast, LatencyDistribution.fixed(Duration.ofMillis(200)), 0.02))
+                    .build();
+            case "slowBody" -> SimulatedBehaviour.builder()
+                    .latency(fast)
+                    .slowBodyChunkBytes(256)
+                    .slowBodyChunkDelay(Duration.ofMillis(2))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown profile " + profile);
+        };
+    }
+}
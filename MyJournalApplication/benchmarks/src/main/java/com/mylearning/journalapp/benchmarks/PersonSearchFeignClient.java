@@ -0,0 +1,16 @@
+package com.mylearning.journalapp.benchmarks;
+
+import com.mylearning.journalapp.clientresponse.PersonResource;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * PersonFeignClient.searchPersonByExchange returns Object, this declares the same request with the typed
+ * PagedModel<PersonResource> the other stacks decode into, so the search benchmarks compare the same work.
+ */
+public interface PersonSearchFeignClient {
+
+    @GetMapping("/search")
+    PagedModel<PersonResource> searchPerson(@RequestParam("page") Integer page, @RequestParam("size") Integer size);
+}
@@ -0,0 +1,126 @@
+package com.mylearning.journalapp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientresponse.Address;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonResource;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bson.types.ObjectId;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the CodeBuffer person API, serving canned payloads from the JDK HttpServer on an
+ * ephemeral loopback port:
+ *
+ * GET /api/person/{name}/{age} -> one Person (application/json)
+ * GET /api/person/search       -> PagedModel<PersonResource> of search-page-size persons (application/hal+json)
+ * anything else                -> 404
+ *
+ * The payloads are serialized once at start-up with the same HAL ObjectMapper the clients decode with, so the
+ * server side costs every stack the same: a path check and writing a byte array. It shares the JVM with the
+ * benchmark, its allocations show up in -prof gc as a constant per call.
+ */
+public final class PersonStubServer implements AutoCloseable {
+
+    private static final String PERSON_PATH = "/api/person/";
+    private static final String SEARCH_PATH = "/api/person/search";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] personPayload;
+    private final byte[] searchPayload;
+
+    public PersonStubServer(ObjectMapper halObjectMapper, int searchPageSize, int threads) throws IOException {
+        this.personPayload = halObjectMapper.writeValueAsBytes(person(0));
+        this.searchPayload = halObjectMapper.writeValueAsBytes(searchPage(searchPageSize));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "person-stub-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.createContext(PERSON_PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/api/person";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.transferTo(OutputStream.nullOutputStream());
+            String path = exchange.getRequestURI().getPath();
+            if (SEARCH_PATH.equals(path)) {
+                send(exchange, MediaTypes.HAL_JSON_VALUE, searchPayload);
+            } else if (isNameAndAge(path)) {
+                send(exchange, MediaType.APPLICATION_JSON_VALUE, personPayload);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private static boolean isNameAndAge(String path) {
+        int slash = path.indexOf('/', PERSON_PATH.length());
+        return slash > PERSON_PATH.length() && slash < path.length() - 1 && path.indexOf('/', slash + 1) < 0;
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] payload) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, payload.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(payload);
+        }
+    }
+
+    private static PagedModel<PersonResource> searchPage(int size) {
+        List<PersonResource> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PersonResource resource = new PersonResource(person(i));
+            resource.add(Link.of("http://localhost:8081/api/person/" + resource.getPersonId()));
+            content.add(resource);
+        }
+        PagedModel.PageMetadata metadata = new PagedModel.PageMetadata(size, 0, 100L * size);
+        return PagedModel.of(content, metadata,
+                Link.of("http://localhost:8081/api/person/search?page=0&size=" + size),
+                Link.of("http://localhost:8081/api/person/search?page=1&size=" + size, "next"));
+    }
+
+    private static Person person(int i) {
+        return Person.builder()
+                .personId(new ObjectId())
+                .firstName("john" + i)
+                .lastName("doe")
+                .age(30 + i % 40)
+                .hobbies(List.of("cricket", "chess", "reading"))
+                .addresses(List.of(
+                        Address.builder().address1("221B Baker Street").address2("Marylebone").city("London").build(),
+                        Address.builder().address1("12 MG Road").address2("Camp").city("Pune").build()))
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.mylearning.journalapp.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Fan-out of cache invalidations to every journal node, so a write on one node evicts the L1 entries of all of them.
+ * Redis pub/sub in the application, an in-process list of listeners in tests.
+ *
+ * Delivery is fire and forget: a node that misses a message keeps its stale L1 entry until the L1 TTL,
+ * never longer, which is why the L1 TTL stays shorter than the L2 TTL.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidationMessage message);
+
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
@@ -0,0 +1,28 @@
+package com.mylearning.journalapp.cache;
+
+/**
+ * One invalidation published on the bus, encoded as a single short line:
+ *
+ *     type|sourceNode|cacheName|value
+ *
+ * K = evict one key, T = evict every key tagged with value (e.g. a person id), A = clear the cache (value empty).
+ * The value is last and the line is split with a limit, so a key containing '|' still decodes.
+ */
+public record CacheInvalidationMessage(Type type, String sourceNode, String cacheName, String value) {
+
+    public enum Type {
+        K, T, A
+    }
+
+    public String encode() {
+        return type + "|" + sourceNode + "|" + cacheName + "|" + (value == null ? "" : value);
+    }
+
+    public static CacheInvalidationMessage decode(String line) {
+        String[] parts = line.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cache invalidation message : " + line);
+        }
+        return new CacheInvalidationMessage(Type.valueOf(parts[0]), parts[1], parts[2], parts[3]);
+    }
+}
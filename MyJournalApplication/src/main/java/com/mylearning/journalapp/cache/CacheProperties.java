@@ -0,0 +1,51 @@
+package com.mylearning.journalapp.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Defaults for every two-tier cache, each cache can override them by name.
+ *
+ * journal.cache.l1-max-size=10000
+ * journal.cache.l1-ttl=60s
+ * journal.cache.l2-ttl=10m
+ * # 0 disables probabilistic early refresh, 1 is the usual XFetch value, > 1 refreshes earlier
+ * journal.cache.early-refresh-beta=1.0
+ * journal.cache.specs.personByNameAge.l2-ttl=30m
+ */
+@Component
+@ConfigurationProperties(prefix = "journal.cache")
+@Getter
+@Setter
+public class CacheProperties {
+    private long l1MaxSize = 10_000;
+    private Duration l1Ttl = Duration.ofSeconds(60);
+    private Duration l2Ttl = Duration.ofMinutes(10);
+    private double earlyRefreshBeta = 1.0;
+    private Map<String, Spec> specs = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Spec {
+        private Long l1MaxSize;
+        private Duration l1Ttl;
+        private Duration l2Ttl;
+        private Double earlyRefreshBeta;
+    }
+
+    public Spec resolve(String cacheName) {
+        Spec override = specs.getOrDefault(cacheName, new Spec());
+        Spec resolved = new Spec();
+        resolved.setL1MaxSize(override.getL1MaxSize() != null ? override.getL1MaxSize() : l1MaxSize);
+        resolved.setL1Ttl(override.getL1Ttl() != null ? override.getL1Ttl() : l1Ttl);
+        resolved.setL2Ttl(override.getL2Ttl() != null ? override.getL2Ttl() : l2Ttl);
+        resolved.setEarlyRefreshBeta(override.getEarlyRefreshBeta() != null ? override.getEarlyRefreshBeta() : earlyRefreshBeta);
+        return resolved;
+    }
+}
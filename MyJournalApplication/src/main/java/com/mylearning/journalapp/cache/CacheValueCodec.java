@@ -0,0 +1,79 @@
+package com.mylearning.journalapp.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of cached values with Jackson Smile.
+ *
+ * Smile is the binary form of the JSON data model, so the same Jackson annotations (@JsonProperty, @JsonInclude)
+ * apply, but values are length-prefixed, numbers are binary and repeated property names are back-referenced,
+ * which makes the payload smaller and cheaper to parse than the JSON strings RedisService stores.
+ * ObjectId is written as its 24 char hex form so Person.personId survives the round trip.
+ */
+@Component
+public class CacheValueCodec {
+
+    private final ObjectMapper smileMapper;
+
+    public CacheValueCodec() {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        SimpleModule objectIdModule = new SimpleModule("ObjectIdHexModule")
+                .addSerializer(ObjectId.class, new JsonSerializer<>() {
+                    @Override
+                    public void serialize(ObjectId value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                        gen.writeString(value.toHexString());
+                    }
+                })
+                .addDeserializer(ObjectId.class, new JsonDeserializer<>() {
+                    @Override
+                    public ObjectId deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+                        return new ObjectId(parser.getValueAsString());
+                    }
+                });
+        this.smileMapper = new ObjectMapper(smileFactory)
+                .findAndRegisterModules()
+                .registerModule(objectIdModule)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public JavaType envelopeType(JavaType valueType) {
+        return smileMapper.getTypeFactory().constructParametricType(CachedValue.class, valueType);
+    }
+
+    public JavaType typeOf(Class<?> valueClass) {
+        return smileMapper.getTypeFactory().constructType(valueClass);
+    }
+
+    public byte[] encode(CachedValue<?> cachedValue) {
+        try {
+            return smileMapper.writeValueAsBytes(cachedValue);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode cached value", e);
+        }
+    }
+
+    public <V> CachedValue<V> decode(byte[] bytes, JavaType envelopeType) {
+        try {
+            return smileMapper.readValue(bytes, envelopeType);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to decode cached value", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.mylearning.journalapp.cache;
+
+/**
+ * What is stored in both tiers: the value plus what probabilistic early refresh needs,
+ * the logical expiry and how long the value took to compute.
+ */
+public record CachedValue<V>(V value, long expiresAtMillis, long computeMillis) {
+}
@@ -0,0 +1,60 @@
+package com.mylearning.journalapp.cache;
+
+import com.mylearning.journalapp.service.PersonServiceWithRedis;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Called by every MyPersonClientInterface implementation after a successful update or delete of a person.
+ *
+ * The person caches are keyed by (name, age) and tagged with the person id, so the write evicts by tag:
+ * the L2 entries and this node's L1 right away, the other nodes' L1 through the invalidation bus.
+ * A failed write (exception) does not invalidate anything.
+ */
+@Component
+public class PersonCacheInvalidator {
+
+    public static final List<String> PERSON_CACHES = List.of(PersonServiceWithRedis.PERSON_BY_NAME_AGE_CACHE);
+
+    private final TwoTierCacheManager twoTierCacheManager;
+
+    public PersonCacheInvalidator(TwoTierCacheManager twoTierCacheManager) {
+        this.twoTierCacheManager = twoTierCacheManager;
+    }
+
+    public static String tagOf(ObjectId personId) {
+        return personId == null ? null : personId.toHexString();
+    }
+
+    public void personChanged(ObjectId personId) {
+        if (personId == null) {
+            return;
+        }
+        for (String cacheName : PERSON_CACHES) {
+            twoTierCacheManager.invalidateTag(cacheName, tagOf(personId));
+        }
+    }
+
+    /**
+     * Blocking clients: {@code return personCacheInvalidator.afterWrite(personId, <the write>);}
+     */
+    public <T> T afterWrite(ObjectId personId, T result) {
+        personChanged(personId);
+        return result;
+    }
+
+    /**
+     * WebClient: evicts once the write completes (with or without a body), on boundedElastic because the
+     * eviction talks to Redis with the blocking RedisTemplate.
+     */
+    public <T> Mono<T> afterWriteMono(ObjectId personId, Mono<T> write) {
+        Mono<Void> evict = Mono.<Void>fromRunnable(() -> personChanged(personId))
+                .subscribeOn(Schedulers.boundedElastic());
+        return write.flatMap(result -> evict.thenReturn(result))
+                .switchIfEmpty(evict.then(Mono.empty()));
+    }
+}
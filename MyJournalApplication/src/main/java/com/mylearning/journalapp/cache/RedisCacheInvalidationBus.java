@@ -0,0 +1,55 @@
+package com.mylearning.journalapp.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation bus on Redis pub/sub, over the same connection factory as the L2 (RedisConfig).
+ *
+ * Messages are plain strings on one channel, so they can be watched with
+ *     redis-cli SUBSCRIBE journal:cache:invalidation
+ */
+@Component
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+
+    public static final String CHANNEL = "journal:cache:invalidation";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisCacheInvalidationBus(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message.encode());
+        } catch (RuntimeException ex) {
+            // the write already succeeded, other nodes fall back to their L1 TTL
+            log.warn("Unable to publish cache invalidation {} : {}", message.encode(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String line = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                listener.accept(CacheInvalidationMessage.decode(line));
+            } catch (RuntimeException ex) {
+                log.warn("Unable to apply cache invalidation {} : {}", line, ex.getMessage());
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+}
@@ -0,0 +1,97 @@
+package com.mylearning.journalapp.cache;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * L2 on Redis, raw bytes in and out (binaryRedisTemplate from RedisConfig), the encoding is done by CacheValueCodec.
+ * Tag sets hold plain cache keys, so they go through the String redisTemplate.
+ *
+ * deleteByPrefix walks the keyspace with SCAN (never KEYS, which blocks Redis) and deletes SCAN_BATCH keys per DEL.
+ */
+@Component
+public class RedisRemoteCacheStore implements RemoteCacheStore {
+
+    static final int SCAN_BATCH = 500;
+
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisRemoteCacheStore(@Qualifier("binaryRedisTemplate") RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                 @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return binaryRedisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        binaryRedisTemplate.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public void delete(String key) {
+        binaryRedisTemplate.delete(key);
+    }
+
+    @Override
+    public void addToSet(String setKey, String member, Duration ttl) {
+        redisTemplate.opsForSet().add(setKey, member);
+        redisTemplate.expire(setKey, ttl);
+    }
+
+    @Override
+    public Set<String> members(String setKey) {
+        Set<String> members = redisTemplate.opsForSet().members(setKey);
+        return members == null ? Set.of() : members;
+    }
+
+    @Override
+    public long deleteByPrefix(String prefix) {
+        ScanOptions options = ScanOptions.scanOptions().match(escapeGlob(prefix) + "*").count(SCAN_BATCH).build();
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(SCAN_BATCH);
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == SCAN_BATCH) {
+                    deleted += delete(batch);
+                }
+            }
+        }
+        return deleted + delete(batch);
+    }
+
+    private long delete(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.delete(keys);
+        keys.clear();
+        return deleted == null ? 0 : deleted;
+    }
+
+    private static String escapeGlob(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
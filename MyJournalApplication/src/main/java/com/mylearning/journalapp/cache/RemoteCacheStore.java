@@ -0,0 +1,34 @@
+package com.mylearning.journalapp.cache;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * The L2 tier, shared by every journal node. Redis in the application, an in-memory map in tests.
+ * Implementations must not throw on a miss, they return null.
+ */
+public interface RemoteCacheStore {
+
+    byte[] get(String key);
+
+    void set(String key, byte[] value, Duration ttl);
+
+    void delete(String key);
+
+    /**
+     * Adds a member to a set, the set expires after ttl (refreshed on every add).
+     * Used to find every cache key tagged with the same person id.
+     */
+    void addToSet(String setKey, String member, Duration ttl);
+
+    /**
+     * Members of the set, empty when it does not exist.
+     */
+    Set<String> members(String setKey);
+
+    /**
+     * Deletes every key starting with prefix (values and sets), returns how many were deleted.
+     * Used to drop all the keys of one cache.
+     */
+    long deleteByPrefix(String prefix);
+}
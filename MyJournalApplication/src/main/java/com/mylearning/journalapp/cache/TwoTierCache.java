@@ -0,0 +1,339 @@
+package com.mylearning.journalapp.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache with an in-process Caffeine L1 in front of a shared L2 (Redis).
+ *
+ * get(key, loader):
+ * 1. L1 hit  -> served from the heap, no network, no decoding.
+ * 2. L2 hit  -> decoded from Smile, copied into L1.
+ * 3. miss    -> loader is called, the result is written to both tiers (null results are not cached).
+ *
+ * Stampede protection: every entry carries its logical expiry and the time its loader took (delta).
+ * On each read a caller refreshes early with probability growing as expiry approaches (XFetch):
+ *     now - delta * beta * ln(random) >= expiry
+ * so a hot key is usually recomputed by ONE caller shortly before it expires instead of by every caller right after.
+ *
+ * L2 failures never fail the read, they are logged, counted and treated as a miss.
+ *
+ * Tags: a cache keyed by (name, age) cannot be evicted by person id directly. With a tag extractor every stored
+ * value is also recorded under its tag, in L1 (a local tag -> keys index) and in L2 (a Redis set per tag),
+ * so invalidateTag(personId) finds every key holding that person, on this node and in Redis.
+ */
+@Slf4j
+public class TwoTierCache<V> {
+
+    private final String name;
+    private final Cache<String, CachedValue<V>> l1;
+    private final RemoteCacheStore l2;
+    private final CacheValueCodec codec;
+    private final JavaType envelopeType;
+    private final Duration l2Ttl;
+    private final double earlyRefreshBeta;
+    private final Clock clock;
+    private final DoubleSupplier random;
+    private final Function<V, String> tagExtractor;
+    private final Map<String, Set<String>> localTagIndex = new ConcurrentHashMap<>();
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder l2Errors = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder getNanos = new LongAdder();
+    private final LongAdder gets = new LongAdder();
+    private final AtomicLong maxGetNanos = new AtomicLong();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public TwoTierCache(String name, JavaType valueType, CacheProperties.Spec spec, RemoteCacheStore l2,
+                        CacheValueCodec codec, Clock clock, DoubleSupplier random) {
+        this(name, valueType, spec, l2, codec, clock, random, null);
+    }
+
+    public TwoTierCache(String name, JavaType valueType, CacheProperties.Spec spec, RemoteCacheStore l2,
+                        CacheValueCodec codec, Clock clock, DoubleSupplier random, Function<V, String> tagExtractor) {
+        this.name = name;
+        this.tagExtractor = tagExtractor;
+        // evictionListener runs inside the eviction (size / expiry), so the tag index never points at a live entry it lost
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(spec.getL1MaxSize())
+                .expireAfterWrite(spec.getL1Ttl())
+                .<String, CachedValue<V>>evictionListener((key, value, cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        untrack(key, value);
+                    }
+                })
+                .build();
+        this.l2 = l2;
+        this.codec = codec;
+        this.envelopeType = codec.envelopeType(valueType);
+        this.l2Ttl = spec.getL2Ttl();
+        this.earlyRefreshBeta = spec.getEarlyRefreshBeta();
+        this.clock = clock;
+        this.random = random;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V get(String key, Supplier<V> loader) {
+        long start = System.nanoTime();
+        try {
+            long now = clock.millis();
+            CachedValue<V> cached = l1.getIfPresent(key);
+            if (cached != null && now >= cached.expiresAtMillis()) {
+                cached = null;
+            }
+            if (cached != null && !shouldRefreshEarly(cached, now)) {
+                l1Hits.increment();
+                return cached.value();
+            }
+            if (cached == null) {
+                cached = readL2(key, now);
+                if (cached != null && !shouldRefreshEarly(cached, now)) {
+                    putL1(key, cached);
+                    l2Hits.increment();
+                    return cached.value();
+                }
+            }
+            if (cached != null) {
+                earlyRefreshes.increment();
+            } else {
+                misses.increment();
+            }
+            return load(key, loader);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            gets.increment();
+            getNanos.add(elapsed);
+            maxGetNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /**
+     * Removes the key from both tiers.
+     */
+    public void invalidate(String key) {
+        invalidateLocal(key);
+        try {
+            l2.delete(redisKey(key));
+        } catch (RuntimeException ex) {
+            l2Errors.increment();
+            log.warn("Cache {} unable to delete {} from L2 : {}", name, key, ex.getMessage());
+        }
+    }
+
+    /**
+     * Removes the key from this node's L1 only.
+     */
+    public void invalidateLocal(String key) {
+        CachedValue<V> removed = l1.asMap().remove(key);
+        untrack(key, removed);
+        invalidations.increment();
+    }
+
+    /**
+     * Removes every key tagged with tag from both tiers: the keys known to this node plus the L2 tag set,
+     * which also covers keys loaded by other nodes.
+     */
+    public void invalidateTag(String tag) {
+        Set<String> keys = new HashSet<>(localTagIndex.getOrDefault(tag, Set.of()));
+        try {
+            keys.addAll(invalidateRemoteTag(l2, name, tag));
+        } catch (RuntimeException ex) {
+            l2Errors.increment();
+            log.warn("Cache {} unable to invalidate tag {} in L2 : {}", name, tag, ex.getMessage());
+        }
+        keys.forEach(this::invalidateLocal);
+        localTagIndex.remove(tag);
+    }
+
+    /**
+     * L2 part of invalidateTag, also used by a node that never created the cache itself
+     * (e.g. a write through the Feign client on a node whose reads go elsewhere).
+     * Returns the keys that were deleted.
+     */
+    static Set<String> invalidateRemoteTag(RemoteCacheStore l2, String name, String tag) {
+        Set<String> keys = l2.members(tagKey(name, tag));
+        for (String key : keys) {
+            l2.delete(redisKey(name, key));
+        }
+        l2.delete(tagKey(name, tag));
+        return keys;
+    }
+
+    /**
+     * Removes the keys this node holds under tag from its L1 only.
+     */
+    public void invalidateTagLocal(String tag) {
+        Set<String> keys = localTagIndex.remove(tag);
+        if (keys != null) {
+            keys.forEach(this::invalidateLocal);
+        }
+    }
+
+    /**
+     * Removes every entry of this cache from both tiers, the L2 keys of other nodes included.
+     */
+    public void invalidateAll() {
+        invalidateAllLocal();
+        try {
+            invalidateRemoteAll(l2, name);
+        } catch (RuntimeException ex) {
+            l2Errors.increment();
+            log.warn("Cache {} unable to invalidate all in L2 : {}", name, ex.getMessage());
+        }
+    }
+
+    /**
+     * L2 part of invalidateAll, values and tag sets of the cache. Returns the number of Redis keys deleted.
+     */
+    static long invalidateRemoteAll(RemoteCacheStore l2, String name) {
+        return l2.deleteByPrefix(keyPrefix(name));
+    }
+
+    /**
+     * Clears this node's L1 only.
+     */
+    public void invalidateAllLocal() {
+        l1.invalidateAll();
+        localTagIndex.clear();
+        invalidations.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        long l1HitCount = l1Hits.sum();
+        long l2HitCount = l2Hits.sum();
+        long lookups = l1HitCount + l2HitCount + misses.sum() + earlyRefreshes.sum();
+        long getCount = gets.sum();
+        long loadCount = loads.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1Hits", l1HitCount);
+        stats.put("l2Hits", l2HitCount);
+        stats.put("misses", misses.sum());
+        stats.put("earlyRefreshes", earlyRefreshes.sum());
+        stats.put("l2Errors", l2Errors.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) (l1HitCount + l2HitCount) / lookups);
+        stats.put("l1Size", l1.estimatedSize());
+        stats.put("avgGetMicros", getCount == 0 ? 0 : getNanos.sum() / getCount / 1_000);
+        stats.put("maxGetMicros", maxGetNanos.get() / 1_000);
+        stats.put("avgLoadMillis", loadCount == 0 ? 0 : loadNanos.sum() / loadCount / 1_000_000);
+        return stats;
+    }
+
+    private V load(String key, Supplier<V> loader) {
+        long start = System.nanoTime();
+        V value = loader.get();
+        long computeNanos = System.nanoTime() - start;
+        loads.increment();
+        loadNanos.add(computeNanos);
+        if (value == null) {
+            return null;
+        }
+        CachedValue<V> cachedValue = new CachedValue<>(value, clock.millis() + l2Ttl.toMillis(), computeNanos / 1_000_000);
+        putL1(key, cachedValue);
+        try {
+            l2.set(redisKey(key), codec.encode(cachedValue), l2Ttl);
+            String tag = tagOf(cachedValue);
+            if (tag != null) {
+                l2.addToSet(tagKey(tag), key, l2Ttl);
+            }
+        } catch (RuntimeException ex) {
+            l2Errors.increment();
+            log.warn("Cache {} unable to write {} to L2 : {}", name, key, ex.getMessage());
+        }
+        return value;
+    }
+
+    private CachedValue<V> readL2(String key, long now) {
+        try {
+            byte[] bytes = l2.get(redisKey(key));
+            if (bytes == null) {
+                return null;
+            }
+            CachedValue<V> cachedValue = codec.decode(bytes, envelopeType);
+            return now >= cachedValue.expiresAtMillis() ? null : cachedValue;
+        } catch (RuntimeException ex) {
+            l2Errors.increment();
+            log.warn("Cache {} unable to read {} from L2 : {}", name, key, ex.getMessage());
+            return null;
+        }
+    }
+
+    private boolean shouldRefreshEarly(CachedValue<V> cached, long now) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        // 1 - random is in (0, 1], so ln never sees 0
+        double gap = cached.computeMillis() * earlyRefreshBeta * -Math.log(1.0 - random.getAsDouble());
+        return now + gap >= cached.expiresAtMillis();
+    }
+
+    private void putL1(String key, CachedValue<V> cachedValue) {
+        l1.put(key, cachedValue);
+        String tag = tagOf(cachedValue);
+        if (tag != null) {
+            localTagIndex.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void untrack(String key, CachedValue<V> cachedValue) {
+        String tag = tagOf(cachedValue);
+        if (tag == null) {
+            return;
+        }
+        localTagIndex.computeIfPresent(tag, (t, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private String tagOf(CachedValue<V> cachedValue) {
+        if (tagExtractor == null || cachedValue == null || cachedValue.value() == null) {
+            return null;
+        }
+        return tagExtractor.apply(cachedValue.value());
+    }
+
+    private String tagKey(String tag) {
+        return tagKey(name, tag);
+    }
+
+    private String redisKey(String key) {
+        return redisKey(name, key);
+    }
+
+    static String tagKey(String name, String tag) {
+        return keyPrefix(name) + "tag:" + tag;
+    }
+
+    static String redisKey(String name, String key) {
+        return keyPrefix(name) + key;
+    }
+
+    static String keyPrefix(String name) {
+        return "journal:cache:" + name + ":";
+    }
+}
@@ -0,0 +1,150 @@
+package com.mylearning.journalapp.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Creates and keeps the named two-tier caches, sizing each one from CacheProperties.
+ *
+ * Keys are derived from the method arguments with {@link #key(Object...)}, so
+ * getPersonByNameAndAgePathVariable("john", 30) and ("john", 31) no longer share one entry.
+ *
+ * Cross-node invalidation: invalidate / invalidateTag / invalidateAll evict locally (and in L2) and then publish
+ * a CacheInvalidationMessage on the CacheInvalidationBus. Every other node evicts the same entries from its L1,
+ * the publishing node skips its own message. This is what allows long TTLs on the person caches.
+ */
+@Component
+@Slf4j
+public class TwoTierCacheManager {
+
+    private final Map<String, TwoTierCache<?>> caches = new ConcurrentHashMap<>();
+    private final CacheProperties cacheProperties;
+    private final RemoteCacheStore remoteCacheStore;
+    private final CacheValueCodec codec;
+    private final CacheInvalidationBus invalidationBus;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    public TwoTierCacheManager(CacheProperties cacheProperties, RemoteCacheStore remoteCacheStore, CacheValueCodec codec,
+                               CacheInvalidationBus invalidationBus) {
+        this.cacheProperties = cacheProperties;
+        this.remoteCacheStore = remoteCacheStore;
+        this.codec = codec;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    public <V> TwoTierCache<V> getCache(String name, Class<V> valueType) {
+        return getCache(name, valueType, null);
+    }
+
+    /**
+     * @param tagExtractor tag recorded with every value (e.g. person id), null for an untagged cache
+     */
+    @SuppressWarnings("unchecked")
+    public <V> TwoTierCache<V> getCache(String name, Class<V> valueType, Function<V, String> tagExtractor) {
+        return (TwoTierCache<V>) caches.computeIfAbsent(name, cacheName -> {
+            log.info("Creating two-tier cache {}", cacheName);
+            return new TwoTierCache<V>(cacheName, codec.typeOf(valueType), cacheProperties.resolve(cacheName),
+                    remoteCacheStore, codec, Clock.systemUTC(), () -> ThreadLocalRandom.current().nextDouble(), tagExtractor);
+        });
+    }
+
+    public void invalidate(String cacheName, String key) {
+        TwoTierCache<?> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidate(key);
+        } else {
+            deleteRemote(cacheName, () -> remoteCacheStore.delete(TwoTierCache.redisKey(cacheName, key)));
+        }
+        publish(CacheInvalidationMessage.Type.K, cacheName, key);
+    }
+
+    public void invalidateTag(String cacheName, String tag) {
+        TwoTierCache<?> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateTag(tag);
+        } else {
+            deleteRemote(cacheName, () -> TwoTierCache.invalidateRemoteTag(remoteCacheStore, cacheName, tag));
+        }
+        publish(CacheInvalidationMessage.Type.T, cacheName, tag);
+    }
+
+    public void invalidateAll(String cacheName) {
+        TwoTierCache<?> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateAll();
+        } else {
+            deleteRemote(cacheName, () -> TwoTierCache.invalidateRemoteAll(remoteCacheStore, cacheName));
+        }
+        publish(CacheInvalidationMessage.Type.A, cacheName, "");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    public Map<String, Object> getInvalidationStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("published", published.sum());
+        stats.put("received", received.sum());
+        return stats;
+    }
+
+    private void deleteRemote(String cacheName, Runnable delete) {
+        try {
+            delete.run();
+        } catch (RuntimeException ex) {
+            log.warn("Cache {} unable to invalidate in L2 : {}", cacheName, ex.getMessage());
+        }
+    }
+
+    private void publish(CacheInvalidationMessage.Type type, String cacheName, String value) {
+        invalidationBus.publish(new CacheInvalidationMessage(type, nodeId, cacheName, value));
+        published.increment();
+    }
+
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (nodeId.equals(message.sourceNode())) {
+            return;
+        }
+        received.increment();
+        TwoTierCache<?> cache = caches.get(message.cacheName());
+        if (cache == null) {
+            return;
+        }
+        log.debug("Cache {} invalidation {} {} from node {}", message.cacheName(), message.type(), message.value(), message.sourceNode());
+        switch (message.type()) {
+            case K -> cache.invalidateLocal(message.value());
+            case T -> cache.invalidateTagLocal(message.value());
+            case A -> cache.invalidateAllLocal();
+        }
+    }
+
+    public static String key(Object... args) {
+        StringJoiner key = new StringJoiner(":");
+        for (Object arg : args) {
+            key.add(String.valueOf(arg));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package com.mylearning.journalapp.client;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * DataLoader-style batching of single-key lookups into one multi-key call.
+ *
+ * load(key) does not call the server. The key is parked, and every key requested within the same window
+ * (one "tick", a few milliseconds) is sent together through batchCall, e.g. GET /api/person/by-ids?ids=a,b,c
+ * instead of three GET /api/person/{id}. A page rendering 50 persons costs one HTTP call and one Mongo $in query.
+ *
+ * - keys requested twice in the same window are sent once, both callers get the same value
+ * - the batch is dispatched early when it reaches maxBatchSize
+ * - a key absent from the batch result completes empty, the caller decides whether that is an error
+ * - a failed batch call fails every caller of that batch
+ *
+ * Unlike RequestCoalescer this merges DIFFERENT keys, the window is what makes them meet.
+ * It is not a cache either: once a batch is dispatched the next load of the same key goes to the server again.
+ */
+@Slf4j
+public class BatchingLoader<K, V> {
+
+    private final String name;
+    private final Function<List<K>, Mono<Map<K, V>>> batchCall;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final Scheduler scheduler;
+
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private Disposable scheduledDispatch;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+
+    public BatchingLoader(String name, Function<List<K>, Mono<Map<K, V>>> batchCall, int maxBatchSize,
+                          Duration window, Scheduler scheduler) {
+        this.name = name;
+        this.batchCall = batchCall;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.scheduler = scheduler;
+    }
+
+    public Mono<V> load(K key) {
+        // the key joins a batch on subscribe, an assembled but never subscribed Mono sends nothing
+        // cancelling one caller must not cancel the future shared with the other callers of the same key
+        return Mono.defer(() -> Mono.fromFuture(enqueue(key), true));
+    }
+
+    private CompletableFuture<V> enqueue(K key) {
+        loads.increment();
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> result;
+        synchronized (lock) {
+            result = pending.get(key);
+            if (result != null) {
+                deduplicated.increment();
+                return result;
+            }
+            result = new CompletableFuture<>();
+            pending.put(key, result);
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                scheduledDispatch = scheduler.schedule(this::dispatchPending, window.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loads", loads.sum());
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("batches", batchCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) batchedKeys.sum() / batchCount);
+        return stats;
+    }
+
+    private void dispatchPending() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    // caller holds the lock
+    private Map<K, CompletableFuture<V>> drain() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledDispatch != null) {
+            scheduledDispatch.dispose();
+            scheduledDispatch = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        batches.increment();
+        batchedKeys.add(batch.size());
+        List<K> keys = new ArrayList<>(batch.keySet());
+        log.debug("BatchingLoader {} dispatching {} keys", name, keys.size());
+        Mono.defer(() -> batchCall.apply(keys))
+                .defaultIfEmpty(Map.of())
+                .subscribe(values -> batch.forEach((key, result) -> result.complete(values.get(key))),
+                        error -> batch.values().forEach(result -> result.completeExceptionally(error)));
+    }
+}
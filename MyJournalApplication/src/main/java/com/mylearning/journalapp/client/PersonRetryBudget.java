@@ -0,0 +1,99 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientconfig.PersonHedgingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Token bucket that caps the extra load generated by hedges (RequestHedger) and Feign retries (BudgetedRetryer).
+ *
+ * Each original request deposits ratio tokens, each hedge or retry withdraws one. The bucket holds at most maxTokens,
+ * so over any period extra calls <= ratio * requests + maxTokens. With the ratio capped at 1 hedging and retrying
+ * can never more than double the load on CodeBuffer, and when CodeBuffer is slow for everybody (every request
+ * wants a hedge) the bucket drains and the extra calls stop instead of piling on.
+ *
+ * A logical request deposits once, also when it is made of several attempts: RequestHedger deposits for the call and
+ * runs its attempts through {@link #callPrepaid(Supplier)}, so the Feign invocations inside them (BudgetedRetryer)
+ * do not deposit again.
+ */
+@Component
+public class PersonRetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    // set while an attempt of a request that already deposited runs on this thread
+    private final ThreadLocal<Boolean> prepaid = ThreadLocal.withInitial(() -> false);
+
+    @Autowired
+    public PersonRetryBudget(PersonHedgingProperties properties) {
+        this(properties.getBudgetRatio(), properties.getBudgetMaxTokens());
+    }
+
+    PersonRetryBudget(double ratio, double maxTokens) {
+        this.ratio = Math.min(1.0, Math.max(0.0, ratio));
+        this.maxTokens = Math.max(0.0, maxTokens);
+        this.tokens = this.maxTokens;
+    }
+
+    /** An original (non hedge, non retry) request was sent. Nothing is deposited inside {@link #callPrepaid}. */
+    public void onRequest() {
+        if (prepaid.get()) {
+            return;
+        }
+        synchronized (this) {
+            tokens = Math.min(maxTokens, tokens + ratio);
+        }
+        deposits.increment();
+    }
+
+    /** Runs one attempt of a request that already deposited, onRequest() is a no-op on this thread meanwhile. */
+    public <T> T callPrepaid(Supplier<T> attempt) {
+        if (prepaid.get()) {
+            return attempt.get();
+        }
+        prepaid.set(true);
+        try {
+            return attempt.get();
+        } finally {
+            prepaid.remove();
+        }
+    }
+
+    /** @return true when one hedge / retry may be sent */
+    public synchronized boolean tryWithdraw() {
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            withdrawals.increment();
+            return true;
+        }
+        exhausted.increment();
+        return false;
+    }
+
+    /** Gives back a token taken by tryWithdraw() for a hedge / retry that was not sent after all. */
+    public synchronized void refund() {
+        tokens = Math.min(maxTokens, tokens + 1.0);
+        withdrawals.decrement();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ratio", ratio);
+        stats.put("tokens", tokens);
+        stats.put("maxTokens", maxTokens);
+        stats.put("requests", deposits.sum());
+        stats.put("spent", withdrawals.sum());
+        stats.put("exhausted", exhausted.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,233 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientconfig.MyPersonClientInterface;
+import com.mylearning.journalapp.clientexception.PersonCallingClientException;
+import com.mylearning.journalapp.clientexception.PersonCallingServerException;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchItem;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Write-behind batching of person creates.
+ *
+ * Import jobs create persons one by one (savePersonPostForObject / createPersonExchange), that is one HTTP round trip
+ * and one Mongo insert per person. Here every create is parked in a buffer and the buffer is sent as ONE
+ * POST /api/person/batch when either
+ * 1. it holds max-batch-size persons, or
+ * 2. max-delay has passed since the first person entered it.
+ * So 5000 creates become 50 calls of 100 instead of 5000 calls, at the cost of at most max-delay of extra latency.
+ *
+ * Each caller gets its own CompletableFuture, completed with its own id or failed with its own error from the
+ * per-item result; a failed batch call fails every person of that batch.
+ * max-pending bounds the persons waiting in the buffer + in flight, beyond it submit fails fast instead of queueing.
+ */
+@Component
+@Slf4j
+public class PersonWriteAggregator {
+
+    private final Function<List<Person>, Mono<PersonBatchResponse>> batchCall;
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+    private final int maxPending;
+    private final Duration blockTimeout;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<PendingWrite> buffer = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private int pending;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedItems = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public PersonWriteAggregator(MyPersonClientInterface personClient,
+                                 @Value("${person.write-aggregator.max-batch-size:100}") int maxBatchSize,
+                                 @Value("${person.write-aggregator.max-delay-millis:20}") long maxDelayMillis,
+                                 @Value("${person.write-aggregator.max-pending:10000}") int maxPending,
+                                 @Value("${person.write-aggregator.block-timeout-seconds:30}") long blockTimeoutSeconds) {
+        this(personClient::createPersonBatch, maxBatchSize, Duration.ofMillis(maxDelayMillis), maxPending,
+                Duration.ofSeconds(blockTimeoutSeconds), Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "person-write-aggregator");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    PersonWriteAggregator(Function<List<Person>, Mono<PersonBatchResponse>> batchCall, int maxBatchSize, Duration maxDelay,
+                          int maxPending, Duration blockTimeout, ScheduledExecutorService scheduler) {
+        this.batchCall = batchCall;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.maxPending = maxPending;
+        this.blockTimeout = blockTimeout;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues the person for the next batch, the future completes with the id assigned by the server.
+     */
+    public CompletableFuture<ObjectId> submit(Person person) {
+        PendingWrite write = new PendingWrite(person, new CompletableFuture<>());
+        List<PendingWrite> full = null;
+        synchronized (lock) {
+            if (pending >= maxPending) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(
+                        new PersonCallingClientException("Too many pending person creates : " + pending));
+            }
+            pending++;
+            buffer.add(write);
+            if (buffer.size() >= maxBatchSize) {
+                full = drain();
+            } else if (buffer.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, maxDelay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        submitted.increment();
+        if (full != null) {
+            dispatch(full);
+        }
+        return write.result();
+    }
+
+    /**
+     * Blocking variant for the import jobs, same semantics as savePersonPostForObject.
+     */
+    public ObjectId create(Person person) {
+        try {
+            return submit(person).get(blockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new PersonCallingServerException(ex.getMessage());
+        } catch (TimeoutException ex) {
+            throw new PersonCallingServerException("Person create not acknowledged within " + blockTimeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PersonCallingServerException("Interrupted while waiting for person create");
+        }
+    }
+
+    /**
+     * Sends whatever is buffered now, called by the max-delay timer and on shutdown.
+     */
+    public void flush() {
+        List<PendingWrite> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("submitted", submitted.sum());
+        stats.put("batches", batchCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) submitted.sum() / batchCount);
+        stats.put("failedItems", failedItems.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("rejected", rejected.sum());
+        synchronized (lock) {
+            stats.put("pending", pending);
+        }
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("maxDelayMillis", maxDelay.toMillis());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    // caller holds the lock
+    private List<PendingWrite> drain() {
+        List<PendingWrite> batch = buffer;
+        buffer = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<PendingWrite> batch) {
+        batches.increment();
+        List<Person> persons = batch.stream().map(PendingWrite::person).toList();
+        log.debug("PersonWriteAggregator sending batch of {} persons", persons.size());
+        Mono.defer(() -> batchCall.apply(persons))
+                // an empty reply must still settle the callers and give back the pending slots
+                .switchIfEmpty(Mono.error(() -> new PersonCallingServerException("Empty response for a batch of persons")))
+                .subscribe(response -> complete(batch, response),
+                        error -> fail(batch, error));
+    }
+
+    private void complete(List<PendingWrite> batch, PersonBatchResponse response) {
+        Map<Integer, PersonBatchItem> itemsByIndex = new LinkedHashMap<>();
+        if (response.getItems() != null) {
+            response.getItems().forEach(item -> itemsByIndex.put(item.getIndex(), item));
+        }
+        for (int index = 0; index < batch.size(); index++) {
+            PersonBatchItem item = itemsByIndex.get(index);
+            CompletableFuture<ObjectId> result = batch.get(index).result();
+            if (item != null && item.getError() == null && item.getPersonId() != null) {
+                result.complete(item.getPersonId());
+            } else {
+                failedItems.increment();
+                String error = item == null ? "No result returned for this person" : item.getError();
+                result.completeExceptionally(new PersonCallingClientException(error));
+            }
+        }
+        release(batch.size());
+    }
+
+    private void fail(List<PendingWrite> batch, Throwable error) {
+        failedBatches.increment();
+        log.error("PersonWriteAggregator batch of {} persons failed : {}", batch.size(), error.getMessage());
+        RuntimeException cause = error instanceof RuntimeException runtimeException
+                ? runtimeException : new PersonCallingServerException(error.getMessage());
+        batch.forEach(write -> write.result().completeExceptionally(cause));
+        release(batch.size());
+    }
+
+    private void release(int count) {
+        synchronized (lock) {
+            pending -= count;
+        }
+    }
+
+    private record PendingWrite(Person person, CompletableFuture<ObjectId> result) {
+    }
+}
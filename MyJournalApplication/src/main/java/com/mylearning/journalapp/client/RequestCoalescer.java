@@ -0,0 +1,142 @@
+package com.mylearning.journalapp.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for idempotent GETs against the person API.
+ *
+ * Many journal requests ask for the same thing at the same moment (population by city, oldest person by city,
+ * person by name and age). Without this each of them is its own HTTP round trip and its own Mongo aggregation on the
+ * CodeBuffer side. Here the first caller for a key (the leader) performs the call, every caller arriving while it is
+ * still in flight (a merge) waits for the same result, and the key is released as soon as the call completes, so
+ * this is NOT a cache: a call that starts after the previous one finished goes to the server again.
+ *
+ * Keys are "operation:arg1:arg2..." so only calls with identical arguments are merged.
+ * The merged callers receive the SAME result instance, treat it as read-only.
+ *
+ * Blocking callers  -> {@link #execute(String, Supplier)}
+ * Mono callers      -> {@link #executeMono(String, Supplier)}
+ * Flux callers      -> {@link #executeFlux(String, Supplier)}, the elements are collected once and replayed to every
+ *                      merged subscriber, meant for the small aggregation results, not for unbounded streams.
+ */
+@Component
+@Slf4j
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+    private final Map<String, Mono<Object>> inFlightMonos = new ConcurrentHashMap<>();
+    private final Map<String, OperationCounters> counters = new ConcurrentHashMap<>();
+
+    public static String key(String operation, Object... args) {
+        StringBuilder key = new StringBuilder(operation);
+        for (Object arg : args) {
+            key.append(':').append(arg);
+        }
+        return key.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightCalls.putIfAbsent(key, future);
+        if (existing != null) {
+            countersFor(key).merged.increment();
+            return (T) join(existing);
+        }
+        countersFor(key).executions.increment();
+        try {
+            T result = call.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            // Errors and sneaky checked exceptions too, a merged caller must never wait on a future nobody completes
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightCalls.remove(key, future);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeMono(String key, Supplier<Mono<T>> call) {
+        // registration happens on subscribe, an assembled but never subscribed Mono must not hold the key
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<Object> shared = inFlightMonos.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                Mono<Object>[] self = new Mono[1];
+                self[0] = Mono.defer(() -> (Mono<Object>) call.get())
+                        .doFinally(signal -> inFlightMonos.remove(k, self[0]))
+                        .cache();
+                return self[0];
+            });
+            if (leader[0]) {
+                countersFor(key).executions.increment();
+            } else {
+                countersFor(key).merged.increment();
+            }
+            return (Mono<T>) shared;
+        });
+    }
+
+    public <T> Flux<T> executeFlux(String key, Supplier<Flux<T>> call) {
+        return this.<List<T>>executeMono(key, () -> call.get().collectList())
+                .flatMapIterable(elements -> elements);
+    }
+
+    /**
+     * operation -> executions (calls that really went to the server) / merged (calls that joined one in flight)
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        counters.forEach((operation, operationCounters) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("executions", operationCounters.executions.sum());
+            values.put("merged", operationCounters.merged.sum());
+            stats.put(operation, values);
+        });
+        return stats;
+    }
+
+    private OperationCounters countersFor(String key) {
+        int separator = key.indexOf(':');
+        String operation = separator < 0 ? key : key.substring(0, separator);
+        return counters.computeIfAbsent(operation, op -> new OperationCounters());
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced person call", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private static final class OperationCounters {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder merged = new LongAdder();
+    }
+}
@@ -0,0 +1,271 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientconfig.PersonHedgingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for idempotent person GETs (opt-in, person.hedging.enabled).
+ *
+ * The p99 of getPersonByNameAndAgePathVariable / getPersonById / search is dominated by the occasional slow Mongo
+ * response on CodeBuffer, a retry on failure (the Feign retryer) does nothing for it. Here, when the first attempt
+ * has not answered within the operation's recent p95 (person.hedging.percentile), a second identical attempt is sent
+ * and whichever answers first wins, the other one is cancelled.
+ *
+ * 1. The delay is a percentile of the latencies seen for that operation (last window-size calls), so only the slowest
+ *    ~5% of calls are hedged. Until min-samples are known initial-delay is used.
+ * 2. Every hedge spends a token of the shared PersonRetryBudget, when it is empty the first attempt simply runs on.
+ *    The call deposits once, its blocking attempts run prepaid so the Feign retryer inside them does not deposit too.
+ * 3. The first attempt to finish wins, also when it fails: hedging is about latency, errors are left to the
+ *    circuit breaker and the retry policy.
+ *
+ * Mono callers     -> {@link #hedgeMono(String, Supplier)}, the loser's subscription is cancelled (Netty closes or
+ *                     releases its connection).
+ * Flux callers     -> {@link #hedgeFlux(String, Supplier)}, for the small single-page results only, the elements
+ *                     are collected before they are emitted.
+ * Blocking callers -> {@link #hedge(String, Supplier)}, both attempts run on the person-hedge pool and the loser is
+ *                     interrupted. A blocking socket read is not interruptible, so such a loser finishes in the
+ *                     background and its result is dropped.
+ *
+ * There is a single CodeBuffer instance (person.url), the hedge goes to the same instance over another pooled
+ * connection.
+ */
+@Component
+@Slf4j
+public class RequestHedger {
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long initialDelayNanos;
+    private final int minSamples;
+    private final int windowSize;
+    private final PersonRetryBudget budget;
+    private final ExecutorService executor;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RequestHedger(PersonHedgingProperties properties, PersonRetryBudget budget) {
+        this(properties, budget, hedgeExecutor(properties.getMaxThreads()));
+    }
+
+    RequestHedger(PersonHedgingProperties properties, PersonRetryBudget budget, ExecutorService executor) {
+        this.enabled = properties.isEnabled();
+        this.percentile = Math.min(100.0, Math.max(0.0, properties.getPercentile()));
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMinDelayMillis());
+        this.initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getInitialDelayMillis());
+        this.minSamples = Math.max(1, properties.getMinSamples());
+        this.windowSize = Math.max(minSamples, properties.getWindowSize());
+        this.budget = budget;
+        this.executor = executor;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> T hedge(String operationName, Supplier<T> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        Operation operation = operationFor(operationName);
+        budget.onRequest();
+        operation.requests.increment();
+        Supplier<T> prepaid = () -> budget.callPrepaid(attempt);
+        long start = System.nanoTime();
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        Future<T> primary;
+        try {
+            primary = completion.submit(prepaid::get);
+        } catch (RejectedExecutionException ex) {
+            operation.unhedged.increment();
+            return prepaid.get();
+        }
+        Future<T> secondary = null;
+        try {
+            Future<T> winner = completion.poll(operation.delayNanos(), TimeUnit.NANOSECONDS);
+            if (winner == null && budget.tryWithdraw()) {
+                secondary = submitHedge(completion, prepaid, operation);
+            }
+            if (winner == null) {
+                winner = completion.take();
+            }
+            if (winner == secondary) {
+                operation.hedgeWins.increment();
+            }
+            T result = winner.get();
+            operation.record(System.nanoTime() - start);
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operationName, ex);
+        } catch (ExecutionException ex) {
+            throw propagate(ex.getCause());
+        } finally {
+            primary.cancel(true);
+            if (secondary != null) {
+                secondary.cancel(true);
+            }
+        }
+    }
+
+    public <T> Mono<T> hedgeMono(String operationName, Supplier<Mono<T>> attempt) {
+        if (!enabled) {
+            return Mono.defer(attempt);
+        }
+        return Mono.defer(() -> {
+            Operation operation = operationFor(operationName);
+            budget.onRequest();
+            operation.requests.increment();
+            long start = System.nanoTime();
+            Mono<T> hedge = Mono.delay(Duration.ofNanos(operation.delayNanos()))
+                    .flatMap(tick -> {
+                        if (!budget.tryWithdraw()) {
+                            // the first attempt's signal wins on its own
+                            return Mono.never();
+                        }
+                        operation.hedged.increment();
+                        return Mono.defer(attempt).doOnSuccess(value -> operation.hedgeWins.increment());
+                    });
+            // first signal wins (value, empty or error), the other source is cancelled
+            return Mono.firstWithSignal(Mono.defer(attempt), hedge)
+                    .doOnSuccess(value -> operation.record(System.nanoTime() - start));
+        });
+    }
+
+    public <T> Flux<T> hedgeFlux(String operationName, Supplier<Flux<T>> attempt) {
+        if (!enabled) {
+            return Flux.defer(attempt);
+        }
+        return hedgeMono(operationName, () -> attempt.get().collectList()).flatMapIterable(values -> values);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("budget", budget.getStats());
+        Map<String, Map<String, Object>> perOperation = new TreeMap<>();
+        operations.forEach((name, operation) -> perOperation.put(name, operation.getStats()));
+        stats.put("operations", perOperation);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submitHedge(ExecutorCompletionService<T> completion, Supplier<T> attempt, Operation operation) {
+        try {
+            Future<T> secondary = completion.submit(attempt::get);
+            operation.hedged.increment();
+            return secondary;
+        } catch (RejectedExecutionException ex) {
+            operation.unhedged.increment();
+            return null;
+        }
+    }
+
+    private Operation operationFor(String name) {
+        return operations.computeIfAbsent(name, n -> new Operation(windowSize));
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private static ExecutorService hedgeExecutor(int maxThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // no queue: when every thread is busy the call runs unhedged on the caller instead of waiting in line
+        return new ThreadPoolExecutor(0, Math.max(2, maxThreads), 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "person-hedge-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Latency window and counters of one operation. The percentile is recomputed every window/8 samples,
+     * not on every call.
+     */
+    private final class Operation {
+
+        private final long[] latencies;
+        private int next;
+        private int count;
+        private int sinceRecompute;
+        private boolean warm;
+        private volatile long delayNanos = initialDelayNanos;
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedged = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        private final LongAdder unhedged = new LongAdder();
+
+        private Operation(int windowSize) {
+            this.latencies = new long[windowSize];
+        }
+
+        long delayNanos() {
+            return delayNanos;
+        }
+
+        synchronized void record(long latencyNanos) {
+            latencies[next] = latencyNanos;
+            next = (next + 1) % latencies.length;
+            count = Math.min(count + 1, latencies.length);
+            sinceRecompute++;
+            if (count < minSamples) {
+                return;
+            }
+            if (warm && sinceRecompute < Math.max(1, latencies.length / 8)) {
+                return;
+            }
+            warm = true;
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, Math.min(count - 1, index))]);
+        }
+
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests.sum());
+            stats.put("hedged", hedged.sum());
+            stats.put("hedgeWins", hedgeWins.sum());
+            stats.put("unhedged", unhedged.sum());
+            stats.put("delayMillis", delayNanos / 1_000_000.0);
+            return stats;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.mylearning.journalapp.client;
 
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.cache.PersonCacheInvalidator;
+import com.mylearning.journalapp.clientconfig.JwtTokenManager;
 import com.mylearning.journalapp.clientconfig.MyPersonClientInterface;
 import com.mylearning.journalapp.clientconfig.PersonClient;
 import com.mylearning.journalapp.clientexception.PersonCallingClientException;
@@ -10,6 +12,7 @@ import com.mylearning.journalapp.clientexception.PersonNotFoundException;
 import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
 import com.mylearning.journalapp.clientresponse.LoginDto;
 import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
 import com.mylearning.journalapp.clientresponse.PersonResource;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
@@ -27,6 +30,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -48,51 +53,65 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "person.client.type", havingValue = "rest-client")
 public class RestClientCodeBufferPersonClient implements MyPersonClientInterface {
 
-    private static String JWT_TOKEN = null;
-
     private final RestClient restClient;
 
     private final PersonClient personClient;
+
+    private final JwtTokenManager jwtTokenManager;
+
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+
+    private final PersonCacheInvalidator personCacheInvalidator;
     @Autowired
-    public RestClientCodeBufferPersonClient(RestClient restClient, PersonClient personClient) {
+    public RestClientCodeBufferPersonClient(RestClient restClient, PersonClient personClient, JwtTokenManager jwtTokenManager, RequestCoalescer requestCoalescer, RequestHedger requestHedger, PersonCacheInvalidator personCacheInvalidator) {
         this.restClient = restClient;
         this.personClient = personClient;
+        this.jwtTokenManager = jwtTokenManager;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.personCacheInvalidator = personCacheInvalidator;
     }
 
 
     public List<Document> getPopulationByCity(){
-        return restClient.get()
-                .uri("/populationByCity")
-                .accept(MediaType.APPLICATION_JSON)
-                .header("Authorization",getJwtAccessToken())
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<Document>>() {
-                });
-
+        return requestCoalescer.execute(RequestCoalescer.key("populationByCity"), () -> {
+            return restClient.get()
+                    .uri("/populationByCity")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("Authorization",getJwtAccessToken())
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<Document>>() {
+                    });
+        });
     }
 
     public ResponseEntity<List<Document>> getOldestPersonByCity(){
-        return restClient.get()
-                .uri("/oldestPerson")
-                .accept(MediaType.APPLICATION_JSON)
-                .header("Authorization",getJwtAccessToken())
-                .retrieve()
-                .toEntity(new ParameterizedTypeReference<List<Document>>() {});
+        return requestCoalescer.execute(RequestCoalescer.key("oldestPersonByCity"), () -> {
+            return restClient.get()
+                    .uri("/oldestPerson")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("Authorization",getJwtAccessToken())
+                    .retrieve()
+                    .toEntity(new ParameterizedTypeReference<List<Document>>() {});
+        });
     }
 
     public Person getPersonByNameAndAgePathVariable(String fistName, Integer age){
-        String personUrl = "http://localhost:8081/api/person/{name}/{age}";
-
-        Map<String,String> mapVal = new HashMap<>();
-        mapVal.put("name",fistName);
-        mapVal.put("age",String.valueOf(age));
-
-        return restClient.get()
-                .uri("/{name}/{age}", mapVal)
-                .accept(MediaType.APPLICATION_JSON)
-                .header("Authorization",getJwtAccessToken())
-                .retrieve()
-                .body(Person.class);
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", fistName, age), () -> requestHedger.hedge("personByNameAndAge", () -> {
+            String personUrl = "http://localhost:8081/api/person/{name}/{age}";
+
+            Map<String,String> mapVal = new HashMap<>();
+            mapVal.put("name",fistName);
+            mapVal.put("age",String.valueOf(age));
+
+            return restClient.get()
+                    .uri("/{name}/{age}", mapVal)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("Authorization",getJwtAccessToken())
+                    .retrieve()
+                    .body(Person.class);
+        }));
     }
 
 
@@ -118,8 +137,9 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
         AtomicReference<Object> pagedModelObject = new AtomicReference<>();
 
         //PagedModel body
+        // hedged when person.hedging.enabled, see RequestHedger
         Object obj
-                = restClient.get()
+                = requestHedger.hedge("searchPerson", () -> restClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/search") // try to use .query() and .path()
                         .queryParamIfPresent("name", name)
@@ -142,7 +162,7 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                     // Throw an exception with a meaningful message
                     throw new PersonCallingServerException("Server Side Error Occurred: ");
                 })
-                .body(Object.class);    // only this one worked in my case
+                .body(Object.class));    // only this one worked in my case
                 //.toEntity(PagedModel.class).getBody();
                 //.toEntity(new ParameterizedTypeReference<PagedModel<PersonResource>>() {}).getBody();
                 //.body(new ParameterizedTypeReference<PagedModel<PersonResource>>() {});
@@ -189,8 +209,21 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                 .toEntity(Person.class);
     }
 
+    @Override
+    public Mono<PersonBatchResponse> createPersonBatch(List<Person> persons) {
+        return Mono.fromCallable(() -> restClient.post()
+                        .uri("/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("Authorization",getJwtAccessToken())
+                        .body(persons)
+                        .retrieve()
+                        .body(PersonBatchResponse.class))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
     public ResponseEntity<Person> updatePerson(Person updatePerson, ObjectId personId){
-        return restClient.put()
+        return personCacheInvalidator.afterWrite(personId, restClient.put()
                 .uri(uriBuilder -> uriBuilder
                         .queryParam("personId",personId)
                         .build())
@@ -202,7 +235,7 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                 .onStatus(status -> status.value() == 404, (request, response) -> {
                     throw new PersonNotFoundException("PERSON NOT FOUND TO BE DELETED");
                 })
-                .toEntity(Person.class);
+                .toEntity(Person.class));
 
     }
 
@@ -212,11 +245,12 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                 .header("Authorization",getJwtAccessToken())
                 .retrieve()
                 .toBodilessEntity();
+        personCacheInvalidator.personChanged(personId);
         return bodilessEntity.getBody();
     }
 
     public Void deletePersonExchange(ObjectId personId) {
-        return restClient.delete()
+        return personCacheInvalidator.afterWrite(personId, restClient.delete()
                 .uri("/{id}", personId)
                 .header("Authorization",getJwtAccessToken())
                 .exchange((request, response) ->{
@@ -231,11 +265,11 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                     }
                     return response.bodyTo(Void.class);
 
-                });
+                }));
     }
 
     public Person updatePersonExchange(Person updatePerson, ObjectId personId){
-        return restClient.put()
+        return personCacheInvalidator.afterWrite(personId, restClient.put()
                 .uri(uriBuilder -> uriBuilder
                         .queryParam("personId", personId)
                         .build())
@@ -253,7 +287,7 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                         throw new PersonCallingServerException("SERVER SIDE ERROR OCCURRED" + response.getStatusCode());
                     }
                     return Objects.requireNonNull(response.bodyTo(Person.class));
-                });
+                }));
     }
 
     public Object searchPersonExchange(Optional<String> name, Optional<Integer> minAge,
@@ -324,16 +358,18 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
      */
 
     public List<Document> getOldestPersonByCityExchange(){
-        List<Document> oldestPersonByCity = personClient.getOldestPersonByCityExchange();
+        List<Document> oldestPersonByCity = requestCoalescer.execute(RequestCoalescer.key("oldestPersonByCityExchange"),
+                personClient::getOldestPersonByCityExchange);
         return oldestPersonByCity;
     }
 
     public List<Document> getPopulationByCityExchange(){
-        return personClient.getPopulationByCityExchange();
+        return requestCoalescer.execute(RequestCoalescer.key("populationByCityExchange"), personClient::getPopulationByCityExchange);
     }
 
     public Person getPersonByNameAndAgePathVariableExchange(String fistName, Integer age){
-        return personClient.getPersonByNameAndAgePathVariableExchange(fistName, age);
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", fistName, age),
+                () -> requestHedger.hedge("personByNameAndAge", () -> personClient.getPersonByNameAndAgePathVariableExchange(fistName, age)));
     }
 
     public Person createPersonExchange(Person person){
@@ -341,11 +377,12 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
     }
 
     public Person updatePersonByExchange(Person updatePerson, ObjectId personId){
-        return personClient.updatePersonByExchange(updatePerson, personId);
+        return personCacheInvalidator.afterWrite(personId, personClient.updatePersonByExchange(updatePerson, personId));
     }
 
     public void deletePersonByExchange(ObjectId personId) {
         personClient.deletePersonByExchange(personId);
+        personCacheInvalidator.personChanged(personId);
     }
 
     public List<PersonResource> getAllPersonByExchange(){
@@ -357,20 +394,33 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                                                    Optional<Integer> page, Optional<Integer> size) {
         log.info("RestClientCodeBufferPersonClient searchPersonByExchange called");
 
-        Object personResources = personClient.searchPersonByExchange(
+        Object personResources = requestHedger.hedge("searchPerson", () -> personClient.searchPersonByExchange(
                 name.orElse(null),  // Convert Optional to null if empty
                 minAge.orElse(null),
                 maxAge.orElse(null),
                 city.orElse(null),
                 page.orElse(0),     // Default to 0 if page is empty
                 size.orElse(5)
-        );
+        ));
         log.info("RestClientCodeBufferPersonClient searchPersonByExchange personResources :: {}", personResources);
         return personResources;
     }
 
     public JWTAuthResponse login(LoginDto loginDto) {
         log.info("RestClientCodeBufferPersonClient login called");
+        return jwtTokenManager.login(loginDto).block();
+    }
+
+    /**
+     * The restClient bean has no JwtInterceptor, so the login request never asks the token manager for a token.
+     * RestClient blocks, hence boundedElastic.
+     */
+    @Override
+    public Mono<JWTAuthResponse> fetchJwtToken(LoginDto loginDto) {
+        return Mono.fromCallable(() -> requestJwtToken(loginDto)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private JWTAuthResponse requestJwtToken(LoginDto loginDto) {
         String personUrl = "http://localhost:8081/api/codebuffer/person/login";
         JWTAuthResponse jwtAuthResponse = restClient.post()
                 .uri(personUrl)
@@ -378,16 +428,13 @@ public class RestClientCodeBufferPersonClient implements MyPersonClientInterface
                 .body(loginDto)
                 .retrieve()
                 .body(JWTAuthResponse.class);
-        log.info("RestClientCodeBufferPersonClient jwtAuthResponse : {}",jwtAuthResponse);
-        if( jwtAuthResponse!=null && !jwtAuthResponse.getAccessToken().isBlank() && !jwtAuthResponse.getAccessToken().isEmpty()){
-            JWT_TOKEN = jwtAuthResponse.getAccessToken();
-        }
+        log.info("RestClientCodeBufferPersonClient jwtAuthResponse received");
         return jwtAuthResponse;
 
     }
 
     public String getJwtAccessToken(){
-        return "Bearer " + JWT_TOKEN;
+        return jwtTokenManager.getJwtAccessToken();
     }
 
 }
@@ -1,5 +1,8 @@
 package com.mylearning.journalapp.client;
 
+import com.mylearning.journalapp.cache.PersonCacheInvalidator;
+import com.mylearning.journalapp.clientconfig.InterceptorContext;
+import com.mylearning.journalapp.clientconfig.JwtTokenManager;
 import com.mylearning.journalapp.clientconfig.MyPersonClientInterface;
 import com.mylearning.journalapp.clientexception.PersonCallingClientException;
 import com.mylearning.journalapp.clientexception.PersonCallingServerException;
@@ -20,6 +23,8 @@ import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.net.URI;
 import java.util.HashMap;
@@ -77,56 +82,75 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
 
     private final RestTemplate restTemplate;
 
-    private static String JWT_TOKEN = "";
+    private final JwtTokenManager jwtTokenManager;
 
-    public RestTemplateCodeBufferPersonClient(RestTemplate restTemplate) {
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+
+    private final PersonCacheInvalidator personCacheInvalidator;
+
+    public RestTemplateCodeBufferPersonClient(RestTemplate restTemplate, JwtTokenManager jwtTokenManager, RequestCoalescer requestCoalescer, RequestHedger requestHedger, PersonCacheInvalidator personCacheInvalidator) {
         this.restTemplate = restTemplate;
+        this.jwtTokenManager = jwtTokenManager;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.personCacheInvalidator = personCacheInvalidator;
     }
 
     public List<Document> getPopulationByCity(){
-        // api key any
-        //String api_key = ""
-        String personUrl = "http://localhost:8081/api/person/populationByCity";
-        ResponseEntity<List<Document>> personResponse = restTemplate.exchange(personUrl, HttpMethod.GET, null, ParameterizedTypeReference.forType(List.class));
-        return personResponse.getBody();
+        return requestCoalescer.execute(RequestCoalescer.key("populationByCity"), () -> {
+            // api key any
+            //String api_key = ""
+            String personUrl = "http://localhost:8081/api/person/populationByCity";
+            ResponseEntity<List<Document>> personResponse = restTemplate.exchange(personUrl, HttpMethod.GET, null, ParameterizedTypeReference.forType(List.class));
+            return personResponse.getBody();
+        });
     }
 
     public List<Document> getOldestPersonByCity(){
-        String personUrl = "http://localhost:8081/api/person/oldestPerson";
-        ResponseEntity<List<Document>> personResponse = restTemplate.exchange(personUrl, HttpMethod.GET, null, ParameterizedTypeReference.forType(List.class));
-        return personResponse.getBody();
+        return requestCoalescer.execute(RequestCoalescer.key("oldestPersonByCity"), () -> {
+            String personUrl = "http://localhost:8081/api/person/oldestPerson";
+            ResponseEntity<List<Document>> personResponse = restTemplate.exchange(personUrl, HttpMethod.GET, null, ParameterizedTypeReference.forType(List.class));
+            return personResponse.getBody();
+        });
     }
 
     /**
      * here in map name as key and age as key should match exactly as in the personUrl where in path-variable is specified as {name} and {age}
      */
     public Person getPersonByNameAndAgePathVariableGetForEntity(String fistName, Integer age){
-        String personUrl = "http://localhost:8081/api/person/{name}/{age}";
-        Map<String,String> mapVal = new HashMap<>();
-        mapVal.put("name",fistName);
-        mapVal.put("age",String.valueOf(age));
-        ResponseEntity<Person> personResponse = restTemplate.getForEntity(personUrl, Person.class,mapVal );
-        return personResponse.getBody();
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", fistName, age), () -> requestHedger.hedge("personByNameAndAge", () -> {
+            String personUrl = "http://localhost:8081/api/person/{name}/{age}";
+            Map<String,String> mapVal = new HashMap<>();
+            mapVal.put("name",fistName);
+            mapVal.put("age",String.valueOf(age));
+            ResponseEntity<Person> personResponse = restTemplate.getForEntity(personUrl, Person.class,mapVal );
+            return personResponse.getBody();
+        }));
     }
 
     public Person getPersonByNameAndAgePathVariableGetForObject(String fistName, Integer age){
-        String personUrl = "http://localhost:8081/api/person/{name}/{age}";
-        Map<String,String> mapVal = new HashMap<>();
-        mapVal.put("name",fistName);
-        mapVal.put("age",String.valueOf(age));
-        //return restTemplate.getForObject(personUrl, Person.class, mapVal ); // this will work
-        return restTemplate.getForObject(personUrl, Person.class, fistName,age ); // this will also work
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", fistName, age), () -> requestHedger.hedge("personByNameAndAge", () -> {
+            String personUrl = "http://localhost:8081/api/person/{name}/{age}";
+            Map<String,String> mapVal = new HashMap<>();
+            mapVal.put("name",fistName);
+            mapVal.put("age",String.valueOf(age));
+            //return restTemplate.getForObject(personUrl, Person.class, mapVal ); // this will work
+            return restTemplate.getForObject(personUrl, Person.class, fistName,age ); // this will also work
+        }));
     }
 
     public Person getPersonByNameAndAgePathVariableGetForExchange(String fistName, Integer age){
-        String personUrl = "http://localhost:8081/api/person/{name}/{age}";
-        Map<String,String> mapVal = new HashMap<>();
-        mapVal.put("name",fistName);
-        mapVal.put("age",String.valueOf(age));
-
-        //ResponseEntity<Person> personResponseEntity = restTemplate.exchange(personUrl, HttpMethod.GET, null, Person.class, mapVal);// this will also work
-        ResponseEntity<Person> personResponseEntity = restTemplate.exchange(personUrl, HttpMethod.GET, null, Person.class, fistName,age);// this will also work
-        return personResponseEntity.getBody();
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", fistName, age), () -> requestHedger.hedge("personByNameAndAge", () -> {
+            String personUrl = "http://localhost:8081/api/person/{name}/{age}";
+            Map<String,String> mapVal = new HashMap<>();
+            mapVal.put("name",fistName);
+            mapVal.put("age",String.valueOf(age));
+
+            //ResponseEntity<Person> personResponseEntity = restTemplate.exchange(personUrl, HttpMethod.GET, null, Person.class, mapVal);// this will also work
+            ResponseEntity<Person> personResponseEntity = restTemplate.exchange(personUrl, HttpMethod.GET, null, Person.class, fistName,age);// this will also work
+            return personResponseEntity.getBody();
+        }));
     }
 
     /**
@@ -145,26 +169,27 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
      * @return Person
      */
     public Person getPersonByNameAndAgePathVariableGetForExecute(String fistName, Integer age){
-        String personUrl = "http://localhost:8081/api/person/{name}/{age}";
-
-        Map<String,String> mapVal = new HashMap<>();
-        mapVal.put("name",fistName);
-        mapVal.put("age",String.valueOf(age));
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", fistName, age), () -> requestHedger.hedge("personByNameAndAge", () -> {
+            String personUrl = "http://localhost:8081/api/person/{name}/{age}";
 
-        RequestCallback requestCallback = request -> {
-            // You can customize the request if needed
+            Map<String,String> mapVal = new HashMap<>();
+            mapVal.put("name",fistName);
+            mapVal.put("age",String.valueOf(age));
 
-        };
+            RequestCallback requestCallback = request -> {
+                // You can customize the request if needed
 
-        ResponseExtractor<ResponseEntity<Person>> responseExtractor
-                = restTemplate.responseEntityExtractor(Person.class);
+            };
 
-        ResponseEntity<Person> personResponseEntity = restTemplate.execute(personUrl,HttpMethod.GET,requestCallback,responseExtractor,mapVal);// this will also work
-        //ResponseEntity<Person> personResponseEntity = restTemplate.execute(personUrl,HttpMethod.GET,requestCallback,responseExtractor,fistName,age);// this will also work
+            ResponseExtractor<ResponseEntity<Person>> responseExtractor
+                    = restTemplate.responseEntityExtractor(Person.class);
 
-        if(personResponseEntity!=null) return personResponseEntity.getBody();
-        else throw new PersonNotFoundException("Person Does Not Exist With Name :"+fistName+" Age :"+age);
+            ResponseEntity<Person> personResponseEntity = restTemplate.execute(personUrl,HttpMethod.GET,requestCallback,responseExtractor,mapVal);// this will also work
+            //ResponseEntity<Person> personResponseEntity = restTemplate.execute(personUrl,HttpMethod.GET,requestCallback,responseExtractor,fistName,age);// this will also work
 
+            if(personResponseEntity!=null) return personResponseEntity.getBody();
+            else throw new PersonNotFoundException("Person Does Not Exist With Name :"+fistName+" Age :"+age);
+        }));
     }
 
     public ObjectId savePersonPostForObject(Person person){
@@ -172,6 +197,13 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
         return restTemplate.postForObject(personUrl, person, ObjectId.class);
     }
 
+    @Override
+    public Mono<PersonBatchResponse> createPersonBatch(List<Person> persons) {
+        String personUrl = "http://localhost:8081/api/person/batch";
+        return Mono.fromCallable(() -> restTemplate.postForObject(personUrl, persons, PersonBatchResponse.class))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
     public URI savePersonPostForLocation(Person person){
         String personUrl = "http://localhost:8081/api/person";
         return restTemplate.postForLocation(personUrl, person, ObjectId.class);
@@ -237,6 +269,7 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
             if (personResponseEntity.getStatusCode().is2xxSuccessful()) {
                 Person personEntityBody = personResponseEntity.getBody();
                 log.info("Response: " + personEntityBody);
+                personCacheInvalidator.personChanged(personId);
                 return personResponseEntity;
             } else {
                log.error("Unexpected HTTP status: " + personResponseEntity.getStatusCode());
@@ -270,6 +303,7 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
         mapVal.put("id", String.valueOf(id));
         restTemplate.delete(personUrl, mapVal);
         //restTemplate.delete(personUrl, id);   // this will also work
+        personCacheInvalidator.personChanged(id);
     }
 
     public ResponseEntity<Void> deletePersonExchange(ObjectId id) {
@@ -279,7 +313,7 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
         Map<String,String> mapVal = new HashMap<>();
         mapVal.put("id", String.valueOf(id));
 
-        return restTemplate.exchange(personUrl, HttpMethod.DELETE, null, Void.class, mapVal);
+        return personCacheInvalidator.afterWrite(id, restTemplate.exchange(personUrl, HttpMethod.DELETE, null, Void.class, mapVal));
     }
 
     // ResponseEntity<org.springframework.hateoas.PagedModel<PersonResource>>
@@ -317,13 +351,13 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
             // The PersonPageResponse class should map to the structure of the paginated Page<Person> response.
             //ResponseEntity<PersonPageResponse> pageModelResponse =
             ResponseEntity<PagedModel<PersonResource>> pageModelResponse =
-                    restTemplate.exchange(
+                    requestHedger.hedge("searchPerson", () -> restTemplate.exchange(
                             urlBuilder.toUriString(),
                             HttpMethod.GET,
                             entity,
                             ParameterizedTypeReference.forType(PagedModel.class)
 
-                    );
+                    ));
 
 
             // Process the response
@@ -362,7 +396,26 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
     @Override
     public JWTAuthResponse login(LoginDto loginDto) {
         log.info("RestTemplateCodeBufferPersonClient login called");
+        return jwtTokenManager.login(loginDto).block();
+    }
+
+    /**
+     * Runs on boundedElastic because RestTemplate blocks, and disables the JwtInterceptor for this thread
+     * so the login request does not ask the token manager for the token it is about to fetch.
+     */
+    @Override
+    public Mono<JWTAuthResponse> fetchJwtToken(LoginDto loginDto) {
+        return Mono.fromCallable(() -> {
+            try {
+                InterceptorContext.setDisableInterceptor(true);
+                return requestJwtToken(loginDto);
+            } finally {
+                InterceptorContext.clear();
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
 
+    private JWTAuthResponse requestJwtToken(LoginDto loginDto) {
         // Define the URL
         String personUrl = "http://localhost:8081/api/codebuffer/person/login";
 
@@ -375,13 +428,12 @@ public class RestTemplateCodeBufferPersonClient implements MyPersonClientInterfa
 
         ResponseEntity<JWTAuthResponse> jwtAuthResponseEntity = restTemplate.exchange(personUrl, HttpMethod.POST, requestEntity, JWTAuthResponse.class);
         JWTAuthResponse jwtAuthResponse = jwtAuthResponseEntity.getBody();
-        log.info("RestTemplateCodeBufferPersonClient jwtAuthResponse : {}",jwtAuthResponse);
-        if( jwtAuthResponse!=null && !jwtAuthResponse.getAccessToken().isBlank() && !jwtAuthResponse.getAccessToken().isEmpty()) JWT_TOKEN = jwtAuthResponse.getAccessToken();
+        log.info("RestTemplateCodeBufferPersonClient jwtAuthResponse received");
         return jwtAuthResponse;
     }
 
     @Override
     public String getJwtAccessToken() {
-        return "Bearer " + JWT_TOKEN;
+        return jwtTokenManager.getJwtAccessToken();
     }
 }
@@ -0,0 +1,149 @@
+package com.mylearning.journalapp.client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Fan-out scope for blocking person calls: fork the calls, join them against one deadline, and the first failure
+ * cancels every sibling still running.
+ *
+ * The journal app runs on Java 17, so there are no virtual threads and no StructuredTaskScope; this mirrors
+ * StructuredTaskScope.ShutdownOnFailure (fork / joinUntil / throwIfFailed / close) on top of a bounded platform
+ * executor, so moving to the JDK scope later is a mechanical change.
+ *
+ *     try (ShutdownOnFailureScope scope = new ShutdownOnFailureScope(executor)) {
+ *         Subtask<List<Document>> population = scope.fork(client::getPopulationByCity);
+ *         Subtask<Person> john = scope.fork(() -> client.getPersonByNameAndAgePathVariable("john", 30));
+ *         scope.joinUntil(deadline);
+ *         scope.throwIfFailed();
+ *         ... population.get(), john.get()
+ *     }
+ *
+ * Cancelling interrupts the sibling's thread. A pooled blocking socket read is not interruptible, such a sibling
+ * runs until its own read timeout and its result is dropped, but nobody waits for it.
+ * Not thread safe: fork / join / close belong to the thread that owns the scope.
+ */
+public final class ShutdownOnFailureScope implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final List<Subtask<?>> subtasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private volatile boolean shutdown;
+
+    public ShutdownOnFailureScope(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public <T> Subtask<T> fork(Callable<T> task) {
+        Subtask<T> subtask = new Subtask<>(task);
+        subtasks.add(subtask);
+        if (shutdown) {
+            subtask.cancel(false);
+            return subtask;
+        }
+        try {
+            executor.execute(subtask);
+        } catch (RejectedExecutionException ex) {
+            subtask.setFailure(ex);
+        }
+        return subtask;
+    }
+
+    /**
+     * Waits until every subtask completed, one of them failed, or the deadline passed.
+     * On the deadline every subtask still running is cancelled and TimeoutException is thrown.
+     */
+    public ShutdownOnFailureScope joinUntil(Instant deadline) throws InterruptedException, TimeoutException {
+        for (Subtask<?> subtask : subtasks) {
+            long remainingNanos = Duration.between(Instant.now(), deadline).toNanos();
+            try {
+                subtask.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | CancellationException ex) {
+                // recorded by the subtask itself, the siblings are already cancelled
+                return this;
+            } catch (TimeoutException ex) {
+                shutdown();
+                throw ex;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Rethrows the first failure, RuntimeExceptions as they are so the client exceptions keep their @ResponseStatus.
+     */
+    public void throwIfFailed() {
+        Throwable failure = firstFailure.get();
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(failure);
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        for (Subtask<?> subtask : subtasks) {
+            subtask.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    public final class Subtask<T> extends FutureTask<T> implements Supplier<T> {
+
+        private Subtask(Callable<T> callable) {
+            super(callable);
+        }
+
+        /**
+         * The result, only valid after a successful joinUntil + throwIfFailed.
+         */
+        @Override
+        public T get() {
+            if (!isDone() || isCancelled()) {
+                throw new IllegalStateException("Subtask not completed");
+            }
+            try {
+                return super.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Subtask failed", ex.getCause());
+            }
+        }
+
+        void setFailure(Throwable failure) {
+            setException(failure);
+        }
+
+        @Override
+        protected void setException(Throwable failure) {
+            super.setException(failure);
+            if (firstFailure.compareAndSet(null, failure)) {
+                shutdown();
+            }
+        }
+    }
+}
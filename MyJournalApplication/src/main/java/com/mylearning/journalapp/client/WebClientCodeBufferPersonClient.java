@@ -1,17 +1,22 @@
 package com.mylearning.journalapp.client;
 
 
+import com.mylearning.journalapp.cache.PersonCacheInvalidator;
+import com.mylearning.journalapp.clientconfig.JwtTokenManager;
 import com.mylearning.journalapp.clientconfig.MyPersonClientInterface;
+import com.mylearning.journalapp.clientconfig.WebClientJwtInterceptor;
 import com.mylearning.journalapp.clientexception.PersonCallingClientException;
 import com.mylearning.journalapp.clientexception.PersonCallingServerException;
 import com.mylearning.journalapp.clientexception.PersonNotFoundException;
 import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
 import com.mylearning.journalapp.clientresponse.LoginDto;
 import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
 import com.mylearning.journalapp.clientresponse.PersonResource;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.ParameterizedTypeReference;
@@ -25,8 +30,13 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Using WebClient for Sending Requests and Handling Responses
@@ -125,22 +135,42 @@ import java.util.Optional;
 @ConditionalOnProperty(name = "person.client.type", havingValue = "web-client")
 public class WebClientCodeBufferPersonClient implements MyPersonClientInterface {
 
-    private static String JWT_TOKEN = null;
     private final WebClient webClient;
+    private final JwtTokenManager jwtTokenManager;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
 
-    public WebClientCodeBufferPersonClient(@Lazy WebClient webClient) {
+    private final PersonCacheInvalidator personCacheInvalidator;
+
+    private final BatchingLoader<ObjectId, Person> personByIdLoader;
+
+    private final int streamPrefetch;
+
+    public WebClientCodeBufferPersonClient(@Lazy WebClient webClient, JwtTokenManager jwtTokenManager, RequestCoalescer requestCoalescer, RequestHedger requestHedger, PersonCacheInvalidator personCacheInvalidator,
+                                           @Value("${person.by-id-batching.enabled:true}") boolean byIdBatchingEnabled,
+                                           @Value("${person.by-id-batching.max-batch-size:100}") int byIdMaxBatchSize,
+                                           @Value("${person.by-id-batching.window-millis:2}") long byIdWindowMillis,
+                                           @Value("${person.stream.prefetch:256}") int streamPrefetch) {
         this.webClient = webClient;
+        this.jwtTokenManager = jwtTokenManager;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.personCacheInvalidator = personCacheInvalidator;
+        this.personByIdLoader = byIdBatchingEnabled
+                ? new BatchingLoader<>("personById", this::getPersonsByIdsAsMap, byIdMaxBatchSize, Duration.ofMillis(byIdWindowMillis), Schedulers.parallel())
+                : null;
+        this.streamPrefetch = streamPrefetch;
     }
 
     public Flux<Document> getPopulationByCity(){
         String personUrl = "http://localhost:8081/api/person/populationByCity";
         try {
-        Flux<Document> documentFlux = webClient.get()
+        Flux<Document> documentFlux = requestCoalescer.executeFlux(RequestCoalescer.key("populationByCity"), () -> webClient.get()
                 .uri("/populationByCity")
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 //.headers(httpHeaders -> httpHeaders.add("Authorization", getJwtAccessToken()))
                 .retrieve()
-                .bodyToFlux(Document.class);
+                .bodyToFlux(Document.class));
         return documentFlux;
         }catch(WebClientException ex){
             throw new PersonCallingClientException("Failed to get population by city due to ex : %s"+ex.getMessage());
@@ -152,19 +182,27 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
     public Flux<Document> getOldestPersonByCity(){
         String personUrl = "http://localhost:8081/api/person/oldestPerson";
         try{
-        return webClient.get()
+        return requestCoalescer.executeFlux(RequestCoalescer.key("oldestPersonByCity"), () -> webClient.get()
                 .uri("/oldestPerson")
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 //.headers(httpHeaders -> httpHeaders.add("Authorization", getJwtAccessToken()))
-                .exchangeToFlux(response -> handleResponseForFlux(response, Document.class));
+                .exchangeToFlux(response -> handleResponseForFlux(response, Document.class)));
         }catch(WebClientException ex){
             throw new PersonCallingClientException("Failed to get Oldest Person by city due to ex : %s"+ex.getMessage());
         }
     }
 
+    /**
+     * With person.by-id-batching.enabled (default) the id is collected by personByIdLoader and fetched together with
+     * every other id asked for in the same few milliseconds through GET /by-ids, one call instead of N.
+     */
     public Mono<Person> getPersonById(ObjectId personId){
+        if (personByIdLoader != null) {
+            return personByIdLoader.load(personId)
+                    .switchIfEmpty(Mono.error(() -> new PersonNotFoundException("Person Not Found with Id : " + personId)));
+        }
        // String personUrl = "http://localhost:8081/api/person/{personId}";
-        return webClient.get()
+        return requestCoalescer.executeMono(RequestCoalescer.key("personById", personId), () -> requestHedger.hedgeMono("personById", () -> webClient.get()
                 .uri("/{personId}", personId)
                 //.headers(httpHeaders -> httpHeaders.add("Authorization", getJwtAccessToken()))
                 .retrieve()
@@ -172,7 +210,35 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
                         httpStatus -> !httpStatus.is2xxSuccessful(),
                         clientResponse -> handleErrorResponse(clientResponse.statusCode())
                 )
-                .bodyToMono(Person.class);
+                .bodyToMono(Person.class)));
+    }
+
+    /**
+     * One call for many ids, GET /by-ids?ids=a,b,c -> a single $in query on the CodeBuffer side.
+     * Unknown ids are simply missing from the result.
+     */
+    public Flux<Person> getPersonsByIds(List<ObjectId> personIds) {
+        if (personIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/by-ids")
+                        .queryParam("ids", personIds.stream().map(ObjectId::toHexString).collect(Collectors.joining(",")))
+                        .build())
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleClientError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleServerError)
+                .bodyToFlux(Person.class);
+    }
+
+    private Mono<Map<ObjectId, Person>> getPersonsByIdsAsMap(List<ObjectId> personIds) {
+        // the batched GET /by-ids is what getPersonById waits on, so that is the call that gets hedged
+        return requestHedger.hedgeMono("personsByIds", () -> getPersonsByIds(personIds).collectMap(Person::getPersonId));
+    }
+
+    public Map<String, Object> getPersonByIdBatchingStats() {
+        return personByIdLoader == null ? Map.of("enabled", false) : personByIdLoader.getStats();
     }
 
     /**
@@ -197,6 +263,25 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
                 .onErrorResume(Exception.class, e -> Flux.empty()); // Return an empty collection on error
     }
 
+    /**
+     * Streaming variant of getAllPersons(): asks /all-person for application/x-ndjson, the server writes one person
+     * per line straight from its Mongo cursor and the Jackson decoder emits each person as soon as its line arrives.
+     * Nothing is buffered beyond the requested demand: limitRate bounds the prefetch, and a slow subscriber stops the
+     * socket reads, which stops the server writes (TCP backpressure). Memory is flat whatever the number of persons.
+     *
+     * Unlike getAllPersons() errors are NOT swallowed, a stream cut in the middle must not look like a complete list.
+     */
+    public Flux<Person> streamAllPersons() {
+        return webClient.get()
+                .uri("/all-person")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .onStatus(httpStatus -> !httpStatus.is2xxSuccessful(),
+                        clientResponse -> handleErrorResponse(clientResponse.statusCode()))
+                .bodyToFlux(Person.class)
+                .limitRate(streamPrefetch);
+    }
+
     public Mono<ObjectId> createPersonWithoutResponseHandling(Person person){
         String personUrl = "http://localhost:8081/api/person";
 
@@ -291,26 +376,38 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
     }
 
 
+    @Override
+    public Mono<PersonBatchResponse> createPersonBatch(List<Person> persons) {
+        return webClient.post()
+                .uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(persons)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleClientError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleServerError)
+                .bodyToMono(PersonBatchResponse.class);
+    }
+
     public Mono<Person> updatePerson(Person person,ObjectId personId) {
-        return webClient.put()
+        return personCacheInvalidator.afterWriteMono(personId, webClient.put()
                 .uri("?personId="+"{personId}",personId)
                 //.headers(httpHeaders -> httpHeaders.add("Authorization", getJwtAccessToken()))
                 .body(Mono.just(person), Person.class)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleClientError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleServerError)
-                .bodyToMono(Person.class);
+                .bodyToMono(Person.class));
 
     }
 
     public Mono<Void> deletePersonBodyToMono(ObjectId personId) {
-        return webClient.delete()
+        return personCacheInvalidator.afterWriteMono(personId, webClient.delete()
                 .uri("/{id}", personId)
                 //.headers(httpHeaders -> httpHeaders.add("Authorization", getJwtAccessToken()))
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleClientError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleServerError)
-                .bodyToMono(Void.class);
+                .bodyToMono(Void.class));
     }
 
     public Mono<Void> deletePersonToEntity(ObjectId personId) {
@@ -321,7 +418,7 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleClientError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleServerError)
                 .toEntity(Void.class);
-        return responseEntityMono.then();
+        return personCacheInvalidator.afterWriteMono(personId, responseEntityMono.then());
     }
 
 
@@ -406,7 +503,7 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
          *
          *
          */
-            return webClient.get()
+            return requestHedger.hedgeFlux("searchPerson", () -> webClient.get()
                     .uri(personUriString)
                     //.headers(httpHeaders -> httpHeaders.add("Authorization", getJwtAccessToken()))
                     //.accept(MediaType.APPLICATION_JSON) if i use this then it will give 400 bad requests error in response after fetching the data from remote api and at remote api data is fetching but it gives error of IllegalArgumentException at PersonController in getPersonById() of Invalid ObjectId
@@ -424,7 +521,7 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
                     .doOnError(error -> {
                         log.error("Error occurred while fetching persons: " + error.getMessage());
                         throw new PersonCallingClientException("ERROR OCCURRED WHILE FETCHING PERSONS : "+ error.getMessage());
-                    });
+                    }));
     }
 
     public Flux<PagedModel<PersonResource>> searchPersonUsingHandleResponseForFlux(Optional<String> name, Optional<Integer> minAge, Optional<Integer> maxAge,
@@ -628,37 +725,39 @@ public class WebClientCodeBufferPersonClient implements MyPersonClientInterface
         return Mono.error(new PersonCallingServerException("Failed to fetch Person. Server Error Status code: " + clientResponse.statusCode()));
     }
 
+    /**
+     * Blocking login kept for MyPersonClientInterface callers, the WebClientPersonController uses loginMono.
+     */
     @Override
     public JWTAuthResponse login(LoginDto loginDto) {
         log.info("WebClientCodeBufferPersonClient login called");
+        return loginMono(loginDto).block();
+    }
+
+    public Mono<JWTAuthResponse> loginMono(LoginDto loginDto) {
+        return jwtTokenManager.login(loginDto);
+    }
 
+    /**
+     * The login request is tagged with SKIP_JWT_ATTRIBUTE so WebClientJwtInterceptor lets it through untouched,
+     * a request attribute travels with the request instead of depending on the subscribing thread like a ThreadLocal.
+     */
+    @Override
+    public Mono<JWTAuthResponse> fetchJwtToken(LoginDto loginDto) {
         // Define the URL
         String personUrl = "http://localhost:8081/api/codebuffer/person/login";
 
-        Mono<JWTAuthResponse> jwtAuthResponseMono = webClient.post()
+        return webClient.post()
                 .uri(personUrl)
+                .attribute(WebClientJwtInterceptor.SKIP_JWT_ATTRIBUTE, Boolean.TRUE)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .body(Mono.just(loginDto), LoginDto.class)
-                .exchangeToMono(response -> handleResponseForMono(response, JWTAuthResponse.class));
-
-        JWTAuthResponse jwtAuthResponse = jwtAuthResponseMono.block();
-
-        log.info("WebClientCodeBufferPersonClient jwtAuthResponse : {}",jwtAuthResponse);
-
-        if (jwtAuthResponse != null && jwtAuthResponse.getAccessToken() != null
-                && !jwtAuthResponse.getAccessToken().isBlank() && !jwtAuthResponse.getAccessToken().isEmpty()) {
-            log.info("JWT Token Set Successfully");
-            JWT_TOKEN = jwtAuthResponse.getAccessToken();
-        } else {
-            log.error("Invalid JWT Token Received: {}", jwtAuthResponse);
-            throw new IllegalArgumentException("Invalid JWT Token");
-        }
-
-        return jwtAuthResponse;
+                .exchangeToMono(response -> handleResponseForMono(response, JWTAuthResponse.class))
+                .doOnNext(jwtAuthResponse -> log.info("WebClientCodeBufferPersonClient jwtAuthResponse received"));
     }
 
     @Override
     public String getJwtAccessToken() {
-        return "Bearer " + JWT_TOKEN;
+        return jwtTokenManager.getJwtAccessToken();
     }
 }
@@ -0,0 +1,323 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.clientexception.PersonConcurrencyLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounds how many calls the journal app has in flight against the CodeBuffer person API.
+ *
+ * A fixed limit is either too low (wasted capacity) or too high (a slow CodeBuffer piles up threads, pooled
+ * connections and Netty pending acquires until everything times out together). The limit here moves with the
+ * observed round trip time, TCP Vegas style:
+ *
+ *     queue = limit * (1 - rttNoLoad / rtt)
+ *
+ * rttNoLoad is the lowest RTT seen (re-learned every rtt-reset-samples), so "queue" estimates how many of our calls
+ * are waiting inside CodeBuffer instead of being worked on.
+ * 1. queue small (<= log10(limit))      -> limit + 6 * log10(limit)   (plenty of headroom, grow quickly)
+ * 2. queue below 3 * log10(limit)       -> limit + log10(limit)
+ * 3. queue above 6 * log10(limit)       -> limit - log10(limit)       (latency is queueing, back off)
+ * 4. dropped call (IO error, 429, 5xx)  -> limit * backoff-ratio
+ * Samples taken while less than half of the limit was in use say nothing about the limit and only update rttNoLoad.
+ *
+ * When the limit is reached a caller waits in a bounded FIFO queue for at most max-queue-wait, a full queue or an
+ * expired wait fails fast with PersonConcurrencyLimitExceededException (503) instead of adding more load.
+ *
+ * Every acquired Permit must be released exactly once with success(), dropped() or ignore(); releasing twice is a
+ * no-op, so callers can always finish with ignore() in a finally block.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int maxQueueSize;
+    private final Duration maxQueueWait;
+    private final int rttResetSamples;
+    private final LongSupplier nanoTime;
+
+    private final Object lock = new Object();
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long rttNoLoadNanos;
+    private long lastRttNanos;
+    private long samples;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(PersonConcurrencyLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(PersonConcurrencyLimitProperties properties, LongSupplier nanoTime) {
+        this.enabled = properties.isEnabled();
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.backoffRatio = properties.getBackoffRatio();
+        this.maxQueueSize = Math.max(0, properties.getMaxQueueSize());
+        this.maxQueueWait = Duration.ofMillis(properties.getMaxQueueWaitMillis());
+        this.rttResetSamples = Math.max(1, properties.getRttResetSamples());
+        this.nanoTime = nanoTime;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Responses that mean CodeBuffer is overloaded or failing, they shrink the limit like an IO error.
+     * 4xx (bad request, not found, unauthorized) are answers, not overload.
+     */
+    public static boolean isDrop(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Blocking acquire for RestTemplate / RestClient / PersonClient proxy / Feign.
+     * Waits at most max-queue-wait when the limit is reached and the queue has room.
+     */
+    public Permit acquire() {
+        CompletableFuture<Permit> waiter;
+        synchronized (lock) {
+            Permit permit = tryAcquireLocked();
+            if (permit != null) {
+                return permit;
+            }
+            waiter = enqueueLocked();
+        }
+        try {
+            return waiter.get(maxQueueWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            return abandon(waiter);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // granted in the meantime -> give it back before failing
+            if (!removeWaiter(waiter)) {
+                waiter.join().ignore();
+            }
+            throw new PersonConcurrencyLimitExceededException("Interrupted while waiting for a person API permit");
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Non-blocking acquire for the WebClient filter, a queued caller is parked on a future instead of a thread.
+     */
+    public Mono<Permit> acquireMono() {
+        return Mono.defer(() -> {
+            CompletableFuture<Permit> waiter;
+            synchronized (lock) {
+                Permit permit = tryAcquireLocked();
+                if (permit != null) {
+                    return Mono.just(permit);
+                }
+                waiter = enqueueLocked();
+            }
+            // suppressCancel: a timeout or cancel must not cancel the future, release() may be granting it right now
+            return Mono.fromFuture(waiter, true)
+                    .timeout(maxQueueWait, Mono.fromCallable(() -> abandon(waiter)))
+                    .doOnCancel(() -> {
+                        if (!removeWaiter(waiter)) {
+                            waiter.thenAccept(Permit::ignore);
+                        }
+                    });
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("enabled", enabled);
+            stats.put("limit", (int) limit);
+            stats.put("inFlight", inFlight);
+            stats.put("waiting", waiters.size());
+            stats.put("rttNoLoadMillis", rttNoLoadNanos / 1_000_000.0);
+            stats.put("lastRttMillis", lastRttNanos / 1_000_000.0);
+        }
+        stats.put("minLimit", minLimit);
+        stats.put("maxLimit", maxLimit);
+        stats.put("acquired", acquired.sum());
+        stats.put("queued", queued.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+
+    public int getLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private Permit tryAcquireLocked() {
+        if (inFlight < (int) limit) {
+            inFlight++;
+            acquired.increment();
+            return new Permit(nanoTime.getAsLong(), inFlight);
+        }
+        return null;
+    }
+
+    private CompletableFuture<Permit> enqueueLocked() {
+        if (waiters.size() >= maxQueueSize) {
+            rejected.increment();
+            throw new PersonConcurrencyLimitExceededException(
+                    "Person API concurrency limit " + (int) limit + " reached, " + waiters.size() + " callers already waiting");
+        }
+        CompletableFuture<Permit> waiter = new CompletableFuture<>();
+        waiters.addLast(waiter);
+        queued.increment();
+        return waiter;
+    }
+
+    /**
+     * The wait expired: still queued -> reject, already granted by a concurrent release -> use that permit.
+     */
+    private Permit abandon(CompletableFuture<Permit> waiter) {
+        if (removeWaiter(waiter)) {
+            rejected.increment();
+            throw new PersonConcurrencyLimitExceededException(
+                    "No person API permit within " + maxQueueWait.toMillis() + "ms, limit " + getLimit());
+        }
+        return waiter.join();
+    }
+
+    private boolean removeWaiter(CompletableFuture<Permit> waiter) {
+        synchronized (lock) {
+            return waiters.remove(waiter);
+        }
+    }
+
+    private void release(Permit permit, long rttNanos, boolean didDrop, boolean sample) {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+        synchronized (lock) {
+            if (sample) {
+                onSample(rttNanos, didDrop, permit.inFlightAtStart);
+            }
+            inFlight--;
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                acquired.increment();
+                granted.add(waiters.pollFirst());
+                permits.add(new Permit(nanoTime.getAsLong(), inFlight));
+            }
+        }
+        // completed outside the lock, a waiter's continuation may call straight back into the limiter
+        for (int i = 0; i < granted.size(); i++) {
+            if (!granted.get(i).complete(permits.get(i))) {
+                permits.get(i).ignore();
+            }
+        }
+    }
+
+    private void onSample(long rttNanos, boolean didDrop, int inFlightAtStart) {
+        if (didDrop) {
+            dropped.increment();
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        lastRttNanos = rttNanos;
+        samples++;
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos || samples % rttResetSamples == 0) {
+            rttNoLoadNanos = rttNanos;
+        }
+        // the app did not use the limit, the RTT says nothing about whether it is too high or too low
+        if (inFlightAtStart * 2 < limit) {
+            return;
+        }
+        double queue = Math.ceil(limit * (1 - (double) rttNoLoadNanos / rttNanos));
+        double log10 = Math.max(1, Math.log10(limit));
+        double newLimit = limit;
+        if (queue <= log10) {
+            newLimit = limit + 6 * log10;
+        } else if (queue < 3 * log10) {
+            newLimit = limit + log10;
+        } else if (queue > 6 * log10) {
+            newLimit = limit - log10;
+        }
+        newLimit = Math.min(maxLimit, Math.max(minLimit, newLimit));
+        if ((int) newLimit != (int) limit) {
+            log.debug("Person API concurrency limit {} -> {} (rtt {}us, rttNoLoad {}us, queue {})",
+                    (int) limit, (int) newLimit, rttNanos / 1_000, rttNoLoadNanos / 1_000, (int) queue);
+        }
+        limit = newLimit;
+    }
+
+    /**
+     * One in-flight call. The RTT is measured from acquire to release.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** The call completed, its RTT is a valid sample. */
+        public void success() {
+            finish(false, true);
+        }
+
+        /** The call failed in a way that signals overload (IO error, timeout, 429, 5xx). */
+        public void dropped() {
+            finish(true, true);
+        }
+
+        /** The call never reached CodeBuffer or was cancelled, release without a sample. */
+        public void ignore() {
+            finish(false, false);
+        }
+
+        private void finish(boolean didDrop, boolean sample) {
+            if (released.compareAndSet(false, true)) {
+                release(this, nanoTime.getAsLong() - startNanos, didDrop, sample);
+            }
+        }
+    }
+}
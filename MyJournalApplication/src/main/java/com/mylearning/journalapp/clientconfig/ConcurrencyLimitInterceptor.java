@@ -0,0 +1,50 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.NonNull;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Puts RestTemplate, RestClient and the PersonClient proxy behind the shared AdaptiveConcurrencyLimiter.
+ *
+ * It is registered AFTER JwtInterceptor, so a token refresh done from inside JwtInterceptor never holds a permit
+ * while it waits for the login call's own permit.
+ * The RTT sample ends when the response headers arrive, body reading is not part of it.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public @NonNull ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body,
+                                                 @NonNull ClientHttpRequestExecution execution) throws IOException {
+        if (!limiter.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (AdaptiveConcurrencyLimiter.isDrop(response.getStatusCode().value())) {
+                permit.dropped();
+            } else {
+                permit.success();
+            }
+            return response;
+        } catch (IOException ex) {
+            permit.dropped();
+            throw ex;
+        } finally {
+            permit.ignore();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.mylearning.journalapp.clientconfig;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
@@ -27,17 +26,28 @@ import java.io.IOException;
 @Slf4j
 public class JwtInterceptor implements ClientHttpRequestInterceptor {
 
-    private final MyPersonClientInterface myPersonClientInterface;
+    static final String TOKEN_STACK = "blocking";
 
-    // Spring will automatically inject the active implementation of MyPersonClientInterface
-    public JwtInterceptor(@Lazy MyPersonClientInterface myPersonClientInterface) {
-        this.myPersonClientInterface = myPersonClientInterface;
+    private final JwtTokenManager jwtTokenManager;
+    private final OutboundMetrics outboundMetrics;
+
+    // one token shared by every client, see JwtTokenManager
+    public JwtInterceptor(JwtTokenManager jwtTokenManager, OutboundMetrics outboundMetrics) {
+        this.jwtTokenManager = jwtTokenManager;
+        this.outboundMetrics = outboundMetrics;
     }
 
     @Override
     public @NonNull ClientHttpResponse intercept(HttpRequest request, byte @NonNull [] body, ClientHttpRequestExecution execution) throws IOException {
+        // the token manager's own login request runs with the interceptor disabled
+        if (InterceptorContext.isInterceptorDisabled()) {
+            return execution.execute(request, body);
+        }
         HttpHeaders requestHeaders = request.getHeaders();
-        String jwtAccessToken = myPersonClientInterface.getJwtAccessToken();
+        // person.client.token: from memory, or blocked on a login when the token is about to expire
+        long tokenStart = System.nanoTime();
+        String jwtAccessToken = jwtTokenManager.getJwtAccessToken();
+        outboundMetrics.recordToken(TOKEN_STACK, System.nanoTime() - tokenStart);
         requestHeaders.add("Authorization", jwtAccessToken);
         return execution.execute(request,body);
     }
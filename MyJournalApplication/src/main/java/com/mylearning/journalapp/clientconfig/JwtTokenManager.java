@@ -0,0 +1,181 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientexception.PersonAuthenticationException;
+import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
+import com.mylearning.journalapp.clientresponse.LoginDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * One JWT access token shared by every person client (RestTemplate, RestClient, WebClient, OpenFeign).
+ *
+ * Before this every client kept its own static JWT_TOKEN which was only filled by an explicit /login call and never
+ * renewed, and the WebClient client blocked inside reactive code to get it.
+ *
+ * How it works:
+ * 1. The expiry is decoded from the "exp" claim of the token payload (no signature check, we are not the audience,
+ *    we only need to know when to renew). Tokens without "exp" live for person.auth.default-token-ttl-seconds.
+ * 2. A token that is inside person.auth.refresh-skew-seconds of its expiry is still handed out, but a refresh is
+ *    started in the background so callers never see an expired token and never wait for the renewal.
+ * 3. Concurrent refreshes collapse into ONE in-flight login (single-flight): the first caller creates a cached Mono,
+ *    every other caller subscribes to that same Mono, it is cleared once the login completes or fails.
+ * 4. {@link #getBearerToken()} is the non-blocking entry point used by the WebClient filter,
+ *    {@link #getJwtAccessToken()} is the blocking one used by the servlet interceptors.
+ *
+ * The actual login call is still done by the active MyPersonClientInterface implementation (fetchJwtToken),
+ * so each stack keeps exercising its own transport. Credentials come from the last explicit login or from
+ * person.auth.username / person.auth.password so a token can be obtained without calling /login first.
+ */
+@Component
+@Slf4j
+public class JwtTokenManager {
+
+    private static final String BEARER = "Bearer ";
+
+    private final Function<LoginDto, Mono<JWTAuthResponse>> tokenRequester;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration refreshSkew;
+    private final Duration defaultTokenTtl;
+    private final Duration blockTimeout;
+
+    private final Object lock = new Object();
+    private volatile CachedToken currentToken;
+    private volatile LoginDto credentials;
+    private Mono<CachedToken> inFlightRefresh;
+
+    @Autowired
+    public JwtTokenManager(@Lazy MyPersonClientInterface myPersonClientInterface,
+                           ObjectMapper objectMapper,
+                           @Value("${person.auth.username:}") String username,
+                           @Value("${person.auth.password:}") String password,
+                           @Value("${person.auth.refresh-skew-seconds:30}") long refreshSkewSeconds,
+                           @Value("${person.auth.default-token-ttl-seconds:300}") long defaultTokenTtlSeconds,
+                           @Value("${person.auth.login-timeout-seconds:10}") long loginTimeoutSeconds) {
+        this(myPersonClientInterface::fetchJwtToken, objectMapper, Clock.systemUTC(),
+                Duration.ofSeconds(refreshSkewSeconds), Duration.ofSeconds(defaultTokenTtlSeconds),
+                Duration.ofSeconds(loginTimeoutSeconds));
+        if (!username.isBlank()) {
+            this.credentials = new LoginDto(username, password);
+        }
+    }
+
+    JwtTokenManager(Function<LoginDto, Mono<JWTAuthResponse>> tokenRequester, ObjectMapper objectMapper, Clock clock,
+                    Duration refreshSkew, Duration defaultTokenTtl, Duration blockTimeout) {
+        this.tokenRequester = tokenRequester;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.refreshSkew = refreshSkew;
+        this.defaultTokenTtl = defaultTokenTtl;
+        this.blockTimeout = blockTimeout;
+    }
+
+    /**
+     * Explicit login, remembers the credentials for later refreshes and always hits the login endpoint
+     * (joining a refresh that is already in flight instead of starting a second one).
+     */
+    public Mono<JWTAuthResponse> login(LoginDto loginDto) {
+        this.credentials = loginDto;
+        return refresh(true).map(CachedToken::response);
+    }
+
+    /**
+     * Non-blocking "Bearer xxx" value. Served from memory while the token is fresh.
+     */
+    public Mono<String> getBearerToken() {
+        CachedToken token = currentToken;
+        Instant now = clock.instant();
+        if (token != null && now.isBefore(token.expiresAt())) {
+            if (!now.isBefore(token.expiresAt().minus(refreshSkew))) {
+                // about to expire, renew in the background and keep serving the current one
+                refresh(false).subscribe(refreshed -> { }, ex -> log.warn("Background JWT refresh failed : {}", ex.getMessage()));
+            }
+            return Mono.just(BEARER + token.accessToken());
+        }
+        return refresh(false).map(refreshed -> BEARER + refreshed.accessToken());
+    }
+
+    /**
+     * Blocking variant for RestTemplate / RestClient / Feign interceptors, only waits when there is no usable token.
+     */
+    public String getJwtAccessToken() {
+        CachedToken token = currentToken;
+        if (token != null && clock.instant().isBefore(token.expiresAt().minus(refreshSkew))) {
+            return BEARER + token.accessToken();
+        }
+        return getBearerToken().block(blockTimeout);
+    }
+
+    public void invalidate() {
+        currentToken = null;
+    }
+
+    private Mono<CachedToken> refresh(boolean force) {
+        synchronized (lock) {
+            if (inFlightRefresh != null) {
+                return inFlightRefresh;
+            }
+            CachedToken token = currentToken;
+            if (!force && token != null && clock.instant().isBefore(token.expiresAt().minus(refreshSkew))) {
+                return Mono.just(token); // another caller refreshed while we were waiting for the lock
+            }
+            LoginDto loginDto = credentials;
+            if (loginDto == null) {
+                return Mono.error(new PersonAuthenticationException(
+                        "No JWT token available, call /login or configure person.auth.username / person.auth.password"));
+            }
+            log.info("Refreshing JWT token for {}", loginDto.getUsernameOrEmail());
+            inFlightRefresh = Mono.defer(() -> tokenRequester.apply(loginDto))
+                    .map(this::toCachedToken)
+                    .doOnNext(refreshed -> currentToken = refreshed)
+                    .doFinally(signal -> clearInFlightRefresh())
+                    .cache();
+            return inFlightRefresh;
+        }
+    }
+
+    private void clearInFlightRefresh() {
+        synchronized (lock) {
+            inFlightRefresh = null;
+        }
+    }
+
+    private CachedToken toCachedToken(JWTAuthResponse jwtAuthResponse) {
+        String accessToken = jwtAuthResponse == null ? null : jwtAuthResponse.getAccessToken();
+        if (accessToken == null || accessToken.isBlank() || !accessToken.contains(".")) {
+            log.error("Invalid JWT Token Received: {}", jwtAuthResponse);
+            throw new PersonAuthenticationException("JWT Access Token is missing or invalid");
+        }
+        return new CachedToken(accessToken, decodeExpiry(accessToken), jwtAuthResponse);
+    }
+
+    private Instant decodeExpiry(String accessToken) {
+        try {
+            String[] parts = accessToken.split("\\.");
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode exp = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            if (exp != null && exp.canConvertToLong()) {
+                return Instant.ofEpochSecond(exp.asLong());
+            }
+        } catch (Exception ex) {
+            log.warn("Could not decode JWT expiry, using default ttl : {}", ex.getMessage());
+        }
+        return clock.instant().plus(defaultTokenTtl);
+    }
+
+    private record CachedToken(String accessToken, Instant expiresAt, JWTAuthResponse response) {
+    }
+}
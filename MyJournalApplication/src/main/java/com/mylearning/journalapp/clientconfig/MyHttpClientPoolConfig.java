@@ -0,0 +1,64 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One Apache HttpClient 5 connection pool shared by every blocking person client.
+ *
+ * Before this, RestTemplate and the PersonClient proxy used the JDK HttpURLConnection factory and
+ * RestClient.create(baseURI) used whatever the default was, so each call could pay a fresh TCP (and TLS) handshake
+ * and nothing bounded the number of sockets opened against the CodeBuffer service.
+ *
+ * The pool is bounded by person.http.pool.max-total / max-per-route, idle connections are evicted in the background,
+ * and a connection is re-used for at most keep-alive-seconds unless the server advertises a shorter Keep-Alive.
+ * Timeouts are NOT configured here: each client stack builds its own request factory on top of this HttpClient
+ * (see {@link PersonClientHttpRequestFactories}) so RestTemplate can keep its 3s read timeout while the proxy keeps 20s.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "person.http.pool.enabled", havingValue = "true", matchIfMissing = true)
+public class MyHttpClientPoolConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager personConnectionManager(PersonHttpPoolProperties poolProperties) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.ofMinutes(poolProperties.getTimeToLiveMinutes()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(poolProperties.getValidateAfterInactivityMillis()))
+                .build();
+
+        log.info("Creating person http connection pool maxTotal={} maxPerRoute={}",
+                poolProperties.getMaxTotal(), poolProperties.getMaxPerRoute());
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolProperties.getMaxTotal())
+                .setMaxConnPerRoute(poolProperties.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpClient personHttpClient(PoolingHttpClientConnectionManager personConnectionManager,
+                                                PersonHttpPoolProperties poolProperties) {
+        TimeValue maxKeepAlive = TimeValue.ofSeconds(poolProperties.getKeepAliveSeconds());
+        return HttpClients.custom()
+                .setConnectionManager(personConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(poolProperties.getIdleEvictionSeconds()))
+                // honour the server's Keep-Alive header but never keep a socket longer than our own limit
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(advertised) && advertised.compareTo(maxKeepAlive) < 0 ? advertised : maxKeepAlive;
+                })
+                .build();
+    }
+}
@@ -2,10 +2,29 @@ package com.mylearning.journalapp.clientconfig;
 
 import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
 import com.mylearning.journalapp.clientresponse.LoginDto;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 public interface MyPersonClientInterface {
 
     JWTAuthResponse login(LoginDto loginDto);
     String getJwtAccessToken();
 
+    /**
+     * Raw call to /api/codebuffer/person/login over this client's own transport, without touching any cached token.
+     * Only {@link JwtTokenManager} should call it, everybody else goes through login() / getJwtAccessToken().
+     * The login request itself must not ask the token manager for an Authorization header.
+     */
+    Mono<JWTAuthResponse> fetchJwtToken(LoginDto loginDto);
+
+    /**
+     * POST /api/person/batch over this client's own transport, one unordered bulk insert on the CodeBuffer side.
+     * Both 201 (all inserted) and 207 (some failed) complete normally, look at each item's error.
+     * Normally called by {@link com.mylearning.journalapp.client.PersonWriteAggregator}, not per person.
+     */
+    Mono<PersonBatchResponse> createPersonBatch(List<Person> persons);
+
 }
@@ -3,8 +3,6 @@ package com.mylearning.journalapp.clientconfig;
 import com.mylearning.journalapp.client.RestClientCodeBufferPersonClient;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.ClientHttpRequestFactories;
-import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
@@ -23,21 +21,47 @@ public class MyRestClientConfig {
     private String baseURI;
 
     private final JwtInterceptor jwtInterceptor;
+    private final PersonResilienceInterceptor personResilienceInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final PersonClientHttpRequestFactories requestFactories;
+    private final OutboundMetrics outboundMetrics;
 
-    public MyRestClientConfig(JwtInterceptor jwtInterceptor) {
+    public MyRestClientConfig(JwtInterceptor jwtInterceptor, PersonResilienceInterceptor personResilienceInterceptor,
+                              ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+                              PersonClientHttpRequestFactories requestFactories, OutboundMetrics outboundMetrics) {
         this.jwtInterceptor = jwtInterceptor;
+        this.personResilienceInterceptor = personResilienceInterceptor;
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+        this.requestFactories = requestFactories;
+        this.outboundMetrics = outboundMetrics;
     }
 
+    /**
+     * RestClient.create(baseURI) used to pick the default request factory with no timeouts at all;
+     * it now goes through the same pooled transport and timeouts as the PersonClient proxy.
+     */
     @Bean
     public RestClient restClient() {
-        return RestClient.create(baseURI);
+        return RestClient.builder()
+                .baseUrl(baseURI)
+                .requestInterceptor(new OutboundMetricsInterceptor(outboundMetrics, "rest-client"))
+                .requestInterceptor(personResilienceInterceptor)
+                .requestInterceptor(concurrencyLimitInterceptor)
+                .requestFactory(getClientRequestFactory())
+                .build();
     }
 
     @Bean
     public PersonClient personClient() {
         RestClient restClient = RestClient.builder()
                 .baseUrl(baseURI)
-                .requestInterceptors(clientHttpRequestInterceptors -> clientHttpRequestInterceptors.add(jwtInterceptor))
+                .requestInterceptors(clientHttpRequestInterceptors -> {
+                    clientHttpRequestInterceptors.add(jwtInterceptor);
+                    clientHttpRequestInterceptors.add(new OutboundMetricsInterceptor(outboundMetrics, "person-client"));
+                    // after the JWT interceptor and the metrics hook: circuit breaker / bulkhead, then the concurrency limit
+                    clientHttpRequestInterceptors.add(personResilienceInterceptor);
+                    clientHttpRequestInterceptors.add(concurrencyLimitInterceptor);
+                })
                 .requestFactory(getClientRequestFactory())
                 .build();
         var restClientAdapter = RestClientAdapter.create(restClient);
@@ -46,9 +70,6 @@ public class MyRestClientConfig {
     }
 
     private ClientHttpRequestFactory getClientRequestFactory() {
-        ClientHttpRequestFactorySettings clientHttpRequestFactorySettings = ClientHttpRequestFactorySettings.DEFAULTS
-                .withConnectTimeout(Duration.ofSeconds(20))
-                .withReadTimeout(Duration.ofSeconds(20));
-        return ClientHttpRequestFactories.get(clientHttpRequestFactorySettings);
+        return requestFactories.get(Duration.ofSeconds(20), Duration.ofSeconds(20));
     }
 }
@@ -11,14 +11,29 @@ import java.time.Duration;
 public class MyRestTemplateConfig {
 
     private final JwtInterceptor jwtInterceptor;
+    private final PersonResilienceInterceptor personResilienceInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final PersonClientHttpRequestFactories requestFactories;
+    private final OutboundMetrics outboundMetrics;
 
-    public MyRestTemplateConfig(JwtInterceptor jwtInterceptor) {
+    public MyRestTemplateConfig(JwtInterceptor jwtInterceptor, PersonResilienceInterceptor personResilienceInterceptor,
+                                ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+                                PersonClientHttpRequestFactories requestFactories, OutboundMetrics outboundMetrics) {
         this.jwtInterceptor = jwtInterceptor;
+        this.personResilienceInterceptor = personResilienceInterceptor;
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+        this.requestFactories = requestFactories;
+        this.outboundMetrics = outboundMetrics;
     }
 
     /**
      * RestTemplateBuilder is a convenience class that provides a builder-style API for configuring and
      * creating RestTemplate instances with advanced configurations such as timeouts.
+     * The request factory comes from the shared keep-alive pool (see MyHttpClientPoolConfig), the builder only
+     * carries the interceptors; the 3s timeouts are applied on the factory itself.
+     * Circuit breaker / bulkhead and then the concurrency limit run after the JWT interceptor
+     * (see PersonResilienceInterceptor, ConcurrencyLimitInterceptor), the metrics hook sits between the JWT interceptor
+     * and those (see OutboundMetrics).
      * @param restTemplateBuilder
      * @return
      */
@@ -26,9 +41,9 @@ public class MyRestTemplateConfig {
     public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder) {
 
         return restTemplateBuilder
-                .setConnectTimeout(Duration.ofMillis(3000))
-                .setReadTimeout(Duration.ofMillis(3000))
-                .interceptors(jwtInterceptor)
+                .requestFactory(() -> requestFactories.get(Duration.ofMillis(3000), Duration.ofMillis(3000)))
+                .interceptors(jwtInterceptor, new OutboundMetricsInterceptor(outboundMetrics, "rest-template"),
+                        personResilienceInterceptor, concurrencyLimitInterceptor)
                 .build();
     }
 }
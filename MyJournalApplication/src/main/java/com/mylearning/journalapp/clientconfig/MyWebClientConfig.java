@@ -1,7 +1,6 @@
 package com.mylearning.journalapp.clientconfig;
 
 import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +12,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 @Slf4j
@@ -23,9 +27,24 @@ public class MyWebClientConfig {
     private String personBaseUrl;
 
     private final WebClientJwtInterceptor webClientJwtInterceptor;
+    private final WebClientMetricsFilter webClientMetricsFilter;
+    private final WebClientResilienceFilter webClientResilienceFilter;
+    private final WebClientConcurrencyLimitFilter webClientConcurrencyLimitFilter;
+    private final PersonWebClientPoolProperties poolProperties;
+    private final ReactivePoolMetricsRegistrar reactivePoolMetricsRegistrar;
 
-    public MyWebClientConfig(WebClientJwtInterceptor webClientJwtInterceptor) {
+    public MyWebClientConfig(WebClientJwtInterceptor webClientJwtInterceptor,
+                             WebClientMetricsFilter webClientMetricsFilter,
+                             WebClientResilienceFilter webClientResilienceFilter,
+                             WebClientConcurrencyLimitFilter webClientConcurrencyLimitFilter,
+                             PersonWebClientPoolProperties poolProperties,
+                             ReactivePoolMetricsRegistrar reactivePoolMetricsRegistrar) {
         this.webClientJwtInterceptor = webClientJwtInterceptor;
+        this.webClientMetricsFilter = webClientMetricsFilter;
+        this.webClientResilienceFilter = webClientResilienceFilter;
+        this.webClientConcurrencyLimitFilter = webClientConcurrencyLimitFilter;
+        this.poolProperties = poolProperties;
+        this.reactivePoolMetricsRegistrar = reactivePoolMetricsRegistrar;
     }
 
     /**
@@ -39,32 +58,69 @@ public class MyWebClientConfig {
      */
 
 
+    /**
+     * Named, sized connection pool for the person WebClient.
+     * Without this every WebClient shares Reactor Netty's global default pool, whose pending-acquire queue and
+     * idle/lifetime eviction are not tuned for high fan-out calls against a single host.
+     *
+     * @return
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider personConnectionProvider() {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("person-webclient")
+                .maxConnections(poolProperties.getMaxConnections())
+                .pendingAcquireMaxCount(poolProperties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(poolProperties.getPendingAcquireTimeoutMillis()))
+                .maxIdleTime(Duration.ofSeconds(poolProperties.getMaxIdleTimeSeconds()))
+                .maxLifeTime(Duration.ofMinutes(poolProperties.getMaxLifeTimeMinutes()))
+                .evictInBackground(Duration.ofSeconds(poolProperties.getEvictInBackgroundSeconds()))
+                .metrics(true, () -> reactivePoolMetricsRegistrar);
+        if (poolProperties.isHttp2Enabled()) {
+            // HTTP/2 multiplexes streams, so the pool is sized in streams per connection instead of connections
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(poolProperties.getMaxConnections())
+                    .maxConcurrentStreams(poolProperties.getHttp2MaxConcurrentStreams())
+                    .build());
+        }
+        return builder.build();
+    }
+
     /**
      *
      * Using WebClient.Builder API
      * Configuring Connection Timeouts
-     * use Apache HttpClient class to set timeout periods for connection timeout, read timeout and write timeouts.
+     * use Reactor Netty HttpClient to set timeout periods for connection timeout, read timeout and write timeouts.
+     * The HttpClient is built on the named personConnectionProvider and is actually handed to the builder through
+     * clientConnector(connector), otherwise WebClient silently falls back to a default HttpClient.
      *
      * @return
      */
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(ConnectionProvider personConnectionProvider) {
 
-        HttpClient httpClient = HttpClient.create()
-                .tcpConfiguration(client ->
-                        client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
-                                .doOnConnected(conn -> conn
-                                        .addHandlerLast(new ReadTimeoutHandler(10))
-                                        .addHandlerLast(new WriteTimeoutHandler(10))));
+        HttpClient httpClient = HttpClient.create(personConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
+                // a ReadTimeoutHandler would also fire on connections sitting idle in the pool,
+                // so the read side is bounded per exchange with responseTimeout instead
+                .responseTimeout(Duration.ofSeconds(10))
+                .doOnConnected(conn -> conn
+                        .addHandlerLast(new WriteTimeoutHandler(10)));
+        if (poolProperties.isHttp2Enabled()) {
+            HttpProtocol http2 = personBaseUrl.startsWith("https") ? HttpProtocol.H2 : HttpProtocol.H2C;
+            httpClient = httpClient.protocol(http2, HttpProtocol.HTTP11);
+        }
 
         ClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
 
         return WebClient.builder()
                 .baseUrl(personBaseUrl)
-                //.clientConnector(connector)
+                .clientConnector(connector)
                 //.defaultCookie("cookie-name", "cookie-value")
                 //.defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .filter(webClientJwtInterceptor) // Adding the JWT Interceptor as a filter
+                .filter(webClientMetricsFilter) // per route timers, time to first byte / decode split, in-flight
+                .filter(webClientResilienceFilter) // circuit breaker + bounded in-flight per endpoint
+                .filter(webClientConcurrencyLimitFilter) // inner filter, only the actual exchange holds a permit
                 .build();
     }
 
@@ -0,0 +1,280 @@
+package com.mylearning.journalapp.clientconfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One instrumentation surface for every outbound person call, whatever the client stack.
+ *
+ * Each stack has a thin hook right after its JWT hook that opens an {@link Exchange} per call:
+ * OutboundMetricsInterceptor (RestTemplate, RestClient, PersonClient proxy), WebClientMetricsFilter (WebClient) and
+ * MetricsCapability (OpenFeign). The JWT hooks themselves time the token lookup. A call is split in phases:
+ *
+ * person.client.token     stack                          getting the token, from memory or through a login
+ * person.client.ttfb      stack, route                   request sent until the response headers are in (includes
+ *                                                        the bulkhead / concurrency limit wait and the pool lease)
+ * person.client.decode    stack, route                   headers until the body is read and converted
+ * person.client.requests  stack, route, status, outcome  the whole exchange, ttfb + decode
+ * person.client.in.flight stack, route                   gauge, exchanges started and not finished
+ * person.client.pool      pool, state                    gauges of the shared HttpClient 5 pool (Reactor Netty pools
+ *                                                        are registered by ReactivePoolMetricsRegistrar)
+ *
+ * route is the bounded PersonEndpoints key, status the HTTP status or, when there is no response, IO_ERROR or the
+ * exception's simple name (a rejection of the circuit breaker, for example). Every timer keeps client side
+ * percentiles (HdrHistogram, person.metrics.outbound.*), GET /internal/metrics/outbound shows them.
+ */
+@Component
+@Slf4j
+public class OutboundMetrics {
+
+    public static final String REQUESTS = "person.client.requests";
+    public static final String TIME_TO_FIRST_BYTE = "person.client.ttfb";
+    public static final String DECODE = "person.client.decode";
+    public static final String TOKEN = "person.client.token";
+    public static final String IN_FLIGHT = "person.client.in.flight";
+    public static final String POOL = "person.client.pool";
+
+    private final MeterRegistry registry;
+    private final PersonOutboundMetricsProperties properties;
+    private final ReactivePoolMetricsRegistrar reactivePoolMetricsRegistrar;
+    private final PoolingHttpClientConnectionManager personConnectionManager;
+    private final double[] percentiles;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public OutboundMetrics(MeterRegistry registry, PersonOutboundMetricsProperties properties,
+                           ReactivePoolMetricsRegistrar reactivePoolMetricsRegistrar,
+                           ObjectProvider<PoolingHttpClientConnectionManager> personConnectionManager) {
+        this.registry = registry;
+        this.properties = properties;
+        this.reactivePoolMetricsRegistrar = reactivePoolMetricsRegistrar;
+        this.personConnectionManager = personConnectionManager.getIfAvailable();
+        this.percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        if (this.personConnectionManager != null) {
+            poolGauge("leased", PoolStats::getLeased);
+            poolGauge("pending", PoolStats::getPending);
+            poolGauge("available", PoolStats::getAvailable);
+            poolGauge("max", PoolStats::getMax);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Opens the exchange of one call; the hook must end it with completed(), failed() or cancelled().
+     */
+    public Exchange start(String stack, String method, URI uri) {
+        if (!properties.isEnabled()) {
+            return Exchange.NOOP;
+        }
+        String route = PersonEndpoints.key(method, uri);
+        AtomicInteger routeInFlight = inFlight.computeIfAbsent(stack + " " + route, key ->
+                registry.gauge(IN_FLIGHT, Tags.of("stack", stack, "route", route), new AtomicInteger()));
+        routeInFlight.incrementAndGet();
+        return new Exchange(this, stack, route, routeInFlight, System.nanoTime());
+    }
+
+    public void recordToken(String stack, long nanos) {
+        if (properties.isEnabled()) {
+            timer(new TimerKey(TOKEN, stack, "", null)).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * What GET /internal/metrics/outbound returns: per "stack route" the phases and one entry per status,
+     * count / mean / max / percentiles in milliseconds, plus the in-flight counts, token lookups and pools.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Object>> routes = new TreeMap<>();
+        Map<String, Object> tokens = new TreeMap<>();
+        timers.forEach((key, timer) -> {
+            if (key.name().equals(TOKEN)) {
+                tokens.put(key.stack(), stats(timer));
+                return;
+            }
+            Map<String, Object> route = routes.computeIfAbsent(key.stack() + " " + key.route(), k -> new TreeMap<>());
+            switch (key.name()) {
+                case TIME_TO_FIRST_BYTE -> route.put("timeToFirstByte", stats(timer));
+                case DECODE -> route.put("decode", stats(timer));
+                default -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> statuses = (Map<String, Object>) route.computeIfAbsent("status", k -> new TreeMap<>());
+                    statuses.put(key.status(), stats(timer));
+                }
+            }
+        });
+        inFlight.forEach((key, count) -> routes.computeIfAbsent(key, k -> new TreeMap<>()).put("inFlight", count.get()));
+
+        Map<String, Object> pools = new LinkedHashMap<>();
+        if (personConnectionManager != null) {
+            PoolStats total = personConnectionManager.getTotalStats();
+            pools.put("person-http", Map.of("leased", total.getLeased(), "pending", total.getPending(),
+                    "available", total.getAvailable(), "max", total.getMax()));
+        }
+        pools.putAll(reactivePoolMetricsRegistrar.snapshot());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", properties.isEnabled());
+        body.put("routes", routes);
+        body.put("token", tokens);
+        body.put("pools", pools);
+        return body;
+    }
+
+    private Timer timer(TimerKey key) {
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(key, k -> {
+            Timer.Builder builder = Timer.builder(k.name())
+                    .tag("stack", k.stack())
+                    .publishPercentiles(percentiles)
+                    .publishPercentileHistogram(properties.isPercentileHistogram())
+                    .distributionStatisticExpiry(Duration.ofSeconds(Math.max(1, properties.getPercentileWindowSeconds())))
+                    .distributionStatisticBufferLength(3);
+            if (!k.route().isEmpty()) {
+                builder.tag("route", k.route());
+            }
+            if (k.status() != null) {
+                builder.tag("status", k.status()).tag("outcome", k.outcome());
+            }
+            return builder.register(registry);
+        });
+    }
+
+    private void poolGauge(String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(POOL, personConnectionManager, manager -> value.applyAsDouble(manager.getTotalStats()))
+                // same tag keys as the Reactor Netty pool gauges, the shared pool serves every remote
+                .tags("pool", "person-http", "remote", "*", "state", state)
+                .register(registry);
+    }
+
+    private static Map<String, Object> stats(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", snapshot.count());
+        stats.put("meanMillis", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        stats.put("maxMillis", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            stats.put("p" + percentileName(percentile.percentile()), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return stats;
+    }
+
+    private static String percentileName(double percentile) {
+        String name = Double.toString(percentile * 100);
+        return name.endsWith(".0") ? name.substring(0, name.length() - 2) : name;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    private record TimerKey(String name, String stack, String route, String status) {
+        String outcome() {
+            return status.chars().allMatch(Character::isDigit)
+                    ? Outcome.forStatus(Integer.parseInt(status)).name()
+                    : "ERROR";
+        }
+    }
+
+    /**
+     * One outbound call. Thread safe: the response may be read on another thread than the one that sent the request
+     * (WebClient), and only the first of completed / failed / cancelled counts.
+     */
+    public static final class Exchange {
+
+        static final Exchange NOOP = new Exchange(null, null, null, null, 0);
+
+        private final OutboundMetrics metrics;
+        private final String stack;
+        private final String route;
+        private final AtomicInteger inFlight;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile long firstByteNanos;
+        private volatile int status = -1;
+
+        private Exchange(OutboundMetrics metrics, String stack, String route, AtomicInteger inFlight, long startNanos) {
+            this.metrics = metrics;
+            this.stack = stack;
+            this.route = route;
+            this.inFlight = inFlight;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Response headers received.
+         */
+        public void firstByte(int status) {
+            if (metrics == null || firstByteNanos != 0) {
+                return;
+            }
+            this.status = status;
+            firstByteNanos = System.nanoTime();
+            metrics.timer(new TimerKey(TIME_TO_FIRST_BYTE, stack, route, null))
+                    .record(firstByteNanos - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Response body read and converted (or released).
+         */
+        public void completed() {
+            if (metrics == null || !done.compareAndSet(false, true)) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (firstByteNanos != 0) {
+                metrics.timer(new TimerKey(DECODE, stack, route, null)).record(now - firstByteNanos, TimeUnit.NANOSECONDS);
+            }
+            finish(now, status < 0 ? "UNKNOWN" : Integer.toString(status));
+        }
+
+        public void failed(Throwable failure) {
+            if (metrics == null || !done.compareAndSet(false, true)) {
+                return;
+            }
+            finish(System.nanoTime(), failure instanceof IOException ? "IO_ERROR" : failure.getClass().getSimpleName());
+        }
+
+        /**
+         * Cancelled before the headers came in; after that the body's own completion ends the exchange.
+         */
+        public void cancelled() {
+            if (metrics == null || firstByteNanos != 0 || !done.compareAndSet(false, true)) {
+                return;
+            }
+            finish(System.nanoTime(), "CANCELLED");
+        }
+
+        private void finish(long endNanos, String statusTag) {
+            inFlight.decrementAndGet();
+            metrics.timer(new TimerKey(REQUESTS, stack, route, statusTag)).record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
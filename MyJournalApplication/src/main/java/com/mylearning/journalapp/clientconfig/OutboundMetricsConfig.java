@@ -0,0 +1,25 @@
+package com.mylearning.journalapp.clientconfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The app has no actuator, so nothing provides a MeterRegistry: OutboundMetrics records into an in-memory
+ * SimpleMeterRegistry read by /internal/metrics/outbound. Adding a real registry (actuator + micrometer-registry-*)
+ * makes this one back off and exports the same meters.
+ */
+@Configuration
+@Slf4j
+public class OutboundMetricsConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public MeterRegistry outboundMeterRegistry() {
+        log.info("No MeterRegistry configured, outbound person client metrics are kept in memory");
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,87 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * OutboundMetrics hook of the blocking stacks (RestTemplate, RestClient, PersonClient proxy), right after the
+ * JwtInterceptor. execute() returns as soon as the status line and headers are in, that is the time to first byte;
+ * the body is read and converted by the message converters afterwards and the response is closed when they are done,
+ * that is the end of the decode phase.
+ */
+public class OutboundMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OutboundMetrics outboundMetrics;
+    private final String stack;
+
+    public OutboundMetricsInterceptor(OutboundMetrics outboundMetrics, String stack) {
+        this.outboundMetrics = outboundMetrics;
+        this.stack = stack;
+    }
+
+    @Override
+    public @NonNull ClientHttpResponse intercept(@NonNull HttpRequest request, byte @NonNull [] body,
+                                                 @NonNull ClientHttpRequestExecution execution) throws IOException {
+        if (!outboundMetrics.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        OutboundMetrics.Exchange exchange = outboundMetrics.start(stack, request.getMethod().name(), request.getURI());
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException | Error ex) {
+            exchange.failed(ex);
+            throw ex;
+        }
+        exchange.firstByte(response.getStatusCode().value());
+        return new MeteredResponse(response, exchange);
+    }
+
+    private static final class MeteredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final OutboundMetrics.Exchange exchange;
+
+        private MeteredResponse(ClientHttpResponse delegate, OutboundMetrics.Exchange exchange) {
+            this.delegate = delegate;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public @NonNull HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public @NonNull String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public @NonNull HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public @NonNull InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                exchange.completed();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.clientexception.PersonBulkheadFullException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One bulkhead per CodeBuffer endpoint (key from PersonEndpoints), so a slow /search cannot take every
+ * thread / connection away from GET /{personId}.
+ *
+ * Blocking stacks may wait up to max-wait for a slot, the reactive stack only ever tries (bounded in-flight,
+ * never parks an event-loop thread). A full bulkhead fails with PersonBulkheadFullException (503).
+ */
+@Component
+public class PersonBulkheads {
+
+    private final boolean enabled;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMillis;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public PersonBulkheads(PersonResilienceProperties properties) {
+        this.enabled = properties.getBulkhead().isEnabled();
+        this.maxConcurrentCalls = Math.max(1, properties.getBulkhead().getMaxConcurrentCalls());
+        this.maxWaitMillis = Math.max(0, properties.getBulkhead().getMaxWaitMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param mayWait false for the reactive stack
+     * @return the bulkhead holding the slot, release it exactly once
+     */
+    public Bulkhead acquire(String endpoint, boolean mayWait) {
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(endpoint, e -> new Bulkhead(e, maxConcurrentCalls));
+        boolean acquired;
+        if (mayWait && maxWaitMillis > 0) {
+            try {
+                acquired = bulkhead.semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        } else {
+            acquired = bulkhead.semaphore.tryAcquire();
+        }
+        if (!acquired) {
+            bulkhead.rejected.increment();
+            throw new PersonBulkheadFullException("Bulkhead " + endpoint + " full, " + maxConcurrentCalls + " calls in flight");
+        }
+        return bulkhead;
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        bulkheads.forEach((endpoint, bulkhead) -> {
+            Map<String, Object> endpointStats = new LinkedHashMap<>();
+            endpointStats.put("inFlight", maxConcurrentCalls - bulkhead.semaphore.availablePermits());
+            endpointStats.put("max", maxConcurrentCalls);
+            endpointStats.put("rejected", bulkhead.rejected.sum());
+            stats.put(endpoint, endpointStats);
+        });
+        return stats;
+    }
+
+    public static final class Bulkhead {
+
+        private final String endpoint;
+        private final Semaphore semaphore;
+        private final LongAdder rejected = new LongAdder();
+
+        private Bulkhead(String endpoint, int maxConcurrentCalls) {
+            this.endpoint = endpoint;
+            this.semaphore = new Semaphore(maxConcurrentCalls);
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void release() {
+            semaphore.release();
+        }
+    }
+}
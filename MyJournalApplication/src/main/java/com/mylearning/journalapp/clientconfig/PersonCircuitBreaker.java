@@ -0,0 +1,274 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker for the CodeBuffer person API, shared by all four person client stacks.
+ *
+ * CLOSED    -> every call goes through, the outcome of the last sliding-window-size calls is kept in a ring buffer.
+ *              Once minimum-calls are recorded and the failure rate or the slow call rate reaches its threshold
+ *              the breaker OPENs.
+ * OPEN      -> every call is rejected in microseconds (PersonCircuitOpenException, 503) instead of waiting for the
+ *              3-30s transport timeout. After open-wait the next caller moves the breaker to HALF_OPEN.
+ * HALF_OPEN -> exactly half-open-calls probes are let through, everybody else is still rejected. When all probes
+ *              completed the rates are evaluated on the probes alone: below the thresholds -> CLOSED (with a fresh
+ *              window), otherwise -> OPEN again.
+ *
+ * tryAcquire() hands out the current epoch, which changes on every transition. A call that was started in an
+ * earlier state (e.g. a slow CLOSED call finishing while HALF_OPEN) is therefore never mistaken for a probe.
+ *
+ * Transitions are logged, kept in a short history and pushed to the registered listeners.
+ */
+@Component
+@Slf4j
+public class PersonCircuitBreaker {
+
+    public static final long REJECTED = -1;
+    private static final int HISTORY = 20;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Transition(State from, State to, Instant at, double failureRate, double slowCallRate) {
+    }
+
+    private final boolean enabled;
+    private final int slidingWindowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openWaitMillis;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    private State state = State.CLOSED;
+    private long epoch;
+    private long openedAtMillis;
+    // bit 0 = failed, bit 1 = slow
+    private final byte[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+    private int windowSlow;
+    private int halfOpenIssued;
+    private int halfOpenDone;
+    private int halfOpenFailures;
+    private int halfOpenSlow;
+    private final Deque<Transition> transitions = new ArrayDeque<>();
+
+    private final List<Consumer<Transition>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public PersonCircuitBreaker(PersonResilienceProperties properties) {
+        this(properties.getCircuitBreaker(), Clock.systemUTC());
+    }
+
+    PersonCircuitBreaker(PersonResilienceProperties.CircuitBreaker properties, Clock clock) {
+        this.enabled = properties.isEnabled();
+        this.slidingWindowSize = Math.max(1, properties.getSlidingWindowSize());
+        this.minimumCalls = Math.min(slidingWindowSize, Math.max(1, properties.getMinimumCalls()));
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowCallDurationMillis());
+        this.openWaitMillis = properties.getOpenWaitMillis();
+        this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+        this.clock = clock;
+        this.window = new byte[slidingWindowSize];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addListener(Consumer<Transition> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return the permission (current epoch) to pass back to onResult / onIgnored, or REJECTED
+     */
+    public long tryAcquire() {
+        Transition transition = null;
+        long permission;
+        synchronized (lock) {
+            if (state == State.OPEN && clock.millis() - openedAtMillis >= openWaitMillis) {
+                transition = transitionLocked(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                permission = epoch;
+            } else if (state == State.HALF_OPEN && halfOpenIssued < halfOpenCalls) {
+                halfOpenIssued++;
+                permission = epoch;
+            } else {
+                permission = REJECTED;
+            }
+        }
+        fire(transition);
+        if (permission == REJECTED) {
+            rejected.increment();
+        }
+        return permission;
+    }
+
+    public void onResult(long permission, long durationNanos, boolean failed) {
+        boolean slow = durationNanos >= slowCallDurationNanos;
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        if (slow) {
+            slowCalls.increment();
+        }
+        Transition transition = null;
+        synchronized (lock) {
+            if (permission != epoch) {
+                return;
+            }
+            if (state == State.CLOSED) {
+                transition = recordClosedLocked(failed, slow);
+            } else if (state == State.HALF_OPEN) {
+                transition = recordHalfOpenLocked(failed, slow);
+            }
+        }
+        fire(transition);
+    }
+
+    /**
+     * The call never reached CodeBuffer (bulkhead or concurrency limit rejected it), a half-open probe slot is freed.
+     */
+    public void onIgnored(long permission) {
+        synchronized (lock) {
+            if (permission == epoch && state == State.HALF_OPEN && halfOpenIssued > halfOpenDone) {
+                halfOpenIssued--;
+            }
+        }
+    }
+
+    public State getState() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("enabled", enabled);
+            stats.put("state", state);
+            stats.put("windowCalls", windowCount);
+            stats.put("failureRate", rate(windowFailures, windowCount));
+            stats.put("slowCallRate", rate(windowSlow, windowCount));
+            stats.put("transitions", new ArrayList<>(transitions));
+        }
+        stats.put("calls", calls.sum());
+        stats.put("failures", failures.sum());
+        stats.put("slowCalls", slowCalls.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private Transition recordClosedLocked(boolean failed, boolean slow) {
+        if (windowCount == slidingWindowSize) {
+            byte oldest = window[windowNext];
+            windowFailures -= oldest & 1;
+            windowSlow -= (oldest >> 1) & 1;
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = (byte) ((failed ? 1 : 0) | (slow ? 2 : 0));
+        windowFailures += failed ? 1 : 0;
+        windowSlow += slow ? 1 : 0;
+        windowNext = (windowNext + 1) % slidingWindowSize;
+        if (windowCount >= minimumCalls && exceeded(windowFailures, windowSlow, windowCount)) {
+            return transitionLocked(State.OPEN);
+        }
+        return null;
+    }
+
+    private Transition recordHalfOpenLocked(boolean failed, boolean slow) {
+        halfOpenDone++;
+        halfOpenFailures += failed ? 1 : 0;
+        halfOpenSlow += slow ? 1 : 0;
+        if (halfOpenDone < halfOpenCalls) {
+            return null;
+        }
+        return transitionLocked(exceeded(halfOpenFailures, halfOpenSlow, halfOpenDone) ? State.OPEN : State.CLOSED);
+    }
+
+    private boolean exceeded(int failed, int slow, int total) {
+        return rate(failed, total) >= failureRateThreshold || rate(slow, total) >= slowCallRateThreshold;
+    }
+
+    private Transition transitionLocked(State to) {
+        Transition transition = state == State.HALF_OPEN
+                ? new Transition(state, to, clock.instant(), rate(halfOpenFailures, halfOpenDone), rate(halfOpenSlow, halfOpenDone))
+                : new Transition(state, to, clock.instant(), rate(windowFailures, windowCount), rate(windowSlow, windowCount));
+        state = to;
+        epoch++;
+        halfOpenIssued = 0;
+        halfOpenDone = 0;
+        halfOpenFailures = 0;
+        halfOpenSlow = 0;
+        if (to == State.OPEN) {
+            openedAtMillis = clock.millis();
+        }
+        if (to == State.CLOSED) {
+            windowNext = 0;
+            windowCount = 0;
+            windowFailures = 0;
+            windowSlow = 0;
+        }
+        if (transitions.size() == HISTORY) {
+            transitions.removeFirst();
+        }
+        transitions.addLast(transition);
+        return transition;
+    }
+
+    private void fire(Transition transition) {
+        if (transition == null) {
+            return;
+        }
+        if (transition.to() == State.OPEN) {
+            log.warn("Person API circuit breaker {} -> OPEN (failure rate {}%, slow call rate {}%)",
+                    transition.from(), transition.failureRate(), transition.slowCallRate());
+        } else {
+            log.info("Person API circuit breaker {} -> {}", transition.from(), transition.to());
+        }
+        for (Consumer<Transition> listener : listeners) {
+            try {
+                listener.accept(transition);
+            } catch (RuntimeException ex) {
+                log.warn("Circuit breaker listener failed : {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static double rate(int count, int total) {
+        return total == 0 ? 0.0 : count * 100.0 / total;
+    }
+}
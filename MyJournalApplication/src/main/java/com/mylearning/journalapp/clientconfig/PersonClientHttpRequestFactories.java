@@ -0,0 +1,58 @@
+package com.mylearning.journalapp.clientconfig;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Hands out ClientHttpRequestFactory instances for the person clients.
+ *
+ * When the pool is enabled every factory wraps the same pooled {@link CloseableHttpClient}, so connections are shared
+ * across RestTemplate, RestClient and the PersonClient proxy while each stack keeps its own timeouts
+ * (connect timeout -> RequestConfig.connectTimeout, read timeout -> RequestConfig.responseTimeout, pool lease wait ->
+ * connectionRequestTimeout).
+ * With person.http.pool.enabled=false it falls back to the JDK HttpURLConnection factory we used before.
+ */
+@Component
+public class PersonClientHttpRequestFactories {
+
+    private final ObjectProvider<CloseableHttpClient> personHttpClient;
+    private final PersonHttpPoolProperties poolProperties;
+
+    public PersonClientHttpRequestFactories(ObjectProvider<CloseableHttpClient> personHttpClient,
+                                            PersonHttpPoolProperties poolProperties) {
+        this.personHttpClient = personHttpClient;
+        this.poolProperties = poolProperties;
+    }
+
+    public ClientHttpRequestFactory get(Duration connectTimeout, Duration readTimeout) {
+        CloseableHttpClient httpClient = personHttpClient.getIfAvailable();
+        if (httpClient == null) {
+            ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+                    .withConnectTimeout(connectTimeout)
+                    .withReadTimeout(readTimeout);
+            return ClientHttpRequestFactories.get(SimpleClientHttpRequestFactory.class, settings);
+        }
+        // Spring 6 dropped setReadTimeout on this factory, the response timeout has to travel on the RequestConfig
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected RequestConfig mergeRequestConfig(RequestConfig clientConfig) {
+                return RequestConfig.copy(super.mergeRequestConfig(clientConfig))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build();
+            }
+        };
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setConnectionRequestTimeout(Duration.ofMillis(poolProperties.getConnectionRequestTimeoutMillis()));
+        return requestFactory;
+    }
+}
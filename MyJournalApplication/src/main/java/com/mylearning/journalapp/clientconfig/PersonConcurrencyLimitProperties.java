@@ -0,0 +1,39 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adaptive concurrency limit shared by every person client (RestTemplate, RestClient, PersonClient proxy,
+ * WebClient and OpenFeign), see AdaptiveConcurrencyLimiter.
+ *
+ * # set to false to send every call straight through (no limit, no queue)
+ * person.concurrency-limit.enabled=true
+ * # starting limit and the range the limit is allowed to move in
+ * person.concurrency-limit.initial-limit=20
+ * person.concurrency-limit.min-limit=4
+ * person.concurrency-limit.max-limit=200
+ * # multiplier applied to the limit on a dropped call (IO error, timeout, 429, 5xx)
+ * person.concurrency-limit.backoff-ratio=0.9
+ * # callers allowed to wait for a permit once the limit is reached, 0 fails fast
+ * person.concurrency-limit.max-queue-size=50
+ * person.concurrency-limit.max-queue-wait-millis=200
+ * # the no-load RTT is re-learned every N samples so a permanently slower CodeBuffer does not pin the limit at min
+ * person.concurrency-limit.rtt-reset-samples=1000
+ */
+@Component
+@ConfigurationProperties(prefix = "person.concurrency-limit")
+@Getter
+@Setter
+public class PersonConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    private double backoffRatio = 0.9;
+    private int maxQueueSize = 50;
+    private long maxQueueWaitMillis = 200;
+    private int rttResetSamples = 1000;
+}
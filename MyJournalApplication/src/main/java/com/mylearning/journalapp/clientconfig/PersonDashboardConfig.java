@@ -0,0 +1,34 @@
+package com.mylearning.journalapp.clientconfig;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded platform thread pool the dashboard fans its person calls out on (Java 17, no virtual threads).
+ * Each blocking call holds a thread for its whole round trip, so threads bounds the dashboard's concurrent person
+ * calls; the adaptive concurrency limit and the bulkheads still apply to every single call on top of it.
+ */
+@Configuration
+public class PersonDashboardConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService personFanOutExecutor(PersonDashboardProperties properties) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, properties.getThreads());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueSize())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "person-fanout-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
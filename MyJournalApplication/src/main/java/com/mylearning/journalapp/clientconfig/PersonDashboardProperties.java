@@ -0,0 +1,28 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fan-out of the person dashboard (GET /person-dashboard), see PersonDashboardController.
+ *
+ * # one deadline for the whole fan-out, not per call
+ * person.dashboard.deadline-millis=3000
+ * # threads of the person-fanout pool, a full pool rejects the fork and fails the dashboard fast
+ * person.dashboard.threads=16
+ * person.dashboard.queue-size=64
+ * # name:age lookups accepted in one dashboard request
+ * person.dashboard.max-persons=10
+ */
+@Component
+@ConfigurationProperties(prefix = "person.dashboard")
+@Getter
+@Setter
+public class PersonDashboardProperties {
+    private long deadlineMillis = 3000;
+    private int threads = 16;
+    private int queueSize = 64;
+    private int maxPersons = 10;
+}
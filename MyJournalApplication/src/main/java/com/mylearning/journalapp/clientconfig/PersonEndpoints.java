@@ -0,0 +1,47 @@
+package com.mylearning.journalapp.clientconfig;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Maps a concrete CodeBuffer URL to a bounded endpoint key such as "GET /api/person/{personId}".
+ *
+ * RestTemplate and RestClient interceptors only see the expanded URI (/api/person/john/30), using it as a key would
+ * create one bulkhead per name. The CodeBuffer routes are a small fixed set, so the path is matched against
+ * that set, static routes first. Anything else ends up in "{method} other".
+ */
+public final class PersonEndpoints {
+
+    private static final List<PathPattern> ROUTES = List.of(
+            "/api/codebuffer/person/login",
+            "/api/person",
+            "/api/person/batch",
+            "/api/person/age",
+            "/api/person/search",
+            "/api/person/search-no-hateoas",
+            "/api/person/oldestPerson",
+            "/api/person/populationByCity",
+            "/api/person/by-ids",
+            "/api/person/all-person",
+            "/api/person/create-person-on-status",
+            "/api/person/{personId}",
+            "/api/person/{name}/{age}"
+    ).stream().map(PathPatternParser.defaultInstance::parse).toList();
+
+    private PersonEndpoints() {
+    }
+
+    public static String key(String method, URI uri) {
+        PathContainer path = PathContainer.parsePath(uri.getRawPath() == null ? "" : uri.getRawPath());
+        for (PathPattern route : ROUTES) {
+            if (route.matches(path)) {
+                return method + " " + route.getPatternString();
+            }
+        }
+        return method + " other";
+    }
+}
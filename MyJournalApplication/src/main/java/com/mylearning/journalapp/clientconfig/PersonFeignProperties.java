@@ -0,0 +1,48 @@
+package com.mylearning.journalapp.clientconfig;
+
+import feign.Logger;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Production profile of the OpenFeign person clients, see FeignProductionConfig.
+ *
+ * # Feign on the shared HttpClient 5 pool (person.http.pool.*), false falls back to HttpURLConnection
+ * person.feign.pooled-client=true
+ * # NONE, BASIC, HEADERS or FULL; FULL re-buffers every response body, only for sampled calls anyway
+ * person.feign.logger-level=BASIC
+ * # fraction of the calls of an endpoint that are logged at logger-level
+ * person.feign.log-sample-rate=0.01
+ * # per endpoint, never more logged calls than this per second whatever the sample rate
+ * person.feign.log-max-per-second=5
+ * # failed calls (status >= 400) not sampled are still logged, one line without headers or body
+ * person.feign.always-log-failures=true
+ * # pool the CompletableFuture methods of PersonFeignClient run on
+ * person.feign.async-threads=16
+ * person.feign.async-queue-size=100
+ * # retries of a failed call (I/O error or Retry-After), every retry is paid from PersonRetryBudget (person.hedging.budget-*)
+ * # max-attempts counts the first call, 1 turns retries off
+ * person.feign.retry-max-attempts=3
+ * person.feign.retry-period=100ms
+ * person.feign.retry-max-period=1s
+ */
+@Component
+@ConfigurationProperties(prefix = "person.feign")
+@Getter
+@Setter
+public class PersonFeignProperties {
+    private boolean pooledClient = true;
+    private Logger.Level loggerLevel = Logger.Level.BASIC;
+    private double logSampleRate = 0.01;
+    private int logMaxPerSecond = 5;
+    private boolean alwaysLogFailures = true;
+    private int asyncThreads = 16;
+    private int asyncQueueSize = 100;
+    private int retryMaxAttempts = 3;
+    private Duration retryPeriod = Duration.ofMillis(100);
+    private Duration retryMaxPeriod = Duration.ofSeconds(1);
+}
@@ -0,0 +1,44 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedged requests for the idempotent person GETs (by name and age, by id, search), see RequestHedger,
+ * and the retry / hedge budget they share with the Feign retryer, see PersonRetryBudget.
+ *
+ * # opt-in
+ * person.hedging.enabled=false
+ * # the second attempt is sent once the first one is slower than this percentile of the recent latencies
+ * person.hedging.percentile=95
+ * # lower bound for that delay, and the delay used until min-samples latencies are known
+ * person.hedging.min-delay-millis=5
+ * person.hedging.initial-delay-millis=100
+ * person.hedging.min-samples=100
+ * # latencies kept per operation
+ * person.hedging.window-size=1000
+ * # threads running blocking attempts (RestTemplate / RestClient / Feign), a saturated pool runs the call unhedged
+ * person.hedging.max-threads=32
+ *
+ * # every request earns budget-ratio of a token, every hedge / Feign retry spends one, at most budget-max-tokens saved
+ * # -> extra calls <= budget-ratio * requests + budget-max-tokens, the ratio is capped at 1 (never more than double)
+ * person.hedging.budget-ratio=0.1
+ * person.hedging.budget-max-tokens=20
+ */
+@Component
+@ConfigurationProperties(prefix = "person.hedging")
+@Getter
+@Setter
+public class PersonHedgingProperties {
+    private boolean enabled = false;
+    private double percentile = 95;
+    private long minDelayMillis = 5;
+    private long initialDelayMillis = 100;
+    private int minSamples = 100;
+    private int windowSize = 1000;
+    private int maxThreads = 32;
+    private double budgetRatio = 0.1;
+    private double budgetMaxTokens = 20;
+}
@@ -0,0 +1,37 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizing of the pooled keep-alive transport used by RestTemplate, RestClient and the PersonClient proxy.
+ *
+ * # set to false to fall back to the JDK HttpURLConnection transport (one TCP/TLS handshake per call)
+ * person.http.pool.enabled=true
+ * person.http.pool.max-total=100
+ * person.http.pool.max-per-route=50
+ * # connections idle longer than this are closed by the background evictor
+ * person.http.pool.idle-eviction-seconds=30
+ * # upper bound for re-using a connection when the server does not send a Keep-Alive header
+ * person.http.pool.keep-alive-seconds=30
+ * person.http.pool.time-to-live-minutes=5
+ * person.http.pool.validate-after-inactivity-millis=2000
+ * # how long a caller waits to lease a connection when the pool is exhausted
+ * person.http.pool.connection-request-timeout-millis=2000
+ */
+@Component
+@ConfigurationProperties(prefix = "person.http.pool")
+@Getter
+@Setter
+public class PersonHttpPoolProperties {
+    private boolean enabled = true;
+    private int maxTotal = 100;
+    private int maxPerRoute = 50;
+    private long idleEvictionSeconds = 30;
+    private long keepAliveSeconds = 30;
+    private long timeToLiveMinutes = 5;
+    private long validateAfterInactivityMillis = 2000;
+    private long connectionRequestTimeoutMillis = 2000;
+}
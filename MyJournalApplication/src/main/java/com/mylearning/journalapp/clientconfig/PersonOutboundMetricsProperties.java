@@ -0,0 +1,31 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Outbound person client metrics, see OutboundMetrics and GET /internal/metrics/outbound.
+ *
+ * # false turns every stack's metrics hook into a pass-through
+ * person.metrics.outbound.enabled=true
+ * # client side percentiles (HdrHistogram, sliding window) of every timer
+ * person.metrics.outbound.percentiles=0.5,0.9,0.99,0.999
+ * # also publish the histogram buckets, for a registry that aggregates percentiles server side (Prometheus)
+ * person.metrics.outbound.percentile-histogram=false
+ * # window the percentiles are computed over
+ * person.metrics.outbound.percentile-window-seconds=60
+ */
+@Component
+@ConfigurationProperties(prefix = "person.metrics.outbound")
+@Getter
+@Setter
+public class PersonOutboundMetricsProperties {
+    private boolean enabled = true;
+    private List<Double> percentiles = List.of(0.5, 0.9, 0.99, 0.999);
+    private boolean percentileHistogram = false;
+    private long percentileWindowSeconds = 60;
+}
@@ -0,0 +1,104 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.clientexception.PersonCircuitOpenException;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker + per-endpoint bulkhead check done by every person transport hook
+ * (PersonResilienceInterceptor, WebClientResilienceFilter, the Feign ResilienceCapability).
+ *
+ * begin() rejects first on the breaker (nothing else is touched while OPEN), then takes the endpoint's bulkhead slot.
+ * The returned Call must end with complete(status), failed() or abandoned(); the first one wins, so hooks finish
+ * with abandoned() in a finally / doFinally.
+ * Failures for the breaker are IO errors, timeouts and 5xx responses; 4xx are answers from a healthy CodeBuffer.
+ */
+@Component
+public class PersonResilienceGuard {
+
+    private final PersonCircuitBreaker circuitBreaker;
+    private final PersonBulkheads bulkheads;
+
+    public PersonResilienceGuard(PersonCircuitBreaker circuitBreaker, PersonBulkheads bulkheads) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkheads = bulkheads;
+    }
+
+    public boolean isEnabled() {
+        return circuitBreaker.isEnabled() || bulkheads.isEnabled();
+    }
+
+    public Call begin(String method, URI uri, boolean mayWait) {
+        String endpoint = PersonEndpoints.key(method, uri);
+        long permission = PersonCircuitBreaker.REJECTED;
+        if (circuitBreaker.isEnabled()) {
+            permission = circuitBreaker.tryAcquire();
+            if (permission == PersonCircuitBreaker.REJECTED) {
+                throw new PersonCircuitOpenException("Person API circuit breaker is " + circuitBreaker.getState()
+                        + ", " + endpoint + " not called");
+            }
+        }
+        PersonBulkheads.Bulkhead bulkhead = null;
+        if (bulkheads.isEnabled()) {
+            try {
+                bulkhead = bulkheads.acquire(endpoint, mayWait);
+            } catch (RuntimeException ex) {
+                if (circuitBreaker.isEnabled()) {
+                    circuitBreaker.onIgnored(permission);
+                }
+                throw ex;
+            }
+        }
+        return new Call(permission, bulkhead, System.nanoTime());
+    }
+
+    public static boolean isFailure(int statusCode) {
+        return statusCode >= 500;
+    }
+
+    public final class Call {
+
+        private final long permission;
+        private final PersonBulkheads.Bulkhead bulkhead;
+        private final long startNanos;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Call(long permission, PersonBulkheads.Bulkhead bulkhead, long startNanos) {
+            this.permission = permission;
+            this.bulkhead = bulkhead;
+            this.startNanos = startNanos;
+        }
+
+        public void complete(int statusCode) {
+            finish(isFailure(statusCode), true);
+        }
+
+        public void failed() {
+            finish(true, true);
+        }
+
+        /** Rejected further down (concurrency limit) or cancelled, no outcome for the breaker. */
+        public void abandoned() {
+            finish(false, false);
+        }
+
+        private void finish(boolean failure, boolean record) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (!circuitBreaker.isEnabled()) {
+                return;
+            }
+            if (record) {
+                circuitBreaker.onResult(permission, System.nanoTime() - startNanos, failure);
+            } else {
+                circuitBreaker.onIgnored(permission);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.NonNull;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Circuit breaker + bulkhead for RestTemplate, RestClient and the PersonClient proxy, see PersonResilienceGuard.
+ * Registered after JwtInterceptor and before ConcurrencyLimitInterceptor: an OPEN breaker rejects before a
+ * concurrency permit is taken.
+ */
+@Component
+public class PersonResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    private final PersonResilienceGuard guard;
+
+    public PersonResilienceInterceptor(PersonResilienceGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public @NonNull ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body,
+                                                 @NonNull ClientHttpRequestExecution execution) throws IOException {
+        if (!guard.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        PersonResilienceGuard.Call call = guard.begin(request.getMethod().name(), request.getURI(), true);
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            call.complete(response.getStatusCode().value());
+            return response;
+        } catch (IOException ex) {
+            call.failed();
+            throw ex;
+        } finally {
+            call.abandoned();
+        }
+    }
+}
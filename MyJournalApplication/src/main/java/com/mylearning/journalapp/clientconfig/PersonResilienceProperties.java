@@ -0,0 +1,60 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker and per-endpoint bulkheads in front of the CodeBuffer person API, see PersonResilienceGuard.
+ *
+ * # count based sliding window over the last N completed calls
+ * person.resilience.circuit-breaker.enabled=true
+ * person.resilience.circuit-breaker.sliding-window-size=50
+ * # rates are not evaluated before this many calls are in the window
+ * person.resilience.circuit-breaker.minimum-calls=20
+ * # open when at least this % of the window failed (IO error, timeout, 5xx) ...
+ * person.resilience.circuit-breaker.failure-rate-threshold=50
+ * # ... or when at least this % took longer than slow-call-duration-millis
+ * person.resilience.circuit-breaker.slow-call-rate-threshold=80
+ * person.resilience.circuit-breaker.slow-call-duration-millis=2000
+ * # how long OPEN rejects everything before letting half-open-calls probes through
+ * person.resilience.circuit-breaker.open-wait-millis=10000
+ * person.resilience.circuit-breaker.half-open-calls=5
+ *
+ * # one bulkhead per endpoint (GET /api/person/{personId}, GET /api/person/search, ...)
+ * person.resilience.bulkhead.enabled=true
+ * person.resilience.bulkhead.max-concurrent-calls=25
+ * # blocking stacks only: how long a caller may wait for a bulkhead slot, 0 fails fast. WebClient never waits.
+ * person.resilience.bulkhead.max-wait-millis=0
+ */
+@Component
+@ConfigurationProperties(prefix = "person.resilience")
+@Getter
+@Setter
+public class PersonResilienceProperties {
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Bulkhead bulkhead = new Bulkhead();
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private int slidingWindowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 50;
+        private double slowCallRateThreshold = 80;
+        private long slowCallDurationMillis = 2000;
+        private long openWaitMillis = 10000;
+        private int halfOpenCalls = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        private boolean enabled = true;
+        private int maxConcurrentCalls = 25;
+        private long maxWaitMillis = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizing of the Reactor Netty ConnectionProvider behind the person WebClient.
+ *
+ * person.webclient.pool.max-connections=200
+ * # callers allowed to wait for a connection before the acquire fails fast with PoolAcquirePendingLimitException
+ * person.webclient.pool.pending-acquire-max-count=1000
+ * person.webclient.pool.pending-acquire-timeout-millis=5000
+ * person.webclient.pool.max-idle-time-seconds=30
+ * person.webclient.pool.max-life-time-minutes=5
+ * person.webclient.pool.evict-in-background-seconds=30
+ * # HTTP/2 (h2c upgrade for http://, h2 via ALPN for https://), many streams multiplexed on few connections
+ * person.webclient.pool.http2-enabled=false
+ * person.webclient.pool.http2-max-concurrent-streams=100
+ */
+@Component
+@ConfigurationProperties(prefix = "person.webclient.pool")
+@Getter
+@Setter
+public class PersonWebClientPoolProperties {
+    private int maxConnections = 200;
+    private int pendingAcquireMaxCount = 1000;
+    private long pendingAcquireTimeoutMillis = 5000;
+    private long maxIdleTimeSeconds = 30;
+    private long maxLifeTimeMinutes = 5;
+    private long evictInBackgroundSeconds = 30;
+    private boolean http2Enabled = false;
+    private long http2MaxConcurrentStreams = 100;
+}
@@ -0,0 +1,92 @@
+package com.mylearning.journalapp.clientconfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Receives the live pool gauges Reactor Netty creates for every (provider, remote address) pair.
+ *
+ * We register ourselves as the MeterRegistrar instead of letting Reactor Netty look for a global Micrometer registry
+ * and keep the ConnectionPoolMetrics handles. They are read lazily, so a snapshot always reflects the current
+ * acquired/idle/pending counts. With a MeterRegistry the same handles are also published as
+ * person.client.pool{pool, remote, state} gauges next to the HttpClient 5 ones (see OutboundMetrics).
+ */
+@Component
+@Slf4j
+public class ReactivePoolMetricsRegistrar implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ReactivePoolMetricsRegistrar() {
+        this(null);
+    }
+
+    @Autowired
+    public ReactivePoolMetricsRegistrar(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        log.info("Registering reactive pool gauges for pool={} remote={}", poolName, remoteAddress);
+        String key = key(poolName, id, remoteAddress);
+        pools.put(key, metrics);
+        if (meterRegistry != null) {
+            Tags tags = Tags.of("pool", poolName, "remote", String.valueOf(remoteAddress));
+            meters.put(key, List.of(
+                    gauge(metrics, tags, "acquired", ConnectionPoolMetrics::acquiredSize),
+                    gauge(metrics, tags, "idle", ConnectionPoolMetrics::idleSize),
+                    gauge(metrics, tags, "allocated", ConnectionPoolMetrics::allocatedSize),
+                    gauge(metrics, tags, "pending", ConnectionPoolMetrics::pendingAcquireSize)));
+        }
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        String key = key(poolName, id, remoteAddress);
+        pools.remove(key);
+        List<Meter> removed = meters.remove(key);
+        if (removed != null) {
+            removed.forEach(meterRegistry::remove);
+        }
+    }
+
+    public Map<String, Map<String, Integer>> snapshot() {
+        Map<String, Map<String, Integer>> snapshot = new LinkedHashMap<>();
+        pools.forEach((key, metrics) -> {
+            Map<String, Integer> gauges = new LinkedHashMap<>();
+            gauges.put("acquired", metrics.acquiredSize());
+            gauges.put("idle", metrics.idleSize());
+            gauges.put("allocated", metrics.allocatedSize());
+            gauges.put("pending", metrics.pendingAcquireSize());
+            gauges.put("maxAllocated", metrics.maxAllocatedSize());
+            gauges.put("maxPending", metrics.maxPendingAcquireSize());
+            snapshot.put(key, gauges);
+        });
+        return snapshot;
+    }
+
+    private Meter gauge(ConnectionPoolMetrics metrics, Tags tags, String state, ToDoubleFunction<ConnectionPoolMetrics> value) {
+        return Gauge.builder(OutboundMetrics.POOL, metrics, value).tags(tags).tag("state", state).register(meterRegistry);
+    }
+
+    private static String key(String poolName, String id, SocketAddress remoteAddress) {
+        return poolName + "|" + remoteAddress + "|" + id;
+    }
+}
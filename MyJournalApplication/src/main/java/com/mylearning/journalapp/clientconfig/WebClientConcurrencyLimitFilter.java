@@ -0,0 +1,46 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient side of the shared AdaptiveConcurrencyLimiter.
+ *
+ * The permit is acquired without blocking (a queued request waits on a future, not on an event-loop thread) and is
+ * released when the response headers arrive, on error, or when the subscriber cancels.
+ * Added after WebClientJwtInterceptor so it is the inner filter: the login request triggered by a token refresh
+ * acquires its own permit, the request waiting for that token does not hold one yet.
+ */
+@Component
+public class WebClientConcurrencyLimitFilter implements ExchangeFilterFunction {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public WebClientConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public @NonNull Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        if (!limiter.isEnabled()) {
+            return next.exchange(request);
+        }
+        return limiter.acquireMono()
+                .flatMap(permit -> next.exchange(request)
+                        .doOnNext(response -> {
+                            if (AdaptiveConcurrencyLimiter.isDrop(response.statusCode().value())) {
+                                permit.dropped();
+                            } else {
+                                permit.success();
+                            }
+                        })
+                        .doOnError(ex -> permit.dropped())
+                        // cancel / empty, no-op when already released above
+                        .doFinally(signalType -> permit.ignore()));
+    }
+}
@@ -2,7 +2,6 @@ package com.mylearning.journalapp.clientconfig;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientRequest;
@@ -24,11 +23,15 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class WebClientJwtInterceptor implements ExchangeFilterFunction {
 
-    private final MyPersonClientInterface myPersonClientInterface;
+    /** Request attribute marking a request (the login itself) that must go out without an Authorization header. */
+    public static final String SKIP_JWT_ATTRIBUTE = WebClientJwtInterceptor.class.getName() + ".SKIP_JWT";
 
-    // Spring will automatically inject the active implementation of MyPersonClientInterface
-    public WebClientJwtInterceptor(@Lazy MyPersonClientInterface myPersonClientInterface) {
-        this.myPersonClientInterface = myPersonClientInterface;
+    private final JwtTokenManager jwtTokenManager;
+    private final OutboundMetrics outboundMetrics;
+
+    public WebClientJwtInterceptor(JwtTokenManager jwtTokenManager, OutboundMetrics outboundMetrics) {
+        this.jwtTokenManager = jwtTokenManager;
+        this.outboundMetrics = outboundMetrics;
     }
     @Override
     public @NonNull Mono<ClientResponse> filter(@NonNull ClientRequest request, ExchangeFunction next) {
@@ -38,26 +41,26 @@ public class WebClientJwtInterceptor implements ExchangeFilterFunction {
         //if(request.url().toString().contains("/login")) return next.exchange(request); // Skip the JWT interceptor for login
 
         // Check the ThreadLocal context to see if Authorization should be skipped
-        if (InterceptorContext.isInterceptorDisabled()) {
+        if (InterceptorContext.isInterceptorDisabled() || request.attribute(SKIP_JWT_ATTRIBUTE).isPresent()) {
             return next.exchange(request); // Skip if disabled, Skip adding Authorization header
         }
 
-        String jwtAccessToken = myPersonClientInterface.getJwtAccessToken();
-
-        // Print out the JWT token to verify its content
-        log.info("JWT Access Token in Interceptor: {}", jwtAccessToken);
-
-        // Ensure the token is not empty or malformed
-        if (jwtAccessToken == null || jwtAccessToken.trim().isEmpty() || !jwtAccessToken.contains(".")) {
-            log.error("Invalid JWT Token: {}", jwtAccessToken);
-            throw new IllegalArgumentException("JWT Access Token is missing or invalid");
-        }
-
-        // Modify the request headers to include the JWT token
-        ClientRequest modifiedRequest = ClientRequest.from(request)
-                .header(HttpHeaders.AUTHORIZATION, jwtAccessToken)
-                .build();
-
-        return next.exchange(modifiedRequest);
+        // The token comes from the shared JwtTokenManager as a Mono: served from memory while it is fresh,
+        // otherwise this request joins the single in-flight login instead of blocking or starting its own.
+        // The manager already rejects a missing or malformed token with PersonAuthenticationException.
+        // person.client.token: subscription to token, which includes waiting for an in-flight login
+        return Mono.defer(() -> {
+                    long tokenStart = System.nanoTime();
+                    return jwtTokenManager.getBearerToken()
+                            .doOnNext(token -> outboundMetrics.recordToken(WebClientMetricsFilter.STACK,
+                                    System.nanoTime() - tokenStart));
+                })
+                .flatMap(jwtAccessToken -> {
+                    // Modify the request headers to include the JWT token
+                    ClientRequest modifiedRequest = ClientRequest.from(request)
+                            .header(HttpHeaders.AUTHORIZATION, jwtAccessToken)
+                            .build();
+                    return next.exchange(modifiedRequest);
+                });
     }
 }
@@ -0,0 +1,46 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * OutboundMetrics hook of the WebClient, between WebClientJwtInterceptor and WebClientResilienceFilter.
+ * The ClientResponse is emitted when the headers are in (time to first byte); its body Flux is wrapped so the exchange
+ * ends when the body has been consumed by the decoder, or released, or the subscriber cancelled it.
+ */
+@Component
+public class WebClientMetricsFilter implements ExchangeFilterFunction {
+
+    static final String STACK = "web-client";
+
+    private final OutboundMetrics outboundMetrics;
+
+    public WebClientMetricsFilter(OutboundMetrics outboundMetrics) {
+        this.outboundMetrics = outboundMetrics;
+    }
+
+    @Override
+    public @NonNull Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        if (!outboundMetrics.isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            OutboundMetrics.Exchange exchange = outboundMetrics.start(STACK, request.method().name(), request.url());
+            return next.exchange(request)
+                    .map(response -> {
+                        exchange.firstByte(response.statusCode().value());
+                        return response.mutate()
+                                .body(body -> body.doFinally(signalType -> exchange.completed()))
+                                .build();
+                    })
+                    .doOnError(exchange::failed)
+                    // cancelled or empty before the headers, no-op once the body owns the exchange
+                    .doFinally(signalType -> exchange.cancelled());
+        });
+    }
+}
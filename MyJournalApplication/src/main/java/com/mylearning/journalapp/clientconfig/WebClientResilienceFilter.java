@@ -0,0 +1,39 @@
+package com.mylearning.journalapp.clientconfig;
+
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker + bounded in-flight bulkhead for the WebClient, see PersonResilienceGuard.
+ * The bulkhead is only tried, never waited on. Sits between WebClientJwtInterceptor and
+ * WebClientConcurrencyLimitFilter.
+ */
+@Component
+public class WebClientResilienceFilter implements ExchangeFilterFunction {
+
+    private final PersonResilienceGuard guard;
+
+    public WebClientResilienceFilter(PersonResilienceGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public @NonNull Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        if (!guard.isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            PersonResilienceGuard.Call call = guard.begin(request.method().name(), request.url(), false);
+            return next.exchange(request)
+                    .doOnNext(response -> call.complete(response.statusCode().value()))
+                    .doOnError(ex -> call.failed())
+                    // cancel / empty, no-op when already finished above
+                    .doFinally(signalType -> call.abandoned());
+        });
+    }
+}
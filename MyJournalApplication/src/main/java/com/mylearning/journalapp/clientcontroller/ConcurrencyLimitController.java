@@ -0,0 +1,38 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.clientconfig.AdaptiveConcurrencyLimiter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limit shared by every person client.
+ *
+ * GET http://localhost:6969/internal/concurrency-limit
+ *
+ * limit           -> current limit, moves between minLimit and maxLimit with the observed RTT
+ * inFlight        -> calls currently holding a permit
+ * waiting         -> callers queued for a permit right now
+ * rttNoLoadMillis -> lowest RTT seen, the "unloaded" baseline
+ * lastRttMillis   -> RTT of the latest successful call
+ * acquired / queued / rejected / dropped -> totals since start (rejected = 503 without calling CodeBuffer,
+ *                    dropped = IO error, timeout, 429 or 5xx)
+ */
+@RestController
+@RequestMapping("/internal/concurrency-limit")
+public class ConcurrencyLimitController {
+
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    public ConcurrencyLimitController(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getConcurrencyLimitStats() {
+        return ResponseEntity.ok(adaptiveConcurrencyLimiter.getStats());
+    }
+}
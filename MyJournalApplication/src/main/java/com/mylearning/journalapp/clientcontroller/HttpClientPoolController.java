@@ -0,0 +1,78 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.clientconfig.ReactivePoolMetricsRegistrar;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pool utilization of the person transports.
+ *
+ * GET http://localhost:6969/internal/http-pool
+ *
+ * blocking (Apache HttpClient pool shared by RestTemplate / RestClient / PersonClient proxy):
+ * leased    -> connections currently executing a request
+ * pending   -> callers waiting for a connection (non-zero means max-per-route / max-total is too small)
+ * available -> idle keep-alive connections ready for re-use
+ * max       -> configured upper bound
+ *
+ * reactive (Reactor Netty "person-webclient" ConnectionProvider, one entry per remote address):
+ * acquired / idle / allocated / pending / maxAllocated / maxPending
+ */
+@RestController
+@RequestMapping("/internal/http-pool")
+@Slf4j
+public class HttpClientPoolController {
+
+    private final ObjectProvider<PoolingHttpClientConnectionManager> personConnectionManager;
+    private final ReactivePoolMetricsRegistrar reactivePoolMetricsRegistrar;
+
+    public HttpClientPoolController(ObjectProvider<PoolingHttpClientConnectionManager> personConnectionManager,
+                                    ReactivePoolMetricsRegistrar reactivePoolMetricsRegistrar) {
+        this.personConnectionManager = personConnectionManager;
+        this.reactivePoolMetricsRegistrar = reactivePoolMetricsRegistrar;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("blocking", getBlockingPoolStats());
+        body.put("reactive", reactivePoolMetricsRegistrar.snapshot());
+        return ResponseEntity.ok(body);
+    }
+
+    private Map<String, Object> getBlockingPoolStats() {
+        PoolingHttpClientConnectionManager connectionManager = personConnectionManager.getIfAvailable();
+        Map<String, Object> blocking = new LinkedHashMap<>();
+        if (connectionManager == null) {
+            blocking.put("enabled", false);
+            return blocking;
+        }
+        blocking.put("enabled", true);
+        blocking.put("total", toMap(connectionManager.getTotalStats()));
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), toMap(connectionManager.getStats(route)));
+        }
+        blocking.put("routes", routes);
+        return blocking;
+    }
+
+    private static Map<String, Integer> toMap(PoolStats poolStats) {
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        stats.put("leased", poolStats.getLeased());
+        stats.put("pending", poolStats.getPending());
+        stats.put("available", poolStats.getAvailable());
+        stats.put("max", poolStats.getMax());
+        return stats;
+    }
+}
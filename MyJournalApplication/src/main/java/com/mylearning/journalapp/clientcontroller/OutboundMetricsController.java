@@ -0,0 +1,43 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.clientconfig.OutboundMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Outbound person call latencies of every client stack, see OutboundMetrics.
+ *
+ * GET http://localhost:6969/internal/metrics/outbound
+ *
+ * routes -> per "stack route" (e.g. "web-client GET /api/person/search"):
+ *           timeToFirstByte -> request sent until the response headers
+ *           decode          -> headers until the body is read and converted
+ *           status          -> whole exchange per HTTP status / IO_ERROR / exception name
+ *           inFlight        -> calls of the route currently running
+ * token  -> JWT lookup per stack
+ * pools  -> HttpClient 5 pool and the Reactor Netty pools
+ *
+ * every timer: count, meanMillis, maxMillis and the person.metrics.outbound.percentiles (p50, p90, p99, p99.9)
+ * over the last person.metrics.outbound.percentile-window-seconds.
+ */
+@RestController
+@RequestMapping("/internal/metrics/outbound")
+@Slf4j
+public class OutboundMetricsController {
+
+    private final OutboundMetrics outboundMetrics;
+
+    public OutboundMetricsController(OutboundMetrics outboundMetrics) {
+        this.outboundMetrics = outboundMetrics;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getOutboundMetrics() {
+        return ResponseEntity.ok(outboundMetrics.snapshot());
+    }
+}
@@ -0,0 +1,107 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.client.RestClientCodeBufferPersonClient;
+import com.mylearning.journalapp.client.ShutdownOnFailureScope;
+import com.mylearning.journalapp.client.ShutdownOnFailureScope.Subtask;
+import com.mylearning.journalapp.clientconfig.PersonDashboardProperties;
+import com.mylearning.journalapp.clientexception.PersonCallingClientException;
+import com.mylearning.journalapp.clientexception.PersonDashboardTimeoutException;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonDashboard;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * GET http://localhost:6969/person-dashboard?person=john:30&person=jane:25
+ *
+ * Population by city, oldest person by city and every name:age lookup in one response. Called one after another
+ * these cost the sum of their latencies, here they are forked together and the dashboard costs the slowest one:
+ *
+ * 1. All calls share one deadline (person.dashboard.deadline-millis), when it passes the calls still running are
+ *    cancelled and the answer is 504.
+ * 2. The first call to fail cancels its siblings and its exception is the answer (404 for an unknown person,
+ *    503 for an open circuit breaker, ...), a partial dashboard is never returned.
+ */
+@RestController
+@RequestMapping("/person-dashboard")
+@Slf4j
+@ConditionalOnBean(RestClientCodeBufferPersonClient.class)
+public class PersonDashboardController {
+
+    private final RestClientCodeBufferPersonClient personRestClient;
+    private final ExecutorService personFanOutExecutor;
+    private final PersonDashboardProperties properties;
+
+    public PersonDashboardController(RestClientCodeBufferPersonClient personRestClient,
+                                     @Qualifier("personFanOutExecutor") ExecutorService personFanOutExecutor,
+                                     PersonDashboardProperties properties) {
+        this.personRestClient = personRestClient;
+        this.personFanOutExecutor = personFanOutExecutor;
+        this.properties = properties;
+    }
+
+    @GetMapping
+    public ResponseEntity<PersonDashboard> getDashboard(@RequestParam(value = "person", required = false) List<String> persons) {
+        List<String[]> nameAndAges = parsePersons(persons);
+        long start = System.nanoTime();
+        Instant deadline = Instant.now().plusMillis(properties.getDeadlineMillis());
+
+        try (ShutdownOnFailureScope scope = new ShutdownOnFailureScope(personFanOutExecutor)) {
+            Subtask<List<Document>> populationByCity = scope.fork(personRestClient::getPopulationByCity);
+            Subtask<List<Document>> oldestPersonByCity = scope.fork(() -> personRestClient.getOldestPersonByCity().getBody());
+            List<Subtask<Person>> personLookups = new ArrayList<>(nameAndAges.size());
+            for (String[] nameAndAge : nameAndAges) {
+                personLookups.add(scope.fork(() ->
+                        personRestClient.getPersonByNameAndAgePathVariable(nameAndAge[0], Integer.valueOf(nameAndAge[1]))));
+            }
+
+            scope.joinUntil(deadline);
+            scope.throwIfFailed();
+
+            PersonDashboard dashboard = PersonDashboard.builder()
+                    .populationByCity(populationByCity.get())
+                    .oldestPersonByCity(oldestPersonByCity.get())
+                    .persons(personLookups.stream().map(Subtask::get).toList())
+                    .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                    .build();
+            log.info("PersonDashboardController getDashboard() {} calls in {}ms", 2 + nameAndAges.size(), dashboard.getElapsedMillis());
+            return ResponseEntity.ok(dashboard);
+        } catch (TimeoutException ex) {
+            throw new PersonDashboardTimeoutException("Person dashboard not complete within " + properties.getDeadlineMillis() + "ms");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the person dashboard", ex);
+        }
+    }
+
+    private List<String[]> parsePersons(List<String> persons) {
+        if (persons == null) {
+            return List.of();
+        }
+        if (persons.size() > properties.getMaxPersons()) {
+            throw new PersonCallingClientException("At most " + properties.getMaxPersons() + " persons per dashboard");
+        }
+        List<String[]> nameAndAges = new ArrayList<>(persons.size());
+        for (String person : persons) {
+            String[] nameAndAge = person.split(":", 2);
+            if (nameAndAge.length != 2 || nameAndAge[0].isBlank() || !nameAndAge[1].matches("\\d{1,3}")) {
+                throw new PersonCallingClientException("Expected person=name:age but got " + person);
+            }
+            nameAndAges.add(nameAndAge);
+        }
+        return nameAndAges;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.client.PersonWriteAggregator;
+import com.mylearning.journalapp.clientresponse.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Person import through the PersonWriteAggregator, works with whichever person.client.type is active.
+ *
+ * POST http://localhost:6969/person-import        body: [ {person}, {person}, ... ]
+ *     every person is submitted on its own (exactly like an import job calling create per record),
+ *     the aggregator folds them into batches of person.write-aggregator.max-batch-size.
+ *     Response: one entry per person, personId or error.
+ *
+ * POST http://localhost:6969/person-import/one    body: {person}
+ *
+ * GET  http://localhost:6969/person-import/stats  submitted, batches, avgBatchSize, failures, pending
+ */
+@RestController
+@RequestMapping("/person-import")
+@Slf4j
+public class PersonImportController {
+
+    private final PersonWriteAggregator personWriteAggregator;
+
+    public PersonImportController(PersonWriteAggregator personWriteAggregator) {
+        this.personWriteAggregator = personWriteAggregator;
+    }
+
+    @PostMapping
+    public ResponseEntity<List<Map<String, Object>>> importPersons(@RequestBody List<Person> persons) {
+        log.info("PersonImportController importPersons called with {} persons", persons.size());
+        List<CompletableFuture<ObjectId>> results = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            results.add(personWriteAggregator.submit(person));
+        }
+        List<Map<String, Object>> response = new ArrayList<>(persons.size());
+        for (CompletableFuture<ObjectId> result : results) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            result.handle((personId, error) -> {
+                if (error == null) {
+                    item.put("personId", personId.toHexString());
+                } else {
+                    item.put("error", error.getMessage());
+                }
+                return item;
+            }).join();
+            response.add(item);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/one")
+    public ResponseEntity<String> importPerson(@RequestBody Person person) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(personWriteAggregator.create(person).toHexString());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(personWriteAggregator.getStats());
+    }
+}
@@ -0,0 +1,42 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.clientconfig.PersonBulkheads;
+import com.mylearning.journalapp.clientconfig.PersonCircuitBreaker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkheads in front of the CodeBuffer person API.
+ *
+ * GET http://localhost:6969/internal/resilience
+ *
+ * circuitBreaker -> state (CLOSED / OPEN / HALF_OPEN), failureRate / slowCallRate of the current window (%),
+ *                   the last 20 transitions with the rates that caused them, and totals
+ *                   (calls, failures, slowCalls, rejected = 503 without calling CodeBuffer)
+ * bulkheads      -> per endpoint ("GET /api/person/{personId}"): inFlight, max, rejected
+ */
+@RestController
+@RequestMapping("/internal/resilience")
+public class PersonResilienceController {
+
+    private final PersonCircuitBreaker personCircuitBreaker;
+    private final PersonBulkheads personBulkheads;
+
+    public PersonResilienceController(PersonCircuitBreaker personCircuitBreaker, PersonBulkheads personBulkheads) {
+        this.personCircuitBreaker = personCircuitBreaker;
+        this.personBulkheads = personBulkheads;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getResilienceStats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("circuitBreaker", personCircuitBreaker.getStats());
+        body.put("bulkheads", personBulkheads.getStats());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.client.RequestCoalescer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * GET http://localhost:6969/internal/coalescing
+ *
+ * Per operation: executions = calls that went to the person API, merged = calls served by joining one in flight.
+ */
+@RestController
+@RequestMapping("/internal/coalescing")
+public class RequestCoalescingController {
+
+    private final RequestCoalescer requestCoalescer;
+
+    public RequestCoalescingController(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Long>>> getCoalescingStats() {
+        return ResponseEntity.ok(requestCoalescer.getStats());
+    }
+}
@@ -0,0 +1,33 @@
+package com.mylearning.journalapp.clientcontroller;
+
+import com.mylearning.journalapp.client.RequestHedger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * GET http://localhost:6969/internal/hedging
+ *
+ * budget     -> shared retry / hedge budget: tokens left, requests that earned budget, hedges + Feign retries spent,
+ *               exhausted = hedges / retries skipped because the bucket was empty
+ * operations -> per hedged GET: requests, hedged (second attempt sent), hedgeWins (second attempt answered first),
+ *               unhedged (hedge pool saturated), delayMillis (current percentile delay)
+ */
+@RestController
+@RequestMapping("/internal/hedging")
+public class RequestHedgingController {
+
+    private final RequestHedger requestHedger;
+
+    public RequestHedgingController(RequestHedger requestHedger) {
+        this.requestHedger = requestHedger;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getHedgingStats() {
+        return ResponseEntity.ok(requestHedger.getStats());
+    }
+}
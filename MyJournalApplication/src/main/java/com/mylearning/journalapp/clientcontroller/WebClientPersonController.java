@@ -1,7 +1,7 @@
 package com.mylearning.journalapp.clientcontroller;
 
 import com.mylearning.journalapp.client.WebClientCodeBufferPersonClient;
-import com.mylearning.journalapp.clientconfig.InterceptorContext;
+import com.mylearning.journalapp.clientexception.PersonNotFoundException;
 import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
 import com.mylearning.journalapp.clientresponse.LoginDto;
 import com.mylearning.journalapp.clientresponse.Person;
@@ -12,12 +12,14 @@ import org.bson.types.ObjectId;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -32,18 +34,16 @@ public class WebClientPersonController {
         this.webClientPersonClient = webClientPersonClient;
     }
 
+    /**
+     * Returning the Mono lets Spring MVC complete the response asynchronously, no servlet thread waits on the login.
+     * The login request skips the JWT filter through a request attribute set by the client, so the old
+     * InterceptorContext ThreadLocal flag is no longer needed here.
+     */
     @PostMapping("/login")
-    public ResponseEntity<JWTAuthResponse> login(@RequestBody LoginDto loginDto) {
+    public Mono<ResponseEntity<JWTAuthResponse>> login(@RequestBody LoginDto loginDto) {
         log.info("WebClientPersonController login() called");
-        try {
-            // Set the Context Flag in the Controller Method:
-            InterceptorContext.setDisableInterceptor(true); // Disable interceptor for login
-            JWTAuthResponse jwtAuthResponse = webClientPersonClient.login(loginDto);
-            return ResponseEntity.ok(jwtAuthResponse);
-        }  finally {
-            log.info("WebClientPersonController login finally Block");
-            InterceptorContext.clear(); // Clear the context
-        }
+        return webClientPersonClient.loginMono(loginDto)
+                .map(ResponseEntity::ok);
     }
 
     //================================================================================================================
@@ -101,6 +101,34 @@ public class WebClientPersonController {
         return ResponseEntity.ok(monoPersonById);
     }
 
+    /**
+     * Each id is asked for on its own through getPersonById, the BatchingLoader folds them into one GET /by-ids call.
+     * Unknown ids are skipped.
+     * GET http://localhost:6969/web-client-person/persons-by-id?ids=66e8d7943d5cf20c5e811501,66e8d7943d5cf20c5e811502
+     */
+    @GetMapping("/persons-by-id")
+    public ResponseEntity<Flux<Person>> getPersonsById(@RequestParam List<ObjectId> ids){
+        Flux<Person> persons = Flux.fromIterable(ids)
+                .flatMapSequential(personId -> webClientPersonClient.getPersonById(personId)
+                        .onErrorResume(PersonNotFoundException.class, ex -> Mono.empty()));
+        return ResponseEntity.ok(persons);
+    }
+
+    @GetMapping("/person-by-id/batching-stats")
+    public ResponseEntity<Map<String, Object>> getPersonByIdBatchingStats(){
+        return ResponseEntity.ok(webClientPersonClient.getPersonByIdBatchingStats());
+    }
+
+    /**
+     * NDJSON in, NDJSON out: every person is written to our caller as soon as it is decoded from the CodeBuffer stream,
+     * the journal app never holds the whole list.
+     * curl -H "Accept: application/x-ndjson" http://localhost:6969/web-client-person/all-person-stream
+     */
+    @GetMapping(value = "/all-person-stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Person> streamAllPersons(){
+        return webClientPersonClient.streamAllPersons();
+    }
+
     @GetMapping("/all-person")
     public ResponseEntity<Flux<Person>> getAllEmployees(){
         Flux<Person> fluxPerson = webClientPersonClient.getAllPersons();
@@ -0,0 +1,9 @@
+package com.mylearning.journalapp.clientexception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class PersonAuthenticationException extends RuntimeException {
+    public PersonAuthenticationException(String message) {super(message);}
+}
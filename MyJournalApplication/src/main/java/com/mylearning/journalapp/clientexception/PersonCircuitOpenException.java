@@ -0,0 +1,9 @@
+package com.mylearning.journalapp.clientexception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PersonCircuitOpenException extends RuntimeException {
+    public PersonCircuitOpenException(String message) {super(message);}
+}
@@ -0,0 +1,9 @@
+package com.mylearning.journalapp.clientexception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class PersonDashboardTimeoutException extends RuntimeException {
+    public PersonDashboardTimeoutException(String message) {super(message);}
+}
@@ -0,0 +1,47 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.mylearning.journalapp.client.PersonRetryBudget;
+import feign.RetryableException;
+import feign.Retryer;
+
+/**
+ * Feign Retryer that spends the shared PersonRetryBudget on each retry, so failure retries and hedges together
+ * stay under the budget ratio instead of multiplying load on an already struggling CodeBuffer.
+ * Registered for every Feign client by FeignConfig#feignRetryer.
+ *
+ * Feign clones the Retryer once per method invocation, that clone is the "original request" that earns budget,
+ * unless the invocation is an attempt of a hedged call RequestHedger already paid in for (PersonRetryBudget#callPrepaid).
+ * The retry schedule itself (interval, max interval, attempts) is still the wrapped Retryer's. The token is taken
+ * before its backoff, so an empty bucket fails the call at once instead of after a sleep, and it is given back when
+ * the wrapped Retryer gives up on its own.
+ */
+public class BudgetedRetryer implements Retryer {
+
+    private final Retryer delegate;
+    private final PersonRetryBudget budget;
+
+    public BudgetedRetryer(Retryer delegate, PersonRetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (!budget.tryWithdraw()) {
+            throw e;
+        }
+        try {
+            delegate.continueOrPropagate(e);
+        } catch (RuntimeException ex) {
+            // no retry is sent
+            budget.refund();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        budget.onRequest();
+        return new BudgetedRetryer(delegate.clone(), budget);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.mylearning.journalapp.clientconfig.AdaptiveConcurrencyLimiter;
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * Feign side of the shared AdaptiveConcurrencyLimiter.
+ *
+ * A Capability wraps the Client of every Feign client built by Spring Cloud OpenFeign, so each attempt (including
+ * the ones the Retryer makes) takes a permit for exactly the duration of the HTTP exchange.
+ * Request interceptors (the JWT refresh through PersonLoginFeignClient) run before the Client, they never hold a permit.
+ * A rejection is a RuntimeException, Feign does not wrap it into a RetryableException, so the Retryer does not
+ * retry into an overloaded CodeBuffer.
+ */
+public class ConcurrencyLimitCapability implements Capability {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitCapability(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        if (!limiter.isEnabled()) {
+            return client;
+        }
+        return (request, options) -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            try {
+                Response response = client.execute(request, options);
+                if (AdaptiveConcurrencyLimiter.isDrop(response.status())) {
+                    permit.dropped();
+                } else {
+                    permit.success();
+                }
+                return response;
+            } catch (IOException ex) {
+                permit.dropped();
+                throw ex;
+            } finally {
+                permit.ignore();
+            }
+        };
+    }
+}
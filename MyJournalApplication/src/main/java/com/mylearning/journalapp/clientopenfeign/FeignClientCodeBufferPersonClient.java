@@ -1,5 +1,9 @@
 package com.mylearning.journalapp.clientopenfeign;
 
+import com.mylearning.journalapp.cache.PersonCacheInvalidator;
+import com.mylearning.journalapp.client.RequestCoalescer;
+import com.mylearning.journalapp.client.RequestHedger;
+import com.mylearning.journalapp.clientconfig.JwtTokenManager;
 import com.mylearning.journalapp.clientconfig.MyPersonClientInterface;
 import com.mylearning.journalapp.clientexception.PersonCallingClientException;
 import com.mylearning.journalapp.clientexception.PersonCallingServerException;
@@ -7,10 +11,12 @@ import com.mylearning.journalapp.clientexception.PersonNotFoundException;
 import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
 import com.mylearning.journalapp.clientresponse.LoginDto;
 import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
@@ -23,74 +29,97 @@ import org.springframework.web.service.annotation.DeleteExchange;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.PostExchange;
 import org.springframework.web.service.annotation.PutExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 @Service
 @Slf4j
 @ConditionalOnProperty(name = "person.client.type", havingValue = "open-feign")
 public class FeignClientCodeBufferPersonClient implements MyPersonClientInterface {
 
-    private static String JWT_TOKEN = null;
-
     private final PersonFeignClient personFeignClient;
     private final PersonLoginFeignClient personLoginFeignClient;
 
     private final PersonFeignClientUsingRequestHeader personFeignClientUsingRequestHeader;
 
+    private final JwtTokenManager jwtTokenManager;
+
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+
+    private final PersonCacheInvalidator personCacheInvalidator;
+
+    private final ExecutorService personFeignAsyncExecutor;
+
     @Autowired
-    public FeignClientCodeBufferPersonClient(PersonFeignClient personFeignClient, PersonLoginFeignClient personLoginFeignClient, PersonFeignClientUsingRequestHeader personFeignClientUsingRequestHeader) {
+    public FeignClientCodeBufferPersonClient(PersonFeignClient personFeignClient, PersonLoginFeignClient personLoginFeignClient, PersonFeignClientUsingRequestHeader personFeignClientUsingRequestHeader, JwtTokenManager jwtTokenManager, RequestCoalescer requestCoalescer, RequestHedger requestHedger, PersonCacheInvalidator personCacheInvalidator,
+                                             @Qualifier("personFeignAsyncExecutor") ExecutorService personFeignAsyncExecutor) {
         this.personFeignClient = personFeignClient;
         this.personLoginFeignClient = personLoginFeignClient;
         this.personFeignClientUsingRequestHeader = personFeignClientUsingRequestHeader;
+        this.jwtTokenManager = jwtTokenManager;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.personCacheInvalidator = personCacheInvalidator;
+        this.personFeignAsyncExecutor = personFeignAsyncExecutor;
     }
 
     public List<Document> getPopulationByCity(){
-        log.info("FeignClientCodeBufferPersonClient getPopulationByCity() called");
-        String jwtAccessToken = getJwtAccessToken();
-        log.info("FeignClientCodeBufferPersonClient getPopulationByCity() jwtAccessToken {}", jwtAccessToken);
-        ResponseEntity<List<Document>> populationByCityResponse =
-                personFeignClientUsingRequestHeader.getPopulationByCity(jwtAccessToken);
-        log.info("FeignClientCodeBufferPersonClient getPopulationByCity() populationByCityResponse {}", populationByCityResponse.getBody());
-        if (populationByCityResponse.getStatusCode().is2xxSuccessful()) {
-            //Process response body
-            List<Document> personList = populationByCityResponse.getBody();
-            if(personList.isEmpty()) throw new PersonNotFoundException("Population By City Not Found");
-            return personList;
-        } else if(populationByCityResponse.getStatusCode().is4xxClientError()){
-            throw new PersonCallingClientException("Bad Request");
-        } else {
-            throw new PersonCallingServerException("Server Error");
-        }
+        return requestCoalescer.execute(RequestCoalescer.key("populationByCity"), () -> {
+            log.info("FeignClientCodeBufferPersonClient getPopulationByCity() called");
+            String jwtAccessToken = getJwtAccessToken();
+            log.info("FeignClientCodeBufferPersonClient getPopulationByCity() jwtAccessToken {}", jwtAccessToken);
+            ResponseEntity<List<Document>> populationByCityResponse =
+                    personFeignClientUsingRequestHeader.getPopulationByCity(jwtAccessToken);
+            log.info("FeignClientCodeBufferPersonClient getPopulationByCity() populationByCityResponse {}", populationByCityResponse.getBody());
+            if (populationByCityResponse.getStatusCode().is2xxSuccessful()) {
+                //Process response body
+                List<Document> personList = populationByCityResponse.getBody();
+                if(personList.isEmpty()) throw new PersonNotFoundException("Population By City Not Found");
+                return personList;
+            } else if(populationByCityResponse.getStatusCode().is4xxClientError()){
+                throw new PersonCallingClientException("Bad Request");
+            } else {
+                throw new PersonCallingServerException("Server Error");
+            }
+        });
     }
 
     public List<Document> getOldestPersonByCity(){
-        ResponseEntity<List<Document>> populationByCityResponse = personFeignClient.getOldestPersonByCity();
-        if (populationByCityResponse.getStatusCode().is2xxSuccessful()) {
-            //Process response body
-            List<Document> personList = populationByCityResponse.getBody();
-            if(personList.isEmpty()) throw new PersonNotFoundException("Population By City Not Found");
-            return personList;
-        } else if(populationByCityResponse.getStatusCode().is4xxClientError()){
-            throw new PersonCallingClientException("Bad Request");
-        } else {
-            throw new PersonCallingServerException("Server Error");
-        }
+        return requestCoalescer.execute(RequestCoalescer.key("oldestPersonByCity"), () -> {
+            ResponseEntity<List<Document>> populationByCityResponse = personFeignClient.getOldestPersonByCity();
+            if (populationByCityResponse.getStatusCode().is2xxSuccessful()) {
+                //Process response body
+                List<Document> personList = populationByCityResponse.getBody();
+                if(personList.isEmpty()) throw new PersonNotFoundException("Population By City Not Found");
+                return personList;
+            } else if(populationByCityResponse.getStatusCode().is4xxClientError()){
+                throw new PersonCallingClientException("Bad Request");
+            } else {
+                throw new PersonCallingServerException("Server Error");
+            }
+        });
     }
 
     public Person getPersonByNameAndAgePathVariableExchange(String name, Integer age){
-        ResponseEntity<Person> personByNameAndAge = personFeignClient.getPersonByNameAndAgePathVariableExchange(name, age);
-        if (personByNameAndAge.getStatusCode().is2xxSuccessful()) {
-            //Process response body
-            Person person = personByNameAndAge.getBody();
-            if(person.getPersonId()==null) throw new PersonNotFoundException("Person Not Found");
-            return person;
-        } else if(personByNameAndAge.getStatusCode().is4xxClientError()){
-            throw new PersonCallingClientException("Bad Request");
-        } else {
-            throw new PersonCallingServerException("Server Error");
-        }
+        return requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", name, age), () -> {
+            ResponseEntity<Person> personByNameAndAge = requestHedger.hedge("personByNameAndAge",
+                    () -> personFeignClient.getPersonByNameAndAgePathVariableExchange(name, age));
+            if (personByNameAndAge.getStatusCode().is2xxSuccessful()) {
+                //Process response body
+                Person person = personByNameAndAge.getBody();
+                if(person.getPersonId()==null) throw new PersonNotFoundException("Person Not Found");
+                return person;
+            } else if(personByNameAndAge.getStatusCode().is4xxClientError()){
+                throw new PersonCallingClientException("Bad Request");
+            } else {
+                throw new PersonCallingServerException("Server Error");
+            }
+        });
     }
 
     public Person createPersonExchange(Person person){
@@ -107,12 +136,28 @@ public class FeignClientCodeBufferPersonClient implements MyPersonClientInterfac
         }
     }
 
+    @Override
+    public Mono<PersonBatchResponse> createPersonBatch(List<Person> persons) {
+        // bounded person-feign-async pool instead of boundedElastic, the batch is sent when the Mono is subscribed
+        return Mono.fromFuture(() -> personFeignClient.createPersonBatchAsync(persons, personFeignAsyncExecutor))
+                .mapNotNull(batchResponse -> {
+                    if (batchResponse.getStatusCode().is2xxSuccessful()) {
+                        return batchResponse.getBody();
+                    } else if(batchResponse.getStatusCode().is4xxClientError()){
+                        throw new PersonCallingClientException("Bad Request");
+                    } else {
+                        throw new PersonCallingServerException("Server Error");
+                    }
+                });
+    }
+
     public Person updatePersonByExchange(Person person, ObjectId personId){
         ResponseEntity<Person> personUpdatedResponse = personFeignClient.updatePersonByExchange(person,personId);
         if (personUpdatedResponse.getStatusCode().is2xxSuccessful()) {
             //Process response body
             Person updatedPerson = personUpdatedResponse.getBody();
             if(updatedPerson.getPersonId()==null) throw new PersonNotFoundException("Person Not Updated");
+            personCacheInvalidator.personChanged(personId);
             return updatedPerson;
         } else if(personUpdatedResponse.getStatusCode().is4xxClientError()){
             throw new PersonCallingClientException("Bad Request");
@@ -125,6 +170,7 @@ public class FeignClientCodeBufferPersonClient implements MyPersonClientInterfac
         ResponseEntity<Void> voidResponse = personFeignClient.deletePersonByExchange(personId);
         if (voidResponse.getStatusCode().is2xxSuccessful()) {
             log.info("Person Deleted");
+            personCacheInvalidator.personChanged(personId);
             return true;
         } else if(voidResponse.getStatusCode().is4xxClientError()){
             throw new PersonCallingClientException("Bad Request");
@@ -137,14 +183,14 @@ public class FeignClientCodeBufferPersonClient implements MyPersonClientInterfac
                                          Optional<Integer> maxAge, Optional<String> city,
                                          Optional<Integer> page, Optional<Integer> size){
         log.info("FeignClientCodeBufferPersonClient searchPersonByExchange called");
-        Object personResources = personFeignClient.searchPersonByExchange(
+        Object personResources = requestHedger.hedge("searchPerson", () -> personFeignClient.searchPersonByExchange(
                 name.orElse(null),  // Convert Optional to null if empty
                 minAge.orElse(null),
                 maxAge.orElse(null),
                 city.orElse(null),
                 page.orElse(0),     // Default to 0 if page is empty
                 size.orElse(5)
-        );
+        ));
         log.info("FeignClientCodeBufferPersonClient searchPersonByExchange personResources :: {}", personResources);
         return personResources;
     }
@@ -152,20 +198,29 @@ public class FeignClientCodeBufferPersonClient implements MyPersonClientInterfac
     @Override
     public JWTAuthResponse login(LoginDto loginDto) {
         log.info("FeignClientCodeBufferPersonClient login called");
+        return jwtTokenManager.login(loginDto).block();
+    }
 
-        JWTAuthResponse jwtAuthResponse = personLoginFeignClient.login(loginDto);
-
-        log.info("FeignClientCodeBufferPersonClient jwtAuthResponse : {}",jwtAuthResponse);
-        if( jwtAuthResponse!=null && !jwtAuthResponse.getAccessToken().isBlank() && !jwtAuthResponse.getAccessToken().isEmpty()){
-            JWT_TOKEN = jwtAuthResponse.getAccessToken();
-        }
-
-        return jwtAuthResponse;
+    /**
+     * FeignConfig's RequestInterceptor is global, so the login call runs with FeignContextHolder skip set
+     * on the boundedElastic thread that executes it.
+     */
+    @Override
+    public Mono<JWTAuthResponse> fetchJwtToken(LoginDto loginDto) {
+        return Mono.fromCallable(() -> {
+            try {
+                FeignContextHolder.setSkipAuthorization(true);
+                JWTAuthResponse jwtAuthResponse = personLoginFeignClient.login(loginDto);
+                log.info("FeignClientCodeBufferPersonClient jwtAuthResponse received");
+                return jwtAuthResponse;
+            } finally {
+                FeignContextHolder.clear();
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
     }
 
     @Override
     public String getJwtAccessToken(){
-        log.info("FeignClientCodeBufferPersonClient getJwtAccessToken called");
-        return "Bearer " + JWT_TOKEN;
+        return jwtTokenManager.getJwtAccessToken();
     }
 }
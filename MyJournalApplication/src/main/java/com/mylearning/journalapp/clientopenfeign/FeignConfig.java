@@ -1,8 +1,14 @@
 package com.mylearning.journalapp.clientopenfeign;
 
+import com.mylearning.journalapp.client.PersonRetryBudget;
+import com.mylearning.journalapp.clientconfig.AdaptiveConcurrencyLimiter;
+import com.mylearning.journalapp.clientconfig.OutboundMetrics;
+import com.mylearning.journalapp.clientconfig.PersonFeignProperties;
+import com.mylearning.journalapp.clientconfig.PersonResilienceGuard;
 import feign.Logger;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import feign.Retryer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
@@ -12,11 +18,12 @@ import org.springframework.context.annotation.Lazy;
 /**
  *
  * Decoder – ResponseEntityDecoder, which wraps SpringDecoder, used to decode the Response
+ *           (Boot's HttpMessageConverters, i.e. the application's Jackson ObjectMapper, reading the body stream)
  * Encoder – SpringEncoder is used to encode the RequestBody.
- * Logger – Slf4jLogger is the default logger used by Feign.
+ * Logger – SampledFeignLogger (FeignProductionConfig), an Slf4jLogger that only logs sampled calls.
  * Contract – SpringMvcContract, which provides annotation processing
  * Feign-Builder – HystrixFeign.Builder is used to construct the components.
- * Client – LoadBalancerFeignClient or default Feign client
+ * Client – ApacheHttp5Client on the shared person connection pool (FeignProductionConfig)
  *
  */
 @EnableFeignClients(basePackages="com.mylearning.journalapp")
@@ -25,9 +32,11 @@ import org.springframework.context.annotation.Lazy;
 public class FeignConfig {
 
     private final FeignClientCodeBufferPersonClient feignPersonClient;
+    private final OutboundMetrics outboundMetrics;
 
-    public FeignConfig(@Lazy FeignClientCodeBufferPersonClient feignPersonClient) {
+    public FeignConfig(@Lazy FeignClientCodeBufferPersonClient feignPersonClient, OutboundMetrics outboundMetrics) {
         this.feignPersonClient = feignPersonClient;
+        this.outboundMetrics = outboundMetrics;
     }
 
     @Bean
@@ -45,9 +54,12 @@ public class FeignConfig {
                     return; // Skip adding Authorization header
                 }
 
-                String jwtAccessToken = feignPersonClient.getJwtAccessToken(); // Implement a method to fetch JWT token
+                long tokenStart = System.nanoTime();
+                String jwtAccessToken = feignPersonClient.getJwtAccessToken(); // delegates to the shared JwtTokenManager
+                outboundMetrics.recordToken(MetricsCapability.STACK, System.nanoTime() - tokenStart);
                 if (jwtAccessToken != null && !jwtAccessToken.isEmpty()) {
-                    log.info("FeignConfig RequestInterceptor if Block jwtAccessToken :: {}",jwtAccessToken);
+                    // per call and never the token itself, FULL logging of the sampled calls shows the header anyway
+                    log.trace("FeignConfig RequestInterceptor adding Authorization header");
                     template.header("Authorization", jwtAccessToken);
                 }
             }
@@ -63,10 +75,49 @@ public class FeignConfig {
         };
     }*/
 
+    /**
+     * Wraps the Feign Client of every Feign client with the shared adaptive concurrency limit.
+     */
     @Bean
-    public Logger.Level feignLoggerLevel() {
-        log.info("FeignConfig feignLoggerLevel called");
-        return Logger.Level.FULL; // Enable FULL logging for detailed request information
+    public ConcurrencyLimitCapability concurrencyLimitCapability(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+        return new ConcurrencyLimitCapability(adaptiveConcurrencyLimiter);
+    }
+
+    /**
+     * Circuit breaker + per-endpoint bulkhead around the Feign Client of every Feign client.
+     */
+    @Bean
+    public ResilienceCapability resilienceCapability(PersonResilienceGuard personResilienceGuard) {
+        return new ResilienceCapability(personResilienceGuard);
+    }
+
+    /**
+     * Per route timers of every Feign client, declared after the two above so it wraps them (see MetricsCapability).
+     */
+    @Bean
+    public MetricsCapability metricsCapability(OutboundMetrics outboundMetrics) {
+        return new MetricsCapability(outboundMetrics);
+    }
+
+    /**
+     * Retries of every Feign client, on the schedule of person.feign.retry-*, each one paid from the budget the hedged
+     * GETs (RequestHedger) spend too, so retries + hedges can never more than double the load on the person API.
+     */
+    @Bean
+    public Retryer feignRetryer(PersonFeignProperties personFeignProperties, PersonRetryBudget personRetryBudget) {
+        return new BudgetedRetryer(new Retryer.Default(personFeignProperties.getRetryPeriod().toMillis(),
+                personFeignProperties.getRetryMaxPeriod().toMillis(), personFeignProperties.getRetryMaxAttempts()),
+                personRetryBudget);
+    }
+
+    /**
+     * person.feign.logger-level, BASIC by default. It only applies to the calls SampledFeignLogger samples,
+     * FULL (every header and body) is affordable again because it is no longer paid on every call.
+     */
+    @Bean
+    public Logger.Level feignLoggerLevel(PersonFeignProperties personFeignProperties) {
+        log.info("FeignConfig feignLoggerLevel {}", personFeignProperties.getLoggerLevel());
+        return personFeignProperties.getLoggerLevel();
     }
 
 }
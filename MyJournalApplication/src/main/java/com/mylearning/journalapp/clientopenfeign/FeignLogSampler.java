@@ -0,0 +1,81 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.mylearning.journalapp.clientconfig.PersonEndpoints;
+import feign.Request;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which Feign calls get logged: a call is logged with probability sampleRate, and never more than
+ * maxPerSecond calls of the same endpoint per second.
+ *
+ * Endpoints are the bounded PersonEndpoints keys ("GET /api/person/{name}/{age}"), so a hot endpoint can use up its
+ * own budget without starving the logs of the others, and the map never grows with the names being looked up.
+ */
+public class FeignLogSampler {
+
+    private final double sampleRate;
+    private final int maxPerSecond;
+    private final DoubleSupplier random;
+    private final LongSupplier clockMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public FeignLogSampler(double sampleRate, int maxPerSecond) {
+        this(sampleRate, maxPerSecond, () -> ThreadLocalRandom.current().nextDouble(), System::currentTimeMillis);
+    }
+
+    FeignLogSampler(double sampleRate, int maxPerSecond, DoubleSupplier random, LongSupplier clockMillis) {
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.random = random;
+        this.clockMillis = clockMillis;
+    }
+
+    public boolean sample(Request request) {
+        return sample(endpoint(request));
+    }
+
+    boolean sample(String endpoint) {
+        if (sampleRate <= 0 || maxPerSecond <= 0) {
+            return false;
+        }
+        if (sampleRate < 1 && random.getAsDouble() >= sampleRate) {
+            return false;
+        }
+        return windows.computeIfAbsent(endpoint, key -> new Window()).tryAcquire(clockMillis.getAsLong() / 1000, maxPerSecond);
+    }
+
+    static String endpoint(Request request) {
+        try {
+            return PersonEndpoints.key(request.httpMethod().name(), URI.create(request.url()));
+        } catch (IllegalArgumentException ex) {
+            return request.httpMethod().name() + " other";
+        }
+    }
+
+    /**
+     * Fixed one second window, reset by the first call of the next second.
+     */
+    private static final class Window {
+        private volatile long second = Long.MIN_VALUE;
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long currentSecond, int max) {
+            if (second != currentSecond) {
+                synchronized (this) {
+                    if (second != currentSecond) {
+                        count.set(0);
+                        second = currentSecond;
+                    }
+                }
+            }
+            return count.incrementAndGet() <= max;
+        }
+    }
+}
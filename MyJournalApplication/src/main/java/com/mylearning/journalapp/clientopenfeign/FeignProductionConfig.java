@@ -0,0 +1,71 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.mylearning.journalapp.clientconfig.PersonFeignProperties;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.openfeign.FeignLoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Production profile of the OpenFeign person clients (person.feign.*, see PersonFeignProperties).
+ *
+ * Client – ApacheHttp5Client on the personHttpClient pool RestTemplate and RestClient already share, instead of one
+ *          HttpURLConnection per call. Spring Cloud's own hc5 auto-configuration backs off as soon as a
+ *          CloseableHttpClient bean exists, so the Client is declared here.
+ * Logger – SampledFeignLogger, person.feign.logger-level applies to a sample of the calls per endpoint only.
+ * Async  – personFeignAsyncExecutor, the pool the CompletableFuture methods of PersonFeignClient run on.
+ *
+ * These beans live in the application context, not in FeignConfig: FeignConfig is also the per-client configuration
+ * of every @FeignClient and would be instantiated once more in each client's child context.
+ * The capabilities (resilience, concurrency limit) still wrap whatever Client is used here.
+ */
+@Configuration
+@Slf4j
+public class FeignProductionConfig {
+
+    @Bean
+    public Client feignClient(ObjectProvider<CloseableHttpClient> personHttpClient, PersonFeignProperties properties) {
+        CloseableHttpClient httpClient = properties.isPooledClient() ? personHttpClient.getIfAvailable() : null;
+        if (httpClient == null) {
+            log.info("Feign person clients use HttpURLConnection (person.feign.pooled-client or person.http.pool disabled)");
+            return new Client.Default(null, null);
+        }
+        log.info("Feign person clients use the shared person http connection pool");
+        return new ApacheHttp5Client(httpClient);
+    }
+
+    @Bean
+    public FeignLogSampler feignLogSampler(PersonFeignProperties properties) {
+        return new FeignLogSampler(properties.getLogSampleRate(), properties.getLogMaxPerSecond());
+    }
+
+    @Bean
+    public FeignLoggerFactory feignLoggerFactory(FeignLogSampler feignLogSampler, PersonFeignProperties properties) {
+        return type -> new SampledFeignLogger(type, feignLogSampler, properties.isAlwaysLogFailures());
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService personFeignAsyncExecutor(PersonFeignProperties properties) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, properties.getAsyncThreads());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getAsyncQueueSize())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "person-feign-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
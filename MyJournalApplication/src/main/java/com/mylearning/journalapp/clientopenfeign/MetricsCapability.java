@@ -0,0 +1,104 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.mylearning.journalapp.clientconfig.OutboundMetrics;
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.Charset;
+
+/**
+ * OutboundMetrics hook of every Feign client. Registered after ConcurrencyLimitCapability and ResilienceCapability
+ * so it wraps both (Feign applies capabilities in order, the last one ends up outermost).
+ * Client.execute returns with the status and headers (time to first byte); the decoder then reads the body and Feign
+ * closes it, which ends the decode phase.
+ */
+public class MetricsCapability implements Capability {
+
+    static final String STACK = "feign";
+
+    private final OutboundMetrics outboundMetrics;
+
+    public MetricsCapability(OutboundMetrics outboundMetrics) {
+        this.outboundMetrics = outboundMetrics;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        if (!outboundMetrics.isEnabled()) {
+            return client;
+        }
+        return (request, options) -> {
+            OutboundMetrics.Exchange exchange = outboundMetrics.start(STACK, request.httpMethod().name(), URI.create(request.url()));
+            Response response;
+            try {
+                response = client.execute(request, options);
+            } catch (IOException | RuntimeException | Error ex) {
+                exchange.failed(ex);
+                throw ex;
+            }
+            exchange.firstByte(response.status());
+            if (response.body() == null) {
+                exchange.completed();
+                return response;
+            }
+            return response.toBuilder().body(new MeteredBody(response.body(), exchange)).build();
+        };
+    }
+
+    private static final class MeteredBody implements Response.Body {
+
+        private final Response.Body delegate;
+        private final OutboundMetrics.Exchange exchange;
+
+        private MeteredBody(Response.Body delegate, OutboundMetrics.Exchange exchange) {
+            this.delegate = delegate;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Integer length() {
+            return delegate.length();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return delegate.isRepeatable();
+        }
+
+        // the FULL / HEADERS logger re-buffers the body and only closes the stream, never the Body
+        @Override
+        public InputStream asInputStream() throws IOException {
+            return new FilterInputStream(delegate.asInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        exchange.completed();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public Reader asReader(Charset charset) throws IOException {
+            return new InputStreamReader(asInputStream(), charset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                delegate.close();
+            } finally {
+                exchange.completed();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.mylearning.journalapp.clientopenfeign;
 import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
 import com.mylearning.journalapp.clientresponse.LoginDto;
 import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
 import com.mylearning.journalapp.clientresponse.PersonResource;
 import org.bson.Document;
 import org.bson.types.ObjectId;
@@ -15,6 +16,8 @@ import org.springframework.web.service.annotation.PostExchange;
 import org.springframework.web.service.annotation.PutExchange;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * just like value and url we can also add another attribute i.e.  configuration = FeignClientConfig.class
@@ -43,6 +46,9 @@ public interface PersonFeignClient {
     @PostMapping("/create-person-on-status")
     ResponseEntity<Person> createPersonExchange(@RequestBody Person person);
 
+    @PostMapping("/batch")
+    ResponseEntity<PersonBatchResponse> createPersonBatch(@RequestBody List<Person> persons);
+
     @PutMapping
     ResponseEntity<Person> updatePersonByExchange(@RequestBody Person person, @RequestParam ObjectId personId);
 
@@ -62,4 +68,27 @@ public interface PersonFeignClient {
     @GetMapping("/all-person")
     List<PersonResource> getAllPersonsByExchange();
 
+    /*
+     * CompletableFuture variants. Spring Cloud OpenFeign does not support AsyncFeign, and the capabilities
+     * (resilience, concurrency limit) only wrap the blocking Client, so these run the blocking call on the given
+     * executor (FeignProductionConfig#personFeignAsyncExecutor). Default methods are not parsed by the Contract,
+     * Feign invokes them as they are. A full executor completes the future with RejectedExecutionException.
+     */
+
+    default CompletableFuture<ResponseEntity<Person>> getPersonByNameAndAgeAsync(String name, Integer age, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> getPersonByNameAndAgePathVariableExchange(name, age), executor);
+    }
+
+    default CompletableFuture<ResponseEntity<List<Document>>> getOldestPersonByCityAsync(Executor executor) {
+        return CompletableFuture.supplyAsync(this::getOldestPersonByCity, executor);
+    }
+
+    default CompletableFuture<ResponseEntity<PersonBatchResponse>> createPersonBatchAsync(List<Person> persons, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> createPersonBatch(persons), executor);
+    }
+
+    default CompletableFuture<List<PersonResource>> getAllPersonsAsync(Executor executor) {
+        return CompletableFuture.supplyAsync(this::getAllPersonsByExchange, executor);
+    }
+
 }
@@ -1,16 +1,25 @@
 package com.mylearning.journalapp.clientopenfeign;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mylearning.journalapp.clientresponse.Person;
+import feign.Client;
 import feign.Feign;
+import feign.Logger;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
-import feign.gson.GsonDecoder;
+import feign.Retryer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.FeignLoggerFactory;
 import org.springframework.web.bind.annotation.*;
 
+/**
+ * Feign.builder() target built by hand, outside Spring Cloud. It now gets the same production parts as the
+ * @FeignClient interfaces: the pooled Client, the capabilities, the sampled logger, the budgeted retryer and the app's Jackson ObjectMapper (PersonJacksonCodec)
+ * instead of GsonDecoder on HttpURLConnection.
+ */
 @RestController
 @RequestMapping("/decorate-with feignbuilder-decoder")
 @Slf4j
@@ -20,15 +29,29 @@ public class PersonFeignClientByNameAgeController {
     private final PersonFeignClientByNameAGe personClientByNameAge;
 
     //@Autowired
-    public PersonFeignClientByNameAgeController(FeignClientCodeBufferPersonClient feignPersonClient) {
+    public PersonFeignClientByNameAgeController(FeignClientCodeBufferPersonClient feignPersonClient, Client feignClient,
+                                                ObjectMapper objectMapper, FeignLoggerFactory feignLoggerFactory,
+                                                Logger.Level feignLoggerLevel, Retryer feignRetryer,
+                                                ConcurrencyLimitCapability concurrencyLimitCapability,
+                                                ResilienceCapability resilienceCapability,
+                                                MetricsCapability metricsCapability) {
+        PersonJacksonCodec codec = new PersonJacksonCodec(objectMapper);
         this.personClientByNameAge = Feign.builder()
-                .decoder(new GsonDecoder())
+                .client(feignClient)
+                .encoder(codec)
+                .decoder(codec)
+                .logger(feignLoggerFactory.create(PersonFeignClientByNameAGe.class))
+                .logLevel(feignLoggerLevel)
+                .retryer(feignRetryer)
+                // same order as the @FeignClient interfaces get them from FeignConfig
+                .addCapability(concurrencyLimitCapability)
+                .addCapability(resilienceCapability)
+                .addCapability(metricsCapability)
                 .requestInterceptor(new RequestInterceptor(){
                     @Override
                     public void apply(RequestTemplate requestTemplate) {
                         String jwtAccessToken = feignPersonClient.getJwtAccessToken(); // Implement a method to fetch JWT token
                         if (jwtAccessToken != null && !jwtAccessToken.isEmpty()) {
-                            log.info("FeignConfig RequestInterceptor if Block jwtAccessToken :: {}",jwtAccessToken);
                             requestTemplate.header("Authorization", jwtAccessToken);
                         }
                     }
@@ -0,0 +1,58 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import feign.Util;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import feign.RequestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Jackson Encoder / Decoder for the hand-built Feign clients (Feign.builder()), on the application's ObjectMapper.
+ *
+ * Replaces GsonDecoder / GsonEncoder: Gson read the whole body through a Reader with its own reflection based
+ * mapping, so Person, ObjectId and dates were mapped differently than everywhere else in the app. This decoder streams
+ * the body InputStream straight into the ObjectMapper (no intermediate String), with the same modules and settings the
+ * @FeignClient interfaces already get through SpringDecoder and Boot's HttpMessageConverters.
+ */
+public class PersonJacksonCodec implements Encoder, Decoder {
+
+    private final ObjectMapper objectMapper;
+
+    public PersonJacksonCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.status() == 404 || response.status() == 204 || response.body() == null
+                || Integer.valueOf(0).equals(response.body().length())) {
+            return Util.emptyValueOf(type);
+        }
+        JavaType javaType = objectMapper.constructType(type);
+        try (InputStream body = response.body().asInputStream()) {
+            return objectMapper.readValue(body, javaType);
+        } catch (IOException ex) {
+            throw new DecodeException(response.status(), ex.getMessage(), response.request(), ex);
+        }
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        try {
+            template.header("Content-Type", "application/json");
+            template.body(objectMapper.writerFor(objectMapper.constructType(bodyType)).writeValueAsBytes(object),
+                    StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new EncodeException(ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.mylearning.journalapp.clientconfig.PersonResilienceGuard;
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Circuit breaker + bulkhead for every Feign client, see PersonResilienceGuard.
+ * Like ConcurrencyLimitCapability it wraps the Feign Client, so each Retryer attempt is one breaker sample, and the
+ * rejections are RuntimeExceptions that the Retryer does not retry.
+ */
+public class ResilienceCapability implements Capability {
+
+    private final PersonResilienceGuard guard;
+
+    public ResilienceCapability(PersonResilienceGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        if (!guard.isEnabled()) {
+            return client;
+        }
+        return (request, options) -> {
+            PersonResilienceGuard.Call call = guard.begin(request.httpMethod().name(), URI.create(request.url()), true);
+            try {
+                Response response = client.execute(request, options);
+                call.complete(response.status());
+                return response;
+            } catch (IOException ex) {
+                call.failed();
+                throw ex;
+            } finally {
+                call.abandoned();
+            }
+        };
+    }
+}
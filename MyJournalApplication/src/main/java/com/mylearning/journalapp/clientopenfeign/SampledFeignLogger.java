@@ -0,0 +1,67 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import feign.Request;
+import feign.Response;
+import feign.slf4j.Slf4jLogger;
+
+import java.io.IOException;
+
+/**
+ * Slf4jLogger that only logs the calls FeignLogSampler picks.
+ *
+ * Logger.Level.FULL on every call formatted all headers and re-buffered every response body into a byte[] just to log
+ * it, the most allocation heavy part of the Feign stack. Now the level only applies to the sampled calls; the others
+ * skip the logger completely, and if they failed they still get one "<--- status (elapsed)" line.
+ *
+ * The sampling decision is taken in logRequest and remembered for logAndRebufferResponse, both run on the calling
+ * thread (SynchronousMethodHandler), so request and response lines of a sampled call always come together.
+ */
+public class SampledFeignLogger extends Slf4jLogger {
+
+    private static final ThreadLocal<Boolean> SAMPLED = new ThreadLocal<>();
+
+    private final FeignLogSampler sampler;
+    private final boolean alwaysLogFailures;
+
+    public SampledFeignLogger(Class<?> type, FeignLogSampler sampler, boolean alwaysLogFailures) {
+        super(type);
+        this.sampler = sampler;
+        this.alwaysLogFailures = alwaysLogFailures;
+    }
+
+    @Override
+    protected void logRequest(String configKey, Level logLevel, Request request) {
+        if (sampler.sample(request)) {
+            SAMPLED.set(Boolean.TRUE);
+            super.logRequest(configKey, logLevel, request);
+        } else {
+            SAMPLED.remove();
+        }
+    }
+
+    @Override
+    protected Response logAndRebufferResponse(String configKey, Level logLevel, Response response, long elapsedTime)
+            throws IOException {
+        boolean sampled = takeSampled();
+        if (sampled) {
+            return super.logAndRebufferResponse(configKey, logLevel, response, elapsedTime);
+        }
+        if (alwaysLogFailures && response.status() >= 400) {
+            log(configKey, "<--- %s %s (%sms) [not sampled]", response.status(), response.request().url(), elapsedTime);
+        }
+        return response;
+    }
+
+    @Override
+    protected IOException logIOException(String configKey, Level logLevel, IOException ioe, long elapsedTime) {
+        takeSampled();
+        // rare and always worth a line, FULL adds the stack trace
+        return super.logIOException(configKey, logLevel, ioe, elapsedTime);
+    }
+
+    private static boolean takeSampled() {
+        boolean sampled = Boolean.TRUE.equals(SAMPLED.get());
+        SAMPLED.remove();
+        return sampled;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mylearning.journalapp.clientresponse;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+/**
+ * One item of the POST /api/person/batch response, index is the position in the request body.
+ * Either personId (inserted) or error (failed) is set.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PersonBatchItem {
+
+    private int index;
+
+    private ObjectId personId;
+
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.mylearning.journalapp.clientresponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/person/batch, 201 when every person was inserted, 207 when some failed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PersonBatchResponse {
+
+    private int requested;
+
+    private int inserted;
+
+    private int failed;
+
+    private List<PersonBatchItem> items;
+}
@@ -0,0 +1,27 @@
+package com.mylearning.journalapp.clientresponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Response of GET /person-dashboard, every part fetched concurrently from CodeBuffer.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PersonDashboard {
+
+    private List<Document> populationByCity;
+
+    private List<Document> oldestPersonByCity;
+
+    private List<Person> persons;
+
+    private long elapsedMillis;
+}
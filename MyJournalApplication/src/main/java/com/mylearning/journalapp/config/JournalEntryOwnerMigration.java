@@ -0,0 +1,92 @@
+package com.mylearning.journalapp.config;
+
+import com.mongodb.DBRef;
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves the user -> journal relationship from User.journalEntries (a @DBRef list in the user document) to
+ * JournalEntry.owner, at startup:
+ *
+ * 1. ensures the (owner, createdOn, _id) index of journal_entries, auto index creation is off
+ * 2. for every user document still holding a journalEntries array: sets owner on those entries (only where it is not
+ *    set yet) and removes the array from the user document
+ *
+ * Idempotent, a second run finds no journalEntries array and only re-ensures the index. The DBRefs are read as raw
+ * documents, never resolved.
+ */
+@Component
+@Order(JournalEntryOwnerMigration.ORDER)
+@Slf4j
+public class JournalEntryOwnerMigration implements ApplicationRunner {
+
+    static final int ORDER = 0;
+
+    private static final String JOURNAL_ENTRIES = "journalEntries";
+
+    private final MongoTemplate mongoTemplate;
+
+    public JournalEntryOwnerMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoTemplate.indexOps(JournalEntry.class).ensureIndex(new Index()
+                .on("owner", Sort.Direction.ASC)
+                .on("createdOn", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(JournalEntry.OWNER_CREATED_ON_INDEX));
+
+        String users = mongoTemplate.getCollectionName(User.class);
+        String journalEntries = mongoTemplate.getCollectionName(JournalEntry.class);
+        Query withEntries = Query.query(Criteria.where(JOURNAL_ENTRIES).exists(true));
+        withEntries.fields().include(JOURNAL_ENTRIES);
+
+        int migratedUsers = 0;
+        long migratedEntries = 0;
+        try (Stream<Document> userDocuments = mongoTemplate.stream(withEntries, Document.class, users)) {
+            Iterator<Document> iterator = userDocuments.iterator();
+            while (iterator.hasNext()) {
+                Document user = iterator.next();
+                ObjectId userId = user.getObjectId("_id");
+                List<Object> entryIds = new ArrayList<>();
+                for (Object reference : user.getList(JOURNAL_ENTRIES, Object.class, List.of())) {
+                    if (reference instanceof DBRef dbRef) {
+                        entryIds.add(dbRef.getId());
+                    }
+                }
+                if (!entryIds.isEmpty()) {
+                    migratedEntries += mongoTemplate.updateMulti(
+                            Query.query(Criteria.where("_id").in(entryIds).and("owner").exists(false)),
+                            new Update().set("owner", userId), journalEntries).getModifiedCount();
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                        new Update().unset(JOURNAL_ENTRIES), users);
+                migratedUsers++;
+            }
+        }
+        if (migratedUsers > 0) {
+            log.info("JournalEntryOwnerMigration moved {} journal entries of {} users to JournalEntry.owner",
+                    migratedEntries, migratedUsers);
+        }
+    }
+}
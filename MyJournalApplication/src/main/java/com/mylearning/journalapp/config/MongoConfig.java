@@ -1,7 +1,10 @@
 package com.mylearning.journalapp.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mylearning.journalapp.mongoprofiler.MongoCommandProfiler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,19 +30,27 @@ public class MongoConfig {
     @Value("${spring.data.mongodb.database}")
     private String databaseName; // Replace with your database name
 
+    /**
+     * Not the auto-configured client, so the MongoClientSettingsBuilderCustomizers do not apply: the command profiler
+     * (slow commands, explain of slow reads, see MongoCommandProfiler) is added here.
+     */
     @Bean
-    public MongoClient mongoClient() {
-        return MongoClients.create(connectionString);
+    public MongoClient mongoClient(MongoCommandProfiler mongoCommandProfiler) {
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .addCommandListener(mongoCommandProfiler)
+                .build();
+        return MongoClients.create(settings);
     }
 
     @Bean
-    public MongoDatabaseFactory mongoDatabaseFactory() {
-        return new SimpleMongoClientDatabaseFactory(mongoClient(), databaseName);
+    public MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient) {
+        return new SimpleMongoClientDatabaseFactory(mongoClient, databaseName);
     }
 
     @Bean
-    public MongoTemplate mongoTemplate() {
-        return new MongoTemplate(mongoDatabaseFactory());
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTemplate(mongoDatabaseFactory);
     }
 
     @Bean
@@ -5,6 +5,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -21,4 +23,29 @@ public class RedisConfig {
 
         return redisTemplate;
     }
+
+    /**
+     * Raw bytes template for the two-tier cache L2, the values are Smile encoded by CacheValueCodec
+     * so there is no String / JSON round trip on the way in or out.
+     */
+    @Bean
+    public RedisTemplate<String,byte[]> binaryRedisTemplate(RedisConnectionFactory factory){
+        RedisTemplate<String,byte[]> binaryRedisTemplate = new RedisTemplate<>();
+        binaryRedisTemplate.setConnectionFactory(factory);
+
+        binaryRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        binaryRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+
+        return binaryRedisTemplate;
+    }
+
+    /**
+     * Subscriber side of the cache invalidation bus (RedisCacheInvalidationBus), one subscription connection per node.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory){
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
 }
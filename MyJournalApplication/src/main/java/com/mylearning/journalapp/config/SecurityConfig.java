@@ -1,5 +1,7 @@
 package com.mylearning.journalapp.config;
 
+import com.mylearning.journalapp.security.CachingAuthenticationProvider;
+import com.mylearning.journalapp.security.VerifiedCredentialCache;
 import com.mylearning.journalapp.service.UserDetailServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -211,10 +213,12 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     private final UserDetailServiceImpl userDetailService;
+    private final VerifiedCredentialCache verifiedCredentialCache;
 
-    public SecurityConfig(UserDetailServiceImpl userDetailService) {
+    public SecurityConfig(UserDetailServiceImpl userDetailService, VerifiedCredentialCache verifiedCredentialCache) {
         log.info("SecurityConfig constructor called");
         this.userDetailService = userDetailService;
+        this.verifiedCredentialCache = verifiedCredentialCache;
     }
 
     // /journal/** here ** is wildcard it means 0 or more characters
@@ -256,11 +260,15 @@ public class SecurityConfig {
     }
 
     // A custom AuthenticationProvider bean is created to wire in the UserDetailsService and PasswordEncoder
+    // The provider reads only the credentials projection, and with journal.security.credential-cache.enabled (default)
+    // a repeated (username, password) is answered from the VerifiedCredentialCache without Mongo and BCrypt
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setUserDetailsService(userDetailService);
+        provider.setUserDetailsService(userDetailService::loadCredentialsByUsername);
         provider.setPasswordEncoder(passwordEncoder());
-        return provider;
+        return verifiedCredentialCache.isEnabled()
+                ? new CachingAuthenticationProvider(provider, verifiedCredentialCache)
+                : provider;
     }
 }
@@ -0,0 +1,128 @@
+package com.mylearning.journalapp.config;
+
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.UserSentimentDay;
+import com.mylearning.journalapp.enums.Sentiment;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Adds the entries written before the counters existed (see SentimentCounterService) to user_sentiment_days, once,
+ * at startup:
+ *
+ * 1. ensures the (owner, day) index of user_sentiment_days, auto index creation is off
+ * 2. reads the marker document {_id: "user_sentiment_days-backfill"} of journal_migrations, creating it with
+ *    cutoff = now on the first run; a marker with completedAt means there is nothing left to do
+ * 3. one aggregation, run by the server, counts the entries created before the cutoff per (owner, day, sentiment) and
+ *    $merges the result into user_sentiment_days, ADDING the counts to what $inc already wrote for that day
+ * 4. sets completedAt on the marker
+ *
+ * Entries created after the cutoff are counted by $inc only, those before it by the backfill only, so the merge can
+ * neither lose nor double a live $inc. Every merged document is tagged backfilledUpTo = cutoff: a run that crashed
+ * half way is resumed with the same cutoff and skips the documents it already merged. Left open: an entry from
+ * before the cutoff that is deleted or changes sentiment while the aggregation runs is corrected twice.
+ *
+ * Runs after JournalEntryOwnerMigration, the entries need their owner. The day is computed in the server time zone
+ * of this application, like SentimentCounterService does.
+ */
+@Component
+@Order(SentimentCounterBackfill.ORDER)
+@Slf4j
+public class SentimentCounterBackfill implements ApplicationRunner {
+
+    static final int ORDER = JournalEntryOwnerMigration.ORDER + 1;
+
+    static final String MIGRATIONS = "journal_migrations";
+    static final String MARKER_ID = "user_sentiment_days-backfill";
+    private static final String BACKFILLED_UP_TO = "backfilledUpTo";
+
+    private final MongoTemplate mongoTemplate;
+
+    public SentimentCounterBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoTemplate.indexOps(UserSentimentDay.class).ensureIndex(new Index()
+                .on("owner", Sort.Direction.ASC)
+                .on("day", Sort.Direction.ASC)
+                .named(UserSentimentDay.OWNER_DAY_INDEX));
+
+        Query marker = Query.query(Criteria.where("_id").is(MARKER_ID));
+        // the cutoff of the first run is kept, a resumed run must count exactly the same entries
+        Document backfill = mongoTemplate.findAndModify(marker, new Update().setOnInsert("cutoff", new Date()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, MIGRATIONS);
+        if (backfill == null || backfill.get("completedAt") != null) {
+            return;
+        }
+        Date cutoff = backfill.getDate("cutoff");
+
+        String counters = mongoTemplate.getCollectionName(UserSentimentDay.class);
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(JournalEntry.class))
+                .aggregate(pipeline(counters, cutoff, ZoneId.systemDefault()))
+                .allowDiskUse(true)
+                // $merge writes, toCollection() runs the pipeline without reading anything back
+                .toCollection();
+        mongoTemplate.updateFirst(marker, new Update().currentDate("completedAt"), MIGRATIONS);
+        log.info("SentimentCounterBackfill merged the entries created before {} into {}", cutoff, counters);
+    }
+
+    static List<Document> pipeline(String counters, Date cutoff, ZoneId zone) {
+        return List.of(
+                new Document("$match", new Document("owner", new Document("$exists", true))
+                        .append("sentiment", new Document("$exists", true).append("$ne", null))
+                        .append("createdOn", new Document("$lt", cutoff))),
+                new Document("$group", new Document("_id", new Document("owner", "$owner")
+                        .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$createdOn").append("timezone", zone.getId())))
+                        .append("sentiment", "$sentiment"))
+                        // a long, like the $inc of SentimentCounterService
+                        .append("count", new Document("$sum", 1L))),
+                new Document("$group", new Document("_id", new Document("owner", "$_id.owner").append("day", "$_id.day"))
+                        .append("counts", new Document("$push", new Document("k", "$_id.sentiment").append("v", "$count")))),
+                new Document("$project", new Document("_id", new Document("$concat",
+                        List.of(new Document("$toString", "$_id.owner"), ":", "$_id.day")))
+                        .append("owner", "$_id.owner")
+                        .append("day", "$_id.day")
+                        .append("counts", new Document("$arrayToObject", "$counts"))
+                        .append(BACKFILLED_UP_TO, cutoff)),
+                new Document("$merge", new Document("into", counters)
+                        .append("on", "_id")
+                        .append("whenMatched", List.of(new Document("$replaceWith", addCounts())))
+                        .append("whenNotMatched", "insert")));
+    }
+
+    /**
+     * The day document the live $inc already created plus the backfilled counts, unchanged when this cutoff was
+     * already merged into it ($$new is the document computed by the aggregation).
+     */
+    private static Document addCounts() {
+        Document counts = new Document();
+        for (Sentiment sentiment : Sentiment.values()) {
+            String field = "counts." + sentiment.name();
+            counts.append(sentiment.name(), new Document("$add", List.of(
+                    new Document("$ifNull", List.of("$" + field, 0L)),
+                    new Document("$ifNull", List.of("$$new." + field, 0L)))));
+        }
+        Document merged = new Document("$mergeObjects", List.of("$$ROOT", new Document("counts", counts)
+                .append(BACKFILLED_UP_TO, "$$new." + BACKFILLED_UP_TO)));
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of("$" + BACKFILLED_UP_TO, "$$new." + BACKFILLED_UP_TO)), "$$ROOT", merged));
+    }
+}
@@ -28,7 +28,6 @@ public class AdminController {
                         .id(user.getId())
                         .userName(user.getUserName())
                         .email(user.getEmail())
-                        .journalEntries(user.getJournalEntries())
                         .roles(user.getRoles())
                         .sentimentAnalysis(user.isSentimentAnalysis())
                         .build())
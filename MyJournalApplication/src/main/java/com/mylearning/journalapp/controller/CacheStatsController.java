@@ -0,0 +1,53 @@
+package com.mylearning.journalapp.controller;
+
+import com.mylearning.journalapp.cache.TwoTierCacheManager;
+import com.mylearning.journalapp.security.VerifiedCredentialCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * GET http://localhost:6969/internal/cache
+ *
+ * Per cache: l1Hits, l2Hits, misses, earlyRefreshes, l2Errors, hitRatio, l1Size,
+ * avgGetMicros / maxGetMicros (whole lookup incl. L2 and load) and avgLoadMillis (loader only).
+ *
+ * GET http://localhost:6969/internal/cache/invalidation
+ *
+ * This node's id on the invalidation bus and the number of invalidations it published / received from other nodes.
+ *
+ * GET http://localhost:6969/internal/cache/credentials
+ *
+ * Verified-credential cache of the HTTP Basic provider: hits (no Mongo, no BCrypt), misses, mismatches (cached user,
+ * other password), staleLoadsDropped (verification raced with an invalidation), invalidations, size. Counts only.
+ */
+@RestController
+@RequestMapping("/internal/cache")
+public class CacheStatsController {
+
+    private final TwoTierCacheManager twoTierCacheManager;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    public CacheStatsController(TwoTierCacheManager twoTierCacheManager, VerifiedCredentialCache verifiedCredentialCache) {
+        this.twoTierCacheManager = twoTierCacheManager;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(twoTierCacheManager.getStats());
+    }
+
+    @GetMapping("/invalidation")
+    public ResponseEntity<Map<String, Object>> getInvalidationStats() {
+        return ResponseEntity.ok(twoTierCacheManager.getInvalidationStats());
+    }
+
+    @GetMapping("/credentials")
+    public ResponseEntity<Map<String, Object>> getCredentialCacheStats() {
+        return ResponseEntity.ok(verifiedCredentialCache.stats());
+    }
+}
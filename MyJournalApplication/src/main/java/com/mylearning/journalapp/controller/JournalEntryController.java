@@ -1,6 +1,7 @@
 package com.mylearning.journalapp.controller;
 
 import com.mylearning.journalapp.dto.JournalEntryDto;
+import com.mylearning.journalapp.dto.JournalEntryPageDto;
 import com.mylearning.journalapp.entity.JournalEntry;
 import com.mylearning.journalapp.service.JournalEntryService;
 import jakarta.websocket.server.PathParam;
@@ -8,6 +9,7 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -15,6 +17,7 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -57,14 +60,27 @@ public class JournalEntryController {
         }
     }
 
+    /**
+     * The user's journal, newest first, one page at a time:
+     *
+     * GET /journal?limit=20
+     * GET /journal?limit=20&cursor={nextCursor of the previous page}
+     * GET /journal?from=2024-09-01T00:00:00&to=2024-10-01T00:00:00   createdOn in [from, to)
+     *
+     * The body is {"entries": [...], "nextCursor": "..."}, nextCursor is null on the last page.
+     */
     @GetMapping
-    public ResponseEntity<?> getAllJournalEntriesByUserName(){
+    public ResponseEntity<?> getAllJournalEntriesByUserName(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + JournalEntryService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to){
         SecurityContext securityContext = SecurityContextHolder.getContext();
         Authentication authentication = securityContext.getAuthentication();
         String userName = authentication.getName();
-        List<JournalEntry> allJournalEntriesByUserName = journalEntryService.getAllJournalEntriesByUserName(userName);
+        JournalEntryService.JournalEntryPage page = journalEntryService.getJournalEntriesPage(userName, from, to, cursor, limit);
 
-        List<JournalEntryDto> journalEntryDtos = allJournalEntriesByUserName.stream()
+        List<JournalEntryDto> journalEntryDtos = page.entries().stream()
                 .map(journalEntry -> JournalEntryDto.builder()
                         .id(journalEntry.getId())
                         .title(journalEntry.getTitle())
@@ -74,7 +90,10 @@ public class JournalEntryController {
                         .sentiment(journalEntry.getSentiment())
                         .build())
                 .toList();
-        return ResponseEntity.status(HttpStatus.OK).body(journalEntryDtos);
+        return ResponseEntity.status(HttpStatus.OK).body(JournalEntryPageDto.builder()
+                .entries(journalEntryDtos)
+                .nextCursor(page.nextCursor())
+                .build());
     }
 
     @GetMapping("/title")
@@ -0,0 +1,33 @@
+package com.mylearning.journalapp.controller;
+
+import com.mylearning.journalapp.mongoprofiler.MongoCommandProfiler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * GET http://localhost:6969/internal/mongo/profile
+ *
+ * collections -> per collection, "command status": count, totalMillis, meanMillis, maxMillis, p50 / p90 / p99
+ * shapes      -> per command shape (values replaced by ?), most total time first: the same stats, the caller of its
+ *                last slow execution and the last explain (plan, collectionScan, keys / docs examined, returned)
+ * recentSlow  -> the last commands over journal.mongo.profiler.slow-threshold, newest first
+ */
+@RestController
+@RequestMapping("/internal/mongo/profile")
+public class MongoProfileController {
+
+    private final MongoCommandProfiler mongoCommandProfiler;
+
+    public MongoProfileController(MongoCommandProfiler mongoCommandProfiler) {
+        this.mongoCommandProfiler = mongoCommandProfiler;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getProfile() {
+        return ResponseEntity.ok(mongoCommandProfiler.snapshot());
+    }
+}
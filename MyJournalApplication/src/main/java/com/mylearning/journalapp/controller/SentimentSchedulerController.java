@@ -0,0 +1,45 @@
+package com.mylearning.journalapp.controller;
+
+import com.mylearning.journalapp.scheduler.SchedulerCoordinator;
+import com.mylearning.journalapp.scheduler.SentimentPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * GET http://localhost:6969/internal/scheduler/sentiment
+ *
+ * sent / failed -> weekly sentiments acknowledged by Kafka / failed or not acknowledged within send-timeout, since start
+ * inFlight      -> sends waiting for their acknowledgement now, at most maxInFlight
+ *
+ * GET http://localhost:6969/internal/scheduler/sentiment/partitions
+ *
+ * nodeId, liveNodes -> this node and the nodes holding a node lease
+ * owned             -> the user partitions this node works on, see SchedulerCoordinator
+ */
+@RestController
+@RequestMapping("/internal/scheduler/sentiment")
+public class SentimentSchedulerController {
+
+    private final SentimentPublisher sentimentPublisher;
+
+    private final SchedulerCoordinator schedulerCoordinator;
+
+    public SentimentSchedulerController(SentimentPublisher sentimentPublisher, SchedulerCoordinator schedulerCoordinator) {
+        this.sentimentPublisher = sentimentPublisher;
+        this.schedulerCoordinator = schedulerCoordinator;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(sentimentPublisher.stats());
+    }
+
+    @GetMapping("/partitions")
+    public ResponseEntity<Map<String, Object>> getPartitions() {
+        return ResponseEntity.ok(schedulerCoordinator.stats());
+    }
+}
@@ -38,7 +38,6 @@ public class UserController {
                 .password("******")
                 .email(user.getEmail())
                 .roles(user.getRoles())
-                .journalEntries(user.getJournalEntries())
                 .sentimentAnalysis(user.isSentimentAnalysis())
                 .build();
         log.info("UserController getUserByUsername UserDto :: userName : {}, password : {}, email : {}",userDto.userName(),user.getPassword(),userDto.email());
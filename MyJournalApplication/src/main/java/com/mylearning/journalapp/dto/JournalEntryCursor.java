@@ -0,0 +1,43 @@
+package com.mylearning.journalapp.dto;
+
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.exception.InvalidJournalCursorException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's journal: the (createdOn, id) of the last entry of a page. The next page is every entry
+ * strictly older in (createdOn desc, _id desc) order, _id breaks the ties between entries created in the same
+ * millisecond. Opaque to the client: base64url of "createdOn|id".
+ */
+public record JournalEntryCursor(LocalDateTime createdOn, ObjectId id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static JournalEntryCursor after(JournalEntry entry) {
+        return new JournalEntryCursor(entry.getCreatedOn(), entry.getId());
+    }
+
+    public String encode() {
+        String position = createdOn.toString() + SEPARATOR + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static JournalEntryCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            if (separator < 0 || !ObjectId.isValid(position.substring(separator + 1))) {
+                throw new InvalidJournalCursorException(String.format("Invalid journal cursor : %s", cursor));
+            }
+            return new JournalEntryCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    new ObjectId(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidJournalCursorException(String.format("Invalid journal cursor : %s", cursor));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.mylearning.journalapp.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * One page of GET /journal, newest first. nextCursor is null on the last page, otherwise it is passed back as
+ * ?cursor= to get the next page.
+ */
+@Builder
+public record JournalEntryPageDto(List<JournalEntryDto> entries, String nextCursor) {
+}
@@ -4,18 +4,27 @@ import com.mylearning.journalapp.enums.Sentiment;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
 
+/**
+ * owner is the _id of the User the entry belongs to. The user document no longer lists its entries, a user's journal
+ * is read with the (owner, createdOn, _id) index, newest first, see JournalEntryService.getJournalEntriesPage.
+ * The index is also ensured at startup by JournalEntryOwnerMigration, auto index creation is off by default.
+ */
 @Document(collection = "journal_entries")
+@CompoundIndex(name = JournalEntry.OWNER_CREATED_ON_INDEX, def = "{'owner': 1, 'createdOn': -1, '_id': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class JournalEntry {
+    public static final String OWNER_CREATED_ON_INDEX = "owner_createdOn";
+
     @Id
     private ObjectId id;
     @Field("title")
@@ -23,6 +32,7 @@ public class JournalEntry {
     @NonNull
     private String title;
     private String content;
+    private ObjectId owner;
     private LocalDateTime createdOn;
     private LocalDateTime updatedOn;
     private Sentiment sentiment;
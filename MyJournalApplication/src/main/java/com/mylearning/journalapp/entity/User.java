@@ -4,11 +4,9 @@ import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "users")
@@ -31,8 +29,7 @@ public class User {
     private boolean sentimentAnalysis;
     @NonNull
     private String password;
-    // creating a reference of JournalEntry inside User thus creating a relationship between two collection users and journal_entries
-    @DBRef
-    private List<JournalEntry> journalEntries = new ArrayList<>();
+    // no @DBRef list of JournalEntry here anymore: every entry carries its owner (this id), so loading a user does not
+    // load its journal and the user document does not grow with it, see JournalEntry.owner
     private List<String> roles;
 }
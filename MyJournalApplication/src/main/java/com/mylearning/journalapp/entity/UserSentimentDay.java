@@ -0,0 +1,46 @@
+package com.mylearning.journalapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How many journal entries of each sentiment a user wrote on one day, e.g.
+ *
+ *     {_id: "66f1d1f1a1b2c3d4e5f60718:2024-10-01", owner: ObjectId(...), day: "2024-10-01", counts: {HAPPY: 3, SAD: 1}}
+ *
+ * Maintained with $inc by SentimentCounterService whenever an entry with a sentiment is added, changes sentiment or
+ * is deleted, so the weekly sentiment of a user is at most 7 small documents instead of all of its entries.
+ * The _id is derived from (owner, day), concurrent upserts of the same day can not create two documents.
+ * day is the ISO date of the entry's createdOn (server time zone), ISO dates sort like the dates they represent.
+ * Days that existed before the counters also carry backfilledUpTo, see SentimentCounterBackfill.
+ */
+@Document(collection = "user_sentiment_days")
+@CompoundIndex(name = UserSentimentDay.OWNER_DAY_INDEX, def = "{'owner': 1, 'day': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSentimentDay {
+    public static final String OWNER_DAY_INDEX = "owner_day";
+
+    @Id
+    private String id;
+    private ObjectId owner;
+    private String day;
+    @Builder.Default
+    private Map<String, Long> counts = new HashMap<>();
+
+    public static String idOf(ObjectId owner, LocalDate day) {
+        return owner.toHexString() + ":" + day;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mylearning.journalapp.error;
 
+import com.mylearning.journalapp.exception.InvalidJournalCursorException;
 import com.mylearning.journalapp.exception.JournalEntryAddingFailedException;
 import com.mylearning.journalapp.exception.JournalEntryNotFoundException;
 import com.mylearning.journalapp.exception.UserNotFoundException;
@@ -57,6 +58,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(value = {InvalidJournalCursorException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidJournalCursorException(InvalidJournalCursorException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false),
+                null
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     // Add more exception handlers as needed
 }
 
@@ -0,0 +1,11 @@
+package com.mylearning.journalapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidJournalCursorException extends RuntimeException{
+    public InvalidJournalCursorException(String message){
+        super(message);
+    }
+}
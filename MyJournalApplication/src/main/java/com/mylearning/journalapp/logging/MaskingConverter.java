@@ -5,9 +5,11 @@ import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.pattern.ConverterKeys;
 import org.apache.logging.log4j.core.pattern.LogEventPatternConverter;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * THIS IS MASKING FOR SENSITIVE DATA'S IN LOGS
@@ -26,71 +28,52 @@ import java.util.regex.Pattern;
  *so this is the key which is going to be referred, and it is going to be replaced in the log messages so it will look for that particular key and then see the class
  * that this is the class it is associated with converter and it will do the masking.
  *
+ * The keys to mask are the converter options, %passMask{password,authorization,bearer,email} (the default when the
+ * pattern has no options), see SensitiveKeyMasker for what is masked after each key.
+ *
+ * WHY NOT A REGEX ANY MORE
+ * format() runs for every log event. It used to call getFormattedMessage() (a new String), run a regex Matcher on it
+ * into a StringBuffer and append sb.toString(): four allocations per event, for the very rare line that has a password.
+ * Now the message formats itself straight into the layout's StringBuilder (StringBuilderFormattable, which is what the
+ * reusable messages and the async RingBufferLogEvent implement, so the garbage-free paths of Log4j2 stay garbage-free)
+ * and the appended part is scanned once and masked in place.
+ * Benchmark: MaskingConverterBenchmark in the benchmarks module.
+ *
  */
 @Slf4j
 @Plugin(name = "LogMaskingConverter",category = "Converter")
 @ConverterKeys({"passMask"})
 public class MaskingConverter extends LogEventPatternConverter {
 
-
-    /**
-     * "pin: {}, cardNumber: {}",pin,cardNumber
-     * log.info("UserController getUserByUsername UserDto :: userName : {}, password : {}, email : {}",userDto.userName(),userDto.password(),userDto.email());
-     *
-     * ^\$2[aby]?\$[0-9]{2}\$[./A-Za-z0-9]{53}$
-     *
-     * This pattern breaks down as follows:
-     *
-     * ^\$2[aby]?\$: Ensures the hash starts with $2a$, $2b$, or $2y$.
-     * ^:Asserts the position at the start of the string. This ensures that the pattern must begin at the very start of the string.
-     * \$: The backslash \ is an escape character, and $ is a special character in regex that usually denotes the end of a string. By escaping it with \, we tell the regex engine to treat $ as a literal dollar sign.
-     * [aby]?
-     * ?: This quantifier means that the preceding character class [aby] is optional. It matches 0 or 1 occurrence of a, b, or y. [aby]? matches either a, b, y, or nothing at all.
-     * Again, the backslash \ escapes the dollar sign $, making it a literal dollar sign.
-     *
-     * [0-9]{2}\$: Matches the cost factor, which is a two-digit number followed by a $.
-     * [./A-Za-z0-9]{53}$: Matches the 53-character hash.
-     * $: Asserts the position at the end of the string. This ensures that the entire string must end after exactly 53 characters from the specified character class.
-     * [./A-Za-z0-9] matches any single character that is a dot, forward slash, uppercase letter, lowercase letter, or digit.
-     *
-     * sample bycrypt hash :: for raju123 >> $2a$12$XbxEk0f1DAoNCz2vo/HVAu7bzTmeJeaF9XKqw8JjZrojAc3MEDxEq
+    /*
+     * The bcrypt regex this converter used before, only "password : <bcrypt hash>" was masked:
      *
-     * private static final Pattern SENSITIVE_DATA_PATTERN = Pattern.compile("(pin:\\s*\\d{4})|(cardNumber:\\s*\\d{16})");
-     *
-     * MY FIRST ATTEMPT OF PASSWORD REGEX AND WHY IT FAILED FOR MATCHING ::: ??
-     * password :\s*^\$2[aby]?\$[0-9]{2}\$[./A-Za-z0-9]{53}$
-     *
-     * Anchoring the string: You are using the ^ (start of the string) and $ (end of the string) anchors inside the regex,
-     * which is unnecessary and incorrect for this use case, as the anchors should be placed at the boundaries of
-     * the entire pattern, not inside it.
-     *
-     * EXPLANATION FOR BELOW PASSWORD : REGEX
-     * password\\s*:\\s*: Matches password : where spaces are optional (\\s*), ensuring it matches even if there are extra spaces between password and : or after :.
-     *
-     * \\$2[aby]?\\$: Matches bcrypt's initial format, where $2a$, $2b$, or $2y$ are valid. This handles the start of a bcrypt hash.
+     * (password\\s*[:=]\\s*\\$2[aby]?\\$[0-9]{2}\\$[./A-Za-z0-9]{53})
      *
+     * password\\s*[:=]\\s*: Matches password : or password = where spaces are optional.
+     * \\$2[aby]?\\$: Matches bcrypt's initial format, where $2a$, $2b$, or $2y$ are valid.
      * [0-9]{2}: Matches the cost factor (which is always 2 digits).
+     * \\$[./A-Za-z0-9]{53}: Matches the 53-character hash after the cost factor.
      *
-     * \\$[./A-Za-z0-9]{53}: Matches the 53-character hash after the cost factor, consisting of letters, digits, periods (.), and slashes (/).
+     * sample bycrypt hash :: for raju123 >> $2a$12$XbxEk0f1DAoNCz2vo/HVAu7bzTmeJeaF9XKqw8JjZrojAc3MEDxEq
      *
+     * SensitiveKeyMasker masks any value after "password" (hash or not), so that case is still covered.
      */
-    //private static final Pattern SENSITIVE_DATA_PATTERN = Pattern.compile("(password\\s*:\\s*\\$2[aby]?\\$[0-9]{2}\\$[./A-Za-z0-9]{53})");
 
-     // while password logging below pattern can match patterns like >> password:xxxx, password : xxxxx, password=xxxx, password = xxxxx
-    private static final Pattern SENSITIVE_DATA_PATTERN = Pattern.compile("(password\\s*[:=]\\s*\\$2[aby]?\\$[0-9]{2}\\$[./A-Za-z0-9]{53})");
+    private final SensitiveKeyMasker masker;
 
-    // Updated regex to match "password : value"
-    // \\S+ \\S matches any non-whitespace character.+ is a quantifier that matches 1 or more occurrences of the preceding element.
-    // So, \\S+ matches one or more non-whitespace characters.
-    //private static final Pattern SENSITIVE_DATA_PATTERN = Pattern.compile("(password :\\s*\\S+)");
-
-    protected MaskingConverter(String name, String style) {
+    protected MaskingConverter(String name, String style, SensitiveKeyMasker masker) {
         super(name, style);
+        this.masker = masker;
     }
 
     public static MaskingConverter newInstance(String[] options) {
-        log.info("MaskingConverter newInstance() called");
-        return new MaskingConverter("msgMask123", "style");
+        List<String> keys = options == null || options.length == 0 || options[0].isBlank()
+                ? SensitiveKeyMasker.DEFAULT_KEYS
+                : Arrays.stream(options[0].split(",")).map(String::trim).filter(key -> !key.isEmpty()).toList();
+        SensitiveKeyMasker masker = new SensitiveKeyMasker(keys);
+        log.info("MaskingConverter newInstance() called keys {}", masker.getKeys());
+        return new MaskingConverter("passMask", "passMask", masker);
     }
 
     /**
@@ -100,29 +83,13 @@ public class MaskingConverter extends LogEventPatternConverter {
      */
     @Override
     public void format(LogEvent event, StringBuilder toAppendTo) {
-        String logEventMsg = event.getMessage().getFormattedMessage();
-        Matcher sensitiveMatcher = SENSITIVE_DATA_PATTERN.matcher(logEventMsg);
-        StringBuffer sb = new StringBuffer();
-
-        // Replace the password with asterisks if found
-        /*while (sensitiveMatcher.find()){
-            String replacement;
-            if(sensitiveMatcher.group().contains("password")){
-                replacement = "password : ********************************";
-            }else{
-                replacement = sensitiveMatcher.group();
-            }
-            sensitiveMatcher.appendReplacement(sb, replacement);
-        }
-        sensitiveMatcher.appendTail(sb);
-        toAppendTo.append(sb);*/
-
-        // Replace the password with asterisks if found
-        while (sensitiveMatcher.find()) {
-            //log.info("MaskingConverter inside while loop sb : {}",sb);
-            sensitiveMatcher.appendReplacement(sb, "password : ********");
+        int start = toAppendTo.length();
+        Message message = event.getMessage();
+        if (message instanceof StringBuilderFormattable formattable) {
+            formattable.formatTo(toAppendTo);
+        } else {
+            toAppendTo.append(message.getFormattedMessage());
         }
-        sensitiveMatcher.appendTail(sb);
-        toAppendTo.append(sb.toString());
+        masker.mask(toAppendTo, start);
     }
 }
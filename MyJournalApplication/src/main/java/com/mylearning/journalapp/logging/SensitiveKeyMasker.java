@@ -0,0 +1,298 @@
+package com.mylearning.journalapp.logging;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Masks the values of sensitive keys in a log line, in place and without allocating.
+ *
+ * The keys (password, authorization, bearer, email ...) are compiled into one Aho–Corasick automaton, folded into a
+ * DFA over lower-cased ASCII, so one pass over the line finds every key whatever the number of keys. That pass is also
+ * the keyword pre-scan: a line without a key is read once, char by char, and left as it is.
+ *
+ * What gets masked after a key:
+ *
+ *   password : secret        password=secret         "password":"my secret"      ->  value replaced by ********
+ *   Authorization: Bearer eyJhbGciOi...                                           ->  Authorization: Bearer ********
+ *   Authorization: Basic dXNlcjpwYXNz                                             ->  Authorization: Basic ********
+ *
+ * - a key is followed by an optional quote, a ':' or '=' and the value; the value ends at whitespace , ; ) ] } &
+ *   or at its closing quote when it is quoted. "passwordEncoder" or "email verified" are not keys followed by a value.
+ * - a key whose value starts with an auth scheme (Authorization: Bearer ..., Basic ...) keeps the scheme and masks
+ *   the token after it, whatever its length.
+ * - the HTTP auth schemes (bearer, basic) are keys of their own. With a separator, or after one (token :: Bearer x),
+ *   the next token is masked. A bare scheme in the middle of the text takes no separator, its value is the next token
+ *   and only when it is at least MIN_SCHEME_TOKEN_LENGTH chars long, so "bearer token refreshed" is left alone but a
+ *   JWT is not.
+ *
+ * Immutable and thread safe, one instance is shared by every logging thread.
+ */
+public final class SensitiveKeyMasker {
+
+    public static final List<String> DEFAULT_KEYS = List.of("password", "authorization", "bearer", "email");
+    public static final String MASK = "********";
+
+    static final Set<String> AUTH_SCHEMES = Set.of("bearer", "basic");
+    static final int MIN_SCHEME_TOKEN_LENGTH = 16;
+    // iterated per match, an array does not allocate an Iterator
+    private static final String[] AUTH_SCHEME_ARRAY = AUTH_SCHEMES.toArray(String[]::new);
+
+    private static final int ALPHABET = 128;
+    private static final int ROOT = 0;
+
+    // DFA, next state = delta[state * ALPHABET + char]; one flat array, one load per char
+    private final int[] delta;
+    // index of the longest key ending in the state, following the failure links, -1 if none
+    private final int[] output;
+    // first chars of the keys, both cases
+    private final boolean[] keyStart = new boolean[ALPHABET];
+    private final boolean[] authScheme;
+    private final List<String> keys;
+
+    public SensitiveKeyMasker(List<String> keys) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one sensitive key is required");
+        }
+        this.keys = keys.stream().map(key -> key.trim().toLowerCase(Locale.ROOT)).distinct().toList();
+        this.authScheme = new boolean[this.keys.size()];
+
+        int maxStates = 1 + this.keys.stream().mapToInt(String::length).sum();
+        int[][] trie = new int[maxStates][ALPHABET];
+        int[] keyOfState = new int[maxStates];
+        Arrays.fill(keyOfState, -1);
+        int states = 1;
+        for (int k = 0; k < this.keys.size(); k++) {
+            String key = this.keys.get(k);
+            if (key.isEmpty() || !key.chars().allMatch(c -> c > ' ' && c < ALPHABET)) {
+                throw new IllegalArgumentException("Sensitive key must be printable ASCII: '" + key + "'");
+            }
+            authScheme[k] = AUTH_SCHEMES.contains(key);
+            keyStart[key.charAt(0)] = true;
+            keyStart[Character.toUpperCase(key.charAt(0))] = true;
+            int state = ROOT;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (trie[state][c] == 0) {
+                    trie[state][c] = states++;
+                }
+                state = trie[state][c];
+            }
+            keyOfState[state] = k;
+        }
+
+        // breadth first: failure links, missing transitions go where the failure state goes (complete DFA)
+        int[][] transitions = Arrays.copyOf(trie, states);
+        this.output = Arrays.copyOf(keyOfState, states);
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (transitions[ROOT][c] != 0) {
+                queue.add(transitions[ROOT][c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (output[state] < 0) {
+                output[state] = output[failure[state]];
+            }
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next != 0) {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                } else {
+                    transitions[state][c] = transitions[failure[state]][c];
+                }
+            }
+        }
+        this.delta = new int[states * ALPHABET];
+        for (int state = 0; state < states; state++) {
+            for (int c = 0; c < ALPHABET; c++) {
+                // upper-case chars get the transitions of their lower-case char, no lower() per char when masking
+                delta[state * ALPHABET + c] = transitions[state][lower((char) c)];
+            }
+        }
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Masks every sensitive value in line from index from to the end, in place.
+     *
+     * @return the number of values masked
+     */
+    public int mask(StringBuilder line, int from) {
+        if (!containsKey(line, from)) {
+            return 0;
+        }
+        int masked = 0;
+        int end = line.length();
+        int state = ROOT;
+        for (int i = from; i < end; i++) {
+            char c = line.charAt(i);
+            state = c < ALPHABET ? delta[state * ALPHABET + c] : ROOT;
+            int key = output[state];
+            if (key < 0) {
+                continue;
+            }
+            int valueStart = valueStart(line, i + 1, end);
+            boolean bareScheme = false;
+            if (authScheme[key] && valueStart < 0) {
+                valueStart = schemeTokenStart(line, i + 1, end);
+                bareScheme = !followsSeparator(line, from, i + 1 - keys.get(key).length());
+            } else if (valueStart >= 0) {
+                // Authorization: Bearer xyz, the scheme stays, the token is the value
+                valueStart = skipAuthScheme(line, valueStart, end);
+            }
+            if (valueStart < 0) {
+                continue;
+            }
+            int valueEnd = valueEnd(line, valueStart, end);
+            if (valueEnd == valueStart || bareScheme && valueEnd - valueStart < MIN_SCHEME_TOKEN_LENGTH) {
+                continue;
+            }
+            line.replace(valueStart, valueEnd, MASK);
+            end += MASK.length() - (valueEnd - valueStart);
+            i = valueStart + MASK.length() - 1;
+            state = ROOT;
+            masked++;
+        }
+        return masked;
+    }
+
+    /**
+     * The pre-scan, true if a key occurs in line from index from. Outside a key only the first chars of the keys are
+     * looked at, there is no state to carry; only the lines with a key go on to the masking loop.
+     */
+    boolean containsKey(CharSequence line, int from) {
+        int[] delta = this.delta;
+        int[] output = this.output;
+        boolean[] keyStart = this.keyStart;
+        int end = line.length();
+        int state = ROOT;
+        for (int i = from; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= ALPHABET) {
+                state = ROOT;
+            } else if (state != ROOT || keyStart[c]) {
+                state = delta[state * ALPHABET + c];
+                if (output[state] >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * key [quote] [spaces] (':' | '=') [spaces] [quote] value
+     */
+    private static int valueStart(CharSequence line, int pos, int end) {
+        if (pos < end && isWordChar(line.charAt(pos))) {
+            return -1;
+        }
+        if (pos < end && isQuote(line.charAt(pos))) {
+            pos++;
+        }
+        pos = skipSpaces(line, pos, end);
+        if (pos >= end || line.charAt(pos) != ':' && line.charAt(pos) != '=') {
+            return -1;
+        }
+        pos = skipSpaces(line, pos + 1, end);
+        if (pos < end && isQuote(line.charAt(pos))) {
+            pos++;
+        }
+        return pos < end ? pos : -1;
+    }
+
+    /**
+     * scheme spaces token
+     */
+    private static int schemeTokenStart(CharSequence line, int pos, int end) {
+        if (pos >= end || line.charAt(pos) != ' ') {
+            return -1;
+        }
+        pos = skipSpaces(line, pos, end);
+        return pos < end ? pos : -1;
+    }
+
+    private static int valueEnd(CharSequence line, int pos, int end) {
+        char open = line.charAt(pos - 1);
+        if (isQuote(open)) {
+            int close = pos;
+            while (close < end && line.charAt(close) != open) {
+                close++;
+            }
+            return close;
+        }
+        while (pos < end && !isDelimiter(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * the start of the token when the value at pos is "scheme spaces token", pos otherwise, -1 for a scheme alone
+     */
+    private static int skipAuthScheme(CharSequence line, int pos, int end) {
+        for (String scheme : AUTH_SCHEME_ARRAY) {
+            int schemeEnd = pos + scheme.length();
+            if (schemeEnd < end && line.charAt(schemeEnd) == ' ' && regionMatches(line, pos, scheme)) {
+                int token = skipSpaces(line, schemeEnd, end);
+                return token < end ? token : -1;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * true if the text before pos, spaces and quotes aside, ends with ':' or '='
+     */
+    private static boolean followsSeparator(CharSequence line, int from, int pos) {
+        pos--;
+        while (pos >= from && (line.charAt(pos) == ' ' || isQuote(line.charAt(pos)))) {
+            pos--;
+        }
+        return pos >= from && (line.charAt(pos) == ':' || line.charAt(pos) == '=');
+    }
+
+    private static boolean regionMatches(CharSequence line, int pos, String lowerCase) {
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = line.charAt(pos + i);
+            if (c >= ALPHABET || lower(c) != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(CharSequence line, int pos, int end) {
+        while (pos < end && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == ',' || c == ';' || c == ')' || c == ']' || c == '}' || c == '&'
+                || isQuote(c);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mylearning.journalapp.mongoprofiler;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.time.Instant;
+import java.util.StringJoiner;
+
+/**
+ * What matters in an explain("executionStats") output: the winning plan as a stage chain
+ * (e.g. "FETCH <- IXSCAN(age_1)" or "COLLSCAN") and how many keys / documents the server read for the documents
+ * it returned. A COLLSCAN, or far more documents examined than returned, is a missing or badly chosen index.
+ *
+ * find / count / distinct explains carry queryPlanner and executionStats at the top, aggregate explains may nest
+ * them in the first stage ($cursor), so both are looked up wherever they are.
+ */
+public record ExplainSummary(String plan, boolean collectionScan, long keysExamined, long docsExamined,
+                             long returned, long executionMillis, Instant explainedAt) {
+
+    static final long UNKNOWN = -1;
+
+    static ExplainSummary from(BsonDocument explain) {
+        BsonDocument queryPlanner = find(explain, "queryPlanner");
+        BsonDocument winningPlan = queryPlanner == null ? null : document(queryPlanner.get("winningPlan"));
+        if (winningPlan != null && winningPlan.containsKey("queryPlan")) {
+            // slot based engine: {queryPlan: {...}, slotBasedPlan: {...}}
+            winningPlan = document(winningPlan.get("queryPlan"));
+        }
+        StringJoiner plan = new StringJoiner(" <- ");
+        describe(winningPlan, plan);
+        String stages = plan.length() == 0 ? "unknown" : plan.toString();
+
+        BsonDocument stats = find(explain, "executionStats");
+        return new ExplainSummary(stages, stages.contains("COLLSCAN"),
+                number(stats, "totalKeysExamined"), number(stats, "totalDocsExamined"),
+                number(stats, "nReturned"), number(stats, "executionTimeMillis"), Instant.now());
+    }
+
+    /**
+     * At least ratio times more documents examined than returned, or a collection scan.
+     */
+    boolean isInefficient(int ratio) {
+        return collectionScan || docsExamined > (long) ratio * Math.max(1, returned);
+    }
+
+    private static void describe(BsonDocument stage, StringJoiner plan) {
+        if (stage == null || !stage.containsKey("stage")) {
+            return;
+        }
+        String name = stage.getString("stage").getValue();
+        BsonValue indexName = stage.get("indexName");
+        plan.add(indexName != null && indexName.isString() ? name + "(" + indexName.asString().getValue() + ")" : name);
+        if (stage.containsKey("inputStage")) {
+            describe(document(stage.get("inputStage")), plan);
+        } else if (stage.get("inputStages") instanceof BsonArray inputStages) {
+            // OR / SORT_MERGE: every branch, in brackets
+            StringJoiner branches = new StringJoiner(", ", "[", "]");
+            for (BsonValue inputStage : inputStages) {
+                StringJoiner branch = new StringJoiner(" <- ");
+                describe(document(inputStage), branch);
+                branches.add(branch.toString());
+            }
+            plan.add(branches.toString());
+        }
+    }
+
+    private static BsonDocument find(BsonValue value, String field) {
+        if (value instanceof BsonDocument document) {
+            if (document.get(field) instanceof BsonDocument found) {
+                return found;
+            }
+            for (BsonValue child : document.values()) {
+                BsonDocument found = find(child, field);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (value instanceof BsonArray array) {
+            for (BsonValue child : array) {
+                BsonDocument found = find(child, field);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static BsonDocument document(BsonValue value) {
+        return value instanceof BsonDocument document ? document : null;
+    }
+
+    private static long number(BsonDocument document, String field) {
+        BsonValue value = document == null ? null : document.get(field);
+        return value != null && value.isNumber() ? value.asNumber().longValue() : UNKNOWN;
+    }
+}
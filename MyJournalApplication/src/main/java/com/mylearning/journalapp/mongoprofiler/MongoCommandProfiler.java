@@ -0,0 +1,395 @@
+package com.mylearning.journalapp.mongoprofiler;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CommandListener timing every command the MongoClient sends, registered on the auto-configured client
+ * (MongoProfilerConfig) and on the custom one of MongoConfig.
+ *
+ * mongo.command        collection, command, status   every command, per collection
+ * mongo.command.shape  collection, command, shape    per CommandShape, the shape tag is a short id of the shape
+ * mongo.command.slow   collection, command           commands over journal.mongo.profiler.slow-threshold
+ *
+ * A slow command is logged with its shape and its caller: the repository method and the first frame of our own code
+ * (StackWalker, on the slow path only; the sync driver calls the listener on the thread that runs the query).
+ *
+ * Slow reads (find, aggregate, count, distinct) are explained with explain("executionStats") on one background
+ * thread, never on the caller's thread, and at most once per shape per explain-cooldown. The command document is only
+ * valid during the started callback and it is not known yet whether the command will be slow, so it is copied only
+ * for the first execution of a shape and for the next execution of a shape that was slow without a copy; every other
+ * command costs a shape string, a map entry and the timers. GET /internal/mongo/profile shows it all.
+ */
+@Slf4j
+public class MongoCommandProfiler implements CommandListener, AutoCloseable {
+
+    public static final String COMMANDS = "mongo.command";
+    public static final String SHAPES = "mongo.command.shape";
+    public static final String SLOW = "mongo.command.slow";
+
+    static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct");
+    // handshake, monitoring and auth commands, and the explains this profiler runs itself
+    static final Set<String> IGNORED = Set.of("hello", "isMaster", "ismaster", "ping", "buildInfo", "saslStart",
+            "saslContinue", "endSessions", "killCursors", "explain");
+    // session / transaction / routing fields of the original command that explain does not accept
+    static final Set<String> NOT_EXPLAINED_FIELDS = Set.of("lsid", "txnNumber", "autocommit", "startTransaction",
+            "readConcern", "writeConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+    static final int INEFFICIENT_RATIO = 10;
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final String PROFILER_CLASS = MongoCommandProfiler.class.getName();
+
+    /**
+     * Runs an explain command against a database, the profiler itself knows nothing of the MongoClient.
+     */
+    @FunctionalInterface
+    public interface ExplainRunner {
+        BsonDocument explain(String database, BsonDocument explainCommand);
+    }
+
+    private final MeterRegistry registry;
+    private final MongoProfilerProperties properties;
+    private final ExplainRunner explainRunner;
+    private final Executor explainExecutor;
+    private final double[] percentiles;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<CommandKey, Timer> commandTimers = new ConcurrentHashMap<>();
+    private final Map<CommandKey, Counter> slowCounters = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> recentSlow = new ArrayDeque<>();
+
+    public MongoCommandProfiler(MeterRegistry registry, MongoProfilerProperties properties, ExplainRunner explainRunner) {
+        this(registry, properties, explainRunner, newExplainExecutor(properties.getExplainQueueSize()));
+    }
+
+    MongoCommandProfiler(MeterRegistry registry, MongoProfilerProperties properties, ExplainRunner explainRunner,
+                         Executor explainExecutor) {
+        this.registry = registry;
+        this.properties = properties;
+        this.explainRunner = explainRunner;
+        this.explainExecutor = explainExecutor;
+        this.percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (!properties.isEnabled() || IGNORED.contains(commandName)) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        String collection = CommandShape.collectionOf(commandName, command);
+        ShapeStats shape = shape(commandName, collection, command);
+        BsonDocument explainCommand = null;
+        boolean explainAnyway = false;
+        if (properties.isExplainEnabled() && EXPLAINABLE.contains(commandName)) {
+            if (shape.firstExecution) {
+                shape.firstExecution = false;
+                explainCommand = explainCommand(command);
+            } else if (shape.explainWanted) {
+                // slow before without a copy of the command: explain this execution, slow or not, same shape same plan
+                shape.explainWanted = false;
+                explainCommand = explainCommand(command);
+                explainAnyway = true;
+            }
+        }
+        inFlight.put(event.getRequestId(), new Started(event.getDatabaseName(), shape, explainCommand, explainAnyway));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            completed(started, event.getElapsedTime(TimeUnit.NANOSECONDS), "ok");
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            completed(started, event.getElapsedTime(TimeUnit.NANOSECONDS), "error");
+        }
+    }
+
+    private void completed(Started started, long nanos, String status) {
+        ShapeStats shape = started.shape();
+        shape.timer.record(nanos, TimeUnit.NANOSECONDS);
+        CommandKey key = new CommandKey(shape.collection, shape.command, status);
+        commandTimer(key).record(nanos, TimeUnit.NANOSECONDS);
+
+        boolean slow = nanos >= properties.getSlowThreshold().toNanos();
+        if (slow) {
+            String caller = callerOf(properties.getCallerPackage());
+            shape.lastCaller = caller;
+            slowCounter(key).increment();
+            double millis = nanos / 1_000_000.0;
+            log.warn("Slow mongo {} on {} took {} ms, shape {} [{}], from {}", shape.command, shape.collection,
+                    String.format("%.1f", millis), shape.id, shape.text, caller);
+            rememberSlow(new SlowCommand(Instant.now(), shape.command, shape.collection, shape.id, millis, status, caller));
+        }
+        if (!"ok".equals(status) || !EXPLAINABLE.contains(shape.command)) {
+            return;
+        }
+        if (started.explainCommand() != null && (slow || started.explainAnyway())) {
+            explainLater(shape, started.database(), started.explainCommand());
+        } else if (slow && properties.isExplainEnabled() && explainDue(shape)) {
+            shape.explainWanted = true;
+        }
+    }
+
+    private void explainLater(ShapeStats shape, String database, BsonDocument explainCommand) {
+        long last = shape.lastExplainNanos.get();
+        if (!explainDue(shape) || !shape.lastExplainNanos.compareAndSet(last, System.nanoTime())) {
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> explain(shape, database, explainCommand));
+        } catch (RejectedExecutionException ex) {
+            // queue full, the next slow execution of the shape asks again
+            shape.lastExplainNanos.set(last);
+            log.debug("Mongo explain queue full, shape {} not explained", shape.id);
+        }
+    }
+
+    private boolean explainDue(ShapeStats shape) {
+        long last = shape.lastExplainNanos.get();
+        return last == 0 || System.nanoTime() - last >= properties.getExplainCooldown().toNanos();
+    }
+
+    private void explain(ShapeStats shape, String database, BsonDocument explainCommand) {
+        try {
+            ExplainSummary summary = ExplainSummary.from(explainRunner.explain(database, explainCommand));
+            shape.lastExplain = summary;
+            if (summary.isInefficient(INEFFICIENT_RATIO)) {
+                log.warn("Mongo {} on {} plan {}: {} keys / {} documents examined for {} returned, shape {} [{}], from {}",
+                        shape.command, shape.collection, summary.plan(), summary.keysExamined(), summary.docsExamined(),
+                        summary.returned(), shape.id, shape.text, shape.lastCaller);
+            } else {
+                log.info("Mongo {} on {} plan {}, shape {}", shape.command, shape.collection, summary.plan(), shape.id);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Mongo explain of shape {} [{}] failed: {}", shape.id, shape.text, ex.toString());
+        }
+    }
+
+    /**
+     * The explain command for a copy of the original, without $db / lsid / $clusterTime and the other fields explain
+     * refuses, so it runs outside the caller's session and transaction.
+     */
+    static BsonDocument explainCommand(BsonDocument command) {
+        BsonDocument explained = new BsonDocument();
+        command.forEach((field, value) -> {
+            if (!field.startsWith("$") && !NOT_EXPLAINED_FIELDS.contains(field)) {
+                explained.put(field, value);
+            }
+        });
+        // deep copy, the driver may reuse the buffer behind the original once the started callback returned
+        return new BsonDocument("explain", explained.clone()).append("verbosity", new BsonString("executionStats"));
+    }
+
+    /**
+     * "StudentRepository.findByAgeBetween <- StudentService.findByAgeBetween:70": the repository interface method
+     * (the frame of its JDK proxy) and the first frame of our own code below it.
+     */
+    static String callerOf(String callerPackage) {
+        return STACK_WALKER.walk(frames -> {
+            String repository = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                String className = type.getName();
+                if (repository == null && Proxy.isProxyClass(type)) {
+                    for (Class<?> repositoryInterface : type.getInterfaces()) {
+                        if (repositoryInterface.getName().startsWith(callerPackage)) {
+                            repository = repositoryInterface.getSimpleName() + "." + frame.getMethodName();
+                            break;
+                        }
+                    }
+                } else if (className.startsWith(callerPackage) && !className.equals(PROFILER_CLASS)
+                        && !className.startsWith(PROFILER_CLASS + "$")
+                        && !className.contains("$$")) {
+                    String caller = type.getSimpleName() + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                    return repository == null ? caller : repository + " <- " + caller;
+                }
+            }
+            return repository == null ? "unknown" : repository;
+        });
+    }
+
+    /**
+     * What GET /internal/mongo/profile returns: per collection and command the whole-command stats, the shapes
+     * slowest in total first with their caller and last explain, and the most recent slow commands.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Object>> collections = new TreeMap<>();
+        commandTimers.forEach((key, timer) -> collections.computeIfAbsent(key.collection(), k -> new TreeMap<>())
+                .put(key.command() + " " + key.status(), stats(timer)));
+
+        List<ShapeStats> byTotalTime = new ArrayList<>(shapes.values());
+        byTotalTime.sort(Comparator.comparingDouble((ShapeStats shape) -> shape.timer.totalTime(TimeUnit.NANOSECONDS))
+                .reversed());
+        List<Map<String, Object>> shapeList = new ArrayList<>();
+        for (ShapeStats shape : byTotalTime) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", shape.id);
+            entry.put("shape", shape.text);
+            entry.putAll(stats(shape.timer));
+            entry.put("caller", shape.lastCaller);
+            entry.put("explain", shape.lastExplain);
+            shapeList.add(entry);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", properties.isEnabled());
+        body.put("slowThresholdMillis", properties.getSlowThreshold().toMillis());
+        body.put("collections", collections);
+        body.put("shapes", shapeList);
+        synchronized (recentSlow) {
+            body.put("recentSlow", new ArrayList<>(recentSlow));
+        }
+        return body;
+    }
+
+    @Override
+    public void close() {
+        if (explainExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private ShapeStats shape(String commandName, String collection, BsonDocument command) {
+        String text = CommandShape.of(commandName, collection, command, properties.getMaxShapeLength());
+        ShapeStats shape = shapes.get(text);
+        if (shape != null) {
+            return shape;
+        }
+        if (shapes.size() >= properties.getMaxShapes()) {
+            text = commandName + " " + collection + " (other)";
+        }
+        return shapes.computeIfAbsent(text, shapeText -> new ShapeStats(shapeText, commandName, collection,
+                Timer.builder(SHAPES)
+                        .tags("collection", collection, "command", commandName, "shape", shapeId(shapeText))
+                        .publishPercentiles(percentiles)
+                        .register(registry)));
+    }
+
+    private Timer commandTimer(CommandKey key) {
+        return commandTimers.computeIfAbsent(key, k -> Timer.builder(COMMANDS)
+                .tags("collection", k.collection(), "command", k.command(), "status", k.status())
+                .publishPercentiles(percentiles)
+                .register(registry));
+    }
+
+    private Counter slowCounter(CommandKey key) {
+        return slowCounters.computeIfAbsent(new CommandKey(key.collection(), key.command(), ""), k -> Counter.builder(SLOW)
+                .tags("collection", k.collection(), "command", k.command())
+                .register(registry));
+    }
+
+    private void rememberSlow(SlowCommand slowCommand) {
+        synchronized (recentSlow) {
+            if (recentSlow.size() >= properties.getRecentSlowCommands()) {
+                recentSlow.removeLast();
+            }
+            recentSlow.addFirst(slowCommand);
+        }
+    }
+
+    static String shapeId(String shapeText) {
+        return String.format("%08x", shapeText.hashCode());
+    }
+
+    private static Map<String, Object> stats(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", snapshot.count());
+        stats.put("totalMillis", round(snapshot.total(TimeUnit.MILLISECONDS)));
+        stats.put("meanMillis", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        stats.put("maxMillis", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            stats.put("p" + percentileName(percentile.percentile()), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return stats;
+    }
+
+    private static String percentileName(double percentile) {
+        String name = Double.toString(percentile * 100);
+        return name.endsWith(".0") ? name.substring(0, name.length() - 2) : name;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    private static ExecutorService newExplainExecutor(int queueSize) {
+        AtomicLong threads = new AtomicLong();
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mongo-explain-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private record Started(String database, ShapeStats shape, BsonDocument explainCommand, boolean explainAnyway) {
+    }
+
+    private record CommandKey(String collection, String command, String status) {
+    }
+
+    public record SlowCommand(Instant at, String command, String collection, String shape, double millis, String status,
+                              String caller) {
+    }
+
+    private static final class ShapeStats {
+        private final String id;
+        private final String text;
+        private final String command;
+        private final String collection;
+        private final Timer timer;
+        private final AtomicLong lastExplainNanos = new AtomicLong();
+        private volatile boolean firstExecution = true;
+        private volatile boolean explainWanted;
+        private volatile String lastCaller;
+        private volatile ExplainSummary lastExplain;
+
+        private ShapeStats(String text, String command, String collection, Timer timer) {
+            this.id = shapeId(text);
+            this.text = text;
+            this.command = command;
+            this.collection = collection;
+            this.timer = timer;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.mylearning.journalapp.mongoprofiler;
+
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the MongoCommandProfiler on the auto-configured MongoClient. The "atlas" profile builds its own client
+ * (MongoConfig), customizers do not apply there, so MongoConfig adds the same listener itself.
+ */
+@Configuration
+@Slf4j
+public class MongoProfilerConfig {
+
+    /**
+     * The explains go through the very client the profiler listens to, looked up lazily because that client is built
+     * with the profiler; the profiler ignores the "explain" commands.
+     */
+    @Bean
+    public MongoCommandProfiler mongoCommandProfiler(MeterRegistry meterRegistry, MongoProfilerProperties properties,
+                                                     ObjectProvider<MongoClient> mongoClient) {
+        log.info("Mongo command profiler enabled={} slowThreshold={} explainEnabled={}", properties.isEnabled(),
+                properties.getSlowThreshold(), properties.isExplainEnabled());
+        return new MongoCommandProfiler(meterRegistry, properties, (database, explainCommand) ->
+                mongoClient.getObject().getDatabase(database).runCommand(explainCommand, BsonDocument.class));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandProfilerCustomizer(MongoCommandProfiler mongoCommandProfiler) {
+        return builder -> builder.addCommandListener(mongoCommandProfiler);
+    }
+}
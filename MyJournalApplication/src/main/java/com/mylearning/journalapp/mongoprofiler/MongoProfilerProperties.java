@@ -0,0 +1,45 @@
+package com.mylearning.journalapp.mongoprofiler;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mongo command profiler, see MongoCommandProfiler.
+ *
+ * journal.mongo.profiler.enabled=true
+ * # a command at least this slow is logged, counted in mongo.command.slow and kept in the recent slow commands
+ * journal.mongo.profiler.slow-threshold=100ms
+ * # explain("executionStats") of slow reads on a background thread, at most once per shape per explain-cooldown
+ * journal.mongo.profiler.explain-enabled=true
+ * journal.mongo.profiler.explain-cooldown=10m
+ * journal.mongo.profiler.explain-queue-size=16
+ * # distinct shapes tracked, the shapes past it are counted under "<command> <collection> (other)"
+ * journal.mongo.profiler.max-shapes=500
+ * journal.mongo.profiler.max-shape-length=256
+ * journal.mongo.profiler.recent-slow-commands=50
+ * journal.mongo.profiler.percentiles=0.5,0.9,0.99
+ * # first stack frame of this package (and the repository interface above it) is reported as the caller
+ * journal.mongo.profiler.caller-package=com.mylearning.journalapp
+ */
+@Component
+@ConfigurationProperties(prefix = "journal.mongo.profiler")
+@Getter
+@Setter
+public class MongoProfilerProperties {
+    private boolean enabled = true;
+    private Duration slowThreshold = Duration.ofMillis(100);
+    private boolean explainEnabled = true;
+    private Duration explainCooldown = Duration.ofMinutes(10);
+    private int explainQueueSize = 16;
+    private int maxShapes = 500;
+    private int maxShapeLength = 256;
+    private int recentSlowCommands = 50;
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.9, 0.99));
+    private String callerPackage = "com.mylearning.journalapp";
+}
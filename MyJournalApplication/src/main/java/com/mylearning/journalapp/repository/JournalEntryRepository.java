@@ -21,6 +21,13 @@ public interface JournalEntryRepository extends MongoRepository<JournalEntry, Ob
      */
     Optional<JournalEntry> findByTitle(String title);
 
+    // the per user queries below all start with owner, the (owner, createdOn, _id) index serves them
+    Optional<JournalEntry> findByOwnerAndTitle(ObjectId owner, String title);
+
+    Optional<JournalEntry> deleteByOwnerAndTitle(ObjectId owner, String title);
+
+    long deleteByOwner(ObjectId owner);
+
     /**
      *
      * $regex: ?0: This indicates that the first method parameter will be used as the regex pattern.
@@ -0,0 +1,16 @@
+package com.mylearning.journalapp.repository;
+
+import java.util.List;
+
+/**
+ * Closed interface projection of the users collection: only userName, password and roles are read from Mongo,
+ * everything else in the user document stays on the server. Used on the authentication path.
+ */
+public interface UserCredentials {
+
+    String getUserName();
+
+    String getPassword();
+
+    List<String> getRoles();
+}
@@ -12,5 +12,7 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends MongoRepository<User, ObjectId> {
     Optional<User> findByUserName(String userName);
+    // credentials only projection (userName, password, roles), see UserCredentials
+    Optional<UserCredentials> findCredentialsByUserName(String userName);
     void deleteByUserName(String userName);
 }
@@ -0,0 +1,32 @@
+package com.mylearning.journalapp.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Named, expiring leases shared by every journal node: a Mongo collection in the application (MongoLeaseStore), an
+ * in-process map in tests.
+ *
+ * A lease belongs to one holder until it expires; its holder extends it by acquiring it again before then (the
+ * heartbeat). A holder that stops heartbeating loses its leases after the TTL, without any cleanup.
+ * Expiry is decided with the clock of the acquiring node, the TTL must stay far above the clock skew between nodes.
+ */
+public interface LeaseStore {
+
+    /**
+     * Takes the lease if it is free or expired, extends it if holder already has it.
+     * @return true if holder has the lease until now + ttl
+     */
+    boolean tryAcquire(String name, String holder, Instant now, Duration ttl);
+
+    /**
+     * Gives the lease up, only if holder has it.
+     */
+    void release(String name, String holder);
+
+    /**
+     * @return name -> holder of the leases whose name starts with prefix and that have not expired at now
+     */
+    Map<String, String> activeLeases(String prefix, Instant now);
+}
@@ -0,0 +1,85 @@
+package com.mylearning.journalapp.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LeaseStore on the scheduler_leases collection, one document per lease:
+ *
+ *     {_id: "user-scheduler/partition/3", holder: "node-a1b2c3", expiresAt: ISODate(...)}
+ *
+ * tryAcquire is a single upsert matching the lease only when it is held by the caller or expired. When someone else
+ * holds it, the upsert tries to insert a second document with the same _id and fails with a duplicate key: the
+ * unique _id index is what makes two nodes unable to hold one lease.
+ *
+ * A TTL index removes leases an hour after they expired, the documents of nodes that are gone for good.
+ */
+@Component
+@Slf4j
+public class MongoLeaseStore implements LeaseStore, ApplicationRunner {
+
+    static final String COLLECTION = "scheduler_leases";
+    private static final Duration REMOVE_EXPIRED_AFTER = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoLeaseStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoTemplate.indexOps(COLLECTION).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(REMOVE_EXPIRED_AFTER)
+                .named("expiresAt_ttl"));
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String holder, Instant now, Duration ttl) {
+        Query heldByCallerOrExpired = Query.query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("holder").is(holder), Criteria.where("expiresAt").lte(Date.from(now))));
+        Update update = new Update()
+                .set("holder", holder)
+                .set("expiresAt", Date.from(now.plus(ttl)));
+        try {
+            mongoTemplate.upsert(heldByCallerOrExpired, update, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String name, String holder) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(name).and("holder").is(holder)), COLLECTION);
+    }
+
+    @Override
+    public Map<String, String> activeLeases(String prefix, Instant now) {
+        // every name starting with prefix sorts in [prefix, prefix + '\uffff'), one range of the _id index
+        Query active = Query.query(Criteria.where("_id").gte(prefix).lt(prefix + Character.MAX_VALUE)
+                .and("expiresAt").gt(Date.from(now)));
+        Map<String, String> leases = new TreeMap<>();
+        for (Document lease : mongoTemplate.find(active, Document.class, COLLECTION)) {
+            leases.put(lease.getString("_id"), lease.getString("holder"));
+        }
+        return leases;
+    }
+}
@@ -0,0 +1,201 @@
+package com.mylearning.journalapp.scheduler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the work of UserScheduler between the journal nodes, so N nodes do the weekly sentiment once, not N times.
+ *
+ * The users are hashed into journal.scheduler.lease.partitions partitions (UserPartitions), each partition is a lease
+ * of the LeaseStore. Every heartbeat-interval a node:
+ *
+ * 1. renews its node lease, the live nodes are the holders of unexpired node leases
+ * 2. renews its partition leases, a partition it could not renew is dropped
+ * 3. gives partitions back above its fair share, ceil(partitions / live nodes), so a node that just joined finds
+ *    free partitions
+ * 4. takes free or expired partitions up to its fair share, starting at its own slot to avoid racing the others
+ *
+ * A node that dies stops renewing: after the ttl its node lease and partitions expire, the fair share of the others
+ * grows and they take its partitions over. A node shutting down releases everything right away.
+ *
+ * The heartbeat runs on its own thread (scheduler-lease-heartbeat), not on Spring's single scheduling thread: a run of
+ * UserScheduler longer than the ttl must not stop the renewals and let the leases expire under the running node.
+ *
+ * A run of the scheduler works on the partitions the node holds when it starts (ownedPartitions()). Leases that moved
+ * while a run is in progress can make a partition be sent twice or skipped once during a rebalance, never more.
+ */
+@Component
+@Slf4j
+public class SchedulerCoordinator {
+
+    static final String NODE_PREFIX = "user-scheduler/node/";
+    static final String PARTITION_PREFIX = "user-scheduler/partition/";
+
+    private final LeaseStore leaseStore;
+    private final SchedulerLeaseProperties properties;
+    private final Clock clock;
+    private final String nodeId;
+    private final int partitionCount;
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    // partition -> expiry of our lease on it
+    private final Map<Integer, Instant> owned = new ConcurrentHashMap<>();
+    private volatile List<String> liveNodes = List.of();
+
+    @Autowired
+    public SchedulerCoordinator(LeaseStore leaseStore, SchedulerLeaseProperties properties) {
+        this(leaseStore, properties, Clock.systemUTC(), defaultNodeId(), Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduler-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    SchedulerCoordinator(LeaseStore leaseStore, SchedulerLeaseProperties properties, Clock clock, String nodeId,
+                         ScheduledExecutorService heartbeatExecutor) {
+        this.leaseStore = leaseStore;
+        this.properties = properties;
+        this.clock = clock;
+        this.nodeId = nodeId;
+        this.partitionCount = Math.max(1, properties.getPartitions());
+        this.heartbeatExecutor = heartbeatExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (properties.getHeartbeatInterval().compareTo(properties.getTtl()) >= 0) {
+            throw new IllegalStateException("journal.scheduler.lease.heartbeat-interval " + properties.getHeartbeatInterval()
+                    + " must be below journal.scheduler.lease.ttl " + properties.getTtl());
+        }
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0, properties.getHeartbeatInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void heartbeat() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = clock.instant();
+        Duration ttl = properties.getTtl();
+        try {
+            leaseStore.tryAcquire(NODE_PREFIX + nodeId, nodeId, now, ttl);
+            List<String> nodes = new ArrayList<>(new TreeSet<>(leaseStore.activeLeases(NODE_PREFIX, now).values()));
+            if (!nodes.contains(nodeId)) {
+                nodes.add(nodeId);
+                nodes.sort(null);
+            }
+            liveNodes = List.copyOf(nodes);
+            int fairShare = (partitionCount + nodes.size() - 1) / nodes.size();
+
+            for (Integer partition : List.copyOf(owned.keySet())) {
+                if (leaseStore.tryAcquire(leaseName(partition), nodeId, now, ttl)) {
+                    owned.put(partition, now.plus(ttl));
+                } else {
+                    owned.remove(partition);
+                    log.warn("SchedulerCoordinator node {} lost partition {}", nodeId, partition);
+                }
+            }
+
+            while (owned.size() > fairShare) {
+                Integer partition = owned.keySet().stream().max(Integer::compare).orElseThrow();
+                owned.remove(partition);
+                leaseStore.release(leaseName(partition), nodeId);
+                log.info("SchedulerCoordinator node {} gave back partition {}, fair share {}", nodeId, partition, fairShare);
+            }
+
+            if (owned.size() < fairShare) {
+                Map<String, String> held = leaseStore.activeLeases(PARTITION_PREFIX, now);
+                int start = nodes.indexOf(nodeId) * fairShare;
+                for (int i = 0; i < partitionCount && owned.size() < fairShare; i++) {
+                    int partition = (start + i) % partitionCount;
+                    if (!owned.containsKey(partition) && !held.containsKey(leaseName(partition))
+                            && leaseStore.tryAcquire(leaseName(partition), nodeId, now, ttl)) {
+                        owned.put(partition, now.plus(ttl));
+                        log.info("SchedulerCoordinator node {} took partition {}", nodeId, partition);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // the store is unreachable: keep what we have, ownedPartitions() stops returning it once it expires
+            log.warn("SchedulerCoordinator heartbeat of node {} failed : {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * The partitions this node holds a lease on right now, every user when partitioning is off.
+     */
+    public UserPartitions ownedPartitions() {
+        if (!properties.isEnabled()) {
+            return UserPartitions.all();
+        }
+        Instant now = clock.instant();
+        List<Integer> valid = owned.entrySet().stream()
+                .filter(entry -> entry.getValue().isAfter(now))
+                .map(Map.Entry::getKey)
+                .toList();
+        return UserPartitions.of(partitionCount, valid);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            for (Integer partition : List.copyOf(owned.keySet())) {
+                leaseStore.release(leaseName(partition), nodeId);
+            }
+            leaseStore.release(NODE_PREFIX + nodeId, nodeId);
+        } catch (RuntimeException e) {
+            log.warn("SchedulerCoordinator release of node {} failed, its leases expire after the ttl : {}", nodeId, e.getMessage());
+        }
+        owned.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("nodeId", nodeId);
+        stats.put("liveNodes", liveNodes);
+        stats.put("partitions", partitionCount);
+        stats.put("owned", ownedPartitions().toString());
+        return stats;
+    }
+
+    private static String leaseName(int partition) {
+        return PARTITION_PREFIX + partition;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mylearning.journalapp.scheduler;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Partitioned execution of UserScheduler across journal nodes, see SchedulerCoordinator.
+ *
+ * # false: every node works on every user, as a single node does
+ * journal.scheduler.lease.enabled=true
+ * # hash partitions of the user space, the unit of work a node leases; more partitions than nodes spreads better
+ * journal.scheduler.lease.partitions=16
+ * # a node that stops heartbeating loses its partitions after ttl, the survivors take them over
+ * journal.scheduler.lease.ttl=30s
+ * # well below ttl, a couple of missed heartbeats must not cost the leases; not below ttl refuses to start
+ * journal.scheduler.lease.heartbeat-interval=10s
+ */
+@Component
+@ConfigurationProperties(prefix = "journal.scheduler.lease")
+@Getter
+@Setter
+public class SchedulerLeaseProperties {
+    private boolean enabled = true;
+    private int partitions = 16;
+    private Duration ttl = Duration.ofSeconds(30);
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+}
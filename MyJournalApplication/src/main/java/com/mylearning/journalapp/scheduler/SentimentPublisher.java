@@ -0,0 +1,114 @@
+package com.mylearning.journalapp.scheduler;
+
+import com.mylearning.journalapp.entity.SentimentData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the weekly sentiments to daily-sentiments one batch at a time.
+ *
+ * Every send takes a slot of a max-in-flight semaphore, released when Kafka acknowledges (or fails) the record, so a
+ * batch larger than max-in-flight waits for the producer instead of piling records up in its buffer. publish() returns
+ * once every record of the batch is acknowledged or send-timeout passed, with how many were sent and how many failed;
+ * the next batch is only read from the cursor after that.
+ */
+@Component
+@Slf4j
+public class SentimentPublisher {
+
+    public static final String TOPIC = "daily-sentiments";
+
+    private final KafkaTemplate<String, SentimentData> kafkaTemplate;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long sendTimeoutMillis;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public SentimentPublisher(KafkaTemplate<String, SentimentData> kafkaTemplate, SentimentSchedulerProperties properties) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.maxInFlight = Math.max(1, properties.getMaxInFlight());
+        this.inFlight = new Semaphore(maxInFlight);
+        this.sendTimeoutMillis = Math.max(1, properties.getSendTimeout().toMillis());
+    }
+
+    public BatchResult publish(List<SentimentData> batch) {
+        List<CompletableFuture<?>> pending = new ArrayList<>(batch.size());
+        for (SentimentData sentimentData : batch) {
+            if (!acquire()) {
+                log.warn("SentimentPublisher no send slot within {} ms, {} not sent", sendTimeoutMillis, sentimentData.getEmail());
+                continue;
+            }
+            CompletableFuture<?> send;
+            try {
+                send = kafkaTemplate.send(TOPIC, sentimentData);
+            } catch (RuntimeException e) {
+                inFlight.release();
+                log.warn("SentimentPublisher send of {} failed : {}", sentimentData.getEmail(), e.getMessage());
+                continue;
+            }
+            pending.add(send.whenComplete((result, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    log.warn("SentimentPublisher send of {} failed : {}", sentimentData.getEmail(), error.getMessage());
+                }
+            }));
+        }
+        awaitAll(pending);
+        // one look at each send: acknowledged, or failed / still pending after send-timeout (its slot comes back when
+        // it completes)
+        int acknowledged = (int) pending.stream()
+                .filter(future -> future.isDone() && !future.isCompletedExceptionally())
+                .count();
+        BatchResult result = new BatchResult(acknowledged, batch.size() - acknowledged);
+        sent.add(result.sent());
+        failed.add(result.failed());
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        stats.put("inFlight", maxInFlight - inFlight.availablePermits());
+        stats.put("maxInFlight", maxInFlight);
+        return stats;
+    }
+
+    private boolean acquire() {
+        try {
+            return inFlight.tryAcquire(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> pending) {
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // counted per record below
+        } catch (TimeoutException e) {
+            log.warn("SentimentPublisher batch not acknowledged within {} ms", sendTimeoutMillis);
+        }
+    }
+
+    public record BatchResult(int sent, int failed) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.mylearning.journalapp.scheduler;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Weekly sentiment job of UserScheduler.
+ *
+ * # COUNTERS: per user read of the user_sentiment_days counters (SentimentCounterService)
+ * # AGGREGATION: one aggregation over journal_entries run by Mongo, read with a cursor (WeeklySentimentAggregation)
+ * journal.scheduler.sentiment.source=COUNTERS
+ * # users read from the cursor and published to daily-sentiments per batch, the scheduler never holds more
+ * journal.scheduler.sentiment.batch-size=500
+ * # Kafka sends not acknowledged yet, a send past it waits up to send-timeout for a slot
+ * journal.scheduler.sentiment.max-in-flight=64
+ * # how long a batch waits for its last acknowledgement, a send still pending then is counted as failed
+ * journal.scheduler.sentiment.send-timeout=30s
+ */
+@Component
+@ConfigurationProperties(prefix = "journal.scheduler.sentiment")
+@Getter
+@Setter
+public class SentimentSchedulerProperties {
+    private Source source = Source.COUNTERS;
+    private int batchSize = 500;
+    private int maxInFlight = 64;
+    private Duration sendTimeout = Duration.ofSeconds(30);
+
+    public enum Source {
+        COUNTERS,
+        AGGREGATION
+    }
+}
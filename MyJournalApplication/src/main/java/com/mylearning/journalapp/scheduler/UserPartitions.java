@@ -0,0 +1,103 @@
+package com.mylearning.journalapp.scheduler;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The hash partitions of the user space a scheduler run works on.
+ *
+ * A user is in partition (last two bytes of its ObjectId) mod count. Those bytes are the low bits of the ObjectId
+ * counter, which grows by one per id generated, so users spread evenly over the partitions. Mongo computes the same
+ * number from the hex string of the id (expression()), the partition filter runs in the query, not in the JVM.
+ */
+public final class UserPartitions {
+
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final UserPartitions ALL = new UserPartitions(1, List.of(0));
+
+    private final int count;
+    private final SortedSet<Integer> partitions;
+
+    private UserPartitions(int count, Collection<Integer> partitions) {
+        this.count = count;
+        this.partitions = new TreeSet<>(partitions);
+    }
+
+    /**
+     * Every user, no filter.
+     */
+    public static UserPartitions all() {
+        return ALL;
+    }
+
+    public static UserPartitions of(int count, Collection<Integer> partitions) {
+        return new UserPartitions(count, partitions);
+    }
+
+    public static int partitionOf(ObjectId id, int count) {
+        byte[] bytes = id.toByteArray();
+        int low16 = (bytes[10] & 0xff) << 8 | bytes[11] & 0xff;
+        return low16 % count;
+    }
+
+    public boolean isAll() {
+        return partitions.size() == count;
+    }
+
+    public boolean isEmpty() {
+        return partitions.isEmpty();
+    }
+
+    public SortedSet<Integer> getPartitions() {
+        return partitions;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean contains(ObjectId id) {
+        return isAll() || partitions.contains(partitionOf(id, count));
+    }
+
+    /**
+     * partitionOf() of the ObjectId in field as an aggregation expression: the last four hex digits of the id, turned
+     * into a number digit by digit ($indexOfBytes in "0123456789abcdef"), mod count, in the partitions.
+     * @return the $expr body, for a $match stage or Criteria.expr
+     */
+    public Document expression(String field) {
+        Document hex = new Document("$toString", "$" + field);
+        List<Object> weightedDigits = new ArrayList<>();
+        for (int position = 20, weight = 4096; position < 24; position++, weight /= 16) {
+            Document digit = new Document("$indexOfBytes", List.of(HEX_DIGITS,
+                    new Document("$substrBytes", List.of(hex, position, 1))));
+            weightedDigits.add(new Document("$multiply", List.of(digit, weight)));
+        }
+        Document partition = new Document("$mod", List.of(new Document("$add", weightedDigits), count));
+        return new Document("$in", List.of(partition, new ArrayList<>(partitions)));
+    }
+
+    /**
+     * expression() as a query criteria, null when every user is in.
+     */
+    public Criteria criteria(String field) {
+        if (isAll()) {
+            return null;
+        }
+        Document expression = expression(field);
+        return Criteria.expr((AggregationExpression) context -> expression);
+    }
+
+    @Override
+    public String toString() {
+        return isAll() ? "all" : partitions + " of " + count;
+    }
+}
@@ -1,70 +1,109 @@
 package com.mylearning.journalapp.scheduler;
 
-import com.mylearning.journalapp.entity.JournalEntry;
 import com.mylearning.journalapp.entity.SentimentData;
 import com.mylearning.journalapp.entity.User;
 import com.mylearning.journalapp.enums.Sentiment;
 import com.mylearning.journalapp.service.EmailService;
+import com.mylearning.journalapp.service.SentimentCounterService;
 import com.mylearning.journalapp.service.UserService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.chrono.ChronoLocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.time.temporal.TemporalUnit;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Optional;
 
+/**
+ * Weekly sentiment of every sentiment-analysis user, published to daily-sentiments (see SentimentDataConsumer),
+ * computed from one of two sources (journal.scheduler.sentiment.source, see SentimentSchedulerProperties):
+ *
+ * COUNTERS    per user read of at most 7 user_sentiment_days documents, SentimentCounterService
+ * AGGREGATION one aggregation over the last 7 days of journal_entries run by Mongo and read with a cursor,
+ *             WeeklySentimentAggregation; the scheduler's heap use does not depend on the number of users
+ *
+ * Both count the last 7 calendar days (SentimentCounterService#windowStart) and break a tie in favour of the
+ * sentiment declared first in Sentiment, switching the source does not change what a user receives.
+ *
+ * Both hand batch-size SentimentData at a time to SentimentPublisher, which bounds the Kafka sends in flight and
+ * reports per batch how many were acknowledged.
+ *
+ * The cron fires on every node; each node only works on the users of the partitions it leased from
+ * SchedulerCoordinator, so the users are sent once across the nodes.
+ */
 @Component
 @Slf4j
 public class UserScheduler {
 
     private final UserService userService;
 
-    private final KafkaTemplate<String,SentimentData> kafkaTemplate;
+    private final SentimentCounterService sentimentCounterService;
 
-    public UserScheduler(UserService userService, KafkaTemplate<String, SentimentData> kafkaTemplate) {
+    private final WeeklySentimentAggregation weeklySentimentAggregation;
+
+    private final SentimentPublisher sentimentPublisher;
+
+    private final SentimentSchedulerProperties properties;
+
+    private final SchedulerCoordinator schedulerCoordinator;
+
+    public UserScheduler(UserService userService, SentimentCounterService sentimentCounterService,
+                         WeeklySentimentAggregation weeklySentimentAggregation, SentimentPublisher sentimentPublisher,
+                         SentimentSchedulerProperties properties, SchedulerCoordinator schedulerCoordinator) {
         this.userService = userService;
-        this.kafkaTemplate = kafkaTemplate;
+        this.sentimentCounterService = sentimentCounterService;
+        this.weeklySentimentAggregation = weeklySentimentAggregation;
+        this.sentimentPublisher = sentimentPublisher;
+        this.properties = properties;
+        this.schedulerCoordinator = schedulerCoordinator;
     }
 
     //@Scheduled(cron = "0 0 9 * * SUN")    // scheduler for every sunday at 9 am
     @Scheduled(cron = "0 */2 * * * *")  // scheduler for every 2 minutes
     public void fetchUserAndSendEmail(){
-        log.info("UserScheduler fetchUserAndSendEmail called");
-        List<User> userForSA = userService.getUserForSA();
-        log.info("UserScheduler fetchUserAndSendEmail ListUSER for SENTIMENT ANALYSIS :: {}",userForSA);
-        for(User user : userForSA){
-            log.info("UserScheduler fetchUserAndSendEmail USER for SENTIMENT ANALYSIS :: {}",user);
-            Map<Sentiment, Long> sentimentCounts = user.getJournalEntries().stream()
-                    .filter(entry -> entry
-                            .getCreatedOn()
-                            //.isAfter(LocalDateTime.now().minus(7, ChronoUnit.DAYS))
-                            .isAfter(LocalDateTime.now().minusDays(7))
-                    )
-                    .collect(Collectors.groupingBy(JournalEntry::getSentiment, Collectors.counting()));
-
-            Sentiment mostFrequentSentiment = null;
-            Long maxCount = 0L;
-            for(Map.Entry<Sentiment, Long> entry : sentimentCounts.entrySet()){
-                if(entry.getValue() > maxCount){
-                    maxCount = entry.getValue();
-                    mostFrequentSentiment = entry.getKey();
-                }
-            }
+        UserPartitions partitions = schedulerCoordinator.ownedPartitions();
+        log.info("UserScheduler fetchUserAndSendEmail called, source : {}, partitions : {}", properties.getSource(), partitions);
+        if (partitions.isEmpty()) {
+            return;
+        }
+        PublishTotals totals = new PublishTotals();
+        if (properties.getSource() == SentimentSchedulerProperties.Source.AGGREGATION) {
+            weeklySentimentAggregation.forEachBatch(sentimentCounterService.windowStart(),
+                    partitions, properties.getBatchSize(), batch -> totals.add(sentimentPublisher.publish(batch)));
+        } else {
+            publishFromCounters(partitions, totals);
+        }
+        log.info("UserScheduler fetchUserAndSendEmail sent : {}, failed : {}", totals.sent, totals.failed);
+    }
 
-            if (mostFrequentSentiment!=null){
-                log.info("UserScheduler fetchUserAndSendEmail sending email initiating");
-                SentimentData sentimentData = SentimentData.builder().email(user.getEmail()).sentiment("Last 7 Days Sentiment :" + mostFrequentSentiment.toString()).build();
-                kafkaTemplate.send("daily-sentiments",sentimentData);
+    private void publishFromCounters(UserPartitions partitions, PublishTotals totals) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<SentimentData> batch = new ArrayList<>(batchSize);
+        for(User user : userService.getUserForSA(partitions.criteria("_id"))){
+            log.debug("UserScheduler fetchUserAndSendEmail USER for SENTIMENT ANALYSIS :: {}",user);
+            // at most 7 counter documents per user, whatever the size of the user's journal
+            Optional<Sentiment> mostFrequentSentiment = sentimentCounterService.mostFrequentSentiment(user.getId());
+            if (mostFrequentSentiment.isPresent()){
+                batch.add(SentimentData.builder().email(user.getEmail()).sentiment("Last 7 Days Sentiment :" + mostFrequentSentiment.get()).build());
                 //emailService.sendEmail(user.getEmail(), "Last 7 Days Sentiment",mostFrequentSentiment.toString());
             }
+            if (batch.size() == batchSize) {
+                totals.add(sentimentPublisher.publish(batch));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            totals.add(sentimentPublisher.publish(batch));
+        }
+    }
+
+    private static final class PublishTotals {
+        private long sent;
+        private long failed;
+
+        void add(SentimentPublisher.BatchResult result) {
+            sent += result.sent();
+            failed += result.failed();
         }
     }
 }
@@ -0,0 +1,143 @@
+package com.mylearning.journalapp.scheduler;
+
+import com.mongodb.client.MongoCursor;
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.SentimentData;
+import com.mylearning.journalapp.entity.User;
+import com.mylearning.journalapp.enums.Sentiment;
+import com.mylearning.journalapp.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The weekly sentiment of every sentiment-analysis user as one aggregation over journal_entries, computed by Mongo:
+ *
+ * 1. $match   the entries created since the start of the window, with an owner and a sentiment ({createdOn: -1} index),
+ *             owned by a user of this node's partitions (UserPartitions) unless the node works on every user
+ * 2. $group   by (owner, sentiment), count, and the rank of the sentiment in Sentiment's declaration order
+ * 3. $sort    by owner, count desc, rank: the most frequent sentiment of a user comes first (a tie goes to the
+ *             sentiment declared first, as in SentimentCounterService#mostFrequentSentiment)
+ * 4. $group   by owner, $first sentiment
+ * 5. $lookup  the owner in users, only with sentimentAnalysis=true and a valid email ($project email, $limit 1)
+ * 6. $unwind / $project to {email, sentiment}
+ *
+ * The window start is SentimentCounterService#windowStart, midnight of the first of the last 7 calendar days.
+ *
+ * The result is read with a cursor, batch-size documents per getMore, and handed over batch-size SentimentData at a
+ * time, so the JVM holds one batch whatever the number of users or entries. Mongo spills to disk (allowDiskUse) when
+ * a $group / $sort outgrows its memory limit.
+ */
+@Component
+@Slf4j
+public class WeeklySentimentAggregation implements ApplicationRunner {
+
+    static final String CREATED_ON_INDEX = "createdOn";
+
+    private static final List<String> SENTIMENT_ORDER = Arrays.stream(Sentiment.values()).map(Sentiment::name).toList();
+
+    private final MongoTemplate mongoTemplate;
+    private final SentimentSchedulerProperties properties;
+
+    public WeeklySentimentAggregation(MongoTemplate mongoTemplate, SentimentSchedulerProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * The $match of the pipeline would scan journal_entries without it, the (owner, createdOn, _id) index starts with
+     * owner. Only ensured when the aggregation is the configured source, auto index creation is off.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.getSource() == SentimentSchedulerProperties.Source.AGGREGATION) {
+            mongoTemplate.indexOps(JournalEntry.class).ensureIndex(new Index()
+                    .on("createdOn", Sort.Direction.DESC)
+                    .named(CREATED_ON_INDEX));
+        }
+    }
+
+    /**
+     * @param since       start of the window, inclusive
+     * @param partitions  the users to compute, UserPartitions.all() for every user
+     * @param batchSize   SentimentData per call of batchConsumer, also the cursor batch size
+     * @param batchConsumer called once per full batch and once for the last, smaller one; the next documents are only
+     *                    read after it returns
+     * @return number of users handed over
+     */
+    public long forEachBatch(LocalDateTime since, UserPartitions partitions, int batchSize, Consumer<List<SentimentData>> batchConsumer) {
+        int size = Math.max(1, batchSize);
+        long users = 0;
+        List<SentimentData> batch = new ArrayList<>(size);
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(JournalEntry.class))
+                .aggregate(pipeline(since, partitions, mongoTemplate.getCollectionName(User.class)))
+                .allowDiskUse(true)
+                .batchSize(size)
+                .cursor()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                batch.add(SentimentData.builder()
+                        .email(document.getString("email"))
+                        .sentiment("Last 7 Days Sentiment :" + document.getString("sentiment"))
+                        .build());
+                if (batch.size() == size) {
+                    users += batch.size();
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>(size);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            users += batch.size();
+            batchConsumer.accept(batch);
+        }
+        log.info("WeeklySentimentAggregation {} users since {}, partitions {}", users, since, partitions);
+        return users;
+    }
+
+    static List<Document> pipeline(LocalDateTime since, UserPartitions partitions, String users) {
+        // LocalDateTime is stored as a Date in the system time zone, the same conversion as Spring Data's
+        Date from = Date.from(since.atZone(ZoneId.systemDefault()).toInstant());
+        Document match = new Document("createdOn", new Document("$gte", from))
+                .append("owner", new Document("$ne", null))
+                .append("sentiment", new Document("$ne", null));
+        if (!partitions.isAll()) {
+            match.append("$expr", partitions.expression("owner"));
+        }
+        return List.of(
+                new Document("$match", match),
+                new Document("$group", new Document("_id", new Document("owner", "$owner").append("sentiment", "$sentiment"))
+                        .append("count", new Document("$sum", 1))
+                        .append("rank", new Document("$first", new Document("$indexOfArray",
+                                List.of(SENTIMENT_ORDER, "$sentiment"))))),
+                new Document("$sort", new Document("_id.owner", 1).append("count", -1).append("rank", 1)),
+                new Document("$group", new Document("_id", "$_id.owner")
+                        .append("sentiment", new Document("$first", "$_id.sentiment"))),
+                new Document("$lookup", new Document("from", users)
+                        .append("localField", "_id")
+                        .append("foreignField", "_id")
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("sentimentAnalysis", true)
+                                        .append("email", new Document("$regex", UserService.SA_EMAIL_REGEX))),
+                                new Document("$project", new Document("_id", 0).append("email", 1)),
+                                new Document("$limit", 1)))
+                        .append("as", "user")),
+                new Document("$unwind", "$user"),
+                new Document("$project", new Document("_id", 0)
+                        .append("email", "$user.email")
+                        .append("sentiment", 1)));
+    }
+}
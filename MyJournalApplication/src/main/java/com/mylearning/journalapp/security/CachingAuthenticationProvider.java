@@ -0,0 +1,57 @@
+package com.mylearning.journalapp.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * HTTP Basic authentication with the VerifiedCredentialCache in front of the DaoAuthenticationProvider.
+ *
+ * hit  -> authenticated token built from the cached username and authorities, no Mongo read, no BCrypt
+ * miss -> the delegate loads the credentials and checks BCrypt, a success is cached for the next request
+ *
+ * Failures (bad password, unknown user) come from the delegate unchanged and are never cached.
+ * The journal users have no locked / disabled / expired state, so a cached success needs no account status checks.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, VerifiedCredentialCache verifiedCredentialCache) {
+        this.delegate = delegate;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        if (username == null || !(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+
+        VerifiedCredentialCache.Verified verified = verifiedCredentialCache.lookup(username, password);
+        if (verified != null) {
+            // the encoded password is not cached, the principal carries an empty one like an erased UserDetails
+            User principal = new User(verified.username(), "", verified.authorities());
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), verified.authorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        long stamp = verifiedCredentialCache.stamp();
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            verifiedCredentialCache.put(username, password, result.getAuthorities(), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
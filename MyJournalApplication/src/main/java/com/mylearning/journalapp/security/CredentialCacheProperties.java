@@ -0,0 +1,27 @@
+package com.mylearning.journalapp.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Verified-credential cache in front of the HTTP Basic authentication provider, see VerifiedCredentialCache.
+ *
+ * journal.security.credential-cache.enabled=true
+ * # one entry per user, least recently used users are evicted past it
+ * journal.security.credential-cache.max-size=10000
+ * # upper bound on how long a changed / deleted password keeps working on a node that missed the invalidation
+ * journal.security.credential-cache.ttl=5m
+ */
+@Component
+@ConfigurationProperties(prefix = "journal.security.credential-cache")
+@Getter
+@Setter
+public class CredentialCacheProperties {
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,183 @@
+package com.mylearning.journalapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mylearning.journalapp.cache.CacheInvalidationBus;
+import com.mylearning.journalapp.cache.CacheInvalidationMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers, for a bounded time, that a (username, password) pair passed BCrypt, so the next request of the same
+ * user with the same password skips both the Mongo read and the BCrypt check (milliseconds of CPU on purpose).
+ *
+ * What is stored, per username (one entry per user, Caffeine bounded by size and expire-after-write TTL):
+ *     HMAC-SHA256(node key, username 0x00 password) and the user's authorities
+ * The HMAC key is random per node and never leaves the heap, so an entry is useless for an offline password guess
+ * and the plaintext is never stored. The MAC is compared in constant time.
+ *
+ * Only successes are cached: a wrong password is a miss and goes to BCrypt like before, so the cache does not
+ * speed up guessing. A user's entry is replaced by the last password that verified.
+ *
+ * Invalidation (password change, user delete): the entry is evicted here and on the other journal nodes through the
+ * CacheInvalidationBus (key message on cache name {@value #CACHE_NAME}). A verification that read the old password
+ * from Mongo before the invalidation must not put it back afterwards, so every invalidation bumps a generation and
+ * put() is dropped when the generation moved since the caller's stamp(). A node that misses the message keeps the
+ * old entry until the TTL, never longer.
+ */
+@Component
+@Slf4j
+public class VerifiedCredentialCache {
+
+    public static final String CACHE_NAME = "verifiedCredentials";
+    private static final String HMAC = "HmacSHA256";
+
+    public record Verified(String username, List<GrantedAuthority> authorities) {
+    }
+
+    private record Entry(byte[] mac, Verified verified) {
+    }
+
+    private final boolean enabled;
+    private final Cache<String, Entry> entries;
+    private final CacheInvalidationBus invalidationBus;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong generation = new AtomicLong();
+    private final ThreadLocal<Mac> macs;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder staleLoadsDropped = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public VerifiedCredentialCache(CredentialCacheProperties properties, CacheInvalidationBus invalidationBus) {
+        this(properties, invalidationBus, Ticker.systemTicker());
+    }
+
+    VerifiedCredentialCache(CredentialCacheProperties properties, CacheInvalidationBus invalidationBus, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .ticker(ticker)
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec macKey = new SecretKeySpec(key, HMAC);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC);
+                mac.init(macKey);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HmacSHA256 unavailable", ex);
+            }
+        });
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the cached verification when this exact password verified for the user within the TTL, else null
+     */
+    public Verified lookup(String username, String password) {
+        Entry entry = entries.getIfPresent(username);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!MessageDigest.isEqual(entry.mac(), mac(username, password))) {
+            mismatches.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.verified();
+    }
+
+    /**
+     * Taken before loading the user, handed back to put().
+     */
+    public long stamp() {
+        return generation.get();
+    }
+
+    public void put(String username, String password, Collection<? extends GrantedAuthority> authorities, long stamp) {
+        Entry entry = new Entry(mac(username, password), new Verified(username, List.copyOf(authorities)));
+        entries.put(username, entry);
+        // an invalidation raced with the verification: it may have checked the old password, drop it
+        if (generation.get() != stamp) {
+            entries.asMap().remove(username, entry);
+            staleLoadsDropped.increment();
+        }
+    }
+
+    /**
+     * Password changed or user deleted: evicts on this node and publishes the eviction to the other nodes.
+     */
+    public void invalidate(String username) {
+        invalidateLocal(username);
+        invalidationBus.publish(new CacheInvalidationMessage(CacheInvalidationMessage.Type.K, nodeId, CACHE_NAME, username));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.estimatedSize());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("mismatches", mismatches.sum());
+        stats.put("staleLoadsDropped", staleLoadsDropped.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private void invalidateLocal(String username) {
+        generation.incrementAndGet();
+        entries.invalidate(username);
+        invalidations.increment();
+    }
+
+    private void onInvalidation(CacheInvalidationMessage message) {
+        if (nodeId.equals(message.sourceNode()) || !CACHE_NAME.equals(message.cacheName())) {
+            return;
+        }
+        log.debug("Verified credential invalidation {} {} from node {}", message.type(), message.value(), message.sourceNode());
+        if (message.type() == CacheInvalidationMessage.Type.K) {
+            invalidateLocal(message.value());
+        } else {
+            generation.incrementAndGet();
+            entries.invalidateAll();
+            invalidations.increment();
+        }
+    }
+
+    private byte[] mac(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+}
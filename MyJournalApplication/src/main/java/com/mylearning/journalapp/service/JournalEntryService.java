@@ -1,37 +1,51 @@
 package com.mylearning.journalapp.service;
 
+import com.mylearning.journalapp.dto.JournalEntryCursor;
 import com.mylearning.journalapp.entity.JournalEntry;
 import com.mylearning.journalapp.entity.User;
+import com.mylearning.journalapp.enums.Sentiment;
 import com.mylearning.journalapp.exception.JournalEntryAddingFailedException;
 import com.mylearning.journalapp.exception.JournalEntryNotFoundException;
 import com.mylearning.journalapp.exception.UserNotFoundException;
 import com.mylearning.journalapp.repository.JournalEntryRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Slf4j
 //@Profile("atlas")
 public class JournalEntryService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final JournalEntryRepository journalEntryRepository;
 
     private final UserService userService;
 
+    private final MongoTemplate mongoTemplate;
+
+    private final SentimentCounterService sentimentCounterService;
+
     private final String USER_NOT_FOUND = "User Not Found By : %s";
 
-    public JournalEntryService(JournalEntryRepository journalEntryRepository, UserService userService) {
+    public JournalEntryService(JournalEntryRepository journalEntryRepository, UserService userService, MongoTemplate mongoTemplate,
+                               SentimentCounterService sentimentCounterService) {
         this.journalEntryRepository = journalEntryRepository;
         this.userService = userService;
+        this.mongoTemplate = mongoTemplate;
+        this.sentimentCounterService = sentimentCounterService;
     }
 
     @Transactional
@@ -40,16 +54,10 @@ public class JournalEntryService {
         try {
             User savedUser = userService.findByUserName(userName).orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND,userName)));
             entry.setCreatedOn(LocalDateTime.now());
+            // the entry points to its user, the user document is not rewritten on every new entry anymore
+            entry.setOwner(savedUser.getId());
             JournalEntry savedEntry = journalEntryRepository.save(entry);
-            savedUser.getJournalEntries().add(savedEntry);
-
-            //due to this line of code statement journal entry was setting each time new journal is added and old journal entries are removed from the used since we are setting it here
-            //savedUser.setJournalEntries(List.of(savedEntry));
-
-            // simulate acid property through @Transactional by setting username null since userName cannot be null
-            //savedUser.setUserName(null);
-
-            userService.saveUser(savedUser);
+            sentimentCounterService.entryAdded(savedEntry.getOwner(), savedEntry.getCreatedOn(), savedEntry.getSentiment());
             log.info("JournalEntryService addJournal() called entry : {}, userName : {}", entry, userName);
             return savedEntry;
         } catch (RuntimeException e) {
@@ -57,62 +65,81 @@ public class JournalEntryService {
         }
     }
 
-    public List<JournalEntry> getAllJournalEntriesByUserName(String userName) {
+    /**
+     * One page of the user's journal, newest first, keyset paginated on (createdOn, _id) so page N costs the same as
+     * page 1: the (owner, createdOn, _id) index is walked from the cursor on, nothing is skipped.
+     *
+     * @param from   optional, createdOn >= from
+     * @param to     optional, createdOn < to
+     * @param cursor optional, JournalEntryCursor of the previous page's last entry
+     * @param limit  page size, capped at MAX_PAGE_SIZE
+     * @return the entries and the cursor of the next page, null on the last page
+     */
+    public JournalEntryPage getJournalEntriesPage(String userName, LocalDateTime from, LocalDateTime to, String cursor, int limit) {
         User user = userService.findByUserName(userName).orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND,userName)));
-        return user.getJournalEntries();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("owner").is(user.getId()));
+        if (from != null || to != null) {
+            Criteria createdOn = Criteria.where("createdOn");
+            if (from != null) createdOn.gte(from);
+            if (to != null) createdOn.lt(to);
+            criteria.add(createdOn);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            JournalEntryCursor position = JournalEntryCursor.decode(cursor);
+            // strictly after the cursor in (createdOn desc, _id desc) order
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("createdOn").lt(position.createdOn()),
+                    Criteria.where("createdOn").is(position.createdOn()).and("_id").lt(position.id())));
+        }
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .with(Sort.by(Sort.Order.desc("createdOn"), Sort.Order.desc("_id")))
+                // one more than the page, it tells whether there is a next page
+                .limit(pageSize + 1);
+
+        List<JournalEntry> entries = mongoTemplate.find(query, JournalEntry.class);
+        if (entries.size() <= pageSize) {
+            return new JournalEntryPage(entries, null);
+        }
+        List<JournalEntry> page = entries.subList(0, pageSize);
+        return new JournalEntryPage(page, JournalEntryCursor.after(page.get(pageSize - 1)).encode());
     }
 
     public List<JournalEntry> getJournalEntryUsingTitleByUsername(String userName, String titleName) {
         User user = userService.findByUserName(userName).orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND,userName)));
-        List<JournalEntry> entriesBySimilarTitle = journalEntryRepository.findBySimilarTitle(titleName).orElseThrow(() -> new JournalEntryNotFoundException(String.format("Journal Entry Not Found With Title : %s",titleName)));
-        if(!entriesBySimilarTitle.isEmpty()){
-            return user.getJournalEntries().stream().filter(userJournalEntry -> userJournalEntry.getTitle().equals(titleName)).toList();
-        }
-        else throw new JournalEntryNotFoundException(String.format("Journal Entry with Title : %s Not Found For User : %s",titleName,userName));
+        return journalEntryRepository.findByOwnerAndTitle(user.getId(), titleName)
+                .map(List::of)
+                .orElseThrow(() -> new JournalEntryNotFoundException(String.format("Journal Entry with Title : %s Not Found For User : %s",titleName,userName)));
     }
 
     @Transactional
     public JournalEntry updateJournalEntryUsingTitleByUsername(JournalEntry entry, String userName) {
-        AtomicReference<JournalEntry> atomicJournalEntry = new AtomicReference<>();
         User user = userService.findByUserName(userName).orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND,userName)));
-        List<JournalEntry> journalEntryList = user.getJournalEntries().stream().filter(journalEntry -> journalEntry.getTitle().equals(entry.getTitle())).toList();
-        if(!journalEntryList.isEmpty()){
-            Optional<JournalEntry> entryByTitle = journalEntryRepository.findByTitle(entry.getTitle());
-            entryByTitle.ifPresentOrElse(entryPresent -> {
-                entryPresent.setContent(!entry.getContent().isEmpty() && !entry.getContent().isBlank() ? entry.getContent() : entryPresent.getContent());
-                entryPresent.setUpdatedOn(LocalDateTime.now());
-                atomicJournalEntry.set(journalEntryRepository.save(entryPresent));
-            },() ->{
-                throw new JournalEntryNotFoundException(String.format("Journal Entry Not Found with Title : %s",entry.getTitle()));
-            });
-        }else {
-            throw new JournalEntryNotFoundException(String.format("Journal Entry List has No Journal Entry with Title : %s",entry.getTitle()));
+        JournalEntry entryPresent = journalEntryRepository.findByOwnerAndTitle(user.getId(), entry.getTitle())
+                .orElseThrow(() -> new JournalEntryNotFoundException(String.format("Journal Entry List has No Journal Entry with Title : %s",entry.getTitle())));
+        entryPresent.setContent(!entry.getContent().isEmpty() && !entry.getContent().isBlank() ? entry.getContent() : entryPresent.getContent());
+        // a sentiment sent with the update moves the entry from one counter to the other, on the day it was created
+        Sentiment previousSentiment = entryPresent.getSentiment();
+        if (entry.getSentiment() != null) {
+            entryPresent.setSentiment(entry.getSentiment());
         }
-        return atomicJournalEntry.get();
+        entryPresent.setUpdatedOn(LocalDateTime.now());
+        JournalEntry savedEntry = journalEntryRepository.save(entryPresent);
+        sentimentCounterService.sentimentChanged(savedEntry.getOwner(), savedEntry.getCreatedOn(), previousSentiment, savedEntry.getSentiment());
+        return savedEntry;
     }
 
     @Transactional
     public String deleteJournalEntryUsingTitleByUserName(String titleName,String userName) {
 
        User user = userService.findByUserName(userName).orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND,userName)));
-        List<JournalEntry> userJournalEntryList = user.getJournalEntries().stream().filter(entry -> entry.getTitle().equals(titleName)).toList();
-
-        // below code statement did not work as expected did not check for matching titleName present in the list and always gave true
-        //boolean matchedEntries = userJournalEntryList.stream().map(JournalEntry::getTitle).allMatch(entryTitle -> entryTitle.equals(titleName));
-
-        // below code statement did not work as expected did not check for matching titleName present in the list and always gave true
-        //boolean matchedEntries = userJournalEntryList.stream().allMatch(entry -> entry.getTitle().equals(titleName));
-
-        if(userJournalEntryList.isEmpty()) throw new JournalEntryNotFoundException(String.format("Journal Entry with Title : %s does not exist for User : %s",titleName,userName));
-        journalEntryRepository.findBySimilarTitle(titleName).ifPresentOrElse(entryList -> {
-            if(new HashSet<>(entryList).containsAll(userJournalEntryList)) {
-                user.getJournalEntries().removeAll(userJournalEntryList);
-                journalEntryRepository.deleteAll(entryList);
-                userService.saveUser(user);
-            }
-        },() -> {
-            throw new JournalEntryNotFoundException(String.format("Journal Not Found with Title : %s for User : %s",titleName,userName));
-        });
+        // only the user's own entry, by owner and title, nothing to remove from the user document anymore
+        // the removed entry comes back, its sentiment and day are needed to decrement the counter
+        JournalEntry deleted = journalEntryRepository.deleteByOwnerAndTitle(user.getId(), titleName)
+                .orElseThrow(() -> new JournalEntryNotFoundException(String.format("Journal Entry with Title : %s does not exist for User : %s",titleName,userName)));
+        sentimentCounterService.entryRemoved(deleted.getOwner(), deleted.getCreatedOn(), deleted.getSentiment());
 
         /*AtomicBoolean removed= new AtomicBoolean(false);
         journalEntryRepository.findBySimilarTitle(titleName).ifPresentOrElse((entries) ->{
@@ -131,4 +158,7 @@ public class JournalEntryService {
         });*/
         return "Journal Entry deleted";
     }
+
+    public record JournalEntryPage(List<JournalEntry> entries, String nextCursor) {
+    }
 }
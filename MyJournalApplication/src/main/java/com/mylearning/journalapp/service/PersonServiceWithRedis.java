@@ -1,5 +1,8 @@
 package com.mylearning.journalapp.service;
 
+import com.mylearning.journalapp.cache.PersonCacheInvalidator;
+import com.mylearning.journalapp.cache.TwoTierCache;
+import com.mylearning.journalapp.cache.TwoTierCacheManager;
 import com.mylearning.journalapp.client.RestClientCodeBufferPersonClient;
 import com.mylearning.journalapp.clientresponse.Person;
 import lombok.extern.slf4j.Slf4j;
@@ -12,43 +15,45 @@ import org.springframework.web.client.RestClient;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Person lookups cached in the two-tier cache (Caffeine L1 + Redis L2, Smile encoded).
+ * Earlier every person was stored under the single key "personByNameAge" whatever the name and age,
+ * now the key is derived from the arguments.
+ * Entries are tagged with the person id so an update / delete through any person client evicts them on every node
+ * (PersonCacheInvalidator).
+ */
 @Service
 @Slf4j
 @ConditionalOnProperty(name = "person.client.type", havingValue = "rest-client")
 public class PersonServiceWithRedis {
+
+    public static final String PERSON_BY_NAME_AGE_CACHE = "personByNameAge";
+
     private final RestClient restClient;
 
-    private final RedisService redisService;
+    private final TwoTierCache<Person> personByNameAgeCache;
 
     private final RestClientCodeBufferPersonClient restClientCodeBufferPersonClient;
     @Autowired
-    public PersonServiceWithRedis(RestClient restClient, RedisService redisService, RestClientCodeBufferPersonClient restClientCodeBufferPersonClient) {
+    public PersonServiceWithRedis(RestClient restClient, TwoTierCacheManager twoTierCacheManager, RestClientCodeBufferPersonClient restClientCodeBufferPersonClient) {
         this.restClient = restClient;
-        this.redisService = redisService;
+        this.personByNameAgeCache = twoTierCacheManager.getCache(PERSON_BY_NAME_AGE_CACHE, Person.class,
+                person -> PersonCacheInvalidator.tagOf(person.getPersonId()));
         this.restClientCodeBufferPersonClient = restClientCodeBufferPersonClient;
     }
 
     public Person getPersonByNameAndAgePathVariable(String firstName, Integer age){
+        return personByNameAgeCache.get(TwoTierCacheManager.key(firstName, age), () -> {
+            Map<String,String> mapVal = new HashMap<>();
+            mapVal.put("name",firstName);
+            mapVal.put("age",String.valueOf(age));
 
-        Map<String,String> mapVal = new HashMap<>();
-        mapVal.put("name",firstName);
-        mapVal.put("age",String.valueOf(age));
-
-        Person personResponse = redisService.get("personByNameAge", Person.class);
-
-        if(personResponse != null) {
-            return personResponse;
-        }else {
-            personResponse = restClient.get()
+            return restClient.get()
                     .uri("/{name}/{age}", mapVal)
                     .accept(MediaType.APPLICATION_JSON)
                     .header("Authorization", restClientCodeBufferPersonClient.getJwtAccessToken())
                     .retrieve()
                     .body(Person.class);
-
-            if(personResponse!=null) redisService.set("personByNameAge", personResponse,120000l);
-
-            return personResponse;
-        }
+        });
     }
 }
@@ -2,8 +2,6 @@ package com.mylearning.journalapp.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mylearning.journalapp.clientexception.PersonCallingClientException;
-import com.mylearning.journalapp.exception.PersonJsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -24,11 +22,15 @@ public class RedisService {
         this.objectMapper = objectMapper;
     }
     
+    /**
+     * A missing key is a normal cache miss and simply returns null, only real failures are logged as errors.
+     * For typed, binary, two-tier caching use TwoTierCacheManager instead of this String/JSON round trip.
+     */
     public <T>T get(String key,Class<T> classType) {
         try {
-            Object objectResponse = redisTemplate.opsForValue().get(key);
-            if (objectResponse != null) return objectMapper.readValue(objectResponse.toString(), classType);
-            else throw PersonJsonProcessingException.personException("Exception Occurred In Get RedisService Unable To GET READ VALUE From REDIS Key");
+            String objectResponse = redisTemplate.opsForValue().get(key);
+            if (objectResponse == null) return null;
+            return objectMapper.readValue(objectResponse, classType);
         } catch (JsonProcessingException | RuntimeException e) {
             log.error("RedisService get Exception Occurred : {}", e.getMessage());
             log.error("RedisService get going to return null");
@@ -0,0 +1,121 @@
+package com.mylearning.journalapp.service;
+
+import com.mylearning.journalapp.entity.UserSentimentDay;
+import com.mylearning.journalapp.enums.Sentiment;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per user, per day sentiment counters (user_sentiment_days, see UserSentimentDay).
+ *
+ * Writes are single atomic upserts, {$inc: {"counts.HAPPY": 1}}, issued by JournalEntryService next to the entry
+ * write: +1 on add, -1 / +1 when an entry changes sentiment, -1 on delete. Entries without a sentiment are not counted.
+ *
+ * The weekly read is the user's last 7 day documents through the (owner, day) index, so the scheduler's cost depends
+ * on the number of users, not on how many entries they wrote.
+ */
+@Service
+@Slf4j
+public class SentimentCounterService {
+
+    public static final int WINDOW_DAYS = 7;
+
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+
+    public SentimentCounterService(MongoTemplate mongoTemplate) {
+        this(mongoTemplate, Clock.systemDefaultZone());
+    }
+
+    SentimentCounterService(MongoTemplate mongoTemplate, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.clock = clock;
+    }
+
+    public void entryAdded(ObjectId owner, LocalDateTime createdOn, Sentiment sentiment) {
+        increment(owner, createdOn, sentiment, 1);
+    }
+
+    public void entryRemoved(ObjectId owner, LocalDateTime createdOn, Sentiment sentiment) {
+        increment(owner, createdOn, sentiment, -1);
+    }
+
+    public void sentimentChanged(ObjectId owner, LocalDateTime createdOn, Sentiment from, Sentiment to) {
+        if (from == to) {
+            return;
+        }
+        if (from == null) {
+            increment(owner, createdOn, to, 1);
+        } else if (to == null) {
+            increment(owner, createdOn, from, -1);
+        } else if (owner != null && createdOn != null) {
+            // one upsert for both counters, the day never shows the entry twice or not at all
+            upsert(owner, createdOn.toLocalDate(), new Update()
+                    .inc("counts." + from.name(), -1L)
+                    .inc("counts." + to.name(), 1L));
+        }
+    }
+
+    /**
+     * Start of the weekly window: midnight WINDOW_DAYS - 1 days ago, the window is the last WINDOW_DAYS calendar days
+     * with today. WeeklySentimentAggregation is given the same start, both sources count the same entries.
+     */
+    public LocalDateTime windowStart() {
+        return LocalDate.now(clock).minusDays(WINDOW_DAYS - 1).atStartOfDay();
+    }
+
+    /**
+     * The sentiment the user wrote most often during the last WINDOW_DAYS days (today included), empty without any.
+     * A tie goes to the sentiment declared first in Sentiment, the rule WeeklySentimentAggregation follows too.
+     */
+    public Optional<Sentiment> mostFrequentSentiment(ObjectId owner) {
+        LocalDate today = LocalDate.now(clock);
+        Query window = Query.query(Criteria.where("owner").is(owner)
+                .and("day").gte(windowStart().toLocalDate().toString()).lte(today.toString()));
+        window.fields().include("counts");
+
+        Map<Sentiment, Long> totals = new EnumMap<>(Sentiment.class);
+        for (UserSentimentDay day : mongoTemplate.find(window, UserSentimentDay.class)) {
+            day.getCounts().forEach((sentiment, count) -> totals.merge(Sentiment.valueOf(sentiment), count, Long::sum));
+        }
+
+        Sentiment mostFrequent = null;
+        long maxCount = 0;
+        for (Map.Entry<Sentiment, Long> entry : totals.entrySet()) {
+            if (entry.getValue() > maxCount) {
+                maxCount = entry.getValue();
+                mostFrequent = entry.getKey();
+            }
+        }
+        return Optional.ofNullable(mostFrequent);
+    }
+
+    public long deleteByOwner(ObjectId owner) {
+        return mongoTemplate.remove(Query.query(Criteria.where("owner").is(owner)), UserSentimentDay.class).getDeletedCount();
+    }
+
+    private void increment(ObjectId owner, LocalDateTime createdOn, Sentiment sentiment, long delta) {
+        if (owner == null || createdOn == null || sentiment == null) {
+            return;
+        }
+        upsert(owner, createdOn.toLocalDate(), new Update().inc("counts." + sentiment.name(), delta));
+    }
+
+    private void upsert(ObjectId owner, LocalDate day, Update counts) {
+        counts.setOnInsert("owner", owner).setOnInsert("day", day.toString());
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(UserSentimentDay.idOf(owner, day))), counts, UserSentimentDay.class);
+        log.debug("SentimentCounterService {} {} on {}", owner, counts.getUpdateObject().get("$inc"), day);
+    }
+}
@@ -119,4 +119,29 @@ public class UserDetailServiceImpl implements UserDetailsService{
                   });
         return userDetails.get();*/
     }
+
+    /**
+     * Same UserDetails as loadUserByUsername but read through the UserCredentials projection (userName, password,
+     * roles only), used by the authentication provider on every request that misses the verified-credential cache.
+     * @param username the username identifying the user whose credentials are required.
+     * @return UserDetails with the encoded password and the roles
+     * @throws UsernameNotFoundException if user not found
+     */
+    public UserDetails loadCredentialsByUsername(String username) throws UsernameNotFoundException {
+        log.debug("UserDetailServiceImpl loadCredentialsByUsername() called for username :: {}", username);
+
+        return userRepository.findCredentialsByUserName(username)
+                .map(credentials -> {
+                    List<String> rolesList = credentials.getRoles();
+                    String[] rolesArray = (rolesList != null && !rolesList.isEmpty())
+                            ? rolesList.toArray(new String[0])
+                            : new String[] {};
+                    return User.builder()
+                            .username(credentials.getUserName())
+                            .password(credentials.getPassword())
+                            .roles(rolesArray)
+                            .build();
+                })
+                .orElseThrow(() -> new UsernameNotFoundException(String.format("User Not Found with Username: %s", username)));
+    }
 }
@@ -4,6 +4,7 @@ import com.mylearning.journalapp.entity.User;
 import com.mylearning.journalapp.exception.UserNotFoundException;
 import com.mylearning.journalapp.repository.JournalEntryRepository;
 import com.mylearning.journalapp.repository.UserRepository;
+import com.mylearning.journalapp.security.VerifiedCredentialCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -23,6 +24,9 @@ import java.util.Optional;
 //@Profile("atlas")
 public class UserService {
 
+    // users with an email like this and sentimentAnalysis=true get the weekly sentiment
+    public static final String SA_EMAIL_REGEX = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,4}$";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -30,11 +34,18 @@ public class UserService {
 
     private final MongoTemplate mongoTemplate;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JournalEntryRepository journalEntryRepository, MongoTemplate mongoTemplate) {
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    private final SentimentCounterService sentimentCounterService;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JournalEntryRepository journalEntryRepository, MongoTemplate mongoTemplate,
+                       VerifiedCredentialCache verifiedCredentialCache, SentimentCounterService sentimentCounterService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.journalEntryRepository = journalEntryRepository;
         this.mongoTemplate = mongoTemplate;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+        this.sentimentCounterService = sentimentCounterService;
     }
 
     public Optional<User> findByUserName(String userName) {
@@ -74,6 +85,8 @@ public class UserService {
             userFrmDb.setEmail(!user.getEmail().isEmpty() && !user.getEmail().isBlank() ? user.getEmail() : userFrmDb.getEmail());
             userFrmDb.setPassword(!user.getPassword().isEmpty() && !user.getPassword().isBlank() ? passwordEncoder.encode(user.getPassword()) : userFrmDb.getPassword());
             userRepository.save(userFrmDb);
+            // the old password must stop working now, not when the verified-credential cache entry expires
+            verifiedCredentialCache.invalidate(userName);
         });
         return "User Updated";
     }
@@ -82,16 +95,13 @@ public class UserService {
     public String deleteUserByUsername(String userName) {
         userRepository.findByUserName(userName).ifPresentOrElse(user -> {
             log.info("Attempting to delete user with username: {}", userName);
-            // Check for null journal entries
-            /**
-             * If user.getJournalEntries() is null (instead of an empty collection), calling .isEmpty() will throw a NullPointerException.
-             *  so instead of checking >>>  !user.getJournalEntries().isEmpty() first
-             *  we should check >>> user.getJournalEntries() != null then we should check for empty
-             */
-            if(user.getJournalEntries() != null && !user.getJournalEntries().isEmpty()) journalEntryRepository.deleteAll(user.getJournalEntries());
-            log.info("All JournalEntries Deleted with username: {}", userName);
+            // the entries point to their owner, one delete by owner instead of loading them through the user first
+            long deletedEntries = journalEntryRepository.deleteByOwner(user.getId());
+            log.info("All JournalEntries ({}) Deleted with username: {}", deletedEntries, userName);
+            sentimentCounterService.deleteByOwner(user.getId());
             // Delete the user by their username
             userRepository.deleteByUserName(user.getUserName());
+            verifiedCredentialCache.invalidate(userName);
             log.info("User Deleted with Username : {}", userName);
         },() ->{
             // Throw the UserNotFoundException with the correct message
@@ -123,11 +133,23 @@ public class UserService {
     }
 
     public List<User> getUserForSA(){
+        return getUserForSA(null);
+    }
+
+    /**
+     * @param partitionCriteria optional, only the users of this node's scheduler partitions (UserPartitions.criteria)
+     */
+    public List<User> getUserForSA(Criteria partitionCriteria){
         log.info("UserService getUserForSA called");
         Query query = new Query();
-        query.addCriteria(Criteria.where("email").regex("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,4}$"));
+        if (partitionCriteria != null) {
+            query.addCriteria(partitionCriteria);
+        }
+        query.addCriteria(Criteria.where("email").regex(SA_EMAIL_REGEX));
         query.addCriteria(Criteria.where("sentimentAnalysis").is(true));
         //query.addCriteria(Criteria.where("roles").in(List.of("USER")));
+        // the scheduler only needs the _id (the counters' owner) and the email
+        query.fields().include("userName", "email");
         List<User> userForSAList = mongoTemplate.find(query, User.class);
         log.info("UserService getUserForSA userForSAList :: {}",userForSAList);
         return userForSAList;
@@ -0,0 +1,122 @@
+package com.mylearning.journalapp.cache;
+
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.service.PersonServiceWithRedis;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two TwoTierCacheManager instances share an InMemoryRemoteCacheStore (Redis L2) and an
+ * InMemoryCacheInvalidationBus (Redis pub/sub), so they behave like two journal nodes.
+ */
+class CacheInvalidationTests {
+
+    private static final String CACHE = PersonServiceWithRedis.PERSON_BY_NAME_AGE_CACHE;
+    private static final ObjectId PERSON_ID = new ObjectId("66f1d1f1a1b2c3d4e5f60718");
+
+    private final InMemoryRemoteCacheStore store = new InMemoryRemoteCacheStore();
+    private final InMemoryCacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+    private final CacheValueCodec codec = new CacheValueCodec();
+
+    private final TwoTierCacheManager nodeA = new TwoTierCacheManager(new CacheProperties(), store, codec, bus);
+    private final TwoTierCacheManager nodeB = new TwoTierCacheManager(new CacheProperties(), store, codec, bus);
+
+    @Test
+    void writeOnOneNodeEvictsTaggedEntriesOnEveryNode() {
+        TwoTierCache<Person> cacheA = personCache(nodeA);
+        TwoTierCache<Person> cacheB = personCache(nodeB);
+        cacheA.get("john:30", () -> person("john", 30));
+        cacheB.get("john:30", () -> Assertions.fail("served from L2"));
+        cacheB.get("johnny:30", () -> person("johnny", 30));
+
+        new PersonCacheInvalidator(nodeA).personChanged(PERSON_ID);
+
+        AtomicInteger loads = new AtomicInteger();
+        cacheB.get("john:30", () -> { loads.incrementAndGet(); return person("john", 31); });
+        cacheB.get("johnny:30", () -> { loads.incrementAndGet(); return person("johnny", 31); });
+        cacheA.get("johnny:30", () -> Assertions.fail("reloaded by node B"));
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(1L, nodeB.getInvalidationStats().get("received"));
+        Assertions.assertEquals(0L, nodeA.getInvalidationStats().get("received"));
+    }
+
+    @Test
+    void otherPersonsStayCached() {
+        TwoTierCache<Person> cacheB = personCache(nodeB);
+        Person other = person("jane", 25);
+        other.setPersonId(new ObjectId("66f1d1f1a1b2c3d4e5f60719"));
+        cacheB.get("jane:25", () -> other);
+
+        new PersonCacheInvalidator(nodeA).personChanged(PERSON_ID);
+
+        Assertions.assertEquals("jane", cacheB.get("jane:25", () -> Assertions.fail("must stay in L1")).getFirstName());
+    }
+
+    @Test
+    void keyInvalidationReachesOtherNodeL1() {
+        TwoTierCache<Person> cacheA = personCache(nodeA);
+        TwoTierCache<Person> cacheB = personCache(nodeB);
+        cacheA.get("john:30", () -> person("john", 30));
+        cacheB.get("john:30", () -> person("john", 30));
+
+        nodeA.invalidate(CACHE, "john:30");
+
+        Assertions.assertEquals(31, cacheB.get("john:30", () -> person("john", 31)).getAge());
+        Assertions.assertEquals(1, bus.getPublished().size());
+        Assertions.assertTrue(bus.getPublished().get(0).startsWith("K|" + nodeA.getNodeId() + "|" + CACHE + "|"));
+    }
+
+    @Test
+    void invalidateAllDropsTheCacheFromL2AndFromEveryL1() {
+        TwoTierCache<Person> cacheA = personCache(nodeA);
+        TwoTierCache<Person> cacheB = personCache(nodeB);
+        cacheA.get("john:30", () -> person("john", 30));
+        cacheB.get("john:30", () -> person("john", 30));
+        cacheB.get("johnny:30", () -> person("johnny", 30));
+        store.set("journal:cache:otherCache:k", new byte[]{1}, null);
+
+        nodeA.invalidateAll(CACHE);
+
+        Assertions.assertEquals(1, store.size());
+        Assertions.assertEquals(Set.of(), store.members(TwoTierCache.tagKey(CACHE, PersonCacheInvalidator.tagOf(PERSON_ID))));
+        Assertions.assertTrue(bus.getPublished().get(0).startsWith("A|" + nodeA.getNodeId() + "|" + CACHE + "|"));
+        // neither node may reload the old value from L2
+        Assertions.assertEquals(31, cacheA.get("johnny:30", () -> person("johnny", 31)).getAge());
+        Assertions.assertEquals(31, cacheB.get("john:30", () -> person("john", 31)).getAge());
+    }
+
+    @Test
+    void messageKeepsSeparatorInsideValue() {
+        CacheInvalidationMessage message = new CacheInvalidationMessage(CacheInvalidationMessage.Type.K, "n1", CACHE, "a|b:30");
+
+        Assertions.assertEquals(message, CacheInvalidationMessage.decode(message.encode()));
+    }
+
+    @Test
+    void reactiveDeleteWithoutBodyStillInvalidates() {
+        TwoTierCache<Person> cacheB = personCache(nodeB);
+        cacheB.get("john:30", () -> person("john", 30));
+
+        new PersonCacheInvalidator(nodeA).afterWriteMono(PERSON_ID, Mono.<Void>empty()).block();
+
+        Assertions.assertEquals(31, cacheB.get("john:30", () -> person("john", 31)).getAge());
+    }
+
+    private static TwoTierCache<Person> personCache(TwoTierCacheManager manager) {
+        return manager.getCache(CACHE, Person.class, person -> PersonCacheInvalidator.tagOf(person.getPersonId()));
+    }
+
+    private static Person person(String name, int age) {
+        return Person.builder()
+                .personId(PERSON_ID)
+                .firstName(name)
+                .lastName("doe")
+                .age(age)
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.mylearning.journalapp.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for Redis pub/sub: every message goes, encoded and decoded, to every subscriber
+ * (including the publisher, like a real channel), synchronously.
+ */
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        String line = message.encode();
+        published.add(line);
+        listeners.forEach(listener -> listener.accept(CacheInvalidationMessage.decode(line)));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    public List<String> getPublished() {
+        return published;
+    }
+}
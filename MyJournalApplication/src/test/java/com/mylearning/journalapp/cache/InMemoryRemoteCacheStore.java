@@ -0,0 +1,59 @@
+package com.mylearning.journalapp.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for the Redis L2, TTLs are ignored.
+ */
+public class InMemoryRemoteCacheStore implements RemoteCacheStore {
+
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] get(String key) {
+        return values.get(key);
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void delete(String key) {
+        values.remove(key);
+        sets.remove(key);
+    }
+
+    @Override
+    public void addToSet(String setKey, String member, Duration ttl) {
+        sets.computeIfAbsent(setKey, k -> ConcurrentHashMap.newKeySet()).add(member);
+    }
+
+    @Override
+    public Set<String> members(String setKey) {
+        return Set.copyOf(sets.getOrDefault(setKey, Set.of()));
+    }
+
+    @Override
+    public long deleteByPrefix(String prefix) {
+        long deleted = 0;
+        for (Map<String, ?> map : List.of(values, sets)) {
+            for (String key : map.keySet()) {
+                if (key.startsWith(prefix) && map.remove(key) != null) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
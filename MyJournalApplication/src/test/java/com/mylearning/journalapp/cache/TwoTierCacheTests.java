@@ -0,0 +1,120 @@
+package com.mylearning.journalapp.cache;
+
+import com.mylearning.journalapp.clientresponse.Address;
+import com.mylearning.journalapp.clientresponse.Person;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TwoTierCacheTests {
+
+    private static final Instant NOW = Instant.parse("2024-10-01T10:00:00Z");
+
+    private final InMemoryRemoteCacheStore store = new InMemoryRemoteCacheStore();
+    private final CacheValueCodec codec = new CacheValueCodec();
+
+    @Test
+    void secondReadIsServedFromL1() {
+        TwoTierCache<Person> cache = cache(Clock.fixed(NOW, ZoneOffset.UTC), 0.0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(TwoTierCacheManager.key("john", 30), () -> { loads.incrementAndGet(); return person("john", 30); });
+        Person cached = cache.get(TwoTierCacheManager.key("john", 30), () -> { loads.incrementAndGet(); return person("john", 30); });
+
+        Assertions.assertEquals("john", cached.getFirstName());
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1L, cache.getStats().get("l1Hits"));
+        Assertions.assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void otherNodeIsServedFromL2WithBinaryRoundTrip() {
+        Person john = person("john", 30);
+        cache(Clock.fixed(NOW, ZoneOffset.UTC), 0.0).get(TwoTierCacheManager.key("john", 30), () -> john);
+
+        TwoTierCache<Person> otherNode = cache(Clock.fixed(NOW, ZoneOffset.UTC), 0.0);
+        Person fromL2 = otherNode.get(TwoTierCacheManager.key("john", 30), () -> Assertions.fail("must not load"));
+
+        Assertions.assertEquals(john, fromL2);
+        Assertions.assertEquals(1L, otherNode.getStats().get("l2Hits"));
+    }
+
+    @Test
+    void keysAreDerivedFromArguments() {
+        TwoTierCache<Person> cache = cache(Clock.fixed(NOW, ZoneOffset.UTC), 0.0);
+        cache.get(TwoTierCacheManager.key("john", 30), () -> person("john", 30));
+        Person other = cache.get(TwoTierCacheManager.key("john", 31), () -> person("john", 31));
+
+        Assertions.assertEquals(31, other.getAge());
+        Assertions.assertEquals(2, store.size());
+    }
+
+    @Test
+    void entryCloseToExpiryIsRefreshedEarly() {
+        String key = TwoTierCacheManager.key("john", 30);
+        // value that took 1s to compute and expires in 2s
+        store.set("journal:cache:persons:" + key,
+                codec.encode(new CachedValue<>(person("john", 30), NOW.plusSeconds(2).toEpochMilli(), 1_000)),
+                Duration.ofMinutes(10));
+
+        // random close to 1 -> -ln(1 - r) is about 4.6, 1s * 4.6 reaches past the expiry
+        TwoTierCache<Person> cache = cache(Clock.fixed(NOW, ZoneOffset.UTC), 0.99);
+        Person refreshed = cache.get(key, () -> {
+            Person reloaded = person("john", 30);
+            reloaded.setLastName("refreshed");
+            return reloaded;
+        });
+
+        Assertions.assertEquals("refreshed", refreshed.getLastName());
+        Assertions.assertEquals(1L, cache.getStats().get("earlyRefreshes"));
+    }
+
+    @Test
+    void nullIsNotCachedAndL2FailureIsAMiss() {
+        RemoteCacheStore failing = new RemoteCacheStore() {
+            @Override public byte[] get(String key) { throw new IllegalStateException("redis down"); }
+            @Override public void set(String key, byte[] value, Duration ttl) { throw new IllegalStateException("redis down"); }
+            @Override public void delete(String key) { }
+            @Override public void addToSet(String setKey, String member, Duration ttl) { throw new IllegalStateException("redis down"); }
+            @Override public java.util.Set<String> members(String setKey) { throw new IllegalStateException("redis down"); }
+            @Override public long deleteByPrefix(String prefix) { throw new IllegalStateException("redis down"); }
+        };
+        TwoTierCache<Person> cache = new TwoTierCache<>("persons", codec.typeOf(Person.class), spec(0.0), failing, codec,
+                Clock.fixed(NOW, ZoneOffset.UTC), () -> 0.5);
+
+        Assertions.assertNull(cache.get("missing", () -> null));
+        Assertions.assertEquals("john", cache.get("john", () -> person("john", 30)).getFirstName());
+        Assertions.assertEquals("john", cache.get("john", () -> Assertions.fail("must hit L1")).getFirstName());
+
+        cache.invalidateAll();
+        Assertions.assertEquals(31, cache.get("john", () -> person("john", 31)).getAge());
+    }
+
+    private TwoTierCache<Person> cache(Clock clock, double random) {
+        return new TwoTierCache<>("persons", codec.typeOf(Person.class), spec(1.0), store, codec, clock, () -> random);
+    }
+
+    private static CacheProperties.Spec spec(double beta) {
+        CacheProperties properties = new CacheProperties();
+        properties.setEarlyRefreshBeta(beta);
+        return properties.resolve("persons");
+    }
+
+    private static Person person(String name, int age) {
+        return Person.builder()
+                .personId(new ObjectId("66f1d1f1a1b2c3d4e5f60718"))
+                .firstName(name)
+                .lastName("doe")
+                .age(age)
+                .hobbies(List.of("chess"))
+                .addresses(List.of(Address.builder().city("Pune").build()))
+                .build();
+    }
+}
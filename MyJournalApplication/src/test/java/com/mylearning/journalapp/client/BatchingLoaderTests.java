@@ -0,0 +1,62 @@
+package com.mylearning.journalapp.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class BatchingLoaderTests {
+
+    private final List<List<String>> receivedBatches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void keysLoadedInTheSameWindowGoOutAsOneDeduplicatedBatch() {
+        BatchingLoader<String, String> loader = loader(this::upperCase, 100);
+
+        List<String> values = Flux.just("a", "b", "a", "c")
+                .flatMapSequential(loader::load)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(List.of("A", "B", "A", "C"), values);
+        Assertions.assertEquals(List.of(List.of("a", "b", "c")), receivedBatches);
+        Assertions.assertEquals(1L, loader.getStats().get("deduplicated"));
+    }
+
+    @Test
+    void batchIsDispatchedEarlyAtMaxBatchSize() {
+        BatchingLoader<String, String> loader = loader(this::upperCase, 2);
+
+        Flux.just("a", "b", "c").flatMap(loader::load).collectList().block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(List.of("a", "b"), receivedBatches.get(0));
+        Assertions.assertEquals(List.of("c"), receivedBatches.get(1));
+    }
+
+    @Test
+    void missingKeyCompletesEmptyAndErrorReachesEveryCaller() {
+        BatchingLoader<String, String> missing = loader(keys -> Mono.just(Map.of()), 100);
+        Assertions.assertNull(missing.load("a").block(Duration.ofSeconds(5)));
+
+        BatchingLoader<String, String> failing = loader(keys -> Mono.error(new IllegalStateException("down")), 100);
+        Mono<List<String>> both = Flux.just("a", "b").flatMap(failing::load).collectList();
+        Assertions.assertThrows(IllegalStateException.class, () -> both.block(Duration.ofSeconds(5)));
+    }
+
+    private BatchingLoader<String, String> loader(Function<List<String>, Mono<Map<String, String>>> batchCall, int maxBatchSize) {
+        return new BatchingLoader<>("test", batchCall, maxBatchSize, Duration.ofMillis(20), Schedulers.parallel());
+    }
+
+    private Mono<Map<String, String>> upperCase(List<String> keys) {
+        receivedBatches.add(keys);
+        return Mono.just(keys.stream().collect(Collectors.toMap(Function.identity(), String::toUpperCase)));
+    }
+}
@@ -0,0 +1,135 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientexception.PersonCallingClientException;
+import com.mylearning.journalapp.clientexception.PersonCallingServerException;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchItem;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+class PersonWriteAggregatorTests {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<Person>> receivedBatches = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void fullBufferIsSentAsOneBatch() {
+        PersonWriteAggregator aggregator = aggregator(this::insertAll, 3, Duration.ofMinutes(1), 100);
+
+        List<CompletableFuture<ObjectId>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(aggregator.submit(person("p" + i)));
+        }
+
+        Assertions.assertEquals(1, receivedBatches.size());
+        Assertions.assertEquals(3, receivedBatches.get(0).size());
+        results.forEach(result -> Assertions.assertNotNull(result.join()));
+        Assertions.assertEquals(3, results.stream().map(CompletableFuture::join).distinct().count());
+    }
+
+    @Test
+    void partialBufferIsSentAfterMaxDelay() {
+        PersonWriteAggregator aggregator = aggregator(this::insertAll, 100, Duration.ofMillis(20), 100);
+
+        ObjectId personId = aggregator.create(person("late"));
+
+        Assertions.assertNotNull(personId);
+        Assertions.assertEquals(1, receivedBatches.size());
+    }
+
+    @Test
+    void eachCallerGetsItsOwnItemError() {
+        PersonWriteAggregator aggregator = aggregator(persons -> {
+            receivedBatches.add(persons);
+            return Mono.just(PersonBatchResponse.builder()
+                    .items(List.of(
+                            PersonBatchItem.builder().index(0).personId(new ObjectId()).build(),
+                            PersonBatchItem.builder().index(1).error("E11000 duplicate key").build()))
+                    .build());
+        }, 2, Duration.ofMinutes(1), 100);
+
+        CompletableFuture<ObjectId> first = aggregator.submit(person("ok"));
+        CompletableFuture<ObjectId> second = aggregator.submit(person("duplicate"));
+
+        Assertions.assertNotNull(first.join());
+        CompletionException error = Assertions.assertThrows(CompletionException.class, second::join);
+        Assertions.assertInstanceOf(PersonCallingClientException.class, error.getCause());
+        Assertions.assertEquals("E11000 duplicate key", error.getCause().getMessage());
+    }
+
+    @Test
+    void failedBatchCallFailsEveryPersonOfTheBatch() {
+        PersonWriteAggregator aggregator = aggregator(persons -> Mono.error(new PersonCallingServerException("down")),
+                2, Duration.ofMinutes(1), 100);
+
+        CompletableFuture<ObjectId> first = aggregator.submit(person("a"));
+        CompletableFuture<ObjectId> second = aggregator.submit(person("b"));
+
+        Assertions.assertTrue(first.isCompletedExceptionally());
+        Assertions.assertTrue(second.isCompletedExceptionally());
+        Assertions.assertEquals(1L, aggregator.getStats().get("failedBatches"));
+    }
+
+    @Test
+    void emptyBatchResponseFailsEveryPersonAndReleasesThePendingSlots() {
+        PersonWriteAggregator aggregator = aggregator(persons -> Mono.empty(), 2, Duration.ofMinutes(1), 100);
+
+        CompletableFuture<ObjectId> first = aggregator.submit(person("a"));
+        CompletableFuture<ObjectId> second = aggregator.submit(person("b"));
+
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, first::join);
+        Assertions.assertInstanceOf(PersonCallingServerException.class, failure.getCause());
+        Assertions.assertTrue(second.isCompletedExceptionally());
+        Assertions.assertEquals(1L, aggregator.getStats().get("failedBatches"));
+        Assertions.assertEquals(0, aggregator.getStats().get("pending"));
+    }
+
+    @Test
+    void submitFailsFastBeyondMaxPending() {
+        PersonWriteAggregator aggregator = aggregator(persons -> Mono.never(), 1, Duration.ofMinutes(1), 2);
+
+        aggregator.submit(person("a"));
+        aggregator.submit(person("b"));
+        CompletableFuture<ObjectId> rejected = aggregator.submit(person("c"));
+
+        Assertions.assertTrue(rejected.isCompletedExceptionally());
+        Assertions.assertEquals(1L, aggregator.getStats().get("rejected"));
+    }
+
+    private PersonWriteAggregator aggregator(Function<List<Person>, Mono<PersonBatchResponse>> batchCall,
+                                             int maxBatchSize, Duration maxDelay, int maxPending) {
+        return new PersonWriteAggregator(batchCall, maxBatchSize, maxDelay, maxPending, Duration.ofSeconds(5), scheduler);
+    }
+
+    private Mono<PersonBatchResponse> insertAll(List<Person> persons) {
+        receivedBatches.add(persons);
+        List<PersonBatchItem> items = new ArrayList<>();
+        for (int i = 0; i < persons.size(); i++) {
+            items.add(PersonBatchItem.builder().index(i).personId(new ObjectId()).build());
+        }
+        return Mono.just(PersonBatchResponse.builder().requested(persons.size()).inserted(persons.size()).items(items).build());
+    }
+
+    private static Person person(String firstName) {
+        return Person.builder().firstName(firstName).lastName("doe").age(30).build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.mylearning.journalapp.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RequestCoalescerTests {
+
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    @Test
+    void concurrentBlockingCallsWithSameKeyShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", "john", 30), () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "john-30";
+                })));
+            }
+            // wait until the three followers joined the leader before letting it finish
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (merged("personByNameAndAge") < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                Assertions.assertEquals("john-30", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals(3, merged("personByNameAndAge"));
+    }
+
+    @Test
+    void differentArgumentsAreNotMerged() {
+        Assertions.assertEquals("a", requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", "a", 1), () -> "a"));
+        Assertions.assertEquals("b", requestCoalescer.execute(RequestCoalescer.key("personByNameAndAge", "b", 1), () -> "b"));
+        Assertions.assertEquals(2L, requestCoalescer.getStats().get("personByNameAndAge").get("executions"));
+    }
+
+    @Test
+    void failureIsPropagatedAndKeyIsReleased() {
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> requestCoalescer.execute("populationByCity", () -> { throw new IllegalStateException("boom"); }));
+        Assertions.assertEquals("ok", requestCoalescer.execute("populationByCity", () -> "ok"));
+    }
+
+    @Test
+    void errorsAndCheckedExceptionsOfTheLeaderReleaseTheMergedCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> requestCoalescer.execute("oldestPersonByCity", () -> {
+                await(release);
+                throw new AssertionError("boom");
+            }));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (requestCoalescer.getStats().get("oldestPersonByCity") == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Future<String> follower = executor.submit(() -> requestCoalescer.execute("oldestPersonByCity", () -> "not called"));
+            while (merged("oldestPersonByCity") < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            ExecutionException leaderFailure = Assertions.assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException followerFailure = Assertions.assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(AssertionError.class, leaderFailure.getCause());
+            Assertions.assertInstanceOf(AssertionError.class, followerFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThrows(IOException.class, () -> requestCoalescer.execute("oldestPersonByCity", () -> RequestCoalescerTests.<String, RuntimeException>sneakyThrow()));
+        Assertions.assertEquals("ok", requestCoalescer.execute("oldestPersonByCity", () -> "ok"));
+    }
+
+    @Test
+    void monoSubscribersShareOneInFlightCall() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> first = requestCoalescer.executeMono("personById:1",
+                () -> response.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+        Mono<String> second = requestCoalescer.executeMono("personById:1",
+                () -> response.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+
+        List<String> received = new ArrayList<>();
+        first.subscribe(received::add);
+        second.subscribe(received::add);
+        response.tryEmitValue("person-1");
+
+        Assertions.assertEquals(List.of("person-1", "person-1"), received);
+        Assertions.assertEquals(1, subscriptions.get());
+        Assertions.assertEquals(1L, merged("personById"));
+        // completed, so the next call goes to the server again
+        Assertions.assertEquals("again", requestCoalescer.executeMono("personById:1", () -> Mono.just("again")).block());
+    }
+
+    @Test
+    void fluxSubscribersReceiveAllElements() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.Many<String> cities = Sinks.many().replay().all();
+        Flux<String> first = requestCoalescer.executeFlux("populationByCity",
+                () -> cities.asFlux().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+        Flux<String> second = requestCoalescer.executeFlux("populationByCity",
+                () -> cities.asFlux().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+
+        List<String> firstReceived = new ArrayList<>();
+        List<String> secondReceived = new ArrayList<>();
+        first.subscribe(firstReceived::add);
+        second.subscribe(secondReceived::add);
+        cities.tryEmitNext("Pune");
+        cities.tryEmitNext("Delhi");
+        cities.tryEmitComplete();
+
+        Assertions.assertEquals(List.of("Pune", "Delhi"), firstReceived);
+        Assertions.assertEquals(List.of("Pune", "Delhi"), secondReceived);
+        Assertions.assertEquals(1, subscriptions.get());
+    }
+
+    private long merged(String operation) {
+        var stats = requestCoalescer.getStats().get(operation);
+        return stats == null ? 0 : stats.get("merged");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, E extends Throwable> T sneakyThrow() throws E {
+        throw (E) new IOException("connection reset");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientconfig.PersonHedgingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The first attempt of every call is the slow one, the hedge delay is the 20ms initial delay.
+ */
+class RequestHedgerTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void slowMonoIsHedgedAndTheLoserCancelled() {
+        RequestHedger hedger = hedger(true, new PersonRetryBudget(0.1, 5));
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean slowCancelled = new AtomicBoolean();
+
+        String result = hedger.hedgeMono("personById", () -> attempts.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofSeconds(5)).thenReturn("slow").doOnCancel(() -> slowCancelled.set(true))
+                        : Mono.just("fast"))
+                .block(Duration.ofSeconds(2));
+
+        Assertions.assertEquals("fast", result);
+        Assertions.assertEquals(2, attempts.get());
+        Assertions.assertTrue(slowCancelled.get());
+        Assertions.assertEquals(1L, operationStats(hedger, "personById").get("hedgeWins"));
+    }
+
+    @Test
+    void fastMonoIsNotHedged() {
+        RequestHedger hedger = hedger(true, new PersonRetryBudget(0.1, 5));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.hedgeMono("personById", () -> {
+            attempts.incrementAndGet();
+            return Mono.just("fast");
+        }).block(Duration.ofSeconds(2));
+
+        Assertions.assertEquals("fast", result);
+        Assertions.assertEquals(1, attempts.get());
+        Assertions.assertEquals(0L, operationStats(hedger, "personById").get("hedged"));
+    }
+
+    @Test
+    void emptyBudgetMeansNoHedge() {
+        RequestHedger hedger = hedger(true, new PersonRetryBudget(0.0, 0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.hedgeMono("searchPerson", () -> {
+            attempts.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100)).thenReturn("only");
+        }).block(Duration.ofSeconds(2));
+
+        Assertions.assertEquals("only", result);
+        Assertions.assertEquals(1, attempts.get());
+        Assertions.assertEquals(1L, ((Map<?, ?>) hedger.getStats().get("budget")).get("exhausted"));
+    }
+
+    @Test
+    void blockingCallReturnsTheHedgeAndInterruptsTheLoser() throws Exception {
+        RequestHedger hedger = hedger(true, new PersonRetryBudget(0.1, 5));
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+
+        String result = hedger.hedge("personByNameAndAge", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException ex) {
+                    loserInterrupted.countDown();
+                }
+                return "slow";
+            }
+            return "fast";
+        });
+
+        Assertions.assertEquals("fast", result);
+        Assertions.assertTrue(loserInterrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void disabledHedgerCallsOnceOnTheCallerThread() {
+        RequestHedger hedger = hedger(false, new PersonRetryBudget(0.1, 5));
+        Thread caller = Thread.currentThread();
+
+        Assertions.assertEquals("value", hedger.hedge("personByNameAndAge", () -> {
+            Assertions.assertSame(caller, Thread.currentThread());
+            return "value";
+        }));
+    }
+
+    @Test
+    void budgetNeverAllowsMoreThanRatioPlusBurst() {
+        PersonRetryBudget budget = new PersonRetryBudget(0.1, 2);
+        int extra = 0;
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+            if (budget.tryWithdraw()) {
+                extra++;
+            }
+        }
+
+        Assertions.assertTrue(extra <= 12, "extra calls " + extra);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> operationStats(RequestHedger hedger, String operation) {
+        return ((Map<String, Map<String, Object>>) hedger.getStats().get("operations")).get(operation);
+    }
+
+    private RequestHedger hedger(boolean enabled, PersonRetryBudget budget) {
+        PersonHedgingProperties properties = new PersonHedgingProperties();
+        properties.setEnabled(enabled);
+        properties.setInitialDelayMillis(20);
+        return new RequestHedger(properties, budget, executor);
+    }
+}
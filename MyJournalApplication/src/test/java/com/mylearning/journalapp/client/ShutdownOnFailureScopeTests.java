@@ -0,0 +1,93 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientexception.PersonNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class ShutdownOnFailureScopeTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void forkedCallsCostTheSlowestNotTheSum() throws Exception {
+        long start = System.nanoTime();
+        try (ShutdownOnFailureScope scope = new ShutdownOnFailureScope(executor)) {
+            ShutdownOnFailureScope.Subtask<String> first = scope.fork(() -> sleepThen(200, "first"));
+            ShutdownOnFailureScope.Subtask<String> second = scope.fork(() -> sleepThen(200, "second"));
+            ShutdownOnFailureScope.Subtask<String> third = scope.fork(() -> sleepThen(200, "third"));
+
+            scope.joinUntil(Instant.now().plusSeconds(5));
+            scope.throwIfFailed();
+
+            Assertions.assertEquals("first", first.get());
+            Assertions.assertEquals("second", second.get());
+            Assertions.assertEquals("third", third.get());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.assertTrue(elapsedMillis < 550, "elapsed " + elapsedMillis);
+    }
+
+    @Test
+    void firstFailureCancelsTheSiblingsAndIsRethrown() throws Exception {
+        CountDownLatch siblingInterrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (ShutdownOnFailureScope scope = new ShutdownOnFailureScope(executor)) {
+            scope.fork(() -> {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException ex) {
+                    siblingInterrupted.countDown();
+                }
+                return "slow";
+            });
+            scope.fork(() -> {
+                Thread.sleep(50);
+                throw new PersonNotFoundException("no john");
+            });
+
+            scope.joinUntil(Instant.now().plusSeconds(10));
+            PersonNotFoundException thrown = Assertions.assertThrows(PersonNotFoundException.class, scope::throwIfFailed);
+            Assertions.assertEquals("no john", thrown.getMessage());
+        }
+        Assertions.assertTrue(siblingInterrupted.await(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+    }
+
+    @Test
+    void deadlineCancelsEverythingStillRunning() {
+        CountDownLatch interrupted = new CountDownLatch(2);
+        try (ShutdownOnFailureScope scope = new ShutdownOnFailureScope(executor)) {
+            for (int i = 0; i < 2; i++) {
+                scope.fork(() -> {
+                    try {
+                        Thread.sleep(5_000);
+                    } catch (InterruptedException ex) {
+                        interrupted.countDown();
+                    }
+                    return "late";
+                });
+            }
+
+            Assertions.assertThrows(TimeoutException.class, () -> scope.joinUntil(Instant.now().plusMillis(100)));
+        }
+        Assertions.assertDoesNotThrow(() -> Assertions.assertTrue(interrupted.await(1, TimeUnit.SECONDS)));
+    }
+
+    private static String sleepThen(long millis, String value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mylearning.journalapp.client;
+
+import com.mylearning.journalapp.clientresponse.Person;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The NDJSON body is fed chunk by chunk, chunks deliberately cut in the middle of a line.
+ */
+class WebClientPersonStreamTests {
+
+    private final Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicReference<ClientRequest> sentRequest = new AtomicReference<>();
+
+    @Test
+    void personsAreEmittedAsTheirLinesArrive() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:8081/api/person")
+                .exchangeFunction(request -> {
+                    sentRequest.set(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                            .body(body.asFlux())
+                            .build());
+                })
+                .build();
+        WebClientCodeBufferPersonClient client = new WebClientCodeBufferPersonClient(webClient, null, null, null, null, false, 100, 2, 16);
+
+        List<Person> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        client.streamAllPersons().subscribe(received::add, error -> Assertions.fail(error), () -> completed.set(true));
+
+        emit("{\"firstName\":\"john\",\"age\":30}\n{\"firstName\":\"ja");
+        Assertions.assertEquals(1, received.size());
+        Assertions.assertEquals("john", received.get(0).getFirstName());
+
+        emit("ne\",\"age\":25}\n");
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertEquals("jane", received.get(1).getFirstName());
+        Assertions.assertFalse(completed.get());
+
+        body.tryEmitComplete();
+        Assertions.assertTrue(completed.get());
+        Assertions.assertEquals(List.of(MediaType.APPLICATION_NDJSON), sentRequest.get().headers().getAccept());
+    }
+
+    private void emit(String chunk) {
+        body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.clientexception.PersonConcurrencyLimitExceededException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RTTs come from a manual nano clock, every "round" uses the whole limit so the samples are not app-limited.
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void limitGrowsWhileRttStaysAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 50, 0, 0);
+
+        for (int i = 0; i < 20; i++) {
+            round(limiter, 1);
+        }
+
+        Assertions.assertEquals(50, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void limitShrinksWhenRttShowsQueueing() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40, 4, 40, 0, 0);
+        round(limiter, 1);
+        Assertions.assertEquals(40, limiter.getLimit());
+
+        // ten times the no-load RTT: most of our calls are waiting inside CodeBuffer
+        for (int i = 0; i < 10; i++) {
+            round(limiter, 10);
+        }
+
+        Assertions.assertTrue(limiter.getLimit() < 40, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void droppedCallBacksOffMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 40, 0, 0);
+
+        limiter.acquire().dropped();
+
+        Assertions.assertEquals(18, limiter.getLimit());
+        Assertions.assertEquals(1L, limiter.getStats().get("dropped"));
+    }
+
+    @Test
+    void failsFastWhenLimitReachedAndNoQueue() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10, 0, 0);
+        limiter.acquire();
+        limiter.acquire();
+
+        Assertions.assertThrows(PersonConcurrencyLimitExceededException.class, limiter::acquire);
+        Assertions.assertEquals(1L, limiter.getRejected());
+        Assertions.assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedCallerGetsThePermitOfTheFinishedCall() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 1, 5_000);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquireMono().toFuture();
+        Assertions.assertFalse(queued.isDone());
+        Assertions.assertEquals(1, limiter.getStats().get("waiting"));
+
+        first.success();
+        first.ignore(); // second release is a no-op
+
+        Assertions.assertNotNull(queued.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertEquals(0, limiter.getStats().get("waiting"));
+    }
+
+    @Test
+    void queuedCallerIsRejectedAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 1, 20);
+        limiter.acquire();
+
+        Assertions.assertThrows(PersonConcurrencyLimitExceededException.class, limiter::acquire);
+        Assertions.assertEquals(0, limiter.getStats().get("waiting"));
+        Assertions.assertEquals(1L, limiter.getRejected());
+    }
+
+    private void round(AdaptiveConcurrencyLimiter limiter, long rttMillis) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = limiter.getLimit(); i > 0; i--) {
+            permits.add(limiter.acquire());
+        }
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max, int maxQueueSize, long maxQueueWaitMillis) {
+        PersonConcurrencyLimitProperties properties = new PersonConcurrencyLimitProperties();
+        properties.setInitialLimit(initial);
+        properties.setMinLimit(min);
+        properties.setMaxLimit(max);
+        properties.setMaxQueueSize(maxQueueSize);
+        properties.setMaxQueueWaitMillis(maxQueueWaitMillis);
+        return new AdaptiveConcurrencyLimiter(properties, nanos::get);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientexception.PersonAuthenticationException;
+import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
+import com.mylearning.journalapp.clientresponse.LoginDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class JwtTokenManagerTests {
+
+    private static final Instant NOW = Instant.parse("2024-10-01T10:00:00Z");
+    private static final LoginDto LOGIN_DTO = new LoginDto("john", "secret");
+
+    @Test
+    void concurrentCallersShareOneInFlightLogin() {
+        AtomicInteger logins = new AtomicInteger();
+        Sinks.One<JWTAuthResponse> pendingLogin = Sinks.one();
+        JwtTokenManager manager = manager(loginDto -> {
+            logins.incrementAndGet();
+            return pendingLogin.asMono();
+        }, NOW);
+        manager.login(LOGIN_DTO).subscribe();
+
+        Mono<String> first = manager.getBearerToken();
+        Mono<String> second = manager.getBearerToken();
+        pendingLogin.tryEmitValue(response(NOW.plusSeconds(600)));
+
+        String expected = "Bearer " + token(NOW.plusSeconds(600));
+        Assertions.assertEquals(expected, first.block(Duration.ofSeconds(1)));
+        Assertions.assertEquals(expected, second.block(Duration.ofSeconds(1)));
+        Assertions.assertEquals(1, logins.get());
+    }
+
+    @Test
+    void freshTokenIsServedFromMemory() {
+        AtomicInteger logins = new AtomicInteger();
+        JwtTokenManager manager = manager(loginDto -> {
+            logins.incrementAndGet();
+            return Mono.just(response(NOW.plusSeconds(600)));
+        }, NOW);
+        manager.login(LOGIN_DTO).block();
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals("Bearer " + token(NOW.plusSeconds(600)), manager.getJwtAccessToken());
+        }
+        Assertions.assertEquals(1, logins.get());
+    }
+
+    @Test
+    void tokenCloseToExpiryIsRefreshedBeforeItExpires() {
+        AtomicInteger logins = new AtomicInteger();
+        // first token expires in 20s, inside the 30s skew window, so the next access refreshes it
+        JwtTokenManager manager = manager(loginDto -> {
+            int call = logins.incrementAndGet();
+            return Mono.just(response(NOW.plusSeconds(call == 1 ? 20 : 600)));
+        }, NOW);
+        manager.login(LOGIN_DTO).block();
+
+        String stillValid = manager.getBearerToken().block();
+        Assertions.assertEquals("Bearer " + token(NOW.plusSeconds(20)), stillValid);
+        Assertions.assertEquals(2, logins.get());
+        Assertions.assertEquals("Bearer " + token(NOW.plusSeconds(600)), manager.getJwtAccessToken());
+    }
+
+    @Test
+    void failedRefreshIsRetriedOnNextCall() {
+        AtomicInteger logins = new AtomicInteger();
+        JwtTokenManager manager = manager(loginDto -> logins.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("login endpoint down"))
+                : Mono.just(response(NOW.plusSeconds(600))), NOW);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> manager.login(LOGIN_DTO).block());
+        Assertions.assertEquals("Bearer " + token(NOW.plusSeconds(600)), manager.getJwtAccessToken());
+        Assertions.assertEquals(2, logins.get());
+    }
+
+    @Test
+    void noCredentialsFailsWithAuthenticationException() {
+        JwtTokenManager manager = manager(loginDto -> Mono.just(response(NOW.plusSeconds(600))), NOW);
+        Assertions.assertThrows(PersonAuthenticationException.class, () -> manager.getBearerToken().block());
+    }
+
+    private static JwtTokenManager manager(java.util.function.Function<LoginDto, Mono<JWTAuthResponse>> requester, Instant now) {
+        return new JwtTokenManager(requester, new ObjectMapper(), Clock.fixed(now, ZoneOffset.UTC),
+                Duration.ofSeconds(30), Duration.ofSeconds(300), Duration.ofSeconds(5));
+    }
+
+    private static JWTAuthResponse response(Instant expiresAt) {
+        return new JWTAuthResponse(token(expiresAt), "Bearer");
+    }
+
+    private static String token(Instant expiresAt) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"john\",\"exp\":" + expiresAt.getEpochSecond() + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".signature";
+    }
+}
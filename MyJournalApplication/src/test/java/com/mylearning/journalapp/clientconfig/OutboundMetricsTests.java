@@ -0,0 +1,114 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.simulator.PersonApiSimulator;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.TreeMap;
+
+class OutboundMetricsTests {
+
+    private final PersonApiSimulator simulator = PersonApiSimulator.builder().requireBearerToken(false).start();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PersonOutboundMetricsProperties properties = new PersonOutboundMetricsProperties();
+    private final OutboundMetrics outboundMetrics = new OutboundMetrics(registry, properties,
+            new ReactivePoolMetricsRegistrar(registry),
+            new DefaultListableBeanFactory().getBeanProvider(PoolingHttpClientConnectionManager.class));
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void callIsSplitInTimeToFirstByteAndDecode() {
+        Person person = restClient(simulator.getBaseUrl()).get()
+                .uri("/api/person/{name}/{age}", "jane", 25)
+                .retrieve()
+                .body(Person.class);
+
+        Assertions.assertEquals("jane", person.getFirstName());
+        String route = "GET /api/person/{name}/{age}";
+        Assertions.assertEquals(1, timer(OutboundMetrics.TIME_TO_FIRST_BYTE, route).count());
+        Assertions.assertEquals(1, timer(OutboundMetrics.DECODE, route).count());
+        Timer requests = registry.get(OutboundMetrics.REQUESTS)
+                .tags("stack", "rest-client", "route", route, "status", "200", "outcome", "SUCCESS").timer();
+        Assertions.assertEquals(1, requests.count());
+        Assertions.assertEquals(0, registry.get(OutboundMetrics.IN_FLIGHT).tags("route", route).gauge().value());
+    }
+
+    @Test
+    void connectionFailureIsRecordedAsIoError() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        RestClient restClient = restClient("http://localhost:" + closedPort);
+
+        Assertions.assertThrows(ResourceAccessException.class, () -> restClient.get()
+                .uri("/api/person/oldestPerson")
+                .retrieve()
+                .body(String.class));
+
+        Timer requests = registry.get(OutboundMetrics.REQUESTS)
+                .tags("route", "GET /api/person/oldestPerson", "status", "IO_ERROR", "outcome", "ERROR").timer();
+        Assertions.assertEquals(1, requests.count());
+        Assertions.assertTrue(registry.find(OutboundMetrics.TIME_TO_FIRST_BYTE).timers().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshotGroupsTheTimersPerRoute() {
+        restClient(simulator.getBaseUrl()).get().uri("/api/person/oldestPerson").retrieve().body(String.class);
+        outboundMetrics.recordToken("blocking", 1_000_000);
+
+        Map<String, Object> snapshot = outboundMetrics.snapshot();
+
+        Map<String, Object> routes = (Map<String, Object>) snapshot.get("routes");
+        Map<String, Object> route = (Map<String, Object>) routes.get("rest-client GET /api/person/oldestPerson");
+        Assertions.assertEquals(Map.of("200", 1L), countsOf((Map<String, Object>) route.get("status")));
+        Assertions.assertEquals(0, route.get("inFlight"));
+        Map<String, Object> ttfb = (Map<String, Object>) route.get("timeToFirstByte");
+        Assertions.assertTrue(ttfb.containsKey("p99"));
+        Assertions.assertTrue(ttfb.containsKey("p99.9"));
+        Assertions.assertEquals(1L, ((Map<String, Object>) ((Map<String, Object>) snapshot.get("token")).get("blocking")).get("count"));
+    }
+
+    @Test
+    void disabledRecordsNothing() {
+        properties.setEnabled(false);
+
+        restClient(simulator.getBaseUrl()).get().uri("/api/person/oldestPerson").retrieve().body(String.class);
+
+        Assertions.assertTrue(registry.find(OutboundMetrics.REQUESTS).timers().isEmpty());
+        Assertions.assertTrue(registry.find(OutboundMetrics.IN_FLIGHT).gauges().isEmpty());
+    }
+
+    private RestClient restClient(String baseUrl) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestInterceptor(new OutboundMetricsInterceptor(outboundMetrics, "rest-client"))
+                .build();
+    }
+
+    private Timer timer(String name, String route) {
+        return registry.get(name).tags("stack", "rest-client", "route", route).timer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> countsOf(Map<String, Object> statuses) {
+        Map<String, Long> counts = new TreeMap<>();
+        statuses.forEach((status, stats) -> counts.put(status, (Long) ((Map<String, Object>) stats).get("count")));
+        return counts;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.MutableClock;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Window of 10 calls, opens at 50% failures or 80% slow calls, 2 half-open probes, 1s open wait.
+ */
+class PersonCircuitBreakerTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(3_000);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-10-01T10:00:00Z"));
+    private final List<PersonCircuitBreaker.Transition> transitions = new ArrayList<>();
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        PersonCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(breaker.tryAcquire(), FAST, true);
+        }
+
+        Assertions.assertEquals(PersonCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensOnFailureRateAndRejectsWithoutCalling() {
+        PersonCircuitBreaker breaker = breaker();
+        record(breaker, 5, FAST, false);
+        record(breaker, 5, FAST, true);
+
+        Assertions.assertEquals(PersonCircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertEquals(PersonCircuitBreaker.REJECTED, breaker.tryAcquire());
+        Assertions.assertEquals(1L, breaker.getRejected());
+        Assertions.assertEquals(1, transitions.size());
+        Assertions.assertEquals(50.0, transitions.get(0).failureRate());
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        PersonCircuitBreaker breaker = breaker();
+        record(breaker, 2, FAST, false);
+        record(breaker, 8, SLOW, false);
+
+        Assertions.assertEquals(PersonCircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertEquals(80.0, transitions.get(0).slowCallRate());
+    }
+
+    @Test
+    void halfOpenProbesCloseTheBreaker() {
+        PersonCircuitBreaker breaker = openBreaker();
+        clock.advance(Duration.ofSeconds(1));
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        Assertions.assertEquals(PersonCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // only two probes
+        Assertions.assertEquals(PersonCircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.onResult(first, FAST, false);
+        breaker.onResult(second, FAST, false);
+
+        Assertions.assertEquals(PersonCircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertEquals(List.of(PersonCircuitBreaker.State.OPEN, PersonCircuitBreaker.State.HALF_OPEN,
+                PersonCircuitBreaker.State.CLOSED), transitions.stream().map(PersonCircuitBreaker.Transition::to).toList());
+    }
+
+    @Test
+    void failedProbeReopensAndStaleResultsAreIgnored() {
+        PersonCircuitBreaker breaker = breaker();
+        long startedWhileClosed = breaker.tryAcquire();
+        record(breaker, 10, FAST, true);
+        clock.advance(Duration.ofSeconds(1));
+
+        long probe = breaker.tryAcquire();
+        long otherProbe = breaker.tryAcquire();
+        // a call from the CLOSED period finishing now is not a probe
+        breaker.onResult(startedWhileClosed, FAST, false);
+        breaker.onResult(probe, FAST, true);
+        Assertions.assertEquals(PersonCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(otherProbe, FAST, false);
+
+        Assertions.assertEquals(PersonCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void ignoredProbeFreesItsSlot() {
+        PersonCircuitBreaker breaker = openBreaker();
+        clock.advance(Duration.ofSeconds(1));
+        long first = breaker.tryAcquire();
+        breaker.tryAcquire();
+
+        breaker.onIgnored(first);
+
+        Assertions.assertNotEquals(PersonCircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    private PersonCircuitBreaker openBreaker() {
+        PersonCircuitBreaker breaker = breaker();
+        record(breaker, 10, FAST, true);
+        Assertions.assertEquals(PersonCircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private static void record(PersonCircuitBreaker breaker, int count, long durationNanos, boolean failed) {
+        for (int i = 0; i < count; i++) {
+            breaker.onResult(breaker.tryAcquire(), durationNanos, failed);
+        }
+    }
+
+    private PersonCircuitBreaker breaker() {
+        PersonResilienceProperties.CircuitBreaker properties = new PersonResilienceProperties.CircuitBreaker();
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumCalls(5);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallRateThreshold(80);
+        properties.setSlowCallDurationMillis(2_000);
+        properties.setOpenWaitMillis(1_000);
+        properties.setHalfOpenCalls(2);
+        PersonCircuitBreaker breaker = new PersonCircuitBreaker(properties, clock);
+        breaker.addListener(transitions::add);
+        return breaker;
+    }
+}
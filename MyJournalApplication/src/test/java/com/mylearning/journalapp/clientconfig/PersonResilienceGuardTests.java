@@ -0,0 +1,69 @@
+package com.mylearning.journalapp.clientconfig;
+
+import com.mylearning.journalapp.clientexception.PersonBulkheadFullException;
+import com.mylearning.journalapp.clientexception.PersonCircuitOpenException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+class PersonResilienceGuardTests {
+
+    private static final URI BY_ID = URI.create("http://localhost:8081/api/person/66f1d1f1a1b2c3d4e5f60718");
+    private static final URI SEARCH = URI.create("http://localhost:8081/api/person/search?name=john");
+
+    @Test
+    void endpointKeysAreBoundedByTheCodeBufferRoutes() {
+        Assertions.assertEquals("GET /api/person/{name}/{age}",
+                PersonEndpoints.key("GET", URI.create("http://localhost:8081/api/person/john/30")));
+        Assertions.assertEquals("GET /api/person/{personId}", PersonEndpoints.key("GET", BY_ID));
+        Assertions.assertEquals("GET /api/person/search", PersonEndpoints.key("GET", SEARCH));
+        Assertions.assertEquals("POST /api/codebuffer/person/login",
+                PersonEndpoints.key("POST", URI.create("http://localhost:8081/api/codebuffer/person/login")));
+        Assertions.assertEquals("GET other", PersonEndpoints.key("GET", URI.create("http://localhost:8081/actuator/health")));
+    }
+
+    @Test
+    void fullBulkheadOnlyRejectsItsOwnEndpoint() {
+        PersonResilienceProperties properties = properties(false, 1);
+        PersonBulkheads bulkheads = new PersonBulkheads(properties);
+        PersonResilienceGuard guard = new PersonResilienceGuard(new PersonCircuitBreaker(properties), bulkheads);
+
+        PersonResilienceGuard.Call slowSearch = guard.begin("GET", SEARCH, false);
+
+        Assertions.assertThrows(PersonBulkheadFullException.class, () -> guard.begin("GET", SEARCH, false));
+        guard.begin("GET", BY_ID, false).complete(200);
+
+        slowSearch.complete(200);
+        slowSearch.abandoned(); // second finish is a no-op, must not over-release
+        guard.begin("GET", SEARCH, false);
+        Map<String, Object> searchStats = bulkheads.getStats().get("GET /api/person/search");
+        Assertions.assertEquals(1, searchStats.get("inFlight"));
+        Assertions.assertEquals(1L, searchStats.get("rejected"));
+    }
+
+    @Test
+    void openBreakerRejectsBeforeTheBulkhead() {
+        PersonResilienceProperties properties = properties(true, 5);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        properties.getCircuitBreaker().setSlidingWindowSize(2);
+        PersonCircuitBreaker breaker = new PersonCircuitBreaker(properties);
+        PersonBulkheads bulkheads = new PersonBulkheads(properties);
+        PersonResilienceGuard guard = new PersonResilienceGuard(breaker, bulkheads);
+
+        guard.begin("GET", BY_ID, true).complete(503);
+        guard.begin("GET", BY_ID, true).failed();
+
+        Assertions.assertThrows(PersonCircuitOpenException.class, () -> guard.begin("GET", BY_ID, true));
+        Assertions.assertEquals(0, bulkheads.getStats().get("GET /api/person/{personId}").get("inFlight"));
+        Assertions.assertEquals(0L, bulkheads.getStats().get("GET /api/person/{personId}").get("rejected"));
+    }
+
+    private static PersonResilienceProperties properties(boolean breakerEnabled, int maxConcurrentCalls) {
+        PersonResilienceProperties properties = new PersonResilienceProperties();
+        properties.getCircuitBreaker().setEnabled(breakerEnabled);
+        properties.getBulkhead().setMaxConcurrentCalls(maxConcurrentCalls);
+        return properties;
+    }
+}
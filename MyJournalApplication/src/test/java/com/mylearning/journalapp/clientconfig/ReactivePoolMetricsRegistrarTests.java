@@ -0,0 +1,51 @@
+package com.mylearning.journalapp.clientconfig;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Starts an in-process Reactor Netty server and checks that a named ConnectionProvider reports its pool gauges
+ * to our registrar without any Micrometer registry on the classpath.
+ */
+class ReactivePoolMetricsRegistrarTests {
+
+    @Test
+    void registersGaugesForNamedPool() {
+        DisposableServer server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/ping", (request, response) -> response.sendString(Mono.just("pong"))))
+                .bindNow();
+        ReactivePoolMetricsRegistrar registrar = new ReactivePoolMetricsRegistrar();
+        ConnectionProvider provider = ConnectionProvider.builder("person-webclient-test")
+                .maxConnections(4)
+                .metrics(true, () -> registrar)
+                .build();
+        try {
+            String body = HttpClient.create(provider)
+                    .get()
+                    .uri("http://localhost:" + server.port() + "/ping")
+                    .responseContent()
+                    .aggregate()
+                    .asString()
+                    .block(Duration.ofSeconds(5));
+
+            Assertions.assertEquals("pong", body);
+            Map<String, Map<String, Integer>> snapshot = registrar.snapshot();
+            Assertions.assertEquals(1, snapshot.size());
+            Map<String, Integer> gauges = snapshot.values().iterator().next();
+            Assertions.assertEquals(4, gauges.get("maxAllocated"));
+            Assertions.assertTrue(snapshot.keySet().iterator().next().startsWith("person-webclient-test"));
+        } finally {
+            provider.disposeLater().block(Duration.ofSeconds(5));
+            server.disposeNow();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.client.PersonRetryBudget;
+import com.mylearning.journalapp.client.RequestHedger;
+import com.mylearning.journalapp.clientconfig.PersonFeignProperties;
+import com.mylearning.journalapp.clientconfig.PersonHedgingProperties;
+import com.mylearning.journalapp.simulator.LatencyDistribution;
+import com.mylearning.journalapp.simulator.PersonApiSimulator;
+import com.mylearning.journalapp.simulator.SimulatedBehaviour;
+import feign.Feign;
+import feign.RetryableException;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+
+class BudgetedRetryerTests {
+
+    private final PersonApiSimulator simulator = PersonApiSimulator.builder().requireBearerToken(false).start();
+    // HttpClient's own retry of a reset GET would double every Feign attempt
+    private final CloseableHttpClient httpClient = HttpClients.custom().disableAutomaticRetries().build();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        simulator.close();
+    }
+
+    @Test
+    void retriesStopOnceTheBudgetIsSpent() {
+        // every connection is reset, so every attempt is a RetryableException
+        simulator.behaviour(SimulatedBehaviour.builder().resetRate(1).build());
+        PersonRetryBudget budget = budget(0.1, 2);
+        PersonFeignClientByNameAGe client = client(budget, 5);
+
+        Assertions.assertThrows(RetryableException.class, () -> client.getPersonByNameAndAgePathVariableExchange("jane", 25));
+        // the first call plus the two retries the bucket could pay for, although Retryer.Default allows 5 attempts
+        Assertions.assertEquals(3, simulator.getRequests().size());
+
+        simulator.clearRequests();
+        Assertions.assertThrows(RetryableException.class, () -> client.getPersonByNameAndAgePathVariableExchange("jane", 25));
+        Assertions.assertEquals(1, simulator.getRequests().size(), "an empty budget sends no retry at all");
+        Assertions.assertEquals(2L, budget.getStats().get("spent"));
+    }
+
+    @Test
+    void noTokenIsSpentWhenTheRetryerGivesUpOnItsOwn() {
+        simulator.behaviour(SimulatedBehaviour.builder().resetRate(1).build());
+        PersonRetryBudget budget = budget(0.1, 20);
+        PersonFeignClientByNameAGe client = client(budget, 2);
+
+        Assertions.assertThrows(RetryableException.class, () -> client.getPersonByNameAndAgePathVariableExchange("jane", 25));
+
+        Assertions.assertEquals(2, simulator.getRequests().size());
+        Assertions.assertEquals(1L, budget.getStats().get("spent"), "only the retry that was sent is paid");
+        Assertions.assertEquals(0L, budget.getStats().get("exhausted"));
+    }
+
+    @Test
+    void aHedgedCallDepositsOnceForAllItsAttemptsAndRetries() {
+        // every attempt fails after 50ms, the hedge is sent after 5ms
+        simulator.behaviour(SimulatedBehaviour.builder().latency(LatencyDistribution.fixed(Duration.ofMillis(50)))
+                .resetRate(1).build());
+        PersonHedgingProperties properties = new PersonHedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelayMillis(5);
+        properties.setBudgetRatio(1);
+        properties.setBudgetMaxTokens(1);
+        PersonRetryBudget budget = new PersonRetryBudget(properties);
+        RequestHedger hedger = new RequestHedger(properties, budget);
+        PersonFeignClientByNameAGe client = client(budget, 5);
+
+        try {
+            Assertions.assertThrows(RetryableException.class, () -> hedger.hedge("personByNameAndAge",
+                    () -> client.getPersonByNameAndAgePathVariableExchange("jane", 25)));
+        } finally {
+            hedger.shutdown();
+        }
+
+        // the hedge took the only token, none of the two attempts earned another one for a retry
+        Assertions.assertEquals(1L, budget.getStats().get("requests"));
+        Assertions.assertEquals(1L, budget.getStats().get("spent"));
+    }
+
+    @Test
+    void anEmptyBudgetFailsTheCallWithoutWaitingForTheBackoff() {
+        simulator.behaviour(SimulatedBehaviour.builder().resetRate(1).build());
+        PersonRetryBudget budget = budget(0, 0);
+        PersonFeignProperties feignProperties = new PersonFeignProperties();
+        feignProperties.setRetryPeriod(Duration.ofSeconds(5));
+        feignProperties.setRetryMaxPeriod(Duration.ofSeconds(5));
+        PersonFeignClientByNameAGe client = client(budget, feignProperties);
+
+        long start = System.nanoTime();
+        Assertions.assertThrows(RetryableException.class, () -> client.getPersonByNameAndAgePathVariableExchange("jane", 25));
+
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        Assertions.assertEquals(1L, budget.getStats().get("exhausted"));
+    }
+
+    private PersonFeignClientByNameAGe client(PersonRetryBudget budget, int maxAttempts) {
+        PersonFeignProperties feignProperties = new PersonFeignProperties();
+        feignProperties.setRetryMaxAttempts(maxAttempts);
+        feignProperties.setRetryPeriod(Duration.ofMillis(1));
+        feignProperties.setRetryMaxPeriod(Duration.ofMillis(1));
+        return client(budget, feignProperties);
+    }
+
+    private PersonFeignClientByNameAGe client(PersonRetryBudget budget, PersonFeignProperties feignProperties) {
+        PersonJacksonCodec codec = new PersonJacksonCodec(objectMapper);
+        // the Retryer bean FeignConfig registers for every Feign client
+        return Feign.builder()
+                .client(new ApacheHttp5Client(httpClient))
+                .encoder(codec)
+                .decoder(codec)
+                .retryer(new FeignConfig(null, null).feignRetryer(feignProperties, budget))
+                .target(PersonFeignClientByNameAGe.class, simulator.getPersonUrl());
+    }
+
+    private static PersonRetryBudget budget(double ratio, double maxTokens) {
+        PersonHedgingProperties properties = new PersonHedgingProperties();
+        properties.setBudgetRatio(ratio);
+        properties.setBudgetMaxTokens(maxTokens);
+        return new PersonRetryBudget(properties);
+    }
+}
@@ -0,0 +1,59 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import feign.Request;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+class FeignLogSamplerTests {
+
+    private final AtomicLong clockMillis = new AtomicLong(10_000);
+
+    @Test
+    void everyEndpointGetsAtMostMaxPerSecond() {
+        FeignLogSampler sampler = new FeignLogSampler(1.0, 2, () -> 0.0, clockMillis::get);
+
+        Assertions.assertTrue(sampler.sample(get("http://localhost:8081/api/person/john/30")));
+        Assertions.assertTrue(sampler.sample(get("http://localhost:8081/api/person/jane/25")));
+        Assertions.assertFalse(sampler.sample(get("http://localhost:8081/api/person/joe/40")));
+        // another endpoint has its own budget
+        Assertions.assertTrue(sampler.sample(get("http://localhost:8081/api/person/oldestPerson")));
+
+        clockMillis.addAndGet(1_000);
+        Assertions.assertTrue(sampler.sample(get("http://localhost:8081/api/person/joe/40")));
+    }
+
+    @Test
+    void onlyTheSampledFractionIsLogged() {
+        double[] draws = {0.005, 0.5, 0.009, 0.99};
+        int[] next = {0};
+        FeignLogSampler sampler = new FeignLogSampler(0.01, 100, () -> draws[next[0]++], clockMillis::get);
+
+        int logged = 0;
+        for (int i = 0; i < draws.length; i++) {
+            logged += sampler.sample("GET /api/person/{name}/{age}") ? 1 : 0;
+        }
+
+        Assertions.assertEquals(2, logged);
+    }
+
+    @Test
+    void zeroRateOrZeroBudgetLogsNothing() {
+        Assertions.assertFalse(new FeignLogSampler(0.0, 5, () -> 0.0, clockMillis::get).sample("GET other"));
+        Assertions.assertFalse(new FeignLogSampler(1.0, 0, () -> 0.0, clockMillis::get).sample("GET other"));
+    }
+
+    @Test
+    void endpointIsTheBoundedRouteKey() {
+        Assertions.assertEquals("GET /api/person/{name}/{age}",
+                FeignLogSampler.endpoint(get("http://localhost:8081/api/person/john/30")));
+        Assertions.assertEquals("GET other", FeignLogSampler.endpoint(get("not a uri")));
+    }
+
+    private static Request get(String url) {
+        return Request.create(Request.HttpMethod.GET, url, Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+}
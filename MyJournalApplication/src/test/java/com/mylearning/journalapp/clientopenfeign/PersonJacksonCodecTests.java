@@ -0,0 +1,64 @@
+package com.mylearning.journalapp.clientopenfeign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.simulator.PersonApiSimulator;
+import feign.Feign;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+class PersonJacksonCodecTests {
+
+    private final PersonApiSimulator simulator = PersonApiSimulator.builder().requireBearerToken(false).start();
+    private final CloseableHttpClient httpClient = HttpClients.createDefault();
+    // configured like Boot's ObjectMapper, unknown properties are ignored
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        simulator.close();
+    }
+
+    @Test
+    void personIsDecodedOnThePooledClient() {
+        PersonJacksonCodec codec = new PersonJacksonCodec(objectMapper);
+        PersonFeignClientByNameAGe client = Feign.builder()
+                .client(new ApacheHttp5Client(httpClient))
+                .encoder(codec)
+                .decoder(codec)
+                .target(PersonFeignClientByNameAGe.class, simulator.getPersonUrl());
+
+        Person first = client.getPersonByNameAndAgePathVariableExchange("jane", 25);
+        Person second = client.getPersonByNameAndAgePathVariableExchange("john", 30);
+
+        Assertions.assertEquals("jane", first.getFirstName());
+        Assertions.assertEquals(25, first.getAge());
+        Assertions.assertNotNull(first.getPersonId());
+        Assertions.assertEquals("john", second.getFirstName());
+        Assertions.assertEquals(2, simulator.getRequests().size());
+    }
+
+    @Test
+    void notFoundDecodesToEmptyValue() throws IOException {
+        PersonJacksonCodec codec = new PersonJacksonCodec(objectMapper);
+        Response notFound = Response.builder()
+                .status(404)
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost/api/person/x/1",
+                        Map.of(), null, StandardCharsets.UTF_8, null))
+                .build();
+
+        Assertions.assertNull(codec.decode(notFound, Person.class));
+    }
+}
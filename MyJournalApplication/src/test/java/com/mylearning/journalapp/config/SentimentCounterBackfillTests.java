@@ -0,0 +1,99 @@
+package com.mylearning.journalapp.config;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.UserSentimentDay;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SentimentCounterBackfillTests {
+
+    private static final Date CUTOFF = new Date(1727773200000L);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private IndexOperations indexOperations;
+
+    @Test
+    void completedBackfillIsNotRunAgain() {
+        marker(new Document("_id", SentimentCounterBackfill.MARKER_ID).append("cutoff", CUTOFF).append("completedAt", new Date()));
+
+        new SentimentCounterBackfill(mongoTemplate).run(null);
+
+        verify(mongoTemplate, never()).getCollection(any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), any(String.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void entriesBeforeTheCutoffOfTheMarkerAreMergedAndTheMarkerIsCompleted() {
+        marker(new Document("_id", SentimentCounterBackfill.MARKER_ID).append("cutoff", CUTOFF));
+        MongoCollection<Document> journalEntries = mock(MongoCollection.class);
+        AggregateIterable<Document> aggregate = mock(AggregateIterable.class);
+        when(mongoTemplate.getCollectionName(UserSentimentDay.class)).thenReturn("user_sentiment_days");
+        when(mongoTemplate.getCollectionName(JournalEntry.class)).thenReturn("journal_entries");
+        when(mongoTemplate.getCollection("journal_entries")).thenReturn(journalEntries);
+        when(journalEntries.aggregate(anyList())).thenReturn(aggregate);
+        when(aggregate.allowDiskUse(true)).thenReturn(aggregate);
+
+        new SentimentCounterBackfill(mongoTemplate).run(null);
+
+        ArgumentCaptor<List<Document>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(journalEntries).aggregate(pipeline.capture());
+        Assertions.assertEquals(new Document("$lt", CUTOFF),
+                pipeline.getValue().get(0).get("$match", Document.class).get("createdOn"));
+        verify(aggregate).toCollection();
+        ArgumentCaptor<UpdateDefinition> completed = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), completed.capture(), eq(SentimentCounterBackfill.MIGRATIONS));
+        Assertions.assertTrue(completed.getValue().getUpdateObject().containsKey("$currentDate"));
+    }
+
+    @Test
+    void mergeAddsTheCountsOnceAndKeepsTheLiveOnes() {
+        Document merge = SentimentCounterBackfill.pipeline("user_sentiment_days", CUTOFF, ZoneId.of("UTC")).get(4)
+                .get("$merge", Document.class);
+
+        Document replaceWith = merge.getList("whenMatched", Document.class).get(0).get("$replaceWith", Document.class);
+        List<?> cond = replaceWith.getList("$cond", Object.class);
+        // a document already tagged with this cutoff was merged by an earlier, interrupted run
+        Assertions.assertEquals(new Document("$eq", List.of("$backfilledUpTo", "$$new.backfilledUpTo")), cond.get(0));
+        Assertions.assertEquals("$$ROOT", cond.get(1));
+        Document counts = (Document) ((Document) ((Document) cond.get(2)).getList("$mergeObjects", Object.class).get(1)).get("counts");
+        Assertions.assertEquals(new Document("$add", List.of(
+                        new Document("$ifNull", List.of("$counts.HAPPY", 0L)),
+                        new Document("$ifNull", List.of("$$new.counts.HAPPY", 0L)))),
+                counts.get("HAPPY"));
+        Assertions.assertEquals("insert", merge.getString("whenNotMatched"));
+    }
+
+    private void marker(Document marker) {
+        when(mongoTemplate.indexOps(UserSentimentDay.class)).thenReturn(indexOperations);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(SentimentCounterBackfill.MIGRATIONS))).thenReturn(marker);
+    }
+}
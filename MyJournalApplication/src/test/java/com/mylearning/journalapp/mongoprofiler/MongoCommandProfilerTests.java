@@ -0,0 +1,140 @@
+package com.mylearning.journalapp.mongoprofiler;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class MongoCommandProfilerTests {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+    private static final String COLLSCAN_EXPLAIN = """
+            {"queryPlanner": {"winningPlan": {"stage": "SORT", "inputStage": {"stage": "COLLSCAN"}}},
+             "executionStats": {"nReturned": 3, "executionTimeMillis": 140, "totalKeysExamined": 0,
+                                "totalDocsExamined": 50000}}
+            """;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MongoProfilerProperties properties = new MongoProfilerProperties();
+    private final List<BsonDocument> explained = new ArrayList<>();
+    private final MongoCommandProfiler profiler = new MongoCommandProfiler(registry, properties,
+            (database, explainCommand) -> {
+                explained.add(explainCommand);
+                return BsonDocument.parse(COLLSCAN_EXPLAIN);
+            }, Runnable::run);
+    private int requestId;
+
+    @Test
+    void shapeKeepsTheStructureAndDropsTheValues() {
+        BsonDocument find = BsonDocument.parse("""
+                {"find": "journal_entries", "filter": {"title": {"$regex": "^Day"}, "owner": {"$in": [1, 2, 3]},
+                 "$or": [{"sentiment": "HAPPY"}, {"sentiment": "SAD"}, {"content": "gym"}]},
+                 "sort": {"createdOn": -1}, "$db": "journaldb"}
+                """);
+
+        String shape = CommandShape.of("find", "journal_entries", find, 256);
+
+        Assertions.assertEquals("find journal_entries filter{title:{$regex:?},owner:{$in:[?]},$or:[{sentiment:?},{content:?}]}"
+                + " sort{createdOn:?}", shape);
+        Assertions.assertEquals("aggregate journal_entries pipeline[$match{createdOn:{$gte:?}},$group,$sort{count:?}]",
+                CommandShape.of("aggregate", "journal_entries", BsonDocument.parse("""
+                        {"aggregate": "journal_entries", "pipeline": [{"$match": {"createdOn": {"$gte": 20}}},
+                         {"$group": {"_id": "$sentiment", "count": {"$sum": 1}}}, {"$sort": {"count": -1}}]}
+                        """), 256));
+    }
+
+    @Test
+    void slowReadIsExplainedWithoutSessionFieldsAndReportedWithItsCaller() {
+        properties.setSlowThreshold(Duration.ofMillis(100));
+
+        execute("find", """
+                {"find": "journal_entries", "filter": {"owner": {"$eq": 7}}, "$db": "journaldb",
+                 "lsid": {"id": "x"}, "txnNumber": 1, "$clusterTime": {"clusterTime": 1}}
+                """, 150);
+
+        Assertions.assertEquals(1, explained.size());
+        BsonDocument explainCommand = explained.get(0);
+        Assertions.assertEquals("executionStats", explainCommand.getString("verbosity").getValue());
+        Assertions.assertEquals(BsonDocument.parse("{\"find\": \"journal_entries\", \"filter\": {\"owner\": {\"$eq\": 7}}}"),
+                explainCommand.getDocument("explain"));
+
+        Map<String, Object> shape = shapes().get(0);
+        Assertions.assertEquals("find journal_entries filter{owner:{$eq:?}}", shape.get("shape"));
+        ExplainSummary explain = (ExplainSummary) shape.get("explain");
+        Assertions.assertEquals("SORT <- COLLSCAN", explain.plan());
+        Assertions.assertTrue(explain.collectionScan());
+        Assertions.assertEquals(50000, explain.docsExamined());
+        Assertions.assertTrue(((String) shape.get("caller")).startsWith("MongoCommandProfilerTests.execute:"),
+                (String) shape.get("caller"));
+        Assertions.assertEquals(1, registry.get(MongoCommandProfiler.SLOW).tags("collection", "journal_entries").counter().count());
+    }
+
+    @Test
+    void shapeSlowOnALaterExecutionIsExplainedOnTheNextOneOnlyOncePerCooldown() {
+        String find = "{\"find\": \"users\", \"filter\": {\"userName\": \"%s\"}}";
+
+        execute("find", find.formatted("a"), 5);   // first execution, fast: copied but not explained
+        execute("find", find.formatted("b"), 300); // slow, no copy of the command: explain wanted
+        Assertions.assertTrue(explained.isEmpty());
+        execute("find", find.formatted("c"), 5);   // explained, fast or not
+        execute("find", find.formatted("d"), 300); // within the cooldown
+        execute("find", find.formatted("e"), 5);
+
+        Assertions.assertEquals(1, explained.size());
+        Assertions.assertEquals("c", explained.get(0).getDocument("explain").getDocument("filter")
+                .getString("userName").getValue());
+        Assertions.assertEquals(5L, shapes().get(0).get("count"));
+    }
+
+    @Test
+    void writesAndOwnCommandsAreNotExplained() {
+        execute("insert", "{\"insert\": \"journal_entries\", \"ordered\": true}", 500);
+        execute("explain", "{\"explain\": {\"find\": \"journal_entries\"}, \"verbosity\": \"executionStats\"}", 500);
+        execute("hello", "{\"hello\": 1}", 500);
+
+        Assertions.assertTrue(explained.isEmpty());
+        Assertions.assertEquals(1, shapes().size());
+        Assertions.assertEquals(1, registry.get(MongoCommandProfiler.COMMANDS)
+                .tags("collection", "journal_entries", "command", "insert", "status", "ok").timer().count());
+    }
+
+    @Test
+    void shapesPastTheLimitShareOneEntry() {
+        properties.setMaxShapes(2);
+
+        execute("find", "{\"find\": \"users\", \"filter\": {\"userName\": 1}}", 1);
+        execute("find", "{\"find\": \"users\", \"filter\": {\"email\": 1}}", 1);
+        execute("find", "{\"find\": \"users\", \"filter\": {\"roles\": 1}}", 1);
+        execute("find", "{\"find\": \"users\", \"filter\": {\"sentimentAnalysis\": 1}}", 1);
+
+        Assertions.assertEquals(3, shapes().size());
+        Assertions.assertTrue(shapes().stream().anyMatch(shape -> "find users (other)".equals(shape.get("shape"))
+                && Long.valueOf(2).equals(shape.get("count"))));
+    }
+
+    private void execute(String commandName, String command, long millis) {
+        int id = ++requestId;
+        profiler.commandStarted(new CommandStartedEvent(null, id, id, CONNECTION, "journaldb", commandName,
+                BsonDocument.parse(command)));
+        profiler.commandSucceeded(new CommandSucceededEvent(null, id, id, CONNECTION, "journaldb", commandName,
+                BsonDocument.parse("{\"ok\": 1}"), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> shapes() {
+        return (List<Map<String, Object>>) profiler.snapshot().get("shapes");
+    }
+}
@@ -0,0 +1,44 @@
+package com.mylearning.journalapp.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-process stand-in for the scheduler_leases collection: the same take-if-free-expired-or-mine rule as
+ * MongoLeaseStore's upsert, one lock instead of the unique _id index.
+ */
+public class InMemoryLeaseStore implements LeaseStore {
+
+    private final Map<String, Lease> leases = new TreeMap<>();
+
+    @Override
+    public synchronized boolean tryAcquire(String name, String holder, Instant now, Duration ttl) {
+        Lease lease = leases.get(name);
+        if (lease != null && !lease.holder().equals(holder) && lease.expiresAt().isAfter(now)) {
+            return false;
+        }
+        leases.put(name, new Lease(holder, now.plus(ttl)));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String name, String holder) {
+        leases.computeIfPresent(name, (key, lease) -> lease.holder().equals(holder) ? null : lease);
+    }
+
+    @Override
+    public synchronized Map<String, String> activeLeases(String prefix, Instant now) {
+        Map<String, String> active = new TreeMap<>();
+        leases.forEach((name, lease) -> {
+            if (name.startsWith(prefix) && lease.expiresAt().isAfter(now)) {
+                active.put(name, lease.holder());
+            }
+        });
+        return active;
+    }
+
+    private record Lease(String holder, Instant expiresAt) {
+    }
+}
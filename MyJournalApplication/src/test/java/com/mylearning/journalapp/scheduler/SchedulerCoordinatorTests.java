@@ -0,0 +1,156 @@
+package com.mylearning.journalapp.scheduler;
+
+import com.mylearning.journalapp.MutableClock;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoExpression;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Three coordinators on one InMemoryLeaseStore act as three journal nodes, the shared clock is moved by hand
+ * to let leases expire.
+ */
+class SchedulerCoordinatorTests {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-10-01T09:00:00Z"));
+    private final InMemoryLeaseStore leaseStore = new InMemoryLeaseStore();
+    private final SchedulerLeaseProperties properties = new SchedulerLeaseProperties();
+
+    private final SchedulerCoordinator nodeA = node("node-a");
+    private final SchedulerCoordinator nodeB = node("node-b");
+    private final SchedulerCoordinator nodeC = node("node-c");
+
+    @Test
+    void singleNodeLeasesEveryPartition() {
+        nodeA.heartbeat();
+
+        Assertions.assertTrue(nodeA.ownedPartitions().isAll());
+    }
+
+    @Test
+    void joiningNodesGetTheirShareAndNoPartitionIsLeasedTwice() {
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        nodeC.heartbeat();
+        // A and B give back what is above ceil(16 / 3), C takes it
+        heartbeats(nodeA, nodeB, nodeC);
+
+        assertPartitionedOnce(nodeA, nodeB, nodeC);
+        Assertions.assertEquals(List.of(6, 6, 4), List.of(owned(nodeA).size(), owned(nodeB).size(), owned(nodeC).size()));
+    }
+
+    @Test
+    void partitionsOfADeadNodeAreTakenOverAfterTheTtl() {
+        heartbeats(nodeA, nodeB);
+        heartbeats(nodeA, nodeB);
+        assertPartitionedOnce(nodeA, nodeB);
+        Set<Integer> ofB = owned(nodeB);
+
+        // B stops heartbeating, A keeps going
+        clock.advance(properties.getHeartbeatInterval());
+        nodeA.heartbeat();
+        Assertions.assertEquals(8, owned(nodeA).size(), "B's leases are still valid");
+        clock.advance(properties.getTtl());
+        nodeA.heartbeat();
+
+        Assertions.assertTrue(nodeA.ownedPartitions().isAll());
+        Assertions.assertTrue(nodeB.ownedPartitions().isEmpty(), "B must not work on " + ofB + " anymore");
+    }
+
+    @Test
+    void shutdownHandsThePartitionsOverAtTheNextHeartbeat() {
+        heartbeats(nodeA, nodeB);
+        heartbeats(nodeA, nodeB);
+
+        nodeB.shutdown();
+        nodeA.heartbeat();
+
+        Assertions.assertTrue(nodeA.ownedPartitions().isAll());
+    }
+
+    @Test
+    void leasesSurviveASchedulerRunSlowerThanTheTtl() throws InterruptedException {
+        SchedulerLeaseProperties shortTtl = new SchedulerLeaseProperties();
+        shortTtl.setTtl(Duration.ofMillis(300));
+        shortTtl.setHeartbeatInterval(Duration.ofMillis(50));
+        SchedulerCoordinator running = new SchedulerCoordinator(leaseStore, shortTtl, Clock.systemUTC(), "node-a",
+                Executors.newSingleThreadScheduledExecutor());
+        running.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!running.ownedPartitions().isAll() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(running.ownedPartitions().isAll());
+
+            // a UserScheduler run three ttls long, this thread stands for Spring's scheduling thread
+            Thread.sleep(shortTtl.getTtl().multipliedBy(3).toMillis());
+
+            Assertions.assertTrue(running.ownedPartitions().isAll(), "the heartbeat thread kept renewing");
+            Assertions.assertFalse(leaseStore.tryAcquire(SchedulerCoordinator.PARTITION_PREFIX + 0, "node-b",
+                    Instant.now(), shortTtl.getTtl()), "no other node can take a partition of the running node");
+        } finally {
+            running.shutdown();
+        }
+    }
+
+    @Test
+    void heartbeatIntervalNotBelowTheTtlRefusesToStart() {
+        properties.setHeartbeatInterval(properties.getTtl());
+
+        Assertions.assertThrows(IllegalStateException.class, nodeA::start);
+    }
+
+    @Test
+    void partitionOfAUserIsTheLowBitsOfItsObjectIdCounter() {
+        ObjectId id = new ObjectId("66f1d1f1a1b2c3d4e5f60718");
+
+        Assertions.assertEquals(0x0718 % 16, UserPartitions.partitionOf(id, 16));
+        Assertions.assertTrue(UserPartitions.of(16, List.of(0x0718 % 16)).contains(id));
+        Assertions.assertFalse(UserPartitions.of(16, List.of(0)).contains(id));
+        Set<Integer> spread = new HashSet<>();
+        IntStream.range(0, 64).forEach(i -> spread.add(UserPartitions.partitionOf(new ObjectId(), 16)));
+        Assertions.assertEquals(16, spread.size(), "consecutive ids fill every partition");
+        Assertions.assertNull(UserPartitions.all().criteria("_id"));
+        Assertions.assertEquals(UserPartitions.of(16, List.of(8)).expression("_id"),
+                ((MongoExpression) UserPartitions.of(16, List.of(8)).criteria("_id").getCriteriaObject().get("$expr")).toDocument());
+    }
+
+    private SchedulerCoordinator node(String nodeId) {
+        // heartbeats are called by hand, start() is never called and the executor never gets a thread
+        return new SchedulerCoordinator(leaseStore, properties, clock, nodeId, Executors.newSingleThreadScheduledExecutor());
+    }
+
+    private void heartbeats(SchedulerCoordinator... nodes) {
+        clock.advance(properties.getHeartbeatInterval());
+        for (SchedulerCoordinator node : nodes) {
+            node.heartbeat();
+        }
+    }
+
+    private void assertPartitionedOnce(SchedulerCoordinator... nodes) {
+        Set<Integer> all = new TreeSet<>();
+        int total = 0;
+        for (SchedulerCoordinator node : nodes) {
+            all.addAll(owned(node));
+            total += owned(node).size();
+        }
+        Assertions.assertEquals(properties.getPartitions(), all.size());
+        Assertions.assertEquals(properties.getPartitions(), total);
+    }
+
+    private static Set<Integer> owned(SchedulerCoordinator node) {
+        return node.ownedPartitions().getPartitions();
+    }
+}
@@ -0,0 +1,71 @@
+package com.mylearning.journalapp.scheduler;
+
+import com.mylearning.journalapp.entity.SentimentData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * KafkaTemplate is a mock whose sends are acknowledged a few milliseconds later, fail, or never complete.
+ */
+class SentimentPublisherTests {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, SentimentData> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+    private final SentimentSchedulerProperties properties = new SentimentSchedulerProperties();
+
+    @Test
+    void sendsOfABatchNeverExceedMaxInFlight() {
+        properties.setMaxInFlight(2);
+        SentimentPublisher publisher = new SentimentPublisher(kafkaTemplate, properties);
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Mockito.when(kafkaTemplate.send(eq(SentimentPublisher.TOPIC), any(SentimentData.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet((Integer) publisher.stats().get("inFlight"), Math::max);
+            return CompletableFuture.supplyAsync(() -> (SendResult<String, SentimentData>) null,
+                    CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS));
+        });
+
+        SentimentPublisher.BatchResult result = publisher.publish(batch(6));
+
+        Assertions.assertEquals(new SentimentPublisher.BatchResult(6, 0), result);
+        Assertions.assertEquals(2, maxInFlight.get());
+        Assertions.assertEquals(0, publisher.stats().get("inFlight"));
+        Mockito.verify(kafkaTemplate, Mockito.times(6)).send(eq(SentimentPublisher.TOPIC), any(SentimentData.class));
+    }
+
+    @Test
+    void failedAndUnacknowledgedSendsAreCountedAsFailed() {
+        properties.setSendTimeout(Duration.ofMillis(100));
+        SentimentPublisher publisher = new SentimentPublisher(kafkaTemplate, properties);
+        Mockito.when(kafkaTemplate.send(eq(SentimentPublisher.TOPIC), any(SentimentData.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenThrow(new IllegalStateException("producer closed"));
+
+        SentimentPublisher.BatchResult result = publisher.publish(batch(4));
+
+        Assertions.assertEquals(new SentimentPublisher.BatchResult(1, 3), result);
+        // the send that never completed keeps its slot
+        Assertions.assertEquals(1, publisher.stats().get("inFlight"));
+        Assertions.assertEquals(3L, publisher.stats().get("failed"));
+    }
+
+    private static List<SentimentData> batch(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> SentimentData.builder().email("user" + i + "@gmail.com").sentiment("Last 7 Days Sentiment :HAPPY").build())
+                .toList();
+    }
+}
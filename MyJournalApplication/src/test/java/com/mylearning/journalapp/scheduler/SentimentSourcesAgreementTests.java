@@ -0,0 +1,121 @@
+package com.mylearning.journalapp.scheduler;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.SentimentData;
+import com.mylearning.journalapp.entity.User;
+import com.mylearning.journalapp.enums.Sentiment;
+import com.mylearning.journalapp.service.SentimentCounterService;
+import com.mylearning.journalapp.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * Both sources of UserScheduler on the same journal entries of a real Mongo: the users must receive the same
+ * weekly sentiment whichever source is configured.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SentimentSourcesAgreementTests {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:7.0.7"));
+
+    private final LocalDate today = LocalDate.now();
+    private final List<SentimentData> published = new ArrayList<>();
+    private final SentimentSchedulerProperties properties = new SentimentSchedulerProperties();
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private SentimentCounterService sentimentCounterService;
+    private int titles;
+
+    @BeforeEach
+    void setUp() {
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+        mongoTemplate.getDb().drop();
+        sentimentCounterService = new SentimentCounterService(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+    }
+
+    @Test
+    void countersAndAggregationSendTheSameSentiment() {
+        // a tie: Sentiment's order says SAD, the alphabetical order would say ANGRY
+        User tie = user("tie");
+        write(tie, today.atTime(10, 0), Sentiment.SAD);
+        write(tie, today.atTime(11, 0), Sentiment.ANGRY);
+        // the evening before the first day of the window is out, a rolling "now - 7 days" would keep it
+        User edge = user("edge");
+        write(edge, today.minusDays(7).atTime(LocalTime.of(23, 59)), Sentiment.ANXIOUS);
+        write(edge, today.minusDays(7).atTime(LocalTime.of(23, 58)), Sentiment.ANXIOUS);
+        write(edge, today.minusDays(6).atTime(0, 1), Sentiment.HAPPY);
+        User plain = user("plain");
+        write(plain, today.minusDays(3).atTime(8, 0), Sentiment.HAPPY);
+        write(plain, today.minusDays(2).atTime(8, 0), Sentiment.HAPPY);
+        write(plain, today.atTime(8, 0), Sentiment.SAD);
+
+        Set<SentimentData> fromCounters = run(SentimentSchedulerProperties.Source.COUNTERS, List.of(tie, edge, plain));
+        Set<SentimentData> fromAggregation = run(SentimentSchedulerProperties.Source.AGGREGATION, List.of(tie, edge, plain));
+
+        Assertions.assertEquals(Set.of(sentiment(tie, Sentiment.SAD), sentiment(edge, Sentiment.HAPPY),
+                sentiment(plain, Sentiment.HAPPY)), fromCounters);
+        Assertions.assertEquals(fromCounters, fromAggregation);
+    }
+
+    private Set<SentimentData> run(SentimentSchedulerProperties.Source source, List<User> users) {
+        properties.setSource(source);
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.getUserForSA(any())).thenReturn(users);
+        SentimentPublisher sentimentPublisher = Mockito.mock(SentimentPublisher.class);
+        Mockito.when(sentimentPublisher.publish(anyList())).thenAnswer(invocation -> {
+            List<SentimentData> batch = invocation.getArgument(0);
+            published.addAll(batch);
+            return new SentimentPublisher.BatchResult(batch.size(), 0);
+        });
+        SchedulerCoordinator schedulerCoordinator = Mockito.mock(SchedulerCoordinator.class);
+        Mockito.when(schedulerCoordinator.ownedPartitions()).thenReturn(UserPartitions.all());
+
+        published.clear();
+        new UserScheduler(userService, sentimentCounterService, new WeeklySentimentAggregation(mongoTemplate, properties),
+                sentimentPublisher, properties, schedulerCoordinator).fetchUserAndSendEmail();
+        return new HashSet<>(published);
+    }
+
+    private User user(String name) {
+        return mongoTemplate.insert(User.builder().userName(name).email(name + "@gmail.com").sentimentAnalysis(true).build());
+    }
+
+    private void write(User owner, LocalDateTime createdOn, Sentiment sentiment) {
+        mongoTemplate.insert(JournalEntry.builder().title("entry-" + ++titles).owner(owner.getId())
+                .createdOn(createdOn).sentiment(sentiment).build());
+        sentimentCounterService.entryAdded(owner.getId(), createdOn, sentiment);
+    }
+
+    private static SentimentData sentiment(User user, Sentiment sentiment) {
+        return new SentimentData(user.getEmail(), "Last 7 Days Sentiment :" + sentiment);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mylearning.journalapp.scheduler;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.SentimentData;
+import com.mylearning.journalapp.entity.User;
+import com.mylearning.journalapp.enums.Sentiment;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+
+class WeeklySentimentAggregationTests {
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(2024, 9, 24, 9, 30);
+
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+    private final WeeklySentimentAggregation aggregation =
+            new WeeklySentimentAggregation(mongoTemplate, new SentimentSchedulerProperties());
+
+    @Test
+    void pipelineRunsWindowGroupSortAndMaxOnTheServer() {
+        List<Document> pipeline = WeeklySentimentAggregation.pipeline(SINCE, UserPartitions.all(), "users");
+
+        Assertions.assertEquals(List.of("$match", "$group", "$sort", "$group", "$lookup", "$unwind", "$project"),
+                pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+        Assertions.assertTrue(pipeline.get(0).get("$match", Document.class).containsKey("createdOn"));
+        Assertions.assertEquals(new Document("_id.owner", 1).append("count", -1).append("rank", 1),
+                pipeline.get(2).get("$sort"));
+        Assertions.assertEquals(new Document("$first", new Document("$indexOfArray",
+                        List.of(List.of("HAPPY", "SAD", "ANGRY", "ANXIOUS"), "$sentiment"))),
+                pipeline.get(1).get("$group", Document.class).get("rank"));
+        List<?> lookupPipeline = pipeline.get(4).get("$lookup", Document.class).getList("pipeline", Document.class);
+        Assertions.assertEquals(new Document("$limit", 1), lookupPipeline.get(lookupPipeline.size() - 1));
+    }
+
+    @Test
+    void rankOfAGroupIsTheDeclarationOrderOfItsSentiment() {
+        Document group = WeeklySentimentAggregation.pipeline(SINCE, UserPartitions.all(), "users").get(1)
+                .get("$group", Document.class);
+        List<?> indexOfArray = group.get("rank", Document.class).get("$first", Document.class)
+                .getList("$indexOfArray", Object.class);
+
+        // accumulators read the grouped journal entries, not the group's _id
+        for (Sentiment sentiment : Sentiment.values()) {
+            Document entry = new Document("_id", new ObjectId()).append("owner", new ObjectId())
+                    .append("createdOn", new Date()).append("sentiment", sentiment.name());
+            Object value = field(entry, (String) indexOfArray.get(1));
+            Assertions.assertEquals(sentiment.ordinal(), ((List<?>) indexOfArray.get(0)).indexOf(value), sentiment.name());
+        }
+        Assertions.assertEquals(group.get("_id", Document.class).get("sentiment"), indexOfArray.get(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void resultIsHandedOverInBatchesReadFromTheCursor() {
+        MongoCollection<Document> journalEntries = Mockito.mock(MongoCollection.class);
+        AggregateIterable<Document> aggregate = Mockito.mock(AggregateIterable.class);
+        MongoCursor<Document> cursor = Mockito.mock(MongoCursor.class);
+        Iterator<Document> results = IntStream.range(0, 5)
+                .mapToObj(i -> new Document("email", "user" + i + "@gmail.com").append("sentiment", "HAPPY"))
+                .iterator();
+        Mockito.when(mongoTemplate.getCollectionName(JournalEntry.class)).thenReturn("journal_entries");
+        Mockito.when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        Mockito.when(mongoTemplate.getCollection("journal_entries")).thenReturn(journalEntries);
+        Mockito.when(journalEntries.aggregate(anyList())).thenReturn(aggregate);
+        Mockito.when(aggregate.allowDiskUse(true)).thenReturn(aggregate);
+        Mockito.when(aggregate.batchSize(2)).thenReturn(aggregate);
+        Mockito.when(aggregate.cursor()).thenReturn(cursor);
+        Mockito.when(cursor.hasNext()).thenAnswer(invocation -> results.hasNext());
+        Mockito.when(cursor.next()).thenAnswer(invocation -> results.next());
+
+        List<Integer> batchSizes = new ArrayList<>();
+        List<SentimentData> published = new ArrayList<>();
+        long users = aggregation.forEachBatch(SINCE, UserPartitions.all(), 2, batch -> {
+            batchSizes.add(batch.size());
+            published.addAll(batch);
+        });
+
+        Assertions.assertEquals(5, users);
+        Assertions.assertEquals(List.of(2, 2, 1), batchSizes);
+        Assertions.assertEquals(new SentimentData("user4@gmail.com", "Last 7 Days Sentiment :HAPPY"), published.get(4));
+        Mockito.verify(cursor).close();
+    }
+
+    private static Object field(Document document, String path) {
+        Object value = document;
+        for (String key : path.substring(1).split("\\.")) {
+            value = value instanceof Document nested ? nested.get(key) : null;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mylearning.journalapp.security;
+
+import com.mylearning.journalapp.cache.InMemoryCacheInvalidationBus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The real DaoAuthenticationProvider with BCrypt behind the cache, the credentials loader is a counting lambda.
+ * Two caches on one InMemoryCacheInvalidationBus act as two nodes.
+ */
+class CachingAuthenticationProviderTests {
+
+    private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder(4);
+    private static final String ENCODED = ENCODER.encode("ram123");
+
+    private final InMemoryCacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+    private final CredentialCacheProperties properties = new CredentialCacheProperties();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final VerifiedCredentialCache cacheA = new VerifiedCredentialCache(properties, bus, nanos::get);
+    private final VerifiedCredentialCache cacheB = new VerifiedCredentialCache(properties, bus, nanos::get);
+    private final CachingAuthenticationProvider nodeA = provider(cacheA);
+    private final CachingAuthenticationProvider nodeB = provider(cacheB);
+
+    @Test
+    void repeatedPasswordSkipsTheLoaderAndBcrypt() {
+        Authentication first = nodeA.authenticate(basic("ram", "ram123"));
+        Authentication second = nodeA.authenticate(basic("ram", "ram123"));
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertTrue(second.isAuthenticated());
+        Assertions.assertEquals("ram", second.getName());
+        Assertions.assertEquals(AuthorityUtils.authorityListToSet(first.getAuthorities()),
+                AuthorityUtils.authorityListToSet(second.getAuthorities()));
+        Assertions.assertEquals(1L, cacheA.stats().get("hits"));
+    }
+
+    @Test
+    void wrongPasswordOfACachedUserStillFailsThroughBcrypt() {
+        nodeA.authenticate(basic("ram", "ram123"));
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> nodeA.authenticate(basic("ram", "ram124")));
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(1L, cacheA.stats().get("mismatches"));
+        nodeA.authenticate(basic("ram", "ram123"));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidationOnOneNodeEvictsEveryNode() {
+        nodeA.authenticate(basic("ram", "ram123"));
+        nodeB.authenticate(basic("ram", "ram123"));
+
+        cacheA.invalidate("ram");
+
+        nodeA.authenticate(basic("ram", "ram123"));
+        nodeB.authenticate(basic("ram", "ram123"));
+        Assertions.assertEquals(4, loads.get());
+        Assertions.assertEquals(1, bus.getPublished().size());
+        Assertions.assertTrue(bus.getPublished().get(0).endsWith("|" + VerifiedCredentialCache.CACHE_NAME + "|ram"),
+                bus.getPublished().get(0));
+    }
+
+    @Test
+    void verificationRacingAnInvalidationIsNotCached() {
+        long stamp = cacheA.stamp();
+        cacheA.invalidate("ram");
+
+        cacheA.put("ram", "ram123", AuthorityUtils.createAuthorityList("ROLE_USER"), stamp);
+
+        Assertions.assertNull(cacheA.lookup("ram", "ram123"));
+        Assertions.assertEquals(1L, cacheA.stats().get("staleLoadsDropped"));
+    }
+
+    @Test
+    void entryExpiresAfterTheTtl() {
+        nodeA.authenticate(basic("ram", "ram123"));
+
+        nanos.addAndGet(properties.getTtl().plus(Duration.ofSeconds(1)).toNanos());
+
+        nodeA.authenticate(basic("ram", "ram123"));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private CachingAuthenticationProvider provider(VerifiedCredentialCache cache) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(username -> {
+            loads.incrementAndGet();
+            return User.builder().username(username).password(ENCODED).roles("USER").build();
+        });
+        dao.setPasswordEncoder(ENCODER);
+        return new CachingAuthenticationProvider(dao, cache);
+    }
+
+    private static UsernamePasswordAuthenticationToken basic(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mylearning.journalapp.service;
+
+import com.mylearning.journalapp.dto.JournalEntryCursor;
+import com.mylearning.journalapp.entity.JournalEntry;
+import com.mylearning.journalapp.entity.User;
+import com.mylearning.journalapp.enums.Sentiment;
+import com.mylearning.journalapp.exception.InvalidJournalCursorException;
+import com.mylearning.journalapp.repository.JournalEntryRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JournalEntryServiceTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 10, 1, 9, 30, 15, 123_000_000);
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private SentimentCounterService sentimentCounterService;
+
+    private JournalEntryService journalEntryService;
+    private final User user = User.builder().id(new ObjectId()).userName("ram").password("secret").build();
+
+    @BeforeEach
+    void setUp() {
+        journalEntryService = new JournalEntryService(journalEntryRepository, userService, mongoTemplate, sentimentCounterService);
+        when(userService.findByUserName("ram")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void fullPageHandsOutTheCursorOfItsLastEntry() {
+        List<JournalEntry> newestFirst = IntStream.range(0, 3)
+                .mapToObj(i -> JournalEntry.builder().id(new ObjectId()).title("t" + i).createdOn(NOW.minusHours(i)).build())
+                .toList();
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class))).thenReturn(newestFirst);
+
+        JournalEntryService.JournalEntryPage page = journalEntryService.getJournalEntriesPage("ram", null, null, null, 2);
+
+        Assertions.assertEquals(newestFirst.subList(0, 2), page.entries());
+        Assertions.assertEquals(JournalEntryCursor.after(newestFirst.get(1)), JournalEntryCursor.decode(page.nextCursor()));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(JournalEntry.class));
+        Assertions.assertEquals(3, query.getValue().getLimit());
+        Assertions.assertEquals(new Document("createdOn", -1).append("_id", -1), query.getValue().getSortObject());
+        Assertions.assertEquals(new Document("$and", List.of(new Document("owner", user.getId()))),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    void nextPageStartsStrictlyAfterTheCursorWithinTheDateRange() {
+        JournalEntryCursor cursor = new JournalEntryCursor(NOW, new ObjectId());
+        LocalDateTime from = NOW.minusDays(7);
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class))).thenReturn(List.of());
+
+        JournalEntryService.JournalEntryPage page = journalEntryService.getJournalEntriesPage("ram", from, null, cursor.encode(), 20);
+
+        Assertions.assertTrue(page.entries().isEmpty());
+        Assertions.assertNull(page.nextCursor());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(JournalEntry.class));
+        Document keyset = new Document("$or", List.of(
+                new Document("createdOn", new Document("$lt", NOW)),
+                new Document("createdOn", NOW).append("_id", new Document("$lt", cursor.id()))));
+        Assertions.assertEquals(new Document("$and", List.of(
+                        new Document("owner", user.getId()),
+                        new Document("createdOn", new Document("$gte", from)),
+                        keyset)),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    void sentimentChangeAndDeleteMoveTheCounters() {
+        JournalEntry stored = JournalEntry.builder().id(new ObjectId()).title("t").content("c").owner(user.getId())
+                .createdOn(NOW).sentiment(Sentiment.SAD).build();
+        when(journalEntryRepository.findByOwnerAndTitle(user.getId(), "t")).thenReturn(Optional.of(stored));
+        when(journalEntryRepository.save(stored)).thenReturn(stored);
+        when(journalEntryRepository.deleteByOwnerAndTitle(user.getId(), "t")).thenReturn(Optional.of(stored));
+
+        journalEntryService.updateJournalEntryUsingTitleByUsername(
+                JournalEntry.builder().title("t").content("").sentiment(Sentiment.HAPPY).build(), "ram");
+        journalEntryService.deleteJournalEntryUsingTitleByUserName("t", "ram");
+
+        verify(sentimentCounterService).sentimentChanged(user.getId(), NOW, Sentiment.SAD, Sentiment.HAPPY);
+        verify(sentimentCounterService).entryRemoved(user.getId(), NOW, Sentiment.HAPPY);
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        Assertions.assertThrows(InvalidJournalCursorException.class,
+                () -> journalEntryService.getJournalEntriesPage("ram", null, null, "bm90LWEtY3Vyc29y", 20));
+    }
+}
@@ -0,0 +1,90 @@
+package com.mylearning.journalapp.service;
+
+import com.mylearning.journalapp.entity.UserSentimentDay;
+import com.mylearning.journalapp.enums.Sentiment;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SentimentCounterServiceTests {
+
+    private static final LocalDateTime CREATED_ON = LocalDateTime.of(2024, 10, 1, 23, 59);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectId owner = new ObjectId();
+
+    private SentimentCounterService service() {
+        return new SentimentCounterService(mongoTemplate, Clock.fixed(Instant.parse("2024-10-07T12:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void sentimentChangeIsOneUpsertOfBothCountersOnTheDayOfCreation() {
+        service().sentimentChanged(owner, CREATED_ON, Sentiment.SAD, Sentiment.HAPPY);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(UserSentimentDay.class));
+        Assertions.assertEquals(new Document("_id", owner.toHexString() + ":2024-10-01"), query.getValue().getQueryObject());
+        Assertions.assertEquals(new Document("$inc", new Document("counts.SAD", -1L).append("counts.HAPPY", 1L))
+                        .append("$setOnInsert", new Document("owner", owner).append("day", "2024-10-01")),
+                update.getValue().getUpdateObject());
+    }
+
+    @Test
+    void entryWithoutSentimentIsNotCounted() {
+        service().entryAdded(owner, CREATED_ON, null);
+        service().sentimentChanged(owner, CREATED_ON, Sentiment.ANGRY, Sentiment.ANGRY);
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void mostFrequentSentimentSumsTheLastSevenDays() {
+        when(mongoTemplate.find(any(Query.class), eq(UserSentimentDay.class))).thenReturn(List.of(
+                UserSentimentDay.builder().counts(Map.of("SAD", 2L, "HAPPY", 1L)).build(),
+                UserSentimentDay.builder().counts(Map.of("HAPPY", 2L, "ANGRY", 0L)).build()));
+
+        Assertions.assertEquals(Optional.of(Sentiment.HAPPY), service().mostFrequentSentiment(owner));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(UserSentimentDay.class));
+        Assertions.assertEquals(new Document("owner", owner)
+                        .append("day", new Document("$gte", "2024-10-01").append("$lte", "2024-10-07")),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    void tieGoesToTheSentimentDeclaredFirstAndNothingCountedIsEmpty() {
+        when(mongoTemplate.find(any(Query.class), eq(UserSentimentDay.class)))
+                .thenReturn(List.of(UserSentimentDay.builder().counts(Map.of("ANXIOUS", 1L, "SAD", 1L)).build()))
+                .thenReturn(List.of(UserSentimentDay.builder().counts(Map.of("SAD", 0L)).build()));
+
+        Assertions.assertEquals(Optional.of(Sentiment.SAD), service().mostFrequentSentiment(owner));
+        Assertions.assertEquals(Optional.empty(), service().mostFrequentSentiment(owner));
+    }
+}
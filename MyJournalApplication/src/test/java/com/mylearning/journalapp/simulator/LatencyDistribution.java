@@ -0,0 +1,41 @@
+package com.mylearning.journalapp.simulator;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Server side latency the PersonApiSimulator waits before it answers (time to first byte).
+ *
+ * fixed(10ms)                          -> every call 10ms
+ * logNormal(20ms, 0.5)                 -> median 20ms, the usual long right tail of a real service
+ * bimodal(logNormal(5ms, 0.3), fixed(800ms), 0.02)
+ *                                      -> 98% fast, 2% stuck (GC pause, slow Mongo query), the case hedging is for
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    Duration sample(Random random);
+
+    static LatencyDistribution none() {
+        return fixed(Duration.ZERO);
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    /**
+     * Log-normal with the given median (= e^mu) and sigma of the underlying normal, sigma 0.5 gives p99 ~ 3.2 x median.
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double mu = Math.log(Math.max(1, median.toNanos()));
+        return random -> Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Samples slow with probability slowRatio, fast otherwise.
+     */
+    static LatencyDistribution bimodal(LatencyDistribution fast, LatencyDistribution slow, double slowRatio) {
+        return random -> random.nextDouble() < slowRatio ? slow.sample(random) : fast.sample(random);
+    }
+}
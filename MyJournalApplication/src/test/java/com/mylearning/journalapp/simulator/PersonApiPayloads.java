@@ -0,0 +1,206 @@
+package com.mylearning.journalapp.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientresponse.Address;
+import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
+import com.mylearning.journalapp.clientresponse.LoginDto;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonBatchItem;
+import com.mylearning.journalapp.clientresponse.PersonBatchResponse;
+import com.mylearning.journalapp.clientresponse.PersonResource;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Response bodies of the simulated CodeBuffer routes, shaped like PersonController / PublicController render them
+ * (Spring Boot's Jackson defaults, HAL for /search, ObjectId as {"timestamp", "date"}).
+ * The persons are made up from the request (name, age, ids) so every client sees a plausible answer without a store.
+ */
+class PersonApiPayloads {
+
+    private static final List<String> CITIES = List.of("London", "Pune", "Berlin", "Austin");
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration tokenTtl;
+    private final int allPersonCount;
+
+    PersonApiPayloads(Clock clock, Duration tokenTtl, int allPersonCount) {
+        this.objectMapper = halObjectMapper();
+        this.clock = clock;
+        this.tokenTtl = tokenTtl;
+        this.allPersonCount = allPersonCount;
+    }
+
+    static ObjectMapper halObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new Jackson2HalModule())
+                .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                        new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY))
+                .build();
+    }
+
+    /**
+     * An unsigned JWT shaped token with sub and exp, enough for JwtTokenManager to schedule its refresh.
+     */
+    byte[] login(String body) {
+        LoginDto loginDto = read(body, new TypeReference<>() {});
+        long exp = clock.instant().plus(tokenTtl).getEpochSecond();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"" + loginDto.getUsernameOrEmail() + "\",\"exp\":" + exp + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        return write(new JWTAuthResponse(header + "." + payload + ".simulated", "Bearer"));
+    }
+
+    byte[] person(String firstName, int age) {
+        return write(person(new ObjectId(), firstName, age));
+    }
+
+    byte[] personById(String personId) {
+        return write(person(new ObjectId(personId), "john", 30));
+    }
+
+    byte[] personsByName(String name) {
+        return write(IntStream.range(0, 3).mapToObj(i -> person(new ObjectId(), name + i, 30 + i)).toList());
+    }
+
+    byte[] personsByAge(int min, int max) {
+        return write(IntStream.rangeClosed(min, Math.min(max, min + 9)).mapToObj(age -> person(new ObjectId(), "john", age)).toList());
+    }
+
+    byte[] personsByIds(List<String> personIds) {
+        return write(personIds.stream().filter(ObjectId::isValid).map(id -> person(new ObjectId(id), "john", 30)).toList());
+    }
+
+    byte[] searchPage(int page, int size) {
+        List<PersonResource> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PersonResource resource = new PersonResource(person(new ObjectId(), "john" + (page * size + i), 30 + i % 40));
+            resource.add(Link.of("http://localhost:8081/api/person/" + resource.getPersonId().toHexString()));
+            content.add(resource);
+        }
+        long totalElements = 10L * size;
+        PagedModel.PageMetadata metadata = new PagedModel.PageMetadata(size, page, totalElements);
+        return write(PagedModel.of(content, metadata,
+                Link.of("http://localhost:8081/api/person/search?page=" + page + "&size=" + size),
+                Link.of("http://localhost:8081/api/person/search?page=" + (page + 1) + "&size=" + size, "next")));
+    }
+
+    byte[] searchPageWithoutHateoas(int page, int size) {
+        Map<String, Object> pageJson = new LinkedHashMap<>();
+        pageJson.put("content", IntStream.range(0, size).mapToObj(i -> person(new ObjectId(), "john" + i, 30 + i)).toList());
+        pageJson.put("totalElements", 10L * size);
+        pageJson.put("totalPages", 10);
+        pageJson.put("number", page);
+        pageJson.put("size", size);
+        return write(pageJson);
+    }
+
+    byte[] oldestPersonByCity() {
+        return write(CITIES.stream()
+                .map(city -> new Document("_id", city).append("oldestPerson", person(new ObjectId(), "elder", 90)))
+                .toList());
+    }
+
+    byte[] populationByCity() {
+        return write(IntStream.range(0, CITIES.size())
+                .mapToObj(i -> new Document("city", CITIES.get(i)).append("count", 100 - 10 * i))
+                .toList());
+    }
+
+    byte[] allPersons() {
+        return write(allPersonList().stream().map(PersonResource::new).toList());
+    }
+
+    byte[] allPersonsNdjson() {
+        StringBuilder ndjson = new StringBuilder();
+        for (Person person : allPersonList()) {
+            ndjson.append(new String(write(person), StandardCharsets.UTF_8)).append('\n');
+        }
+        return ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    byte[] newPersonId() {
+        return write(new ObjectId());
+    }
+
+    byte[] createdPerson(String body) {
+        Person person = read(body, new TypeReference<>() {});
+        person.setPersonId(new ObjectId());
+        return write(person);
+    }
+
+    byte[] updatedPerson(String body, String personId) {
+        Person person = read(body, new TypeReference<>() {});
+        person.setPersonId(ObjectId.isValid(personId) ? new ObjectId(personId) : new ObjectId());
+        return write(person);
+    }
+
+    byte[] batch(String body) {
+        List<Person> persons = read(body, new TypeReference<>() {});
+        List<PersonBatchItem> items = IntStream.range(0, persons.size())
+                .mapToObj(i -> new PersonBatchItem(i, new ObjectId(), null))
+                .toList();
+        return write(new PersonBatchResponse(persons.size(), persons.size(), 0, items));
+    }
+
+    byte[] error(int status, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("timestamp", clock.instant().toString());
+        error.put("status", status);
+        error.put("message", message);
+        return write(error);
+    }
+
+    private List<Person> allPersonList() {
+        return IntStream.range(0, allPersonCount).mapToObj(i -> person(new ObjectId(), "john" + i, 20 + i % 60)).toList();
+    }
+
+    private static Person person(ObjectId personId, String firstName, int age) {
+        String city = CITIES.get(Math.floorMod(firstName.hashCode(), CITIES.size()));
+        return Person.builder()
+                .personId(personId)
+                .firstName(firstName)
+                .lastName("doe")
+                .age(age)
+                .hobbies(List.of("cricket", "chess"))
+                .addresses(List.of(Address.builder().address1("12 Main Road").address2("Centre").city(city).build()))
+                .build();
+    }
+
+    private <T> T read(String body, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unreadable request body: " + ex.getOriginalMessage(), ex);
+        }
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
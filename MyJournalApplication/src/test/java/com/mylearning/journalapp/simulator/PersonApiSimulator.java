@@ -0,0 +1,346 @@
+package com.mylearning.journalapp.simulator;
+
+import com.mylearning.journalapp.clientconfig.PersonEndpoints;
+import com.mylearning.journalapp.simulator.RecordedRequest.Outcome;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embeddable stand-in for CodeBuffer: the /api/person/** routes of PersonController and the
+ * /api/codebuffer/person/login route of the myjwt PublicController on a loopback Reactor Netty server, no Mongo,
+ * no network. Meant for client tests, load tests and the benchmarks module (published in the test-jar).
+ *
+ *     try (PersonApiSimulator simulator = PersonApiSimulator.start()) {
+ *         simulator.behaviour(SimulatedBehaviour.builder()
+ *                 .latency(LatencyDistribution.bimodal(LatencyDistribution.logNormal(Duration.ofMillis(5), 0.3),
+ *                         LatencyDistribution.fixed(Duration.ofMillis(800)), 0.02))
+ *                 .build());
+ *         simulator.behaviour("GET /api/person/search", SimulatedBehaviour.builder().errorRate(0.1).build());
+ *         ... point person.url at simulator.getPersonUrl() ...
+ *         simulator.getRequests("GET /api/person/{name}/{age}")
+ *     }
+ *
+ * Requests are routed by their PersonEndpoints key, the same key the journal's bulkheads and circuit breaker use,
+ * and that key also selects the SimulatedBehaviour (latency, injected errors, connection resets, slow body).
+ * Latency is a non-blocking delay, thousands of slow requests cost no threads. Behaviours can be changed while a
+ * load test runs. The last maxRecordedRequests requests are kept in the request log.
+ */
+@Slf4j
+public final class PersonApiSimulator implements AutoCloseable {
+
+    public static final String LOGIN_ENDPOINT = "POST /api/codebuffer/person/login";
+
+    private final DisposableServer server;
+    private final PersonApiPayloads payloads;
+    private final Random random;
+    private final Clock clock;
+    private final int maxRecordedRequests;
+
+    private volatile SimulatedBehaviour defaultBehaviour = SimulatedBehaviour.HEALTHY;
+    private final Map<String, SimulatedBehaviour> behaviours = new ConcurrentHashMap<>();
+    private volatile boolean requireBearerToken;
+
+    private final ConcurrentLinkedDeque<RecordedRequest> requests = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recordedCount = new AtomicInteger();
+
+    private PersonApiSimulator(Builder builder) {
+        this.clock = builder.clock;
+        this.random = new Random(builder.seed);
+        this.maxRecordedRequests = builder.maxRecordedRequests;
+        this.requireBearerToken = builder.requireBearerToken;
+        this.payloads = new PersonApiPayloads(builder.clock, builder.tokenTtl, builder.allPersonCount);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(builder.port)
+                .handle(this::handle)
+                .bindNow();
+        log.info("PersonApiSimulator listening on {}", getBaseUrl());
+    }
+
+    public static PersonApiSimulator start() {
+        return builder().start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * http://127.0.0.1:{port}, the base of the login URL.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /**
+     * http://127.0.0.1:{port}/api/person, what person.url points at.
+     */
+    public String getPersonUrl() {
+        return getBaseUrl() + "/api/person";
+    }
+
+    public PersonApiSimulator behaviour(SimulatedBehaviour behaviour) {
+        this.defaultBehaviour = behaviour;
+        return this;
+    }
+
+    /**
+     * Behaviour of one endpoint, e.g. "GET /api/person/{name}/{age}" (see PersonEndpoints), overrides the default.
+     */
+    public PersonApiSimulator behaviour(String endpoint, SimulatedBehaviour behaviour) {
+        behaviours.put(endpoint, behaviour);
+        return this;
+    }
+
+    public PersonApiSimulator requireBearerToken(boolean requireBearerToken) {
+        this.requireBearerToken = requireBearerToken;
+        return this;
+    }
+
+    /**
+     * Back to healthy on every endpoint and an empty request log.
+     */
+    public void reset() {
+        defaultBehaviour = SimulatedBehaviour.HEALTHY;
+        behaviours.clear();
+        clearRequests();
+    }
+
+    public List<RecordedRequest> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    public List<RecordedRequest> getRequests(String endpoint) {
+        return requests.stream().filter(request -> request.endpoint().equals(endpoint)).toList();
+    }
+
+    public void clearRequests() {
+        requests.clear();
+        recordedCount.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        Instant receivedAt = clock.instant();
+        String method = request.method().name();
+        URI uri = URI.create(request.uri());
+        String endpoint = PersonEndpoints.key(method, uri);
+        SimulatedBehaviour behaviour = behaviours.getOrDefault(endpoint, defaultBehaviour);
+        String authorization = request.requestHeaders().get(HttpHeaderNames.AUTHORIZATION);
+        boolean ndjson = String.valueOf(request.requestHeaders().get(HttpHeaderNames.ACCEPT))
+                .contains(MediaType.APPLICATION_NDJSON_VALUE);
+
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8).defaultIfEmpty("")
+                .flatMap(body -> {
+                    Duration latency = behaviour.getLatency().sample(random);
+                    Mono<Void> answer = Mono.defer(() -> {
+                        Answer result = decide(endpoint, uri, body, authorization, ndjson, behaviour);
+                        record(new RecordedRequest(receivedAt, method, request.uri(), endpoint, authorization, body,
+                                latency, result.outcome(), result.status()));
+                        return send(response, result, behaviour);
+                    });
+                    return latency.isZero() || latency.isNegative() ? answer : Mono.delay(latency).then(answer);
+                });
+    }
+
+    private Answer decide(String endpoint, URI uri, String body, String authorization, boolean ndjson,
+                          SimulatedBehaviour behaviour) {
+        if (behaviour.getResetRate() > 0 && random.nextDouble() < behaviour.getResetRate()) {
+            return new Answer(Outcome.RESET, 0, null, null);
+        }
+        if (requireBearerToken && !LOGIN_ENDPOINT.equals(endpoint)
+                && (authorization == null || !authorization.startsWith("Bearer "))) {
+            return json(Outcome.UNAUTHORIZED, 401, payloads.error(401, "Full authentication is required"));
+        }
+        if (behaviour.getErrorRate() > 0 && random.nextDouble() < behaviour.getErrorRate()) {
+            int status = behaviour.getErrorStatus();
+            return json(Outcome.ERROR, status, payloads.error(status, "Simulated failure"));
+        }
+        try {
+            return route(endpoint, uri, body, ndjson);
+        } catch (IllegalArgumentException ex) {
+            return json(Outcome.ERROR, 400, payloads.error(400, ex.getMessage()));
+        }
+    }
+
+    private Answer route(String endpoint, URI uri, String body, boolean ndjson) {
+        Map<String, List<String>> query = new QueryStringDecoder(uri).parameters();
+        String[] path = uri.getPath().split("/");
+        return switch (endpoint) {
+            case LOGIN_ENDPOINT -> json(payloads.login(body));
+            case "GET /api/person" -> json(payloads.personsByName(param(query, "name", "john")));
+            case "POST /api/person" -> json(payloads.newPersonId());
+            case "PUT /api/person" -> json(payloads.updatedPerson(body, param(query, "personId", "")));
+            case "POST /api/person/batch" -> json(Outcome.OK, 201, payloads.batch(body));
+            case "GET /api/person/age" -> json(payloads.personsByAge(Integer.parseInt(param(query, "min", "0")),
+                    Integer.parseInt(param(query, "max", "100"))));
+            case "GET /api/person/search" -> new Answer(Outcome.OK, 200, MediaTypes.HAL_JSON_VALUE,
+                    payloads.searchPage(Integer.parseInt(param(query, "page", "0")), Integer.parseInt(param(query, "size", "5"))));
+            case "GET /api/person/search-no-hateoas" -> new Answer(Outcome.OK, 200, MediaTypes.HAL_JSON_VALUE,
+                    payloads.searchPageWithoutHateoas(Integer.parseInt(param(query, "page", "0")), Integer.parseInt(param(query, "size", "5"))));
+            case "GET /api/person/oldestPerson" -> json(payloads.oldestPersonByCity());
+            case "GET /api/person/populationByCity" -> json(payloads.populationByCity());
+            case "GET /api/person/by-ids" -> json(payloads.personsByIds(
+                    query.getOrDefault("ids", List.of()).stream().flatMap(ids -> Arrays.stream(ids.split(","))).toList()));
+            case "POST /api/person/by-ids" -> json(payloads.personsByIds(idsOf(body)));
+            case "GET /api/person/all-person" -> ndjson
+                    ? new Answer(Outcome.OK, 200, MediaType.APPLICATION_NDJSON_VALUE, payloads.allPersonsNdjson())
+                    : json(payloads.allPersons());
+            case "POST /api/person/create-person-on-status" -> json(Outcome.OK, 201, payloads.createdPerson(body));
+            case "GET /api/person/{personId}" -> ObjectId.isValid(path[3])
+                    ? json(payloads.personById(path[3]))
+                    : json(Outcome.NOT_FOUND, 404, payloads.error(404, "Person not found"));
+            case "DELETE /api/person/{personId}" -> new Answer(Outcome.OK, 204, null, null);
+            case "GET /api/person/{name}/{age}" -> json(payloads.person(path[3], Integer.parseInt(path[4])));
+            default -> json(Outcome.NOT_FOUND, 404, payloads.error(404, "No simulated route for " + endpoint));
+        };
+    }
+
+    private Mono<Void> send(HttpServerResponse response, Answer answer, SimulatedBehaviour behaviour) {
+        if (answer.outcome() == Outcome.RESET) {
+            // SO_LINGER 0 turns the close into a TCP RST, the client sees "connection reset" instead of a clean EOF
+            return response.withConnection(connection -> {
+                connection.channel().config().setOption(ChannelOption.SO_LINGER, 0);
+                connection.channel().close();
+            }).then();
+        }
+        response.status(answer.status());
+        if (answer.body() == null) {
+            return response.send();
+        }
+        response.header(HttpHeaderNames.CONTENT_TYPE, answer.contentType());
+        int chunkBytes = behaviour.getSlowBodyChunkBytes();
+        if (chunkBytes <= 0) {
+            response.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(answer.body().length));
+            return response.sendByteArray(Mono.just(answer.body())).then();
+        }
+        // chunked transfer: the headers go out at once, then one chunk every slowBodyChunkDelay
+        List<byte[]> chunks = new ArrayList<>();
+        for (int offset = 0; offset < answer.body().length; offset += chunkBytes) {
+            chunks.add(Arrays.copyOfRange(answer.body(), offset, Math.min(answer.body().length, offset + chunkBytes)));
+        }
+        return response.send(Flux.fromIterable(chunks)
+                        .delayElements(behaviour.getSlowBodyChunkDelay())
+                        .map(Unpooled::wrappedBuffer), chunk -> true)
+                .then();
+    }
+
+    private void record(RecordedRequest recorded) {
+        requests.addLast(recorded);
+        if (recordedCount.incrementAndGet() > maxRecordedRequests && requests.pollFirst() != null) {
+            recordedCount.decrementAndGet();
+        }
+    }
+
+    private static String param(Map<String, List<String>> query, String name, String defaultValue) {
+        List<String> values = query.get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    private static List<String> idsOf(String body) {
+        String trimmed = body.replaceAll("[\\[\\]\"\\s]", "");
+        return trimmed.isEmpty() ? List.of() : Arrays.asList(trimmed.split(","));
+    }
+
+    private static Answer json(byte[] body) {
+        return json(Outcome.OK, 200, body);
+    }
+
+    private static Answer json(Outcome outcome, int status, byte[] body) {
+        return new Answer(outcome, status, MediaType.APPLICATION_JSON_VALUE, body);
+    }
+
+    private record Answer(Outcome outcome, int status, String contentType, byte[] body) {
+    }
+
+    public static final class Builder {
+        private int port = 0;
+        private long seed = 42;
+        private Clock clock = Clock.systemUTC();
+        private Duration tokenTtl = Duration.ofHours(1);
+        private int allPersonCount = 100;
+        private int maxRecordedRequests = 10_000;
+        private boolean requireBearerToken = true;
+
+        private Builder() {
+        }
+
+        /**
+         * 0 (default) picks a free port.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Seed of the latency / error / reset sampling, same seed and same request order -> same run.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder tokenTtl(Duration tokenTtl) {
+            this.tokenTtl = tokenTtl;
+            return this;
+        }
+
+        public Builder allPersonCount(int allPersonCount) {
+            this.allPersonCount = allPersonCount;
+            return this;
+        }
+
+        public Builder maxRecordedRequests(int maxRecordedRequests) {
+            this.maxRecordedRequests = Math.max(1, maxRecordedRequests);
+            return this;
+        }
+
+        /**
+         * true (default) answers 401 without "Authorization: Bearer ...", like CodeBuffer's security filter chain.
+         */
+        public Builder requireBearerToken(boolean requireBearerToken) {
+            this.requireBearerToken = requireBearerToken;
+            return this;
+        }
+
+        public PersonApiSimulator start() {
+            return new PersonApiSimulator(this);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.mylearning.journalapp.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mylearning.journalapp.clientresponse.JWTAuthResponse;
+import com.mylearning.journalapp.clientresponse.Person;
+import com.mylearning.journalapp.clientresponse.PersonResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+class PersonApiSimulatorTests {
+
+    private static final String BEARER = "Bearer simulated";
+
+    private final PersonApiSimulator simulator = PersonApiSimulator.builder().maxRecordedRequests(5).start();
+    private final ObjectMapper objectMapper = PersonApiPayloads.halObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void loginAndPersonsFollowTheCodeBufferContract() throws Exception {
+        RestClient restClient = restClient();
+
+        JWTAuthResponse token = RestClient.create(simulator.getBaseUrl()).post()
+                .uri("/api/codebuffer/person/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"usernameOrEmail\":\"john\",\"password\":\"secret\"}")
+                .retrieve()
+                .body(JWTAuthResponse.class);
+        String claims = new String(Base64.getUrlDecoder().decode(token.getAccessToken().split("\\.")[1]));
+        Assertions.assertTrue(claims.contains("\"sub\":\"john\"") && claims.contains("\"exp\":"), claims);
+
+        Person person = restClient.get().uri("/jane/25").retrieve().body(Person.class);
+        Assertions.assertEquals("jane", person.getFirstName());
+        Assertions.assertEquals(25, person.getAge());
+
+        PagedModel<PersonResource> page = restClient.get().uri("/search?page=1&size=3").retrieve()
+                .body(new ParameterizedTypeReference<PagedModel<PersonResource>>() {});
+        Assertions.assertEquals(3, page.getContent().size());
+        Assertions.assertEquals(1, page.getMetadata().getNumber());
+
+        List<String> endpoints = simulator.getRequests().stream().map(RecordedRequest::endpoint).toList();
+        Assertions.assertEquals(List.of(PersonApiSimulator.LOGIN_ENDPOINT, "GET /api/person/{name}/{age}",
+                "GET /api/person/search"), endpoints);
+        Assertions.assertEquals(BEARER, simulator.getRequests().get(1).authorization());
+    }
+
+    @Test
+    void missingBearerTokenIsUnauthorized() throws Exception {
+        HttpResponse<String> response = get("/john/30", null);
+
+        Assertions.assertEquals(401, response.statusCode());
+        Assertions.assertEquals(RecordedRequest.Outcome.UNAUTHORIZED, simulator.getRequests().get(0).outcome());
+    }
+
+    @Test
+    void latencyIsInjectedBeforeTheAnswer() throws Exception {
+        simulator.behaviour(SimulatedBehaviour.builder().latency(LatencyDistribution.fixed(Duration.ofMillis(150))).build());
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/populationByCity", BEARER);
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 150);
+        Assertions.assertEquals(Duration.ofMillis(150), simulator.getRequests().get(0).injectedLatency());
+    }
+
+    @Test
+    void errorsAreInjectedPerEndpoint() {
+        simulator.behaviour("GET /api/person/search", SimulatedBehaviour.builder().errorRate(1.0).errorStatus(503).build());
+        RestClient restClient = restClient();
+
+        HttpServerErrorException error = Assertions.assertThrows(HttpServerErrorException.class,
+                () -> restClient.get().uri("/search").retrieve().body(String.class));
+        Assertions.assertEquals(503, error.getStatusCode().value());
+        Assertions.assertEquals("john", restClient.get().uri("/john/30").retrieve().body(Person.class).getFirstName());
+    }
+
+    @Test
+    void resetClosesTheConnectionWithoutAnAnswer() {
+        simulator.behaviour(SimulatedBehaviour.builder().resetRate(1.0).build());
+
+        Assertions.assertThrows(IOException.class, () -> get("/john/30", BEARER));
+        Assertions.assertThrows(ResourceAccessException.class, () -> restClient().get().uri("/john/30").retrieve().body(Person.class));
+        Assertions.assertEquals(RecordedRequest.Outcome.RESET, simulator.getRequests().get(0).outcome());
+    }
+
+    @Test
+    void slowBodyStreamsTheBodyInChunks() throws Exception {
+        simulator.behaviour(SimulatedBehaviour.builder()
+                .slowBodyChunkBytes(64)
+                .slowBodyChunkDelay(Duration.ofMillis(20))
+                .build());
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/oldestPerson", BEARER);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        int chunks = (response.body().length() + 63) / 64;
+        Assertions.assertTrue(chunks > 5, "chunks " + chunks);
+        Assertions.assertTrue(elapsedMillis >= chunks * 20L, "elapsed " + elapsedMillis + " for " + chunks + " chunks");
+        Assertions.assertEquals(4, objectMapper.readTree(response.body()).size());
+    }
+
+    @Test
+    void requestLogKeepsTheLatestRequests() throws Exception {
+        for (int age = 1; age <= 8; age++) {
+            get("/john/" + age, BEARER);
+        }
+
+        List<RecordedRequest> requests = simulator.getRequests();
+        Assertions.assertEquals(5, requests.size());
+        Assertions.assertTrue(requests.get(4).uri().endsWith("/john/8"));
+
+        simulator.reset();
+        Assertions.assertTrue(simulator.getRequests().isEmpty());
+    }
+
+    @Test
+    void latencyDistributionsHaveTheConfiguredShape() {
+        Random random = new Random(7);
+        long[] logNormal = new long[10_000];
+        LatencyDistribution distribution = LatencyDistribution.logNormal(Duration.ofMillis(20), 0.5);
+        for (int i = 0; i < logNormal.length; i++) {
+            logNormal[i] = distribution.sample(random).toNanos();
+        }
+        Arrays.sort(logNormal);
+        double medianMillis = logNormal[logNormal.length / 2] / 1_000_000.0;
+        double p99Millis = logNormal[(int) (logNormal.length * 0.99)] / 1_000_000.0;
+        Assertions.assertEquals(20.0, medianMillis, 1.0);
+        Assertions.assertEquals(20.0 * Math.exp(0.5 * 2.326), p99Millis, 6.0);
+
+        LatencyDistribution bimodal = LatencyDistribution.bimodal(LatencyDistribution.fixed(Duration.ofMillis(5)),
+                LatencyDistribution.fixed(Duration.ofMillis(800)), 0.02);
+        long slow = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bimodal.sample(random).toMillis() == 800) {
+                slow++;
+            }
+        }
+        Assertions.assertEquals(200, slow, 50);
+    }
+
+    private RestClient restClient() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        return RestClient.builder()
+                .baseUrl(simulator.getPersonUrl())
+                .requestFactory(requestFactory)
+                .defaultHeader("Authorization", BEARER)
+                .messageConverters(converters -> converters.add(0, new MappingJackson2HttpMessageConverter(objectMapper)))
+                .build();
+    }
+
+    private HttpResponse<String> get(String path, String authorization) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(simulator.getPersonUrl() + path))
+                .timeout(Duration.ofSeconds(5));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
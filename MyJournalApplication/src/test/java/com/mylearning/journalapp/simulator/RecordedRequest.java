@@ -0,0 +1,18 @@
+package com.mylearning.journalapp.simulator;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * One request seen by the PersonApiSimulator and what it did with it.
+ *
+ * endpoint -> route template as in PersonEndpoints, e.g. "GET /api/person/{name}/{age}"
+ * outcome  -> OK, ERROR (injected error status), RESET (connection reset), UNAUTHORIZED, NOT_FOUND
+ */
+public record RecordedRequest(Instant receivedAt, String method, String uri, String endpoint, String authorization,
+                              String body, Duration injectedLatency, Outcome outcome, int status) {
+
+    public enum Outcome {
+        OK, ERROR, RESET, UNAUTHORIZED, NOT_FOUND
+    }
+}
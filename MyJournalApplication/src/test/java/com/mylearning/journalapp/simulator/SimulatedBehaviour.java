@@ -0,0 +1,40 @@
+package com.mylearning.journalapp.simulator;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * How the PersonApiSimulator answers one endpoint (or every endpoint without an override). Per request, in order:
+ *
+ * 1. wait latency.sample()
+ * 2. with resetRate probability close the connection with a TCP RST, no response at all
+ * 3. with errorRate probability answer errorStatus with a small JSON error body
+ * 4. otherwise answer normally, with slowBodyChunkBytes > 0 the body is streamed in chunks of that size
+ *    slowBodyChunkDelay apart (headers first, so only the body read is slow)
+ */
+@Getter
+@Builder(toBuilder = true)
+public class SimulatedBehaviour {
+
+    public static final SimulatedBehaviour HEALTHY = SimulatedBehaviour.builder().build();
+
+    @Builder.Default
+    private final LatencyDistribution latency = LatencyDistribution.none();
+
+    @Builder.Default
+    private final double errorRate = 0;
+
+    @Builder.Default
+    private final int errorStatus = 503;
+
+    @Builder.Default
+    private final double resetRate = 0;
+
+    @Builder.Default
+    private final int slowBodyChunkBytes = 0;
+
+    @Builder.Default
+    private final Duration slowBodyChunkDelay = Duration.ZERO;
+}